@@ -17,15 +17,19 @@ import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.StringJoiner;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.wikipediacleaner.api.APIFactory;
 import org.wikipediacleaner.api.check.algorithm.CheckErrorAlgorithm;
 import org.wikipediacleaner.api.check.algorithm.CheckErrorAlgorithms;
 import org.wikipediacleaner.api.constants.EnumLanguage;
@@ -35,6 +39,7 @@ import org.wikipediacleaner.api.data.ISBNRange;
 import org.wikipediacleaner.api.data.LinterCategory;
 import org.wikipediacleaner.api.data.Namespace;
 import org.wikipediacleaner.api.data.Page;
+import org.wikipediacleaner.api.dump.MultistreamDumpStore;
 import org.wikipediacleaner.api.impl.CommentManager;
 import org.wikipediacleaner.gui.swing.basic.BasicWorker;
 import org.wikipediacleaner.gui.swing.basic.BasicWorkerListener;
@@ -52,6 +57,7 @@ import org.wikipediacleaner.i18n.GT;
 import org.wikipediacleaner.utils.Configuration;
 import org.wikipediacleaner.utils.ConfigurationConstants;
 import org.wikipediacleaner.utils.ConfigurationValueString;
+import org.wikipediacleaner.utils.metrics.Metrics;
 
 
 /**
@@ -80,6 +86,9 @@ public class Bot implements BasicWorkerListener {
     new Bot(args);
   }
 
+  /** Period for writing metrics (in seconds). */
+  private final static int METRICS_PERIOD = 60;
+
   /** Time limit for bot execution. */
   private Integer timeLimit;
 
@@ -89,9 +98,42 @@ public class Bot implements BasicWorkerListener {
   /** True if login is done */
   private boolean loginDone;
 
+  /** User name, to log in on other wikis */
+  private String userName;
+
+  /** Password, to log in on other wikis */
+  private String password;
+
   /** Actions to be executed */
   private List<Action> actions;
 
+  /** Tasks waiting for their dependencies or for resources */
+  private List<Action> waitingTasks;
+
+  /** Actions running, by worker */
+  private Map<BasicWorker, Action> runningActions;
+
+  /** Identifiers of the tasks already scheduled */
+  private Set<String> scheduledTasks;
+
+  /** Identifiers of the finished tasks */
+  private Set<String> finishedTasks;
+
+  /** True if an action which is not a task is running: nothing else can be started */
+  private boolean barrierRunning;
+
+  /** Wikis on which login is done */
+  private Set<EnumWikipedia> loggedWikis;
+
+  /** Login in progress on other wikis, by worker */
+  private Map<BasicWorker, EnumWikipedia> loginWorkers;
+
+  /** Maximum number of CPU bound tasks running simultaneously */
+  private int maxCpuTasks;
+
+  /** Number of CPU bound tasks running */
+  private int runningCpuTasks;
+
   /** List of additional algorithms */
   private List<CheckErrorAlgorithm> additionalAlgorithms;
 
@@ -117,6 +159,7 @@ public class Bot implements BasicWorkerListener {
     timeLimit = null;
     String credentials = null;
     String prefix = null;
+    File localDump = null;
     while (!done) {
       if (args.length > currentArg) {
         String arg = args[currentArg];
@@ -131,6 +174,21 @@ public class Bot implements BasicWorkerListener {
           }
           credentials = args[currentArg + 1];
           currentArg += 2;
+        } else if ("-localDump".equals(arg)) {
+          if (args.length <= currentArg + 1) {
+            log.warn("When using parameter '-localDump', you must specify the multistream dump to use when pages can't be retrieved");
+            return;
+          }
+          localDump = new File(args[currentArg + 1]);
+          currentArg += 2;
+        } else if ("-metrics".equals(arg)) {
+          if (args.length <= currentArg + 1) {
+            log.warn("When using parameter '-metrics', you must specify the file in which metrics are written");
+            return;
+          }
+          Metrics.registerMBean();
+          Metrics.startReport(new File(args[currentArg + 1]), METRICS_PERIOD);
+          currentArg += 2;
         } else if ("-prefix".equals(arg)) {
           if (args.length <= currentArg + 1) {
             log.warn("When using parameter '-prefix', you must specify the prefix used for the comments");
@@ -138,6 +196,13 @@ public class Bot implements BasicWorkerListener {
           }
           prefix = args[currentArg + 1].replaceAll("_", " ");
           currentArg += 2;
+        } else if ("-simulator".equals(arg)) {
+          if (args.length <= currentArg + 1) {
+            log.warn("When using parameter '-simulator', you must specify the URL of the API simulator");
+            return;
+          }
+          APIFactory.useSimulator(args[currentArg + 1]);
+          currentArg += 2;
         } else {
           done = true;
         }
@@ -158,9 +223,18 @@ public class Bot implements BasicWorkerListener {
     }
     currentArg++;
 
+    // Open local dump
+    if ((localDump != null) && (wiki != null)) {
+      try {
+        APIFactory.setLocalDump(wiki, MultistreamDumpStore.open(localDump));
+      } catch (IOException e) {
+        log.warn("Unable to use local dump {}: {}", localDump, e.getMessage());
+      }
+    }
+
     // Retrieve user name and password
-    String userName = null;
-    String password = null;
+    userName = null;
+    password = null;
     if (credentials != null) {
       Properties properties = new Properties();
       try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(credentials), "UTF8"))) {
@@ -184,7 +258,7 @@ public class Bot implements BasicWorkerListener {
     // Retrieve action
     actions = new ArrayList<>();
     if (args.length > currentArg) {
-      actions.add(new Action(Arrays.copyOfRange(args, currentArg, args.length), null));
+      actions.add(new Action(Arrays.copyOfRange(args, currentArg, args.length), null, wiki));
     }
     currentArg++;
 
@@ -199,8 +273,7 @@ public class Bot implements BasicWorkerListener {
     }
 
     // Initialization
-    additionalAlgorithms = new ArrayList<>();
-    namespaces = Collections.singleton(Namespace.MAIN);
+    initializeScheduling();
 
     // Login
     loginDone = false;
@@ -212,17 +285,221 @@ public class Bot implements BasicWorkerListener {
     loginWorker.start();
   }
 
+  /**
+   * Constructor for scheduling actions on a wiki on which login is already done.
+   * 
+   * @param wiki Wiki.
+   */
+  Bot(EnumWikipedia wiki) {
+    this.wiki = wiki;
+    this.actions = new ArrayList<>();
+    initializeScheduling();
+    loginDone = true;
+    loggedWikis.add(wiki);
+  }
+
+  /**
+   * Initialize the scheduling of the actions.
+   */
+  private void initializeScheduling() {
+    additionalAlgorithms = new ArrayList<>();
+    namespaces = Collections.singleton(Namespace.MAIN);
+    waitingTasks = new ArrayList<>();
+    runningActions = new HashMap<>();
+    scheduledTasks = new HashSet<>();
+    finishedTasks = new HashSet<>();
+    barrierRunning = false;
+    loggedWikis = new HashSet<>();
+    loginWorkers = new HashMap<>();
+    maxCpuTasks = 1;
+    runningCpuTasks = 0;
+  }
+
+  /**
+   * @param action Action to add at the end of the actions to be executed.
+   */
+  void addAction(Action action) {
+    actions.add(action);
+  }
+
+  /**
+   * Schedule the actions.
+   * 
+   * <p>
+   * Actions are executed in order, except tasks (<code>Task</code> actions)
+   * which are executed concurrently once their dependencies are finished.
+   * Any other action is a barrier: it waits for all previous actions,
+   * and the following actions wait for it.
+   * Each action keeps the context (namespaces, range, ...) set before it in the list of actions,
+   * whatever the moment it's actually executed.
+   * </p>
+   */
+  void scheduleActions() {
+    boolean progress = true;
+    while (progress) {
+      progress = false;
+
+      // Read actions until a barrier is reached
+      while (!barrierRunning && !actions.isEmpty()) {
+        Action action = actions.get(0);
+        if ((action.action != null) && action.action.startsWith("#")) {
+          actions.remove(0);
+        } else if (action.isTask()) {
+          takeAction();
+          scheduleTask(action);
+          progress = true;
+        } else if (runningActions.isEmpty() && waitingTasks.isEmpty()) {
+          if ((action.wiki != null) && !loggedWikis.contains(action.wiki)) {
+            login(action.wiki);
+            break;
+          }
+          takeAction();
+          BasicWorker worker = executeAction(action);
+          if (worker != null) {
+            startAction(worker, action);
+            barrierRunning = true;
+          }
+        } else {
+          break;
+        }
+      }
+
+      // Start tasks which are ready
+      Iterator<Action> itTask = waitingTasks.iterator();
+      while (!barrierRunning && itTask.hasNext()) {
+        Action task = itTask.next();
+        if (!finishedTasks.containsAll(task.dependencies) ||
+            (task.cpuBound && (runningCpuTasks >= maxCpuTasks))) {
+          continue;
+        }
+        if (!loggedWikis.contains(task.wiki)) {
+          login(task.wiki);
+          continue;
+        }
+        itTask.remove();
+        BasicWorker worker = executeAction(task);
+        if (worker != null) {
+          startAction(worker, task);
+          if (task.cpuBound) {
+            runningCpuTasks++;
+          }
+        } else {
+          finishTask(task);
+          progress = true;
+        }
+      }
+    }
+
+    // Exit when everything is done
+    if (actions.isEmpty() && waitingTasks.isEmpty() &&
+        runningActions.isEmpty() && loginWorkers.isEmpty()) {
+      exit(0);
+    }
+  }
+
+  /**
+   * Remove the next action from the list of actions to be executed,
+   * and give it the current context.
+   * 
+   * @return Next action.
+   */
+  private Action takeAction() {
+    Action action = actions.remove(0);
+    action.setContext(namespaces, rangeBegin, rangeEnd, additionalAlgorithms);
+    return action;
+  }
+
+  /**
+   * Stop the bot.
+   * 
+   * @param status Exit status.
+   */
+  void exit(int status) {
+    Metrics.stopReport();
+    System.exit(status);
+  }
+
+  /**
+   * Schedule a task.
+   * 
+   * @param task Task.
+   */
+  private void scheduleTask(Action task) {
+    if (!task.isOk()) {
+      log.warn("Incorrect task {}", task.fullAction);
+      return;
+    }
+    Iterator<String> itDependency = task.dependencies.iterator();
+    while (itDependency.hasNext()) {
+      String dependency = itDependency.next();
+      if (!scheduledTasks.contains(dependency)) {
+        log.warn("Task {} depends on unknown task {}", task.fullAction, dependency);
+        itDependency.remove();
+      }
+    }
+    if (task.taskId != null) {
+      if (!scheduledTasks.add(task.taskId)) {
+        log.warn("Task identifier {} is used several times", task.taskId);
+      }
+    }
+    waitingTasks.add(task);
+  }
+
+  /**
+   * Start a worker for an action.
+   * 
+   * @param worker Worker.
+   * @param action Action.
+   */
+  private void startAction(BasicWorker worker, Action action) {
+    log.info("Running task {}", action.fullAction);
+    runningActions.put(worker, action);
+    worker.setListener(this);
+    worker.setTimeLimit(timeLimit);
+    worker.start();
+  }
+
+  /**
+   * Record that a task is finished.
+   * 
+   * @param task Task.
+   */
+  private void finishTask(Action task) {
+    if (task.taskId != null) {
+      finishedTasks.add(task.taskId);
+    }
+  }
+
+  /**
+   * Log in on an other wiki, with the same credentials.
+   * 
+   * @param loginWiki Wiki.
+   */
+  private void login(EnumWikipedia loginWiki) {
+    if (loginWorkers.containsValue(loginWiki)) {
+      return;
+    }
+    LoginWorker loginWorker = new LoginWorker(
+        loginWiki, null, null, EnumLanguage.getDefaultLanguage(),
+        userName, password.toCharArray(),
+        ConfigurationConstants.VALUE_SAVE_USER_NO_CHANGE, true, false);
+    loginWorkers.put(loginWorker, loginWiki);
+    loginWorker.setListener(this);
+    loginWorker.start();
+  }
+
   /**
    * Execute an action.
    * 
    * @param actionConfig Action and its configuration.
+   * @return Worker to be started for the action, null if the action is already done.
    */
-  void executeAction(Action actionConfig) {
+  BasicWorker executeAction(Action actionConfig) {
 
     // Retrieve action
     String action = actionConfig.action;
     if (action == null) {
-      return;
+      return null;
     }
 
     // Execute action depending on the parameters
@@ -230,20 +507,22 @@ public class Bot implements BasicWorkerListener {
     boolean actionDone = false;
     if (action.startsWith("#")) {
       actionDone = true;
+    } else if ("Wait".equalsIgnoreCase(action)) {
+      actionDone = true;
     } else if ("DoTasks".equalsIgnoreCase(action)) {
       actionDone = executeDoTasks(actionConfig);
     } else if ("UpdateDabWarnings".equalsIgnoreCase(action)) {
       worker = executeUpdateDabWarning(actionConfig);
     } else if ("UpdateISBNWarnings".equalsIgnoreCase(action)) {
-      worker = new UpdateISBNWarningWorker(wiki, null, false);
+      worker = new UpdateISBNWarningWorker(actionConfig.wiki, null, false);
     } else if ("ListISBNWarnings".equalsIgnoreCase(action)) {
-      worker = new UpdateISBNWarningWorker(wiki, null, true);
+      worker = new UpdateISBNWarningWorker(actionConfig.wiki, null, true);
     } else if ("UpdateISSNWarnings".equalsIgnoreCase(action)) {
-      worker = new UpdateISSNWarningWorker(wiki, null, false);
+      worker = new UpdateISSNWarningWorker(actionConfig.wiki, null, false);
     } else if ("ListISSNWarnings".equalsIgnoreCase(action)) {
-      worker = new UpdateISSNWarningWorker(wiki, null, true);
+      worker = new UpdateISSNWarningWorker(actionConfig.wiki, null, true);
     } else if ("UpdateDuplicateArgsWarnings".equalsIgnoreCase(action)) {
-      worker = new UpdateDuplicateArgsWarningWorker(wiki, null, false);
+      worker = new UpdateDuplicateArgsWarningWorker(actionConfig.wiki, null, false);
     } else if ("FixCheckWiki".equalsIgnoreCase(action)) {
       worker = executeFixCheckWiki(actionConfig);
     } else if ("FixListCheckWiki".equalsIgnoreCase(action)) {
@@ -260,18 +539,10 @@ public class Bot implements BasicWorkerListener {
       actionDone = executeSet(actionConfig);
     }
 
-    // Execute action
-    if (worker != null) {
-      log.info("Running task {}", actionConfig.fullAction);
-      worker.setListener(this);
-      worker.setTimeLimit(timeLimit);
-      worker.start();
-    } else if (!actions.isEmpty()) {
-      if (!actionDone) {
-        log.warn("Unknown task {}", actionConfig.fullAction);
-      }
-      executeAction(actions.remove(0));
+    if ((worker == null) && !actionDone) {
+      log.warn("Unknown task {}", actionConfig.fullAction);
     }
+    return worker;
   }
 
   /**
@@ -292,7 +563,7 @@ public class Bot implements BasicWorkerListener {
           if (line.trim().length() > 0) {
             String[] tmpArgs = line.split(" +");
             if ((tmpArgs != null) && (tmpArgs.length > 0)) {
-              actions.add(actionNum, new Action(tmpArgs, tasks.getParentFile()));
+              actions.add(actionNum, new Action(tmpArgs, tasks.getParentFile(), actionConfig.wiki));
               actionNum++;
             }
           }
@@ -322,7 +593,7 @@ public class Bot implements BasicWorkerListener {
         start = actionConfig.actionArgs[0];
       }
     }
-    return new UpdateDabWarningWorker(wiki, null, start);
+    return new UpdateDabWarningWorker(actionConfig.wiki, null, start);
   }
 
   /**
@@ -335,11 +606,11 @@ public class Bot implements BasicWorkerListener {
     List<CheckErrorAlgorithm> algorithms = new ArrayList<CheckErrorAlgorithm>();
     List<CheckErrorAlgorithm> allAlgorithms = new ArrayList<CheckErrorAlgorithm>();
     if (actionConfig.actionArgs.length > 0) {
-      extractAlgorithms(algorithms, allAlgorithms, actionConfig.actionArgs, 0);
+      extractAlgorithms(actionConfig, algorithms, allAlgorithms, actionConfig.actionArgs, 0);
     }
     AutomaticCWWorker worker = new AutomaticCWWorker(
-        wiki, null, algorithms, 10000, true, allAlgorithms, null, true, false);
-    worker.setRange(rangeBegin, rangeEnd);
+        actionConfig.wiki, null, algorithms, 10000, true, allAlgorithms, null, true, false);
+    worker.setRange(actionConfig.rangeBegin, actionConfig.rangeEnd);
     return worker;
  }
 
@@ -352,18 +623,18 @@ public class Bot implements BasicWorkerListener {
   private BasicWorker executeFixListCheckWiki(Action actionConfig) {
     Page page = null;
     if (actionConfig.actionArgs.length > 0) {
-      page = DataManager.getPage(wiki, actionConfig.actionArgs[0], null, null, null);
+      page = DataManager.getPage(actionConfig.wiki, actionConfig.actionArgs[0], null, null, null);
     }
     List<CheckErrorAlgorithm> algorithms = new ArrayList<CheckErrorAlgorithm>();
     List<CheckErrorAlgorithm> allAlgorithms = new ArrayList<CheckErrorAlgorithm>();
     if (actionConfig.actionArgs.length > 1) {
-      extractAlgorithms(algorithms, allAlgorithms, actionConfig.actionArgs, 1);
+      extractAlgorithms(actionConfig, algorithms, allAlgorithms, actionConfig.actionArgs, 1);
     }
     AutomaticListCWWorker worker = new AutomaticListCWWorker(
-        wiki, null, page,
-        algorithms, allAlgorithms, namespaces,
+        actionConfig.wiki, null, page,
+        algorithms, allAlgorithms, actionConfig.namespaces,
         null, true, false);
-    worker.setRange(rangeBegin, rangeEnd);
+    worker.setRange(actionConfig.rangeBegin, actionConfig.rangeEnd);
     return worker;
   }
 
@@ -381,13 +652,13 @@ public class Bot implements BasicWorkerListener {
     List<CheckErrorAlgorithm> algorithms = new ArrayList<CheckErrorAlgorithm>();
     List<CheckErrorAlgorithm> allAlgorithms = new ArrayList<CheckErrorAlgorithm>();
     if (actionConfig.actionArgs.length > 1) {
-      extractAlgorithms(algorithms, allAlgorithms, actionConfig.actionArgs, 1);
+      extractAlgorithms(actionConfig, algorithms, allAlgorithms, actionConfig.actionArgs, 1);
     }
     AutomaticFileCWWorker worker = new AutomaticFileCWWorker(
-        wiki, null, path,
-        algorithms, allAlgorithms, namespaces,
+        actionConfig.wiki, null, path,
+        algorithms, allAlgorithms, actionConfig.namespaces,
         null, true, false);
-    worker.setRange(rangeBegin, rangeEnd);
+    worker.setRange(actionConfig.rangeBegin, actionConfig.rangeEnd);
     return worker;
   }
 
@@ -402,7 +673,7 @@ public class Bot implements BasicWorkerListener {
       return null;
     }
     String categoryName = actionConfig.actionArgs[0];
-    List<LinterCategory> categories = wiki.getWikiConfiguration().getLinterCategories();
+    List<LinterCategory> categories = actionConfig.wiki.getWikiConfiguration().getLinterCategories();
     if (categories == null) {
       return null;
     }
@@ -418,13 +689,13 @@ public class Bot implements BasicWorkerListener {
     List<CheckErrorAlgorithm> algorithms = new ArrayList<CheckErrorAlgorithm>();
     List<CheckErrorAlgorithm> allAlgorithms = new ArrayList<CheckErrorAlgorithm>();
     if (actionConfig.actionArgs.length > 1) {
-      extractAlgorithms(algorithms, allAlgorithms, actionConfig.actionArgs, 1);
+      extractAlgorithms(actionConfig, algorithms, allAlgorithms, actionConfig.actionArgs, 1);
     }
     AutomaticLintErrorWorker worker = new AutomaticLintErrorWorker(
-        wiki, null, category,
-        algorithms, allAlgorithms, namespaces,
+        actionConfig.wiki, null, category,
+        algorithms, allAlgorithms, actionConfig.namespaces,
         null, true, false);
-    worker.setRange(rangeBegin, rangeEnd);
+    worker.setRange(actionConfig.rangeBegin, actionConfig.rangeEnd);
     return worker;
   }
 
@@ -438,10 +709,10 @@ public class Bot implements BasicWorkerListener {
     List<CheckErrorAlgorithm> algorithms = new ArrayList<CheckErrorAlgorithm>();
     List<CheckErrorAlgorithm> allAlgorithms = new ArrayList<CheckErrorAlgorithm>();
     if (actionConfig.actionArgs.length > 0) {
-      extractAlgorithms(algorithms, allAlgorithms, actionConfig.actionArgs, 0);
+      extractAlgorithms(actionConfig, algorithms, allAlgorithms, actionConfig.actionArgs, 0);
     }
     AutomaticCWWorker worker = new AutomaticCWWorker(
-        wiki, null, algorithms, 10000, true, allAlgorithms, null, false, false);
+        actionConfig.wiki, null, algorithms, 10000, true, allAlgorithms, null, false, false);
     return worker;
   }
 
@@ -458,6 +729,7 @@ public class Bot implements BasicWorkerListener {
     int currentArg = 0;
     boolean check = true;
     boolean onlyRecheck = false;
+    File detectionIndex = null;
     boolean optionsFinished = false;
     while (!optionsFinished && (actionArgs.length > currentArg)) {
       if ("-nocheck".equalsIgnoreCase(actionArgs[currentArg])) {
@@ -466,6 +738,10 @@ public class Bot implements BasicWorkerListener {
       } else if ("-onlyRecheck".equalsIgnoreCase(actionArgs[currentArg])) {
         onlyRecheck = true;
         currentArg++;
+      } else if ("-index".equalsIgnoreCase(actionArgs[currentArg]) &&
+                 (actionArgs.length > currentArg + 1)) {
+        detectionIndex = new File(actionArgs[currentArg + 1]);
+        currentArg += 2;
       } else {
         optionsFinished = true;
       }
@@ -475,17 +751,21 @@ public class Bot implements BasicWorkerListener {
     if (actionArgs.length > currentArg + 2) {
       File dumpFile = getDumpFile(actionArgs[currentArg]);
       List<CheckErrorAlgorithm> algorithms = new ArrayList<CheckErrorAlgorithm>();
-      extractAlgorithms(algorithms, null, actionArgs, currentArg + 2);
+      extractAlgorithms(actionConfig, algorithms, null, actionArgs, currentArg + 2);
+      ListCWWorker worker = null;
       if (actionArgs[currentArg + 1].startsWith("wiki:")) {
         String pageName = actionArgs[currentArg + 1].substring(5);
-        return new ListCWWorker(
-            wiki, null, dumpFile, pageName,
-            algorithms, namespaces, check, onlyRecheck);
+        worker = new ListCWWorker(
+            actionConfig.wiki, null, dumpFile, pageName,
+            algorithms, actionConfig.namespaces, check, onlyRecheck);
+      } else {
+        File output = new File(actionArgs[currentArg + 1]);
+        worker = new ListCWWorker(
+            actionConfig.wiki, null, dumpFile, output,
+            algorithms, actionConfig.namespaces, check);
       }
-      File output = new File(actionArgs[currentArg + 1]);
-      return new ListCWWorker(
-          wiki, null, dumpFile, output,
-          algorithms, namespaces, check);
+      worker.setDetectionIndex(detectionIndex);
+      return worker;
     }
 
     return null;
@@ -506,10 +786,11 @@ public class Bot implements BasicWorkerListener {
 
     // Set AdditionalAlgorithms
     if ("AdditionalAlgorithms".equalsIgnoreCase(parameter)) {
-      additionalAlgorithms.clear();
+      List<CheckErrorAlgorithm> tmpAlgorithms = new ArrayList<>();
       if (actionArgs.length > 1) {
-        extractAlgorithms(additionalAlgorithms, null, actionArgs, 1);
+        extractAlgorithms(actionConfig, tmpAlgorithms, null, actionArgs, 1);
       }
+      additionalAlgorithms = tmpAlgorithms;
       return true;
     }
 
@@ -522,6 +803,18 @@ public class Bot implements BasicWorkerListener {
       return true;
     }
 
+    // Set MaxCpuTasks
+    if ("MaxCpuTasks".equalsIgnoreCase(parameter)) {
+      if (actionArgs.length > 1) {
+        try {
+          maxCpuTasks = Math.max(1, Integer.parseInt(actionArgs[1]));
+        } catch (NumberFormatException e) {
+          log.warn("Incorrect number of CPU bound tasks {}", actionArgs[1]);
+        }
+      }
+      return true;
+    }
+
     // Set Namespaces
     if ("Namespaces".equalsIgnoreCase(parameter)) {
       namespaces = new HashSet<>();
@@ -551,29 +844,34 @@ public class Bot implements BasicWorkerListener {
       if (actionArgs.length > 1) {
         rangeBegin = actionArgs[1];
       }
+      return true;
     }
     if ("RangeEnd".equalsIgnoreCase(parameter)) {
       rangeEnd = null;
       if (actionArgs.length > 1) {
         rangeEnd = actionArgs[1];
       }
+      return true;
     }
 
     return false;
   }
 
   /**
+   * @param actionConfig Action for which algorithms are extracted.
    * @param algorithms List of selected algorithms.
    * @param allAlgorithms List of all possible algorithms.
    * @param args Arguments.
    * @param startIndex Start index in the arguments.
    */
   private void extractAlgorithms(
+      Action actionConfig,
       List<CheckErrorAlgorithm> algorithms,
       List<CheckErrorAlgorithm> allAlgorithms,
       String[] args, int startIndex) {
 
     // Create list based on arguments
+    EnumWikipedia wiki = actionConfig.wiki;
     for (int i = startIndex; i < args.length; i++) {
       boolean addition = false;
       String algorithmNumber = args[i];
@@ -613,9 +911,11 @@ public class Bot implements BasicWorkerListener {
     }
 
     // Add additional algorithms
-    if (allAlgorithms != null) {
-      for (CheckErrorAlgorithm algorithm : additionalAlgorithms) {
-        if (!allAlgorithms.contains(algorithm)) {
+    if ((allAlgorithms != null) && (actionConfig.additionalAlgorithms != null)) {
+      for (CheckErrorAlgorithm additionalAlgorithm : actionConfig.additionalAlgorithms) {
+        CheckErrorAlgorithm algorithm = CheckErrorAlgorithms.getAlgorithm(
+            wiki, additionalAlgorithm.getErrorNumber());
+        if ((algorithm != null) && !allAlgorithms.contains(algorithm)) {
           allAlgorithms.add(algorithm);
         }
       }
@@ -694,22 +994,41 @@ public class Bot implements BasicWorkerListener {
   public void afterFinished(BasicWorker worker, boolean ok) {
     if (!ok) {
       log.error("Task finished in error, exiting");
-      System.exit(1);
+      exit(1);
+      return;
     }
     if (!loginDone) {
       loginDone = true;
+      loggedWikis.add(wiki);
     }
-    if (actions.isEmpty()) {
-      System.exit(0);
+    EnumWikipedia loginWiki = loginWorkers.remove(worker);
+    if (loginWiki != null) {
+      loggedWikis.add(loginWiki);
     }
-    Action currentAction = actions.remove(0);
-    executeAction(currentAction);
+    Action action = runningActions.remove(worker);
+    if (action != null) {
+      if (action.isTask()) {
+        finishTask(action);
+        if (action.cpuBound) {
+          runningCpuTasks--;
+        }
+      } else {
+        barrierRunning = false;
+      }
+    }
+    scheduleActions();
   }
 
   /**
    * Bean for an action.
+   * 
+   * <p>
+   * An action prefixed by <code>Task [-id &lt;id&gt;] [-after &lt;id&gt;,...] [-wiki &lt;code&gt;] [-cpu]</code>
+   * is a task, executed concurrently with other tasks once the tasks it depends on are finished.
+   * <code>Set</code> actions are never tasks, as they modify the context of the following actions.
+   * </p>
    */
-  private static class Action {
+  static class Action {
 
     /** Action itself */
     public final String action;
@@ -723,17 +1042,88 @@ public class Bot implements BasicWorkerListener {
     /** Base directory */
     public final File baseDir;
 
+    /** Wiki on which the action is executed */
+    public final EnumWikipedia wiki;
+
+    /** True if the action is a task */
+    private final boolean task;
+
+    /** Identifier of the task */
+    public final String taskId;
+
+    /** Identifiers of the tasks which must be finished before the task */
+    public final Set<String> dependencies;
+
+    /** True if the task is CPU bound */
+    public final boolean cpuBound;
+
+    /** List of namespaces */
+    public Set<Integer> namespaces;
+
+    /** To work only on pages with titles after the beginning of the range */
+    public String rangeBegin;
+
+    /** To work only on pages with titles before the end of the range */
+    public String rangeEnd;
+
+    /** List of additional algorithms */
+    public List<CheckErrorAlgorithm> additionalAlgorithms;
+
     /**
      * Constructor.
      * 
      * @param args List of arguments for the action.
      * @param baseDir Base directory.
+     * @param defaultWiki Wiki on which the action is executed by default.
      */
-    public Action(String[] args, File baseDir) {
-      this.action = (args != null) && (args.length > 0) ?
-          args[0] : null;
-      this.actionArgs = (args != null) && (args.length > 1) ?
-          Arrays.copyOfRange(args, 1, args.length) : new String[0];
+    public Action(String[] args, File baseDir, EnumWikipedia defaultWiki) {
+
+      // Analyze task options
+      int first = 0;
+      boolean tmpTask = false;
+      String tmpTaskId = null;
+      Set<String> tmpDependencies = new HashSet<>();
+      EnumWikipedia tmpWiki = defaultWiki;
+      boolean tmpCpuBound = false;
+      if ((args != null) && (args.length > 0) && "Task".equalsIgnoreCase(args[0])) {
+        tmpTask = true;
+        first = 1;
+        boolean optionsFinished = false;
+        while (!optionsFinished && (args.length > first)) {
+          if ("-id".equalsIgnoreCase(args[first]) && (args.length > first + 1)) {
+            tmpTaskId = args[first + 1];
+            first += 2;
+          } else if ("-after".equalsIgnoreCase(args[first]) && (args.length > first + 1)) {
+            for (String dependency : args[first + 1].split(",")) {
+              if (!dependency.isEmpty()) {
+                tmpDependencies.add(dependency);
+              }
+            }
+            first += 2;
+          } else if ("-wiki".equalsIgnoreCase(args[first]) && (args.length > first + 1)) {
+            tmpWiki = EnumWikipedia.getWikipedia(args[first + 1]);
+            if ((tmpWiki != null) && !args[first + 1].equals(tmpWiki.getSettings().getCode())) {
+              tmpWiki = null;
+            }
+            first += 2;
+          } else if ("-cpu".equalsIgnoreCase(args[first])) {
+            tmpCpuBound = true;
+            first++;
+          } else {
+            optionsFinished = true;
+          }
+        }
+      }
+      this.taskId = tmpTaskId;
+      this.dependencies = tmpDependencies;
+      this.wiki = tmpWiki;
+
+      this.action = (args != null) && (args.length > first) ?
+          args[first] : null;
+      this.task = tmpTask && !"Set".equalsIgnoreCase(action);
+      this.actionArgs = (args != null) && (args.length > first + 1) ?
+          Arrays.copyOfRange(args, first + 1, args.length) : new String[0];
+      this.cpuBound = tmpCpuBound || "ListCheckWiki".equalsIgnoreCase(action);
       StringJoiner fullActionJoiner = new StringJoiner(" ");
       if (args != null) {
         for (String arg : args) {
@@ -744,11 +1134,36 @@ public class Bot implements BasicWorkerListener {
       this.baseDir = baseDir;
     }
 
+    /**
+     * Keep the context in which the action is executed.
+     * 
+     * @param contextNamespaces List of namespaces.
+     * @param contextRangeBegin Beginning of the range of titles.
+     * @param contextRangeEnd End of the range of titles.
+     * @param contextAlgorithms List of additional algorithms.
+     */
+    void setContext(
+        Set<Integer> contextNamespaces,
+        String contextRangeBegin, String contextRangeEnd,
+        List<CheckErrorAlgorithm> contextAlgorithms) {
+      this.namespaces = Collections.unmodifiableSet(new HashSet<>(contextNamespaces));
+      this.rangeBegin = contextRangeBegin;
+      this.rangeEnd = contextRangeEnd;
+      this.additionalAlgorithms = Collections.unmodifiableList(new ArrayList<>(contextAlgorithms));
+    }
+
     /**
      * @return True if the action is OK.
      */
     public boolean isOk() {
-      return (action != null);
+      return (action != null) && (wiki != null);
+    }
+
+    /**
+     * @return True if the action is a task.
+     */
+    public boolean isTask() {
+      return task;
     }
 
     /**
@@ -39,6 +39,7 @@ import org.wikipediacleaner.api.algorithm.AlgorithmError;
 import org.wikipediacleaner.api.constants.EnumLanguage;
 import org.wikipediacleaner.api.constants.EnumWikipedia;
 import org.wikipediacleaner.api.data.ISBNRange;
+import org.wikipediacleaner.api.data.LanguageRegistry;
 import org.wikipediacleaner.api.data.analysis.PageAnalysis;
 import org.wikipediacleaner.gui.swing.MainWindow;
 import org.wikipediacleaner.gui.swing.component.CheckThreadViolationRepaintManager;
@@ -167,6 +168,7 @@ public class WikipediaCleaner {
 
     // Various initializations
     ISBNRange.initialize();
+    LanguageRegistry.initializeInBackground();
 
     // Analyze command line arguments
     int currentArg = 0;
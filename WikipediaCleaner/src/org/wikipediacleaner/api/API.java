@@ -321,6 +321,20 @@ public interface API {
   public String getLanguageLink(
       EnumWikipedia from, EnumWikipedia to, String title) throws APIException;
 
+  /**
+   * Retrieve specific language links in a list of pages.
+   * (<code>action=query</code>, <code>prop=langlinks</code>).
+   * 
+   * @param from Wiki in which the articles are.
+   * @param to Wiki to which the links are searched.
+   * @param titles Page titles.
+   * @return Page titles in the destination wiki by page title (only for pages having a language link).
+   * @throws APIException Exception thrown by the API.
+   * @see <a href="http://www.mediawiki.org/wiki/API:Properties#langlinks_.2F_ll">API:Properties#langlinks</a>
+   */
+  public Map<String, String> getLanguageLinks(
+      EnumWikipedia from, EnumWikipedia to, Collection<String> titles) throws APIException;
+
   // ==========================================================================
   // API : Queries / Lists
   // ==========================================================================
@@ -383,6 +397,36 @@ public interface API {
       EnumWikipedia wiki, Page category,
       int depth, boolean limit, int max) throws APIException;
 
+  /**
+   * Retrieves the pages in a category tree, crawling sub-categories in parallel.
+   * (<code>action=query</code>, <code>list=categorymembers</code>).
+   * 
+   * @param wiki Wiki.
+   * @param category Category.
+   * @param depth Depth of lookup for sub-categories.
+   * @param limit Flag indicating if the number of results should be limited.
+   * @param max Absolute maximum number of results
+   * @param listener Listener notified as soon as members of a category are retrieved.
+   * @throws APIException Exception thrown by the API.
+   * @see <a href="http://www.mediawiki.org/wiki/API:Categorymembers">API:Categorymembers</a>
+   */
+  public void retrieveCategoryMembers(
+      EnumWikipedia wiki, Page category,
+      int depth, boolean limit, int max,
+      CategoryMembersListener listener) throws APIException;
+
+  /**
+   * Iterates over the members of a category, retrieving them progressively.
+   * (<code>action=query</code>, <code>list=categorymembers</code>).
+   * 
+   * @param wiki Wiki.
+   * @param category Category.
+   * @return Iterator over the members of the category.
+   * @see <a href="http://www.mediawiki.org/wiki/API:Categorymembers">API:Categorymembers</a>
+   */
+  public ResultIterator<Page> iterateCategoryMembers(
+      EnumWikipedia wiki, Page category);
+
   /**
    * Retrieves the pages in which <code>page</code> is embedded.
    * (<code>action=query</code>, <code>list=embeddedin</code>).
@@ -398,6 +442,19 @@ public interface API {
       EnumWikipedia wiki, Page page,
       List<Integer> namespaces, boolean limit) throws APIException;
 
+  /**
+   * Iterates over the pages in which <code>page</code> is embedded, retrieving them progressively.
+   * (<code>action=query</code>, <code>list=embeddedin</code>).
+   * 
+   * @param wiki Wiki.
+   * @param page Page.
+   * @param namespaces Limit to some namespaces.
+   * @return Iterator over the pages in which the page is embedded.
+   * @see <a href="http://www.mediawiki.org/wiki/API:Embeddedin">API:Embeddedin</a>
+   */
+  public ResultIterator<Page> iterateEmbeddedIn(
+      EnumWikipedia wiki, Page page, List<Integer> namespaces);
+
   /**
    * Retrieves the pages in the <code>category</code> Linter category.
    * (<code>action=query</code>, <code>list=linterrors</code>).
@@ -415,6 +472,19 @@ public interface API {
       EnumWikipedia wiki, String category, Integer namespace, boolean withTemplates,
       boolean limit, int max) throws APIException;
 
+  /**
+   * Iterates over the pages in the <code>category</code> Linter category, retrieving them progressively.
+   * (<code>action=query</code>, <code>list=linterrors</code>).
+   * 
+   * @param wiki Wiki.
+   * @param category Category.
+   * @param namespace Optional name space.
+   * @param withTemplates True to retrieve also templates causing the error.
+   * @return Iterator over the pages in the given category.
+   */
+  public ResultIterator<Page> iterateLinterCategory(
+      EnumWikipedia wiki, String category, Integer namespace, boolean withTemplates);
+
   /**
    * Retrieves the pages which have a given property.
    * (<code>action=query</code>, <code>list=pageswithprop</code>).
@@ -430,6 +500,18 @@ public interface API {
       EnumWikipedia wiki,
       String property, boolean limit) throws APIException;
 
+  /**
+   * Iterates over the pages which have a given property, retrieving them progressively.
+   * (<code>action=query</code>, <code>list=pageswithprop</code>).
+   * 
+   * @param wiki Wiki.
+   * @param property Property name.
+   * @return Iterator over the pages which have the property.
+   * @see <a href="http://www.mediawiki.org/wiki/API:Pageswithprop">API:Pageswithprop</a>
+   */
+  public ResultIterator<Page> iteratePagesWithProp(
+      EnumWikipedia wiki, String property);
+
   /**
    * Retrieves the pages which are protected in creation indefinitely.
    * (<code>action=query</code>, <code>list=protectedtitles</code>).
@@ -445,6 +527,18 @@ public interface API {
       EnumWikipedia wiki,
       List<Integer> namespaces, boolean limit) throws APIException;
 
+  /**
+   * Iterates over the pages which are protected in creation indefinitely, retrieving them progressively.
+   * (<code>action=query</code>, <code>list=protectedtitles</code>).
+   * 
+   * @param wiki Wiki.
+   * @param namespaces Limit to some namespaces.
+   * @return Iterator over the protected pages.
+   * @see <a href="http://www.mediawiki.org/wiki/API:Protectedtitles">API:Protectedtitles</a>
+   */
+  public ResultIterator<Page> iterateProtectedTitles(
+      EnumWikipedia wiki, List<Integer> namespaces);
+
   /**
    * Retrieves a special list of pages.
    * (<code>action=query</code>, <code>list=querypage</code>).
@@ -458,6 +552,18 @@ public interface API {
   public List<Page> getQueryPages(
       EnumWikipedia wiki, EnumQueryPage query) throws APIException;
 
+  /**
+   * Iterates over a special list of pages, retrieving them progressively.
+   * (<code>action=query</code>, <code>list=querypage</code>).
+   * 
+   * @param wiki Wiki.
+   * @param query Type of list.
+   * @return Iterator over the pages depending on the query.
+   * @see <a href="http://www.mediawiki.org/wiki/API:Querypage">API:Querypage</a>
+   */
+  public ResultIterator<Page> iterateQueryPages(
+      EnumWikipedia wiki, EnumQueryPage query);
+
   /**
    * Retrieves random pages.
    * (<code>action=query</code>, <code>list=random</code>).
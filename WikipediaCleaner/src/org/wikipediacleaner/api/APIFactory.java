@@ -7,12 +7,18 @@
 
 package org.wikipediacleaner.api;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import org.apache.commons.httpclient.HttpClient;
 import org.apache.commons.httpclient.HttpConnectionManager;
 import org.apache.commons.httpclient.MultiThreadedHttpConnectionManager;
 import org.apache.commons.httpclient.params.HttpMethodParams;
 import org.wikipediacleaner.api.check.CheckWiki;
+import org.wikipediacleaner.api.constants.EnumWikipedia;
+import org.wikipediacleaner.api.dump.MultistreamDumpStore;
 import org.wikipediacleaner.api.http.HttpServer;
+import org.wikipediacleaner.api.http.HttpUtils;
 import org.wikipediacleaner.api.http.hc3.Hc3HttpServer;
 import org.wikipediacleaner.api.impl.MediaWikiAPI;
 
@@ -31,6 +37,9 @@ public class APIFactory {
   /** Check Wiki project */
   private static CheckWiki checkWiki;
 
+  /** Local multistream dumps, by wiki */
+  private static final Map<EnumWikipedia, MultistreamDumpStore> localDumps = new HashMap<>();
+
   // Initialize static members
   static {
 
@@ -81,6 +90,55 @@ public class APIFactory {
     return checkWiki;
   }
 
+  /**
+   * Register a local multistream dump for a wiki.
+   * 
+   * <p>
+   * When retrieving the contents of pages from the wiki fails, the contents are
+   * retrieved from the local dump instead, so pages can still be analyzed offline.
+   * The contents may then be older than the current version of the pages.
+   * </p>
+   * 
+   * @param wiki Wiki.
+   * @param store Local dump, null to stop using a local dump (the previous one is closed).
+   */
+  public static void setLocalDump(EnumWikipedia wiki, MultistreamDumpStore store) {
+    MultistreamDumpStore previous = null;
+    synchronized (localDumps) {
+      previous = (store != null) ? localDumps.put(wiki, store) : localDumps.remove(wiki);
+    }
+    if ((previous != null) && (previous != store)) {
+      previous.close();
+    }
+  }
+
+  /**
+   * @param wiki Wiki.
+   * @return Local multistream dump registered for the wiki, or null if none.
+   */
+  public static MultistreamDumpStore getLocalDump(EnumWikipedia wiki) {
+    synchronized (localDumps) {
+      return localDumps.get(wiki);
+    }
+  }
+
+  /**
+   * Send requests to a local simulator (ApiSimulator, a development tool kept with the tests).
+   * 
+   * <p>
+   * Redirected requests are the ones built by Hc3HttpUtils
+   * (MediaWiki API, REST API, Check Wiki) and the dead link checks.
+   * The stream of recent changes is not redirected, as it's a never ending response
+   * that can't be recorded, and neither are the few direct downloads
+   * (special characters from AWB, titles of external links).
+   * </p>
+   * 
+   * @param baseUrl Base URL of the simulator, null to use the real servers.
+   */
+  public static void useSimulator(String baseUrl) {
+    HttpUtils.setRedirection(baseUrl);
+  }
+
   /**
    * Create an HTTP connection.
    * 
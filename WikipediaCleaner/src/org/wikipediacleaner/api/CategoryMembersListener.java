@@ -0,0 +1,28 @@
+/*
+ *  WPCleaner: A tool to help on Wikipedia maintenance tasks.
+ *  Copyright (C) 2020  Nicolas Vervelle
+ *
+ *  See README.txt file for licensing information.
+ */
+
+package org.wikipediacleaner.api;
+
+import java.util.List;
+
+import org.wikipediacleaner.api.data.Page;
+
+
+/**
+ * Listener interface for category members retrieved while crawling a category tree.
+ */
+public interface CategoryMembersListener {
+
+  /**
+   * Invoked when the members of a category have been retrieved.
+   * 
+   * @param category Category.
+   * @param depth Depth of the category in the category tree.
+   * @param members Members of the category (without sub-categories).
+   */
+  public void categoryMembers(Page category, int depth, List<Page> members);
+}
@@ -0,0 +1,71 @@
+/*
+ *  WPCleaner: A tool to help on Wikipedia maintenance tasks.
+ *  Copyright (C) 2020  Nicolas Vervelle
+ *
+ *  See README.txt file for licensing information.
+ */
+
+package org.wikipediacleaner.api;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.wikipediacleaner.api.constants.EnumWikipedia;
+import org.wikipediacleaner.api.data.Page;
+
+
+/**
+ * Cache of language links, shared by all the requests during the session.
+ */
+class LanguageLinksCache {
+
+  /** Value used for pages without language link */
+  private final static String NO_LINK = "";
+
+  /** Language links by key */
+  private final static Map<String, String> links = new ConcurrentHashMap<>();
+
+  /**
+   * @param from Wiki in which the article is.
+   * @param to Wiki to which the link is searched.
+   * @param title Page title.
+   * @return True if the language link is in the cache.
+   */
+  static boolean contains(EnumWikipedia from, EnumWikipedia to, String title) {
+    return links.containsKey(getKey(from, to, title));
+  }
+
+  /**
+   * @param from Wiki in which the article is.
+   * @param to Wiki to which the link is searched.
+   * @param title Page title.
+   * @return Language link if it is in the cache and exists.
+   */
+  static String get(EnumWikipedia from, EnumWikipedia to, String title) {
+    String link = links.get(getKey(from, to, title));
+    if (NO_LINK.equals(link)) {
+      return null;
+    }
+    return link;
+  }
+
+  /**
+   * @param from Wiki in which the article is.
+   * @param to Wiki to which the link is searched.
+   * @param title Page title.
+   * @param link Language link, null if the page has no language link.
+   */
+  static void put(EnumWikipedia from, EnumWikipedia to, String title, String link) {
+    links.put(getKey(from, to, title), (link != null) ? link : NO_LINK);
+  }
+
+  /**
+   * @param from Wiki in which the article is.
+   * @param to Wiki to which the link is searched.
+   * @param title Page title.
+   * @return Key in the cache.
+   */
+  private static String getKey(EnumWikipedia from, EnumWikipedia to, String title) {
+    return from.getSettings().getCode() + "|" + to.getSettings().getCode() + "|" + Page.normalizeTitle(title);
+  }
+}
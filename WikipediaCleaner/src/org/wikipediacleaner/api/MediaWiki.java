@@ -11,10 +11,15 @@ import java.awt.Component;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 
 import javax.swing.JOptionPane;
 
@@ -23,16 +28,21 @@ import org.wikipediacleaner.api.check.algorithm.CheckErrorAlgorithm;
 import org.wikipediacleaner.api.constants.EnumQueryResult;
 import org.wikipediacleaner.api.constants.EnumWikipedia;
 import org.wikipediacleaner.api.data.AutomaticFixing;
+import org.wikipediacleaner.api.data.AutomaticFixingProgram;
 import org.wikipediacleaner.api.data.AutomaticFormatter;
 import org.wikipediacleaner.api.data.Page;
+import org.wikipediacleaner.api.data.User;
 import org.wikipediacleaner.api.execution.AllLinksToPageCallable;
 import org.wikipediacleaner.api.execution.ContentsCallable;
+import org.wikipediacleaner.api.execution.ContentsListCallable;
 import org.wikipediacleaner.api.execution.DisambiguationStatusCallable;
 import org.wikipediacleaner.api.execution.EmbeddedInCallable;
 import org.wikipediacleaner.api.execution.ExpandTemplatesCallable;
+import org.wikipediacleaner.api.execution.LanguageLinksCallable;
 import org.wikipediacleaner.api.execution.LinksWRCallable;
 import org.wikipediacleaner.api.execution.ParseTextCallable;
 import org.wikipediacleaner.api.execution.TemplatesCallable;
+import org.wikipediacleaner.api.request.ApiRequest;
 import org.wikipediacleaner.gui.swing.basic.Utilities;
 import org.wikipediacleaner.gui.swing.worker.UpdateDabWarningTools;
 import org.wikipediacleaner.i18n.GT;
@@ -194,15 +204,25 @@ public class MediaWiki extends MediaWikiController {
       return 0;
     }
 
-    // Initialize page loading
+    // Prepare replacements once for all pages
+    Map<String, AutomaticFixingProgram> programs = new LinkedHashMap<>();
+    for (Entry<String, List<AutomaticFixing>> replacement : replacements.entrySet()) {
+      programs.put(replacement.getKey(), AutomaticFixingProgram.compile(replacement.getValue()));
+    }
+
+    // Initialize page loading: a limited number of batches of pages is loaded in advance,
+    // independently of the number of threads, so that memory and load on the servers stay bounded
     Configuration config = Configuration.getConfiguration();
-    int nThreads = Math.max(
-        config.getInt(null, ConfigurationValueInteger.INTERROG_THREAD), 1);
+    int nBatches = Math.max(
+        config.getInt(null, ConfigurationValueInteger.PREFETCH_BATCHES), 1);
+    int batchSize = ApiRequest.MAX_PAGES_PER_QUERY;
+    User user = wiki.getConnection().getUser();
+    if ((user != null) && user.hasRight(User.RIGHT_APIHIGHLIMITS)) {
+      batchSize = ApiRequest.MAX_PAGES_PER_QUERY_HIGH_LIMITS;
+    }
     int currentPage = 0;
-    while ((currentPage < nThreads) && (currentPage < pages.length)) {
-      retrieveContents(wiki, pages[currentPage], false, true, false, true, false); // TODO: withRedirects=false ?
-      pages[currentPage] = null; // To release memory
-      currentPage++;
+    for (int batch = 0; (batch < nBatches) && (currentPage < pages.length); batch++) {
+      currentPage = retrieveContents(wiki, pages, currentPage, batchSize);
     }
 
     // Analyze pages
@@ -213,16 +233,28 @@ public class MediaWiki extends MediaWikiController {
     StringBuilder fullComment = new StringBuilder();
     ModificationReport.Modification modification = null;
     boolean stopRequested = false;
-    while (hasRemainingTask() && !shouldStop() && !stopRequested) {
-      Object result = getNextResult();
-      if (currentPage < pages.length) {
-        retrieveContents(wiki, pages[currentPage], false, true, false, true, false); // TODO: withRedirects=false ?
-        pages[currentPage] = null; // To release memory
-        currentPage++;
+    LinkedList<Page> loadedPages = new LinkedList<>();
+    while ((!loadedPages.isEmpty() || hasRemainingTask()) && !shouldStop() && !stopRequested) {
+
+      // Wait for the next batch of pages, and request a new one to keep the window full
+      if (loadedPages.isEmpty()) {
+        Object result = getNextResult();
+        if (currentPage < pages.length) {
+          currentPage = retrieveContents(wiki, pages, currentPage, batchSize);
+        }
+        if (result instanceof Collection) {
+          for (Object loadedPage : (Collection<?>) result) {
+            if (loadedPage instanceof Page) {
+              loadedPages.add((Page) loadedPage);
+            }
+          }
+        }
       }
-      if ((result != null) && (result instanceof Page)) {
+
+      // Analyze next page (removed from the list to release memory once done)
+      Page page = loadedPages.poll();
+      if (page != null) {
         List<String> replacementsDone = new ArrayList<String>();
-        Page page = (Page) result;
         String oldContents = page.getContents();
         if (oldContents != null) {
           String newContents = oldContents;
@@ -233,9 +265,9 @@ public class MediaWiki extends MediaWikiController {
           }
 
           // Apply automatic fixing
-          for (Entry<String, List<AutomaticFixing>> replacement : replacements.entrySet()) {
+          for (Entry<String, AutomaticFixingProgram> replacement : programs.entrySet()) {
             replacementsDone.clear();
-            String tmpContents = AutomaticFixing.apply(replacement.getValue(), newContents, replacementsDone);
+            String tmpContents = replacement.getValue().apply(newContents, replacementsDone);
             if (!newContents.equals(tmpContents)) {
               newContents = tmpContents;
 
@@ -344,6 +376,35 @@ public class MediaWiki extends MediaWikiController {
     return count;
   }
 
+  /**
+   * Retrieve contents of a batch of pages in background.
+   * 
+   * @param wiki Wiki.
+   * @param pages Pages (pages are removed from the array to release memory).
+   * @param firstPage Index of the first page of the batch.
+   * @param batchSize Maximum number of pages in the batch.
+   * @return Index of the first page after the batch.
+   */
+  private int retrieveContents(
+      EnumWikipedia wiki, Page[] pages,
+      int firstPage, int batchSize) {
+    List<Page> batch = new ArrayList<>(batchSize);
+    int currentPage = firstPage;
+    while ((currentPage < pages.length) && (batch.size() < batchSize)) {
+      if (pages[currentPage] != null) {
+        batch.add(pages[currentPage]);
+        pages[currentPage] = null; // To release memory
+      }
+      currentPage++;
+    }
+    if (!batch.isEmpty()) {
+      final API api = APIFactory.getAPI();
+      addTask(new ContentsListCallable(
+          wiki, this, api, batch, false, true)); // TODO: withRedirects=false ?
+    }
+    return currentPage;
+  }
+
   /**
    * Expand templates.
    * 
@@ -369,6 +430,60 @@ public class MediaWiki extends MediaWikiController {
     return null;
   }
 
+  /**
+   * Retrieve language links of a list of pages.
+   * 
+   * @param from Wiki in which the articles are.
+   * @param to Wiki to which the links are searched.
+   * @param titles Page titles.
+   * @return Language links by page title (only for pages having a language link).
+   * @throws APIException Exception thrown by the API.
+   */
+  @SuppressWarnings("unchecked")
+  public Map<String, String> retrieveLanguageLinks(
+      EnumWikipedia from, EnumWikipedia to,
+      Collection<String> titles) throws APIException {
+    Map<String, String> links = new HashMap<>();
+    if ((titles == null) || titles.isEmpty()) {
+      return links;
+    }
+
+    // Use cached language links
+    Set<String> missingTitlesSet = new LinkedHashSet<>();
+    for (String title : titles) {
+      if (LanguageLinksCache.contains(from, to, title)) {
+        String link = LanguageLinksCache.get(from, to, title);
+        if (link != null) {
+          links.put(title, link);
+        }
+      } else {
+        missingTitlesSet.add(title);
+      }
+    }
+    List<String> missingTitles = new ArrayList<>(missingTitlesSet);
+
+    // Retrieve other language links by batches
+    final API api = APIFactory.getAPI();
+    for (int index = 0; index < missingTitles.size(); index += ApiRequest.MAX_PAGES_PER_QUERY) {
+      List<String> batch = new ArrayList<>(missingTitles.subList(
+          index, Math.min(index + ApiRequest.MAX_PAGES_PER_QUERY, missingTitles.size())));
+      addTask(new LanguageLinksCallable(from, this, api, to, batch));
+    }
+    while (hasRemainingTask() && !shouldStop()) {
+      Object result = getNextResult();
+      if (result instanceof Map<?, ?>) {
+        for (Entry<String, String> entry : ((Map<String, String>) result).entrySet()) {
+          LanguageLinksCache.put(from, to, entry.getKey(), entry.getValue());
+          if (entry.getValue() != null) {
+            links.put(entry.getKey(), entry.getValue());
+          }
+        }
+      }
+    }
+    block(true);
+    return links;
+  }
+
   /**
    * Parse complete text.
    * 
@@ -9,10 +9,12 @@
 package org.wikipediacleaner.api;
 
 import java.util.List;
+import java.util.concurrent.Callable;
 
 import org.apache.commons.httpclient.HttpClient;
 import org.wikipediacleaner.api.constants.EnumWikipedia;
 import org.wikipediacleaner.api.linter.LinterError;
+import org.wikipediacleaner.api.linter.LinterErrorsCache;
 import org.wikipediacleaner.api.rest.transform.RestApiTransformWikitextToLintRequest;
 import org.wikipediacleaner.api.rest.transform.RestApiTransformWikitextToLintResult;
 
@@ -25,6 +27,9 @@ public class MediaWikiRESTAPI {
   /** HTTP client */
   private HttpClient httpClient;
 
+  /** Cache of linter errors */
+  private final LinterErrorsCache linterErrorsCache;
+
   /**
    * Constructor.
    * 
@@ -32,6 +37,7 @@ public class MediaWikiRESTAPI {
    */
   MediaWikiRESTAPI(HttpClient httpClient) {
     this.httpClient = httpClient;
+    this.linterErrorsCache = new LinterErrorsCache(LinterErrorsCache.DEFAULT_MAX_ENTRIES);
   }
 
   /**
@@ -42,9 +48,16 @@ public class MediaWikiRESTAPI {
    * @throws APIException Exception thrown by the API.
    * @see <a href="https://fr.wikipedia.org/api/rest_v1/#!/Transforms/post_transform_wikitext_to_lint_title_revision">REST API</a>
    */
-  public List<LinterError> transformWikitextToLint(EnumWikipedia wiki, String title, String text) throws APIException {
-    RestApiTransformWikitextToLintResult result = new RestApiTransformWikitextToLintResult(wiki, httpClient);
-    RestApiTransformWikitextToLintRequest request = new RestApiTransformWikitextToLintRequest(wiki, result);
-    return request.transform(title, text);
+  public List<LinterError> transformWikitextToLint(
+      final EnumWikipedia wiki, final String title, final String text) throws APIException {
+    return linterErrorsCache.get(wiki, title, text, new Callable<List<LinterError>>() {
+
+      @Override
+      public List<LinterError> call() throws APIException {
+        RestApiTransformWikitextToLintResult result = new RestApiTransformWikitextToLintResult(wiki, httpClient);
+        RestApiTransformWikitextToLintRequest request = new RestApiTransformWikitextToLintRequest(wiki, result);
+        return request.transform(title, text);
+      }
+    });
   }
 }
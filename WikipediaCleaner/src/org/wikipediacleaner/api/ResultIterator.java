@@ -0,0 +1,35 @@
+/*
+ *  WPCleaner: A tool to help on Wikipedia maintenance tasks.
+ *  Copyright (C) 2020  Nicolas Vervelle
+ *
+ *  See README.txt file for licensing information.
+ */
+
+package org.wikipediacleaner.api;
+
+
+/**
+ * Iterator over results of the API retrieved progressively.
+ * 
+ * @param <T> Type of results.
+ */
+public interface ResultIterator<T> {
+
+  /**
+   * @return True if there are more results.
+   * @throws APIException Exception thrown by the API.
+   */
+  public boolean hasNext() throws APIException;
+
+  /**
+   * @return Next result.
+   * @throws APIException Exception thrown by the API.
+   * @throws java.util.NoSuchElementException If there are no more results.
+   */
+  public T next() throws APIException;
+
+  /**
+   * Stop retrieving results.
+   */
+  public void close();
+}
@@ -77,7 +77,9 @@ public class AlgorithmError {
           if (result != null) {
             errorFound = result.getErrors(results);
           } else {
+            long beginTime = System.nanoTime();
             errorFound = algorithm.analyze(pageAnalysis, results, onlyAutomatic);
+            algorithm.getAnalyzeHistogram().recordTimeSince(beginTime);
             pageAnalysis.setCheckWikiErrors(errorNumber, errorFound, results);
           }
           if (errorFound) {
@@ -126,7 +128,9 @@ public class AlgorithmError {
     if (result != null) {
       errorFound = result.getErrors(errorsFound);
     } else {
+      long beginTime = System.nanoTime();
       errorFound = algorithm.analyze(pageAnalysis, errorsFound, false);
+      algorithm.getAnalyzeHistogram().recordTimeSince(beginTime);
       pageAnalysis.setCheckWikiErrors(errorNumber, errorFound, errorsFound);
     }
     errorPage.setResults(errorFound, errorsFound);
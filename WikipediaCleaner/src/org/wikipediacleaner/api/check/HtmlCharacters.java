@@ -7,6 +7,10 @@
 
 package org.wikipediacleaner.api.check;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
 
 /**
  * List of HTML characters.
@@ -387,21 +391,53 @@ public enum HtmlCharacters {
   private final boolean replaceName;
 
   /**
-   * @param number Entity number.
-   * @return HTML character for the given entity number.
+   * HTML characters indexed by entity number (and alternative entity number).
    */
-  public static HtmlCharacters getCharacterByEntityNumber(int number) {
-    for (HtmlCharacters character : HtmlCharacters.values()) {
-      if (character.getNumber() == number) {
-        return character;
+  private static final Map<Integer, HtmlCharacters> byNumber;
+
+  /**
+   * HTML characters indexed by entity name.
+   */
+  private static final Map<String, HtmlCharacters> byName;
+
+  static {
+    HtmlCharacters[] characters = values();
+    Map<Integer, HtmlCharacters> tmpByNumber = new HashMap<>(characters.length * 2);
+    Map<String, HtmlCharacters> tmpByName = new HashMap<>(characters.length * 2);
+    for (HtmlCharacters character : characters) {
+      if (!tmpByNumber.containsKey(character.number)) {
+        tmpByNumber.put(character.number, character);
+      }
+      if ((character.name != null) && !tmpByName.containsKey(character.name)) {
+        tmpByName.put(character.name, character);
       }
     }
-    for (HtmlCharacters character : HtmlCharacters.values()) {
-      if (character.getAlternativeNumber() == number) {
-        return character;
+    for (HtmlCharacters character : characters) {
+      if (!tmpByNumber.containsKey(character.alternativeNumber)) {
+        tmpByNumber.put(character.alternativeNumber, character);
       }
     }
-    return null;
+    byNumber = Collections.unmodifiableMap(tmpByNumber);
+    byName = Collections.unmodifiableMap(tmpByName);
+  }
+
+  /**
+   * @param number Entity number.
+   * @return HTML character for the given entity number.
+   */
+  public static HtmlCharacters getCharacterByEntityNumber(int number) {
+    return byNumber.get(number);
+  }
+
+  /**
+   * @param name Entity name.
+   * @return HTML character for the given entity name.
+   */
+  public static HtmlCharacters getCharacterByEntityName(String name) {
+    if (name == null) {
+      return null;
+    }
+    return byName.get(name);
   }
 
   /**
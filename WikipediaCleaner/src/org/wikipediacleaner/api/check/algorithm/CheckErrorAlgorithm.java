@@ -16,6 +16,7 @@ import org.wikipediacleaner.api.constants.EnumWikipedia;
 import org.wikipediacleaner.api.data.Page;
 import org.wikipediacleaner.api.data.analysis.PageAnalysis;
 import org.wikipediacleaner.gui.swing.component.MWPane;
+import org.wikipediacleaner.utils.metrics.Histogram;
 
 
 /**
@@ -49,6 +50,11 @@ public interface CheckErrorAlgorithm extends Algorithm {
    */
   public String getErrorNumberString();
 
+  /**
+   * @return Metrics for time spent in analysis.
+   */
+  public Histogram getAnalyzeHistogram();
+
   /**
    * @return Error number.
    * (See Check Wikipedia project for the description of errors)
@@ -97,6 +103,20 @@ public interface CheckErrorAlgorithm extends Algorithm {
       int errorNumber, String name,
       boolean useWiki, boolean useGeneral, boolean acceptEmpty);
 
+  /**
+   * @return Minimum level of page analysis needed by the algorithm.
+   */
+  public PageAnalysis.AnalysisLevel getAnalysisLevel();
+
+  /**
+   * Literals used to skip cheaply pages in which no error can be detected.
+   * 
+   * @return Literals (case insensitive) of which at least one must be present
+   *         in the page contents for the algorithm to detect errors,
+   *         or null if the algorithm can't be restricted this way.
+   */
+  public Collection<String> getRequiredLiterals();
+
   /**
    * Analyze a page to check if errors are present.
    * 
@@ -95,7 +95,7 @@ public class CheckErrorAlgorithm002 extends CheckErrorAlgorithmBase {
   }
 
   public CheckErrorAlgorithm002() {
-    super("Article with incorrect tags");
+    super("Article with incorrect tags", PageAnalysis.AnalysisLevel.TAGS);
   }
 
   /**
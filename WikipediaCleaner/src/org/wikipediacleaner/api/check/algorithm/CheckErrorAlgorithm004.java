@@ -26,7 +26,7 @@ import org.wikipediacleaner.api.data.analysis.PageAnalysis;
 public class CheckErrorAlgorithm004 extends CheckErrorAlgorithmBase {
 
   public CheckErrorAlgorithm004() {
-    super("<a> tags");
+    super("<a> tags", PageAnalysis.AnalysisLevel.TAGS);
   }
 
   /**
@@ -22,7 +22,7 @@ import org.wikipediacleaner.i18n.GT;
 public class CheckErrorAlgorithm005 extends CheckErrorAlgorithmBase {
 
   public CheckErrorAlgorithm005() {
-    super("Found a comment \"<!--\" with no \"-->\" end.");
+    super("Found a comment \"<!--\" with no \"-->\" end.", PageAnalysis.AnalysisLevel.COMMENTS);
   }
 
   /**
@@ -24,7 +24,7 @@ import org.wikipediacleaner.i18n.GT;
 public class CheckErrorAlgorithm026 extends CheckErrorAlgorithmBase {
 
   public CheckErrorAlgorithm026() {
-    super("HTML text style element <b>");
+    super("HTML text style element <b>", PageAnalysis.AnalysisLevel.TAGS);
   }
 
   /**
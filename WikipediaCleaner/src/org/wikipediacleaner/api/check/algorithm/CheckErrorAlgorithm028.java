@@ -8,6 +8,7 @@
 package org.wikipediacleaner.api.check.algorithm;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -33,6 +34,14 @@ public class CheckErrorAlgorithm028 extends CheckErrorAlgorithmBase {
     super("Table not correct end");
   }
 
+  /**
+   * @return Literals of which at least one must be present for the algorithm to detect errors.
+   */
+  @Override
+  public Collection<String> getRequiredLiterals() {
+    return Arrays.asList("{|", PageElementTag.TAG_HTML_TABLE);
+  }
+
   /**
    * Analyze a page to check if errors are present.
    * 
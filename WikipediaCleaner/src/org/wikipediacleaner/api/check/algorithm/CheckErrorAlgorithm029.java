@@ -8,6 +8,7 @@
 package org.wikipediacleaner.api.check.algorithm;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 import org.wikipediacleaner.api.check.CheckErrorResult;
@@ -22,7 +23,15 @@ import org.wikipediacleaner.api.data.analysis.PageAnalysis;
 public class CheckErrorAlgorithm029 extends CheckErrorAlgorithmBase {
 
   public CheckErrorAlgorithm029() {
-    super("Gallery not correct end");
+    super("Gallery not correct end", PageAnalysis.AnalysisLevel.TAGS);
+  }
+
+  /**
+   * @return Literals of which at least one must be present for the algorithm to detect errors.
+   */
+  @Override
+  public Collection<String> getRequiredLiterals() {
+    return Collections.singleton(PageElementTag.TAG_WIKI_GALLERY);
   }
 
   /**
@@ -27,7 +27,7 @@ import org.wikipediacleaner.i18n.GT;
 public class CheckErrorAlgorithm033 extends CheckErrorAlgorithmBase {
 
   public CheckErrorAlgorithm033() {
-    super("HTML text style element <u>");
+    super("HTML text style element <u>", PageAnalysis.AnalysisLevel.TAGS);
   }
 
   /**
@@ -23,7 +23,7 @@ import org.wikipediacleaner.api.data.analysis.PageAnalysis;
 public class CheckErrorAlgorithm035 extends CheckErrorAlgorithmBase {
 
   public CheckErrorAlgorithm035() {
-    super("Gallery image without description");
+    super("Gallery image without description", PageAnalysis.AnalysisLevel.TAGS);
   }
 
   /**
@@ -24,7 +24,7 @@ import org.wikipediacleaner.i18n.GT;
 public class CheckErrorAlgorithm038 extends CheckErrorAlgorithmBase {
 
   public CheckErrorAlgorithm038() {
-    super("HTML text style element <i>");
+    super("HTML text style element <i>", PageAnalysis.AnalysisLevel.TAGS);
   }
 
   /**
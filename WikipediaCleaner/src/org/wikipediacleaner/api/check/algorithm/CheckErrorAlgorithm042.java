@@ -23,7 +23,7 @@ import org.wikipediacleaner.api.data.analysis.PageAnalysis;
 public class CheckErrorAlgorithm042 extends CheckErrorAlgorithmBase {
 
   public CheckErrorAlgorithm042() {
-    super("<strike> tags");
+    super("<strike> tags", PageAnalysis.AnalysisLevel.TAGS);
   }
 
   /**
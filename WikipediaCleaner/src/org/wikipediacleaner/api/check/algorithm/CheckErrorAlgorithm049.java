@@ -38,7 +38,7 @@ public class CheckErrorAlgorithm049 extends CheckErrorAlgorithmBase {
   };
 
   public CheckErrorAlgorithm049() {
-    super("Headline with HTML");
+    super("Headline with HTML", PageAnalysis.AnalysisLevel.TAGS);
   }
 
   /**
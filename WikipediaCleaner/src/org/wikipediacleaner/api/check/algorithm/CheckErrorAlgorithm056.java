@@ -22,7 +22,7 @@ import org.wikipediacleaner.api.data.contents.ContentsComment;
 public class CheckErrorAlgorithm056 extends CheckErrorAlgorithmBase {
 
   public CheckErrorAlgorithm056() {
-    super("Arrow as ASCII art");
+    super("Arrow as ASCII art", PageAnalysis.AnalysisLevel.TAGS);
   }
 
   /**
@@ -22,7 +22,7 @@ import org.wikipediacleaner.api.data.analysis.PageAnalysis;
 public class CheckErrorAlgorithm063 extends CheckErrorAlgorithmBase {
 
   public CheckErrorAlgorithm063() {
-    super("HTML text style element <small> in ref, sub or sup");
+    super("HTML text style element <small> in ref, sub or sup", PageAnalysis.AnalysisLevel.TAGS);
   }
 
   /**
@@ -31,7 +31,7 @@ import org.wikipediacleaner.i18n.GT;
 public class CheckErrorAlgorithm067 extends CheckErrorAlgorithmBase {
 
   public CheckErrorAlgorithm067() {
-    super("Reference after punctuation");
+    super("Reference after punctuation", PageAnalysis.AnalysisLevel.TAGS);
   }
 
   /**
@@ -116,10 +116,8 @@ public class CheckErrorAlgorithm067 extends CheckErrorAlgorithmBase {
                   }
                   if ((testIndex >= 0) && (contents.charAt(testIndex) == '&')) {
                     String name = contents.substring(testIndex + 1, punctuationIndex);
-                    for (HtmlCharacters htmlCharacter : HtmlCharacters.values()) {
-                      if (name.equals(htmlCharacter.getName())) {
-                        punctuationFound = false;
-                      }
+                    if (HtmlCharacters.getCharacterByEntityName(name) != null) {
+                      punctuationFound = false;
                     }
                   }
                 }
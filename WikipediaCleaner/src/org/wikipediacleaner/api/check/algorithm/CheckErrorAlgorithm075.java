@@ -20,7 +20,7 @@ import org.wikipediacleaner.api.data.analysis.PageAnalysis;
 public class CheckErrorAlgorithm075 extends CheckErrorAlgorithmBase {
 
   public CheckErrorAlgorithm075() {
-    super("Indented list");
+    super("Indented list", PageAnalysis.AnalysisLevel.COMMENTS);
   }
 
   /**
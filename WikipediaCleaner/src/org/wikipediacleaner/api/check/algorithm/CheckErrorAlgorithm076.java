@@ -8,6 +8,7 @@
 package org.wikipediacleaner.api.check.algorithm;
 
 import java.util.Collection;
+import java.util.Collections;
 
 import org.wikipediacleaner.api.check.CheckErrorResult;
 import org.wikipediacleaner.api.data.PageElementExternalLink;
@@ -34,6 +35,14 @@ public class CheckErrorAlgorithm076 extends CheckErrorAlgorithmBase {
     super("Link with no space");
   }
 
+  /**
+   * @return Literals of which at least one must be present for the algorithm to detect errors.
+   */
+  @Override
+  public Collection<String> getRequiredLiterals() {
+    return Collections.singleton("%20");
+  }
+
   /**
    * Analyze a page to check if errors are present.
    * 
@@ -50,7 +50,7 @@ public class CheckErrorAlgorithm085 extends CheckErrorAlgorithmBase {
   private final static String HTML_SPACE = "&#x20;";
 
   public CheckErrorAlgorithm085() {
-    super("Tag without content");
+    super("Tag without content", PageAnalysis.AnalysisLevel.TAGS);
   }
 
   /**
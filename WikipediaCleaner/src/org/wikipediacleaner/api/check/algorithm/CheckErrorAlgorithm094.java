@@ -23,7 +23,7 @@ import org.wikipediacleaner.api.data.analysis.PageAnalysis;
 public class CheckErrorAlgorithm094 extends CheckErrorAlgorithmBase {
 
   public CheckErrorAlgorithm094() {
-    super("Reference tags with no correct match");
+    super("Reference tags with no correct match", PageAnalysis.AnalysisLevel.TAGS);
   }
 
   /**
@@ -22,7 +22,7 @@ import org.wikipediacleaner.api.data.analysis.PageAnalysis;
 public class CheckErrorAlgorithm100 extends CheckErrorAlgorithmBase {
 
   public CheckErrorAlgorithm100() {
-    super("List tag (<ol>, <ul> or <li>) with no correct match.");
+    super("List tag (<ol>, <ul> or <li>) with no correct match.", PageAnalysis.AnalysisLevel.TAGS);
   }
 
   /**
@@ -29,7 +29,7 @@ import org.wikipediacleaner.i18n.GT;
 public class CheckErrorAlgorithm101 extends CheckErrorAlgorithmBase {
 
   public CheckErrorAlgorithm101() {
-    super("Ordinal numbers found inside <sup> tags");
+    super("Ordinal numbers found inside <sup> tags", PageAnalysis.AnalysisLevel.TAGS);
   }
 
   /**
@@ -24,7 +24,7 @@ import org.wikipediacleaner.api.data.analysis.PageAnalysis;
 public class CheckErrorAlgorithm104 extends CheckErrorAlgorithmBase {
 
   public CheckErrorAlgorithm104() {
-    super("Unbalanced quotes in ref name");
+    super("Unbalanced quotes in ref name", PageAnalysis.AnalysisLevel.TAGS);
   }
 
   /**
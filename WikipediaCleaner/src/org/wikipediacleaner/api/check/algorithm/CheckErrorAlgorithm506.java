@@ -21,7 +21,7 @@ import org.wikipediacleaner.api.data.analysis.PageAnalysis;
 public class CheckErrorAlgorithm506 extends CheckErrorAlgorithmBase {
 
   public CheckErrorAlgorithm506() {
-    super("Reference with a numeric name");
+    super("Reference with a numeric name", PageAnalysis.AnalysisLevel.TAGS);
   }
 
   /**
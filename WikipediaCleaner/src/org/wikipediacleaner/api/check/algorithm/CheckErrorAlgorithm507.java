@@ -23,7 +23,7 @@ import org.wikipediacleaner.api.data.analysis.PageAnalysis;
 public class CheckErrorAlgorithm507 extends CheckErrorAlgorithmBase {
 
   public CheckErrorAlgorithm507() {
-    super("Gallery without caption");
+    super("Gallery without caption", PageAnalysis.AnalysisLevel.TAGS);
   }
 
   /**
@@ -23,7 +23,7 @@ import org.wikipediacleaner.api.data.analysis.PageAnalysis;
 public class CheckErrorAlgorithm516 extends CheckErrorAlgorithmBase {
 
   public CheckErrorAlgorithm516() {
-    super("<br /> tags in main namespace");
+    super("<br /> tags in main namespace", PageAnalysis.AnalysisLevel.TAGS);
   }
 
   /**
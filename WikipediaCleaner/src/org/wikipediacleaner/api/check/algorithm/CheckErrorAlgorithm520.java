@@ -32,7 +32,7 @@ import org.wikipediacleaner.utils.ConfigurationValueInteger;
 public class CheckErrorAlgorithm520 extends CheckErrorAlgorithmBase {
 
   public CheckErrorAlgorithm520() {
-    super("Weird characters");
+    super("Weird characters", PageAnalysis.AnalysisLevel.COMMENTS);
   }
 
   /**
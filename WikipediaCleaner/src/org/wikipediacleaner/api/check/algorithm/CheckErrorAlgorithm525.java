@@ -31,7 +31,7 @@ import org.wikipediacleaner.i18n.GT;
 public class CheckErrorAlgorithm525 extends CheckErrorAlgorithmBase {
 
   public CheckErrorAlgorithm525() {
-    super("Useless span tag");
+    super("Useless span tag", PageAnalysis.AnalysisLevel.TAGS);
   }
 
   /**
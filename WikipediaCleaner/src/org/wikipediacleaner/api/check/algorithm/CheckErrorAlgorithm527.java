@@ -37,7 +37,7 @@ import org.wikipediacleaner.i18n.GT;
 public class CheckErrorAlgorithm527 extends CheckErrorAlgorithmBase {
 
   public CheckErrorAlgorithm527() {
-    super("Reference with same name but different content");
+    super("Reference with same name but different content", PageAnalysis.AnalysisLevel.TAGS);
   }
 
   /** Tracking category. */
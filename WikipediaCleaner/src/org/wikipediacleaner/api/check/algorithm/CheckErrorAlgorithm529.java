@@ -8,6 +8,7 @@
 package org.wikipediacleaner.api.check.algorithm;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 
@@ -54,6 +55,14 @@ public class CheckErrorAlgorithm529 extends CheckErrorAlgorithmBase {
   /** Tracking category. */
   private String trackingCategory;
 
+  /**
+   * @return Literals of which at least one must be present for the algorithm to detect errors.
+   */
+  @Override
+  public Collection<String> getRequiredLiterals() {
+    return Arrays.asList(PageElementISBN.ISBN_PREFIX, "EAN");
+  }
+
   /**
    * Analyze a page to check if errors are present.
    * 
@@ -9,6 +9,7 @@ package org.wikipediacleaner.api.check.algorithm;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 import org.wikipediacleaner.api.API;
@@ -43,6 +44,14 @@ public class CheckErrorAlgorithm530 extends CheckErrorAlgorithmBase {
   /** Tracking category. */
   private String trackingCategory;
 
+  /**
+   * @return Literals of which at least one must be present for the algorithm to detect errors.
+   */
+  @Override
+  public Collection<String> getRequiredLiterals() {
+    return Collections.singleton(PageElementRFC.RFC_PREFIX);
+  }
+
   /**
    * Analyze a page to check if errors are present.
    * 
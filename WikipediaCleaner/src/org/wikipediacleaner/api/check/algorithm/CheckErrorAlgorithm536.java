@@ -29,7 +29,7 @@ import org.wikipediacleaner.api.data.analysis.PageAnalysis;
 public class CheckErrorAlgorithm536 extends CheckErrorAlgorithmBase {
 
   public CheckErrorAlgorithm536() {
-    super("Tidy whitespace bug");
+    super("Tidy whitespace bug", PageAnalysis.AnalysisLevel.TAGS);
   }
 
   /**
@@ -25,7 +25,7 @@ import org.wikipediacleaner.i18n.GT;
 public class CheckErrorAlgorithm542 extends CheckErrorAlgorithmBase {
 
   public CheckErrorAlgorithm542() {
-    super("Empty ref tag");
+    super("Empty ref tag", PageAnalysis.AnalysisLevel.TAGS);
   }
 
   /**
@@ -21,7 +21,7 @@ import org.wikipediacleaner.api.data.analysis.PageAnalysis;
 public class CheckErrorAlgorithm551 extends CheckErrorAlgorithmBase {
 
   public CheckErrorAlgorithm551() {
-    super("Empty line");
+    super("Empty line", PageAnalysis.AnalysisLevel.TAGS);
   }
 
   /**
@@ -22,7 +22,7 @@ import org.wikipediacleaner.api.data.analysis.PageAnalysis;
 public class CheckErrorAlgorithm554 extends CheckErrorAlgorithmBase {
 
   public CheckErrorAlgorithm554() {
-    super("nowiki in gallery tags");
+    super("nowiki in gallery tags", PageAnalysis.AnalysisLevel.TAGS);
   }
 
   /**
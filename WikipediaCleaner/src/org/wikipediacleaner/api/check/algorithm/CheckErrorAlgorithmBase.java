@@ -30,11 +30,14 @@ import org.wikipediacleaner.api.constants.EnumWikipedia;
 import org.wikipediacleaner.api.constants.WPCConfiguration;
 import org.wikipediacleaner.api.constants.WPCConfigurationString;
 import org.wikipediacleaner.api.constants.WikiConfiguration;
+import org.wikipediacleaner.api.data.CharacterUtils;
 import org.wikipediacleaner.api.data.MagicWord;
 import org.wikipediacleaner.api.data.Page;
 import org.wikipediacleaner.api.data.analysis.PageAnalysis;
 import org.wikipediacleaner.gui.swing.component.MWPane;
 import org.wikipediacleaner.i18n.GT;
+import org.wikipediacleaner.utils.metrics.Histogram;
+import org.wikipediacleaner.utils.metrics.Metrics;
 
 
 /**
@@ -45,11 +48,30 @@ public abstract class CheckErrorAlgorithmBase extends AlgorithmBase implements C
   /** Configuration of the error. */
   private CWConfigurationError errorConfiguration;
 
+  /** Metrics for time spent in analysis. */
+  private Histogram analyzeHistogram;
+
+  /** Metrics for time spent in bot fixing. */
+  private Histogram botFixHistogram;
+
+  /** Minimum level of page analysis needed by the algorithm. */
+  private final PageAnalysis.AnalysisLevel analysisLevel;
+
   /**
    * @param name Name of the error.
    */
   public CheckErrorAlgorithmBase(String name) {
+    this(name, PageAnalysis.AnalysisLevel.FULL);
+  }
+
+  /**
+   * @param name Name of the error.
+   * @param analysisLevel Minimum level of page analysis needed by the algorithm,
+   *        for algorithms relying only on the first elements of the analysis.
+   */
+  public CheckErrorAlgorithmBase(String name, PageAnalysis.AnalysisLevel analysisLevel) {
     super(name);
+    this.analysisLevel = analysisLevel;
   }
 
   /**
@@ -163,6 +185,43 @@ public abstract class CheckErrorAlgorithmBase extends AlgorithmBase implements C
     return (errorConfiguration != null) ? errorConfiguration.getWhiteListPageName() : null;
   }
 
+  /**
+   * @return Minimum level of page analysis needed by the algorithm.
+   */
+  @Override
+  public PageAnalysis.AnalysisLevel getAnalysisLevel() {
+    return analysisLevel;
+  }
+
+  /**
+   * @return Literals of which at least one must be present for the algorithm to detect errors.
+   */
+  @Override
+  public Collection<String> getRequiredLiterals() {
+    return null;
+  }
+
+  /**
+   * @param tagNames Names of the tags.
+   * @return Literals of which at least one is present in any tag with one of the names.
+   */
+  protected static Collection<String> getTagLiterals(Collection<String> tagNames) {
+    if (tagNames == null) {
+      return null;
+    }
+    List<String> literals = new ArrayList<>();
+    for (String tagName : tagNames) {
+      literals.add("<" + tagName);
+      literals.add("</" + tagName);
+    }
+
+    // End tags may have whitespace between the slash and the name
+    for (int index = 0; index < CharacterUtils.WHITESPACE.length(); index++) {
+      literals.add("</" + CharacterUtils.WHITESPACE.charAt(index));
+    }
+    return literals;
+  }
+
   /**
    * Create a CheckErrorResult object.
    * 
@@ -229,6 +288,18 @@ public abstract class CheckErrorAlgorithmBase extends AlgorithmBase implements C
     return "unknown";
   }
 
+  /**
+   * @return Metrics for time spent in analysis.
+   * @see org.wikipediacleaner.api.check.algorithm.CheckErrorAlgorithm#getAnalyzeHistogram()
+   */
+  @Override
+  public Histogram getAnalyzeHistogram() {
+    if (analyzeHistogram == null) {
+      analyzeHistogram = Metrics.getHistogram("algorithm.analyze." + getErrorNumberString());
+    }
+    return analyzeHistogram;
+  }
+
   /**
    * @return Error number.
    * (See Check Wikipedia project for the description of errors)
@@ -352,7 +423,13 @@ public abstract class CheckErrorAlgorithmBase extends AlgorithmBase implements C
     if ((errorConfiguration == null) || (errorConfiguration.getNoAuto())) {
       return analysis.getContents();
     }
-    return internalBotFix(analysis);
+    long beginTime = System.nanoTime();
+    String result = internalBotFix(analysis);
+    if (botFixHistogram == null) {
+      botFixHistogram = Metrics.getHistogram("algorithm.botFix." + getErrorNumberString());
+    }
+    botFixHistogram.recordTimeSince(beginTime);
+    return result;
   }
 
   /**
@@ -8,6 +8,7 @@
 package org.wikipediacleaner.api.check.algorithm;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 import org.wikipediacleaner.api.check.CheckErrorResult;
@@ -44,6 +45,14 @@ public abstract class CheckErrorAlgorithmHtmlNamedEntities extends CheckErrorAlg
    */
   protected abstract List<HtmlCharacters> getHtmlCharacters();
 
+  /**
+   * @return Literals of which at least one must be present for the algorithm to detect errors.
+   */
+  @Override
+  public Collection<String> getRequiredLiterals() {
+    return Collections.singleton("&");
+  }
+
   /**
    * Analyze a page to check if errors are present.
    * 
@@ -0,0 +1,97 @@
+/*
+ *  WPCleaner: A tool to help on Wikipedia maintenance tasks.
+ *  Copyright (C) 2020  Nicolas Vervelle
+ *
+ *  See README.txt file for licensing information.
+ */
+
+
+package org.wikipediacleaner.api.check.algorithm;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+
+import org.wikipediacleaner.utils.MultiLiteralMatcher;
+
+
+/**
+ * Prefilter to find cheaply which algorithms may detect errors in a page.
+ * 
+ * <p>
+ * The literals required by the algorithms (see {@link CheckErrorAlgorithm#getRequiredLiterals()})
+ * are compiled into a single automaton (see {@link MultiLiteralMatcher}), so that the text of a page
+ * is scanned only once whatever the number of algorithms.
+ * Literals are matched without taking case into account.
+ * </p>
+ */
+public class CheckErrorAlgorithmPrefilter {
+
+  /** Number of algorithms */
+  private final int algorithmsCount;
+
+  /** Algorithms which can't be filtered */
+  private final BitSet unfiltered;
+
+  /** Number of algorithms which can be filtered */
+  private final int filteredCount;
+
+  /** Automaton for searching the literals, values are the indexes of the algorithms */
+  private final MultiLiteralMatcher matcher;
+
+  /**
+   * @param algorithms List of algorithms.
+   */
+  public CheckErrorAlgorithmPrefilter(List<CheckErrorAlgorithm> algorithms) {
+    algorithmsCount = algorithms.size();
+    unfiltered = new BitSet(algorithmsCount);
+    matcher = new MultiLiteralMatcher(true);
+    for (int algorithmNum = 0; algorithmNum < algorithmsCount; algorithmNum++) {
+      Collection<String> literals = getLiterals(algorithms.get(algorithmNum));
+      if (literals == null) {
+        unfiltered.set(algorithmNum);
+      } else {
+        for (String literal : literals) {
+          matcher.add(literal, algorithmNum);
+        }
+      }
+    }
+    matcher.build();
+    filteredCount = algorithmsCount - unfiltered.cardinality();
+  }
+
+  /**
+   * Find which algorithms may detect errors in a text.
+   * 
+   * @param text Text of the page.
+   * @return Indexes (in the list of algorithms) of the algorithms that may detect errors.
+   */
+  public BitSet getCandidates(CharSequence text) {
+    BitSet candidates = (BitSet) unfiltered.clone();
+    if (text == null) {
+      candidates.set(0, algorithmsCount);
+      return candidates;
+    }
+    if (filteredCount > 0) {
+      matcher.search(text, candidates, algorithmsCount);
+    }
+    return candidates;
+  }
+
+  /**
+   * @param algorithm Algorithm.
+   * @return Literals required by the algorithm, null if it can't be filtered.
+   */
+  private static Collection<String> getLiterals(CheckErrorAlgorithm algorithm) {
+    Collection<String> literals = algorithm.getRequiredLiterals();
+    if ((literals == null) || literals.isEmpty()) {
+      return null;
+    }
+    for (String literal : literals) {
+      if ((literal == null) || literal.isEmpty()) {
+        return null;
+      }
+    }
+    return literals;
+  }
+}
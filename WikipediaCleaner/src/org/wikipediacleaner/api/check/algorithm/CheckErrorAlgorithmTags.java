@@ -8,6 +8,7 @@
 
 package org.wikipediacleaner.api.check.algorithm;
 
+import java.util.Arrays;
 import java.util.Collection;
 
 import org.wikipediacleaner.api.check.CheckErrorResult;
@@ -24,10 +25,19 @@ public abstract class CheckErrorAlgorithmTags extends CheckErrorAlgorithmBase {
    * @param name Name of error.
    */
   public CheckErrorAlgorithmTags(String name) {
-    super(name);
+    super(name, PageAnalysis.AnalysisLevel.TAGS);
 
   }
 
+  /**
+   * @return Literals of which at least one must be present for the algorithm to detect errors.
+   */
+  @Override
+  public Collection<String> getRequiredLiterals() {
+    String[] tags = getTags();
+    return (tags != null) ? getTagLiterals(Arrays.asList(tags)) : null;
+  }
+
   /**
    * Analyze a page to check if errors are present.
    * 
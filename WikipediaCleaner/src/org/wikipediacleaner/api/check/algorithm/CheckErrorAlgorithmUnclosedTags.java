@@ -25,7 +25,7 @@ public abstract class CheckErrorAlgorithmUnclosedTags extends CheckErrorAlgorith
    * @param name Name of the error.
    */
   public CheckErrorAlgorithmUnclosedTags(String name) {
-    super(name);
+    super(name, PageAnalysis.AnalysisLevel.TAGS);
   }
 
   /**
@@ -33,6 +33,14 @@ public abstract class CheckErrorAlgorithmUnclosedTags extends CheckErrorAlgorith
    */
   protected abstract List<String> getTags();
 
+  /**
+   * @return Literals of which at least one must be present for the algorithm to detect errors.
+   */
+  @Override
+  public Collection<String> getRequiredLiterals() {
+    return getTagLiterals(getTags());
+  }
+
   /**
    * Analyze a page to check if errors are present.
    * 
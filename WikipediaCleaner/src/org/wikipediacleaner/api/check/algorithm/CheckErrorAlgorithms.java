@@ -9,6 +9,7 @@ package org.wikipediacleaner.api.check.algorithm;
 
 import java.text.DecimalFormat;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -16,6 +17,7 @@ import java.util.Map;
 import org.wikipediacleaner.api.constants.CWConfiguration;
 import org.wikipediacleaner.api.constants.CWConfigurationError;
 import org.wikipediacleaner.api.constants.EnumWikipedia;
+import org.wikipediacleaner.api.data.analysis.PageAnalysis;
 
 
 /**
@@ -142,6 +144,23 @@ public final class CheckErrorAlgorithms {
     return result;
   }
 
+  /**
+   * Compute the level of analysis needed by a list of algorithms.
+   * 
+   * @param algorithms List of algorithms.
+   * @return Highest level of analysis needed by the algorithms.
+   */
+  public static PageAnalysis.AnalysisLevel getAnalysisLevel(
+      Collection<CheckErrorAlgorithm> algorithms) {
+    PageAnalysis.AnalysisLevel level = PageAnalysis.AnalysisLevel.COMMENTS;
+    if (algorithms != null) {
+      for (CheckErrorAlgorithm algorithm : algorithms) {
+        level = level.max(algorithm.getAnalysisLevel());
+      }
+    }
+    return level;
+  }
+
   /**
    * @param wikipedia Wikipedia.
    * @param errorNumber Error number.
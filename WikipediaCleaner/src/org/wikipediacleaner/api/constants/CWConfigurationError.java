@@ -7,6 +7,8 @@
 
 package org.wikipediacleaner.api.constants;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
@@ -632,4 +634,47 @@ public class CWConfigurationError {
     }
     return whiteList.contains(title);
   }
+
+  /**
+   * Build a stable representation of the configuration of the error.
+   * Two configurations with the same signature lead to the same detections.
+   * 
+   * @return Signature of the configuration.
+   */
+  public String getConfigurationSignature() {
+    StringBuilder sb = new StringBuilder();
+    sb.append(errorNumber).append('\n');
+    appendSignature(sb, generalConfiguration);
+    appendSignature(sb, userConfiguration);
+    appendSignature(sb, wikiConfiguration);
+    appendSignature(sb, getWhiteList());
+    return sb.toString();
+  }
+
+  /**
+   * @param sb Buffer.
+   * @param properties Properties to add to the signature.
+   */
+  private static void appendSignature(StringBuilder sb, Properties properties) {
+    List<String> entries = new ArrayList<String>();
+    for (String name : properties.stringPropertyNames()) {
+      entries.add(name + "=" + properties.getProperty(name));
+    }
+    appendSignature(sb, entries);
+  }
+
+  /**
+   * @param sb Buffer.
+   * @param values Values to add to the signature.
+   */
+  private static void appendSignature(StringBuilder sb, Collection<String> values) {
+    if (values != null) {
+      List<String> sorted = new ArrayList<String>(values);
+      Collections.sort(sorted);
+      for (String value : sorted) {
+        sb.append(value).append('\n');
+      }
+    }
+    sb.append('\n');
+  }
 }
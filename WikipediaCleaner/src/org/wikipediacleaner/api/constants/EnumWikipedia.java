@@ -18,6 +18,7 @@ import java.util.Set;
 
 import org.wikipediacleaner.api.API;
 import org.wikipediacleaner.api.APIException;
+import org.wikipediacleaner.api.ResultIterator;
 import org.wikipediacleaner.api.constants.wiki.AbstractWikiSettings;
 import org.wikipediacleaner.api.constants.wiki.Waze;
 import org.wikipediacleaner.api.constants.wiki.WazeopediaUSA;
@@ -31,6 +32,7 @@ import org.wikipediacleaner.api.constants.wiki.Wikiversity;
 import org.wikipediacleaner.api.constants.wiki.Wikivoyage;
 import org.wikipediacleaner.api.constants.wiki.Wiktionary;
 import org.wikipediacleaner.api.data.CharacterUtils;
+import org.wikipediacleaner.api.data.CompactPageList;
 import org.wikipediacleaner.api.data.DataManager;
 import org.wikipediacleaner.api.data.Namespace;
 import org.wikipediacleaner.api.data.Page;
@@ -351,42 +353,34 @@ public enum EnumWikipedia {
     // Use categories if they are defined
     List<Page> dabCategories = config.getDisambiguationCategories();
     if ((dabCategories != null) && (dabCategories.size() > 0)) {
-      ArrayList<Page> tmpResult = new ArrayList<Page>();
+      CompactPageList tmpResult = new CompactPageList(this, false);
       for (Page dabCategory : dabCategories) {
-        api.retrieveCategoryMembers(
-            this, dabCategory, 0, false, Integer.MAX_VALUE);
-        List<Page> tmpPages = dabCategory.getRelatedPages(Page.RelatedPages.CATEGORY_MEMBERS);
-        if (tmpPages != null) {
-          tmpResult.ensureCapacity(tmpResult.size() + tmpPages.size());
-          for (Page page : tmpPages) {
+        ResultIterator<Page> tmpPages = api.iterateCategoryMembers(this, dabCategory);
+        try {
+          while (tmpPages.hasNext()) {
+            Page page = tmpPages.next();
             if (page.isInMainNamespace()) {
               tmpResult.add(page);
             }
           }
+        } finally {
+          tmpPages.close();
         }
       }
-      return tmpResult;
+      tmpResult.trimToSize();
+      return tmpResult.asList();
     }
 
     // Use disambiguation templates
     if (disambiguationTemplates != null) {
-      ArrayList<Page> tmpResult = new ArrayList<Page>();
+      CompactPageList tmpResult = new CompactPageList(this, false);
       for (Page dabTemplate : disambiguationTemplates) {
-        api.retrieveEmbeddedIn(
+        tmpResult.addAll(api.iterateEmbeddedIn(
             this, dabTemplate,
-            Collections.singletonList(Namespace.MAIN),
-            false);
-        List<Page> tmpPages = dabTemplate.getRelatedPages(Page.RelatedPages.EMBEDDED_IN);
-        if (tmpPages != null) {
-          tmpResult.ensureCapacity(tmpResult.size() + tmpPages.size());
-          for (Page page : tmpPages) {
-            if (page.isInMainNamespace()) {
-              tmpResult.add(page);
-            }
-          }
-        }
+            Collections.singletonList(Namespace.MAIN)));
       }
-      return tmpResult;
+      tmpResult.trimToSize();
+      return tmpResult.asList();
     }
 
     return null;
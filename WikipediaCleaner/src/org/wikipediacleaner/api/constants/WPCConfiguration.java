@@ -8,6 +8,11 @@
 package org.wikipediacleaner.api.constants;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.Reader;
 import java.text.MessageFormat;
@@ -17,6 +22,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -31,6 +37,7 @@ import org.wikipediacleaner.api.data.analysis.PageAnalysis;
 import org.wikipediacleaner.api.data.PageAnalysisUtils;
 import org.wikipediacleaner.api.data.PageElementTemplate;
 import org.wikipediacleaner.api.data.Suggestion;
+import org.wikipediacleaner.api.data.Suggestion.ElementarySuggestion;
 import org.wikipediacleaner.api.data.TemplateMatch;
 import org.wikipediacleaner.api.data.TemplateMatcher;
 import org.wikipediacleaner.api.data.TemplateMatcher1L;
@@ -87,28 +94,149 @@ public class WPCConfiguration {
    * @throws APIException Exception thrown by the API.
    */
   public void setConfiguration(Reader inputGeneral, Reader inputUser) throws APIException {
-    setGeneralConfiguration(inputGeneral);
-    if (inputUser != null) {
-      setUserConfiguration(inputUser);
+    setConfiguration(inputGeneral, inputUser, null);
+  }
+
+  /**
+   * Set the configuration and save a snapshot of it.
+   * 
+   * @param inputGeneral Reader for general WPCleaner configuration.
+   * @param inputUser Reader for user WPCleaner configuration.
+   * @param snapshotKey Key of the snapshot to save (null to skip saving).
+   * @throws APIException Exception thrown by the API.
+   * @see #setConfigurationFromSnapshot(String)
+   */
+  public void setConfiguration(
+      Reader inputGeneral, Reader inputUser,
+      String snapshotKey) throws APIException {
+    List<String[]> generalProperties = readProperties(inputGeneral);
+    List<String[]> userProperties = (inputUser != null) ? readProperties(inputUser) : null;
+    setConfiguration(generalProperties, userProperties);
+    if (snapshotKey != null) {
+      saveSnapshot(snapshotKey, generalProperties, userProperties);
+    }
+  }
+
+  /**
+   * Set the configuration from a snapshot saved by
+   * {@link #setConfiguration(Reader, Reader, String)}.
+   * 
+   * @param snapshotKey Key of the snapshot.
+   * @return True if the configuration has been set from the snapshot.
+   */
+  public boolean setConfigurationFromSnapshot(String snapshotKey) {
+    WPCConfigurationSnapshot snapshot = new WPCConfigurationSnapshot(wiki, WPCConfigurationSnapshot.CONFIGURATION);
+    List<String[]> generalProperties = null;
+    List<String[]> userProperties = null;
+    try (DataInputStream input = snapshot.open(snapshotKey)) {
+      if (input == null) {
+        return false;
+      }
+      generalProperties = readSnapshotProperties(input);
+      if (input.readBoolean()) {
+        userProperties = readSnapshotProperties(input);
+      }
+    } catch (IOException e) {
+      log.warn("Unable to read configuration snapshot: " + e.getMessage());
+      return false;
+    }
+    setConfiguration(generalProperties, userProperties);
+    return true;
+  }
+
+  /**
+   * @param generalProperties Properties of the general configuration.
+   * @param userProperties Properties of the user configuration.
+   */
+  private void setConfiguration(
+      List<String[]> generalProperties,
+      List<String[]> userProperties) {
+    cleanConfiguration();
+    for (String[] property : generalProperties) {
+      setProperty(property[0], property[1], true);
+    }
+    if (userProperties != null) {
+      for (String[] property : userProperties) {
+        setProperty(property[0], property[1], false);
+      }
     }
     version++;
   }
 
   /**
-   * @param input Reader for general WPCleaner configuration.
+   * @param input Reader for WPCleaner configuration.
+   * @return List of properties (name and value).
    * @throws APIException Exception thrown by the API.
    */
-  private void setGeneralConfiguration(Reader input) throws APIException {
-    cleanConfiguration();
+  private List<String[]> readProperties(Reader input) throws APIException {
+    List<String[]> properties = new ArrayList<>();
     BufferedReader reader = new BufferedReader(input);
-    while (setNextParameter(reader, true)) {
-      //
+    String[] property = null;
+    while ((property = readNextParameter(reader)) != null) {
+      properties.add(property);
     }
     try {
       reader.close();
     } catch (IOException e) {
       // Nothing
     }
+    return properties;
+  }
+
+  /**
+   * Save a snapshot of the configuration.
+   * 
+   * @param snapshotKey Key of the snapshot.
+   * @param generalProperties Properties of the general configuration.
+   * @param userProperties Properties of the user configuration.
+   */
+  private void saveSnapshot(
+      String snapshotKey,
+      List<String[]> generalProperties,
+      List<String[]> userProperties) {
+    ByteArrayOutputStream contents = new ByteArrayOutputStream();
+    try (DataOutputStream output = new DataOutputStream(contents)) {
+      writeSnapshotProperties(output, generalProperties);
+      output.writeBoolean(userProperties != null);
+      if (userProperties != null) {
+        writeSnapshotProperties(output, userProperties);
+      }
+    } catch (IOException e) {
+      return;
+    }
+    WPCConfigurationSnapshot snapshot = new WPCConfigurationSnapshot(wiki, WPCConfigurationSnapshot.CONFIGURATION);
+    snapshot.save(snapshotKey, contents);
+  }
+
+  /**
+   * @param output Snapshot output.
+   * @param properties List of properties (name and value).
+   * @throws IOException Error writing the snapshot.
+   */
+  private static void writeSnapshotProperties(
+      DataOutput output, List<String[]> properties) throws IOException {
+    output.writeInt(properties.size());
+    for (String[] property : properties) {
+      WPCConfigurationSnapshot.writeString(output, property[0]);
+      WPCConfigurationSnapshot.writeString(output, property[1]);
+    }
+  }
+
+  /**
+   * @param input Snapshot input.
+   * @return List of properties (name and value).
+   * @throws IOException Error reading the snapshot.
+   */
+  private static List<String[]> readSnapshotProperties(
+      DataInput input) throws IOException {
+    int count = WPCConfigurationSnapshot.readCount(input);
+    List<String[]> properties = new ArrayList<>(Math.min(count, 1024));
+    for (int i = 0; i < count; i++) {
+      String name = WPCConfigurationSnapshot.readString(input);
+      String value = WPCConfigurationSnapshot.readString(input);
+      properties.add(new String[] { name, value });
+    }
+    return properties;
   }
 
   /**
@@ -131,22 +259,6 @@ public class WPCConfiguration {
     wiktionaryMatches = null;
   }
 
-  /**
-   * @param input Reader for user WPCleaner configuration.
-   * @throws APIException Exception thrown by the API.
-   */
-  private void setUserConfiguration(Reader input) throws APIException {
-    BufferedReader reader = new BufferedReader(input);
-    while (setNextParameter(reader, false)) {
-      //
-    }
-    try {
-      reader.close();
-    } catch (IOException e) {
-      // Nothing
-    }
-  }
-
   /**
    * @return Version of the configuration.
    */
@@ -158,12 +270,11 @@ public class WPCConfiguration {
    * Extract next parameter from WPCleaner configuration.
    *
    * @param reader Reader for the configuration.
-   * @param general Flag indicating if dealing with general or user properties.
-   * @return Next parameter found.
+   * @return Next parameter found (name and value), null if none.
    * @throw APIException.
    */
-  private boolean setNextParameter(
-      BufferedReader reader, boolean general) throws APIException {
+  private String[] readNextParameter(
+      BufferedReader reader) throws APIException {
     String line;
     try {
       while ((line = reader.readLine()) != null) {
@@ -190,14 +301,13 @@ public class WPCConfiguration {
             }
           }
           line = line.substring(0, posEnd);
-          setProperty(name, line, general);
-          return true;
+          return new String[] { name, line };
         }
       }
     } catch (IOException e) {
       throw new APIException("Error reading WPCleaner configuration: " + e.getMessage());
     }
-    return false;
+    return null;
   }
 
   /**
@@ -240,6 +350,41 @@ public class WPCConfiguration {
    */
   private final Map<WPCConfigurationLong, Long> userLongValues;
 
+  /**
+   * Build a stable representation of the configuration.
+   * Two configurations with the same signature have the same values for every attribute.
+   * 
+   * @return Signature of the configuration.
+   */
+  public String getConfigurationSignature() {
+    StringBuilder sb = new StringBuilder();
+    appendSignature(sb, generalBooleanValues);
+    appendSignature(sb, userBooleanValues);
+    appendSignature(sb, generalStringValues);
+    appendSignature(sb, userStringValues);
+    appendSignature(sb, generalStringListValues);
+    appendSignature(sb, userStringListValues);
+    appendSignature(sb, generalLongValues);
+    appendSignature(sb, userLongValues);
+    return sb.toString();
+  }
+
+  /**
+   * @param sb Buffer.
+   * @param values Values to add to the signature, sorted by attribute name.
+   */
+  private static void appendSignature(StringBuilder sb, Map<? extends Enum<?>, ?> values) {
+    List<String> entries = new ArrayList<>();
+    for (Map.Entry<? extends Enum<?>, ?> entry : values.entrySet()) {
+      entries.add(entry.getKey().name() + "=" + entry.getValue());
+    }
+    Collections.sort(entries);
+    for (String entry : entries) {
+      sb.append(entry).append('\n');
+    }
+    sb.append('\n');
+  }
+
   /**
    * Retrieve the value of a Boolean attribute.
    * 
@@ -619,7 +764,7 @@ public class WPCConfiguration {
       synchronized (api) {
 
         // Load all pages contents
-        Map<String, Page> pages = new HashMap<String, Page>();
+        Map<String, Page> pages = new TreeMap<String, Page>();
         List<String[]> suggestionPages = getStringArrayList(WPCConfigurationStringList.SUGGESTION_PAGES);
         if (suggestionPages != null) {
           for (String[] elements : suggestionPages) {
@@ -639,6 +784,25 @@ public class WPCConfiguration {
             }
           }
         }
+
+        // Use the snapshot of the suggestions if the pages haven't been modified
+        WPCConfigurationSnapshot snapshot = new WPCConfigurationSnapshot(wiki, WPCConfigurationSnapshot.SUGGESTIONS);
+        String snapshotExtra =
+            getStringList(WPCConfigurationStringList.SUGGESTION_PAGES) + "\n" +
+            suggestionTypoPages + "\n" +
+            getStringList(WPCConfigurationStringList.SUGGESTION_IGNORE);
+        try {
+          api.retrieveInfo(wiki, pages.values());
+          Map<String, Suggestion> snapshotMap = readSuggestionsSnapshot(
+              snapshot, WPCConfigurationSnapshot.computeKey(pages.values(), snapshotExtra));
+          if (snapshotMap != null) {
+            suggestions = snapshotMap;
+            return;
+          }
+        } catch (APIException e) {
+          // Suggestions are constructed from the pages contents
+        }
+
         try {
           api.retrieveContents(wiki, pages.values(), false, false);
         } catch (APIException e) {
@@ -742,7 +906,88 @@ public class WPCConfiguration {
         }
 
         suggestions = tmpMap;
+
+        // Save a snapshot of the suggestions if all pages have been read
+        boolean complete = true;
+        for (Page page : pages.values()) {
+          if ((page.getContents() == null) && !Boolean.FALSE.equals(page.isExisting())) {
+            complete = false;
+          }
+        }
+        if (complete) {
+          saveSuggestionsSnapshot(
+              snapshot, WPCConfigurationSnapshot.computeKey(pages.values(), snapshotExtra),
+              tmpMap);
+        }
+      }
+    }
+  }
+
+  /**
+   * @param snapshot Snapshot of the suggestions.
+   * @param snapshotKey Key of the snapshot.
+   * @param values Suggestions.
+   */
+  private static void saveSuggestionsSnapshot(
+      WPCConfigurationSnapshot snapshot, String snapshotKey,
+      Map<String, Suggestion> values) {
+    if (snapshotKey == null) {
+      return;
+    }
+    ByteArrayOutputStream contents = new ByteArrayOutputStream();
+    try (DataOutputStream output = new DataOutputStream(contents)) {
+      output.writeInt(values.size());
+      for (Map.Entry<String, Suggestion> entry : values.entrySet()) {
+        Suggestion suggestion = entry.getValue();
+        WPCConfigurationSnapshot.writeString(output, entry.getKey());
+        WPCConfigurationSnapshot.writeString(output, suggestion.getPatternText());
+        output.writeBoolean(suggestion.isOtherPattern());
+        WPCConfigurationSnapshot.writeString(output, suggestion.getChapter());
+        WPCConfigurationSnapshot.writeString(output, suggestion.getComment());
+        List<ElementarySuggestion> replacements = suggestion.getReplacements();
+        output.writeInt(replacements.size());
+        for (ElementarySuggestion replacement : replacements) {
+          WPCConfigurationSnapshot.writeString(output, replacement.getReplacement());
+          output.writeBoolean(replacement.isAutomatic());
+        }
       }
+    } catch (IOException e) {
+      return;
+    }
+    snapshot.save(snapshotKey, contents);
+  }
+
+  /**
+   * @param snapshot Snapshot of the suggestions.
+   * @param snapshotKey Key of the snapshot.
+   * @return Suggestions read from the snapshot, null if the snapshot can't be used.
+   */
+  private static Map<String, Suggestion> readSuggestionsSnapshot(
+      WPCConfigurationSnapshot snapshot, String snapshotKey) {
+    try (DataInputStream input = snapshot.open(snapshotKey)) {
+      if (input == null) {
+        return null;
+      }
+      int count = WPCConfigurationSnapshot.readCount(input);
+      Map<String, Suggestion> values = new HashMap<String, Suggestion>();
+      for (int i = 0; i < count; i++) {
+        String key = WPCConfigurationSnapshot.readString(input);
+        String patternText = WPCConfigurationSnapshot.readString(input);
+        boolean other = input.readBoolean();
+        String chapter = WPCConfigurationSnapshot.readString(input);
+        Suggestion suggestion = Suggestion.restoreSuggestion(patternText, other, chapter);
+        suggestion.setComment(WPCConfigurationSnapshot.readString(input));
+        int replacementsCount = WPCConfigurationSnapshot.readCount(input);
+        for (int j = 0; j < replacementsCount; j++) {
+          String replacement = WPCConfigurationSnapshot.readString(input);
+          suggestion.addReplacement(replacement, input.readBoolean());
+        }
+        values.put(key, suggestion);
+      }
+      return values;
+    } catch (IOException e) {
+      log.warn("Unable to read suggestions snapshot: " + e.getMessage());
+      return null;
     }
   }
 
@@ -0,0 +1,248 @@
+/*
+ *  WPCleaner: A tool to help on Wikipedia maintenance tasks.
+ *  Copyright (C) 2020  Nicolas Vervelle
+ *
+ *  See README.txt file for licensing information.
+ */
+
+
+package org.wikipediacleaner.api.constants;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+
+import org.apache.commons.lang3.SystemUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wikipediacleaner.Version;
+import org.wikipediacleaner.api.data.Page;
+
+
+/**
+ * Local binary snapshot of a parsed part of the WPCleaner configuration.
+ * 
+ * <p>
+ * A snapshot is identified by a key built from the revisions of the pages
+ * it has been parsed from: it is only used while these pages are unchanged.
+ * It is also discarded when the version of WPCleaner changes.
+ * </p>
+ */
+public class WPCConfigurationSnapshot {
+
+  /** Logs */
+  private final static Logger log = LoggerFactory.getLogger(WPCConfigurationSnapshot.class);
+
+  /** Magic number at the beginning of a snapshot file */
+  private final static int MAGIC = 0x57504353;
+
+  /** Version of the snapshot format */
+  private final static int FORMAT_VERSION = 1;
+
+  /** Maximum length of a string or of a list in a snapshot, to detect corrupted snapshots */
+  private final static int MAX_LENGTH = 64 * 1024 * 1024;
+
+  /** Snapshot of the general and user configuration */
+  public final static String CONFIGURATION = "configuration";
+
+  /** Snapshot of the suggestions */
+  public final static String SUGGESTIONS = "suggestions";
+
+  /** File in which the snapshot is persisted */
+  private final File file;
+
+  /**
+   * @param wiki Wiki.
+   * @param kind Kind of snapshot.
+   */
+  public WPCConfigurationSnapshot(EnumWikipedia wiki, String kind) {
+    File directory = new File(new File(SystemUtils.getUserHome(), "." + Version.PROGRAM), "snapshots");
+    this.file = new File(directory, wiki.getSettings().getCode() + "_" + kind + ".bin");
+  }
+
+  /**
+   * @param file File in which the snapshot is persisted.
+   */
+  public WPCConfigurationSnapshot(File file) {
+    this.file = file;
+  }
+
+  /**
+   * Compute the key of a snapshot from the pages it is parsed from.
+   * 
+   * @param pages Pages.
+   * @param extra Extra information on which the snapshot depends.
+   * @return Key of the snapshot, null if the revision of a page is unknown.
+   */
+  public static String computeKey(Collection<Page> pages, String extra) {
+    StringBuilder key = new StringBuilder();
+    for (Page page : pages) {
+      if (page == null) {
+        continue;
+      }
+      key.append(page.getTitle());
+      key.append('\n');
+      if (Boolean.FALSE.equals(page.isExisting())) {
+        key.append('-');
+      } else if (page.getRevisionId() != null) {
+        key.append(page.getRevisionId());
+      } else {
+        return null;
+      }
+      key.append('\n');
+    }
+    if (extra != null) {
+      key.append(extra);
+    }
+    return key.toString();
+  }
+
+  /**
+   * Open the snapshot for reading.
+   * 
+   * @param key Expected key of the snapshot.
+   * @return Stream positioned on the contents of the snapshot,
+   *         null if there's no snapshot for this key.
+   */
+  public DataInputStream open(String key) {
+    if ((key == null) || !file.isFile()) {
+      return null;
+    }
+    DataInputStream input = null;
+    try {
+      input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+      if ((input.readInt() == MAGIC) &&
+          (input.readInt() == FORMAT_VERSION) &&
+          Version.VERSION.equals(readString(input)) &&
+          key.equals(readString(input))) {
+        DataInputStream result = input;
+        input = null;
+        return result;
+      }
+    } catch (IOException e) {
+      log.warn("Unable to read snapshot {}: {}", file, e.getMessage());
+    } finally {
+      if (input != null) {
+        try {
+          input.close();
+        } catch (IOException e) {
+          // Nothing to do
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Save the snapshot.
+   * The file is replaced atomically so that a concurrent reader never sees a partial snapshot.
+   * 
+   * @param key Key of the snapshot.
+   * @param contents Contents of the snapshot.
+   */
+  public void save(String key, ByteArrayOutputStream contents) {
+    if ((key == null) || (contents == null)) {
+      return;
+    }
+    File directory = file.getAbsoluteFile().getParentFile();
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      log.warn("Unable to create directory {}", directory);
+      return;
+    }
+    Path tmpFile = null;
+    try {
+      tmpFile = Files.createTempFile(directory.toPath(), file.getName(), ".tmp");
+      try (DataOutputStream output = new DataOutputStream(
+          new BufferedOutputStream(Files.newOutputStream(tmpFile)))) {
+        output.writeInt(MAGIC);
+        output.writeInt(FORMAT_VERSION);
+        writeString(output, Version.VERSION);
+        writeString(output, key);
+        contents.writeTo(output);
+      }
+      try {
+        Files.move(
+            tmpFile, file.toPath(),
+            StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(tmpFile, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      }
+      tmpFile = null;
+    } catch (IOException e) {
+      log.warn("Unable to save snapshot {}: {}", file, e.getMessage());
+    } finally {
+      if (tmpFile != null) {
+        try {
+          Files.deleteIfExists(tmpFile);
+        } catch (IOException e) {
+          // Nothing to do
+        }
+      }
+    }
+  }
+
+  /**
+   * Write a string, without the 64K limitation of {@link DataOutput#writeUTF(String)}.
+   * 
+   * @param output Output.
+   * @param value String (may be null).
+   * @throws IOException Error writing the string.
+   */
+  public static void writeString(DataOutput output, String value) throws IOException {
+    if (value == null) {
+      output.writeInt(-1);
+      return;
+    }
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    output.writeInt(bytes.length);
+    output.write(bytes);
+  }
+
+  /**
+   * Read a string written by {@link #writeString(DataOutput, String)}.
+   * 
+   * @param input Input.
+   * @return String (may be null).
+   * @throws IOException Error reading the string.
+   */
+  public static String readString(DataInput input) throws IOException {
+    int length = input.readInt();
+    if (length == -1) {
+      return null;
+    }
+    if ((length < 0) || (length > MAX_LENGTH)) {
+      throw new IOException("Invalid string length in snapshot: " + length);
+    }
+    byte[] bytes = new byte[length];
+    input.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Read the number of elements of a list.
+   * 
+   * @param input Input.
+   * @return Number of elements.
+   * @throws IOException Error reading the number or invalid number.
+   */
+  public static int readCount(DataInput input) throws IOException {
+    int count = input.readInt();
+    if ((count < 0) || (count > MAX_LENGTH)) {
+      throw new IOException("Invalid count in snapshot: " + count);
+    }
+    return count;
+  }
+}
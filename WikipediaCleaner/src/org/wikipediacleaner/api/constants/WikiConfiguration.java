@@ -7,7 +7,6 @@
 
 package org.wikipediacleaner.api.constants;
 
-import java.io.UnsupportedEncodingException;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -17,6 +16,7 @@ import org.wikipediacleaner.api.data.Language;
 import org.wikipediacleaner.api.data.LinterCategory;
 import org.wikipediacleaner.api.data.MagicWord;
 import org.wikipediacleaner.api.data.Namespace;
+import org.wikipediacleaner.api.data.NamespaceResolver;
 import org.wikipediacleaner.api.data.SpecialPage;
 
 
@@ -113,14 +113,41 @@ public class WikiConfiguration {
     if ((maxArticleSize == null) || (text == null)) {
       return false;
     }
-    try {
-      if (text.getBytes("UTF-8").length > maxArticleSize.longValue()) {
-        return true;
+    return getArticleSize(text, 0, text.length()) > maxArticleSize.longValue();
+  }
+
+  /**
+   * Compute the size of a text as measured by MediaWiki (UTF-8 bytes),
+   * without encoding it.
+   * 
+   * @param text Text.
+   * @param begin Begin index in the text.
+   * @param end End index in the text.
+   * @return Number of bytes used by the text encoded in UTF-8.
+   */
+  public static long getArticleSize(CharSequence text, int begin, int end) {
+    long size = 0;
+    int index = begin;
+    while (index < end) {
+      char current = text.charAt(index);
+      index++;
+      if (current < 0x80) {
+        size++;
+      } else if (current < 0x800) {
+        size += 2;
+      } else if (Character.isHighSurrogate(current) &&
+                 (index < end) &&
+                 Character.isLowSurrogate(text.charAt(index))) {
+        size += 4;
+        index++;
+      } else if (Character.isSurrogate(current)) {
+        // Unpaired surrogates are replaced by a single "?"
+        size++;
+      } else {
+        size += 3;
       }
-    } catch (UnsupportedEncodingException e) {
-      // Nothing to do
     }
-    return false;
+    return size;
   }
 
   /**
@@ -146,6 +173,11 @@ public class WikiConfiguration {
    */
   private List<Namespace> namespaces;
 
+  /**
+   * Index of namespaces by name and identifier.
+   */
+  private NamespaceResolver namespaceResolver;
+
   /**
    * @return List of namespaces
    */
@@ -161,6 +193,7 @@ public class WikiConfiguration {
     if (namespaces != null) {
       Collections.sort(namespaces);
     }
+    this.namespaceResolver = NamespaceResolver.create(namespaces);
   }
 
   /**
@@ -168,15 +201,39 @@ public class WikiConfiguration {
    * @return Matching namespace.
    */
   public Namespace getNamespace(int id) {
-    if (namespaces == null) {
+    NamespaceResolver resolver = namespaceResolver;
+    if (resolver == null) {
       return null;
     }
-    for (Namespace n : namespaces) {
-      if ((n != null) && (n.getId() != null) && (id == n.getId().intValue())) {
-        return n;
-      }
+    return resolver.getNamespace(id);
+  }
+
+  /**
+   * @param name Namespace name or alias.
+   * @return Matching namespace.
+   */
+  public Namespace getNamespaceByName(String name) {
+    NamespaceResolver resolver = namespaceResolver;
+    if (resolver == null) {
+      return null;
     }
-    return null;
+    return resolver.getNamespace(name);
+  }
+
+  /**
+   * Find the namespace corresponding to a part of a text, without extracting it.
+   * 
+   * @param text Text containing the namespace name (like a page title).
+   * @param beginIndex Begin index of the namespace name in the text.
+   * @param endIndex End index of the namespace name in the text.
+   * @return Matching namespace.
+   */
+  public Namespace getNamespaceByName(CharSequence text, int beginIndex, int endIndex) {
+    NamespaceResolver resolver = namespaceResolver;
+    if (resolver == null) {
+      return null;
+    }
+    return resolver.getNamespace(text, beginIndex, endIndex);
   }
 
   /**
@@ -198,11 +255,9 @@ public class WikiConfiguration {
         return namespace.getCaseSensitiveness().normalize(title);
       }
       if (colonIndex > 0) {
-        String possibleNamespace = title.substring(0, colonIndex);
-        for (Namespace n : namespaces) {
-          if (n.isPossibleName(possibleNamespace)) {
-            return n.getTitle() + ":" + n.getCaseSensitiveness().normalize(title.substring(colonIndex + 1));
-          }
+        Namespace n = getNamespaceByName(title, 0, colonIndex);
+        if (n != null) {
+          return n.getTitle() + ":" + n.getCaseSensitiveness().normalize(title.substring(colonIndex + 1));
         }
       }
       return namespace.getTitle() + ":" + namespace.getCaseSensitiveness().normalize(title);
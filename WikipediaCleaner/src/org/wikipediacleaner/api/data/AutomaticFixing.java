@@ -11,7 +11,6 @@ import java.util.Collection;
 import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.regex.PatternSyntaxException;
 
 import javax.xml.bind.annotation.XmlRootElement;
 import javax.xml.bind.annotation.XmlType;
@@ -115,75 +114,104 @@ public class AutomaticFixing implements Comparable<AutomaticFixing> {
     if ((text == null) || (fixing == null) || (fixing.isEmpty())) {
       return text;
     }
+    return AutomaticFixingProgram.compile(fixing).apply(text, replacements);
+  }
 
-    // Apply each automatic fixing expression to the text
-    StringBuffer tmpText = new StringBuffer();
-    for (AutomaticFixing replacement : fixing) {
-
-      // Initialize data
-      tmpText.setLength(0);
-      String originalText = replacement.getOriginalText();
-      String replacementText = replacement.getReplacementText();
-      if (replacementText == null) {
-        replacementText = "";
+  /**
+   * Apply a regular expression to a text.
+   * 
+   * @param pattern Regular expression.
+   * @param replacementText Replacement text.
+   * @param text Original text.
+   * @param tmpText Buffer that can be used for building the new text.
+   * @param replacements Optional list of replacements performed.
+   * @return Text with replacements done.
+   */
+  static String applyRegex(
+      Pattern pattern, String replacementText,
+      String text, StringBuffer tmpText,
+      List<String> replacements) {
+    if (replacementText == null) {
+      replacementText = "";
+    }
+    tmpText.setLength(0);
+    int currentIndex = 0;
+    Matcher matcher = pattern.matcher(text);
+    while (matcher.find()) {
+      String foundText = matcher.group();
+      int start = matcher.start();
+      int end = matcher.end();
+      int currentLength = tmpText.length();
+      matcher.appendReplacement(tmpText, replacementText);
+      if (replacements != null) {
+        String replacedBy = tmpText.substring(currentLength + start - currentIndex);
+        String comment = foundText + " → " + replacedBy;
+        if (!replacements.contains(comment)) {
+          replacements.add(comment);
+        }
       }
+      currentIndex = end;
+    }
+    return finishReplacement(text, tmpText, currentIndex);
+  }
 
-      int currentIndex = 0;
-      if (replacement.regex) {
-        // Apply for a regular expression
-        try {
-          Pattern pattern = Pattern.compile(originalText);
-          Matcher matcher = pattern.matcher(text);
-          while (matcher.find()) {
-            String foundText = matcher.group();
-            int start = matcher.start();
-            int end = matcher.end();
-            int currentLength = tmpText.length();
-            matcher.appendReplacement(tmpText, replacementText);
-            if (replacements != null) {
-              String replacedBy = tmpText.substring(currentLength + start - currentIndex);
-              String comment = foundText + " → " + replacedBy;
-              if (!replacements.contains(comment)) {
-                replacements.add(comment);
-              }
-            }
-            currentIndex = end;
-          }
-        } catch (PatternSyntaxException e) {
-          System.err.println("Error with " + originalText + ": " + e.getMessage());
-        }
+  /**
+   * Apply a basic expression to a text.
+   * 
+   * @param originalText Original text.
+   * @param replacementText Replacement text.
+   * @param text Text.
+   * @param tmpText Buffer that can be used for building the new text.
+   * @param replacements Optional list of replacements performed.
+   * @return Text with replacements done.
+   */
+  static String applyBasic(
+      String originalText, String replacementText,
+      String text, StringBuffer tmpText,
+      List<String> replacements) {
+    if (replacementText == null) {
+      replacementText = "";
+    }
+    tmpText.setLength(0);
+    int currentIndex = 0;
+    boolean finished = false;
+    while (!finished) {
+      int newIndex = text.indexOf(originalText, currentIndex);
+      if (newIndex < 0) {
+        finished = true;
       } else {
-        // Apply for a basic expression
-        boolean finished = false;
-        while (!finished) {
-          int newIndex = text.indexOf(originalText, currentIndex);
-          if (newIndex < 0) {
-            finished = true;
-          } else {
-            if (newIndex > currentIndex) {
-              tmpText.append(text.substring(currentIndex, newIndex));
-              currentIndex = newIndex;
-            }
-            tmpText.append(replacementText);
-            currentIndex += originalText.length();
-            if (replacements != null) {
-              String comment = originalText + " → " + replacementText;
-              if (!replacements.contains(comment)) {
-                replacements.add(comment);
-              }
-            }
-          }
+        if (newIndex > currentIndex) {
+          tmpText.append(text.substring(currentIndex, newIndex));
+          currentIndex = newIndex;
         }
-      }
-      if (currentIndex > 0) {
-        if (currentIndex < text.length()) {
-          tmpText.append(text.substring(currentIndex));
+        tmpText.append(replacementText);
+        currentIndex += originalText.length();
+        if (replacements != null) {
+          String comment = originalText + " → " + replacementText;
+          if (!replacements.contains(comment)) {
+            replacements.add(comment);
+          }
         }
-        text = tmpText.toString();
       }
     }
+    return finishReplacement(text, tmpText, currentIndex);
+  }
 
-    return text;
+  /**
+   * @param text Original text.
+   * @param tmpText Buffer with the new text up to the current index.
+   * @param currentIndex Current index in the original text.
+   * @return Text with replacements done.
+   */
+  private static String finishReplacement(
+      String text, StringBuffer tmpText, int currentIndex) {
+    if (currentIndex <= 0) {
+      return text;
+    }
+    if (currentIndex < text.length()) {
+      tmpText.append(text.substring(currentIndex));
+    }
+    return tmpText.toString();
   }
 
   /**
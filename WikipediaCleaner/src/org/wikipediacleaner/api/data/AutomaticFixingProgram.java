@@ -0,0 +1,132 @@
+/*
+ *  WPCleaner: A tool to help on Wikipedia maintenance tasks.
+ *  Copyright (C) 2020  Nicolas Vervelle
+ *
+ *  See README.txt file for licensing information.
+ */
+
+package org.wikipediacleaner.api.data;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.wikipediacleaner.utils.MultiLiteralMatcher;
+
+
+/**
+ * A list of automatic fixing expressions prepared once to be applied on many texts.
+ * 
+ * <p>
+ * Regular expressions are compiled only once, and all basic expressions
+ * are searched together in a single pass on the text, so that only the
+ * expressions actually present in the text are applied.
+ * Expressions are still applied in order, each one on the result of the previous ones.
+ * </p>
+ */
+public class AutomaticFixingProgram {
+
+  /** Automatic fixing expressions */
+  private final AutomaticFixing[] fixings;
+
+  /** Compiled regular expressions (null for basic expressions) */
+  private final Pattern[] patterns;
+
+  /** True for expressions that can be applied */
+  private final boolean[] valid;
+
+  /** Automaton for searching basic expressions */
+  private final MultiLiteralMatcher automaton;
+
+  /**
+   * @param fixings Automatic fixing expressions.
+   */
+  private AutomaticFixingProgram(AutomaticFixing[] fixings) {
+    this.fixings = fixings;
+    this.patterns = new Pattern[fixings.length];
+    this.valid = new boolean[fixings.length];
+    this.automaton = new MultiLiteralMatcher(false);
+    for (int index = 0; index < fixings.length; index++) {
+      AutomaticFixing fixing = fixings[index];
+      String originalText = fixing.getOriginalText();
+      if ((originalText == null) || (originalText.length() == 0)) {
+        valid[index] = false;
+      } else if (Boolean.TRUE.equals(fixing.getRegex())) {
+        try {
+          patterns[index] = Pattern.compile(originalText);
+          valid[index] = true;
+        } catch (PatternSyntaxException e) {
+          System.err.println("Error with " + originalText + ": " + e.getMessage());
+          valid[index] = false;
+        }
+      } else {
+        automaton.add(originalText, index);
+        valid[index] = true;
+      }
+    }
+    automaton.build();
+  }
+
+  /**
+   * Prepare a list of automatic fixing expressions.
+   * 
+   * @param fixing List of automatic fixing expressions.
+   * @return Automatic fixing expressions ready to be applied.
+   */
+  public static AutomaticFixingProgram compile(Collection<AutomaticFixing> fixing) {
+    if (fixing == null) {
+      return new AutomaticFixingProgram(new AutomaticFixing[0]);
+    }
+    return new AutomaticFixingProgram(fixing.toArray(new AutomaticFixing[fixing.size()]));
+  }
+
+  /**
+   * @return True if there's no automatic fixing expressions.
+   */
+  public boolean isEmpty() {
+    return fixings.length == 0;
+  }
+
+  /**
+   * Apply the automatic fixing expressions to a text.
+   * 
+   * @param text Original text.
+   * @param replacements Optional list of replacements performed.
+   * @return Text with replacements done.
+   */
+  public String apply(String text, List<String> replacements) {
+    if ((text == null) || (fixings.length == 0)) {
+      return text;
+    }
+
+    BitSet presentLiterals = null;
+    StringBuffer tmpText = new StringBuffer();
+    for (int index = 0; index < fixings.length; index++) {
+      if (valid[index]) {
+        AutomaticFixing fixing = fixings[index];
+        String newText = null;
+        if (patterns[index] != null) {
+          newText = AutomaticFixing.applyRegex(
+              patterns[index], fixing.getReplacementText(),
+              text, tmpText, replacements);
+        } else {
+          if (presentLiterals == null) {
+            presentLiterals = automaton.search(text);
+          }
+          if (presentLiterals.get(index)) {
+            newText = AutomaticFixing.applyBasic(
+                fixing.getOriginalText(), fixing.getReplacementText(),
+                text, tmpText, replacements);
+          }
+        }
+        if ((newText != null) && (newText != text)) {
+          text = newText;
+          presentLiterals = null;
+        }
+      }
+    }
+    return text;
+  }
+}
@@ -8,11 +8,13 @@
 
 package org.wikipediacleaner.api.data;
 
-import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
-import org.apache.commons.codec.digest.DigestUtils;
 import org.wikipediacleaner.api.algorithm.AlgorithmError;
 import org.wikipediacleaner.api.check.algorithm.CheckErrorAlgorithm;
 import org.wikipediacleaner.api.check.algorithm.CheckErrorAlgorithms;
@@ -51,12 +53,21 @@ public class AutomaticFormatter {
     // Fix Check Wiki errors
     if (algorithms != null) {
       boolean finished = true;
-      List<String> md5List = new ArrayList<>();
-      md5List.add(DigestUtils.md5Hex(contents));
+      Set<Long> fingerprints = new HashSet<>();
+      fingerprints.add(Long.valueOf(computeFingerprint(contents)));
       int modificationsCount = 0; 
+
+      // Each modification creates a new version of the contents (its number is modificationsCount).
+      // An algorithm that didn't modify a version doesn't need to be run again on the same version.
+      Map<CheckErrorAlgorithm, Integer> unmodifiedVersions = new HashMap<>();
       do {
         finished = true;
         for (CheckErrorAlgorithm algorithm : algorithms) {
+          Integer unmodifiedVersion = unmodifiedVersions.get(algorithm);
+          if ((unmodifiedVersion != null) &&
+              (unmodifiedVersion.intValue() == modificationsCount)) {
+            continue;
+          }
           if (algorithm.isAvailable() &&
               CheckErrorAlgorithms.isAlgorithmActive(wiki, algorithm.getErrorNumber())) {
             String currentContents = contents;
@@ -66,16 +77,15 @@ public class AutomaticFormatter {
               PageAnalysis analysis = page.getAnalysis(currentContents, true);
               contents = botFix ? algorithm.botFix(analysis) : algorithm.automaticFix(analysis);
               if (!contents.equals(currentContents)) {
-                String md5 = DigestUtils.md5Hex(contents);
-                if (md5List.contains(md5)) {
+                if (!fingerprints.add(Long.valueOf(computeFingerprint(contents)))) {
                   contents = currentContents;
                 } else {
                   modified = true;
                   modificationsCount++;
-                  md5List.add(md5);
                 }
               }
             } while (!contents.equals(currentContents) && (modificationsCount < 1000));
+            unmodifiedVersions.put(algorithm, Integer.valueOf(modificationsCount));
             if (modified) {
               finished = false;
               if (usedAlgorithms != null) {
@@ -689,6 +699,24 @@ public class AutomaticFormatter {
 
   // Utility functions
 
+  /**
+   * Compute a 64-bit fingerprint of the contents (FNV-1a hash).
+   * 
+   * @param contents Contents.
+   * @return Fingerprint of the contents.
+   */
+  private static long computeFingerprint(String contents) {
+    long hash = 0xcbf29ce484222325L;
+    for (int index = 0; index < contents.length(); index++) {
+      char currentChar = contents.charAt(index);
+      hash ^= (currentChar & 0xFF);
+      hash *= 0x100000001b3L;
+      hash ^= (currentChar >>> 8);
+      hash *= 0x100000001b3L;
+    }
+    return hash;
+  }
+
   /**
    * Insert characters.
    * 
@@ -0,0 +1,288 @@
+/*
+ *  WPCleaner: A tool to help on Wikipedia maintenance tasks.
+ *  Copyright (C) 2020  Nicolas Vervelle
+ *
+ *  See README.txt file for licensing information.
+ */
+
+package org.wikipediacleaner.api.data;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+
+/**
+ * Node of the backlink graph for a page.
+ * 
+ * <p>
+ * A node keeps the links to the page and edges to the nodes of the redirects to the page.
+ * The list of all links to the page (including through redirects), deduplicated,
+ * and the counts by namespace are computed once and memorized until
+ * the links or the redirects of the page or of one of its redirects are updated.
+ * </p>
+ * 
+ * <p>
+ * Each node is protected by its own lock, and a thread never holds the locks
+ * of two nodes at the same time: invalidation visits the nodes one after the other,
+ * and computation works on a snapshot of the node taken under its lock.
+ * A version number, increased at each invalidation, prevents memorizing
+ * information computed from a snapshot that has become outdated.
+ * </p>
+ * 
+ * <p>
+ * When redirects form a loop, the information computed for a node of the loop
+ * may miss the links of the nodes above it in the loop:
+ * it is then used only for computing these nodes, and not memorized.
+ * </p>
+ */
+class BacklinkNode {
+
+  /** Links to the page */
+  private List<Page> linksHere;
+
+  /** Nodes of the redirects to the page */
+  private List<BacklinkNode> redirects;
+
+  /** Nodes of the pages to which the page is a redirect */
+  private final List<BacklinkNode> targets;
+
+  /** All links to the page, including through redirects */
+  private List<Page> allLinks;
+
+  /** Count of links in the main namespace */
+  private int countMain;
+
+  /** Count of links in the template namespace */
+  private int countTemplate;
+
+  /** True if the memorized information is up to date */
+  private boolean valid;
+
+  /** Version of the node, increased each time it is invalidated */
+  private long version;
+
+  /**
+   * Constructor.
+   */
+  BacklinkNode() {
+    this.targets = new ArrayList<>(1);
+  }
+
+  /**
+   * @param links Links to the page.
+   */
+  void setLinksHere(List<Page> links) {
+    synchronized (this) {
+      linksHere = links;
+    }
+    invalidate();
+  }
+
+  /**
+   * @param pages Redirects to the page.
+   */
+  void setRedirects(List<Page> pages) {
+    List<BacklinkNode> newRedirects = null;
+    if (pages != null) {
+      newRedirects = new ArrayList<>(pages.size());
+      for (Page page : pages) {
+        if (page != null) {
+          newRedirects.add(page.getBacklinkNode());
+        }
+      }
+    }
+    List<BacklinkNode> oldRedirects = null;
+    synchronized (this) {
+      oldRedirects = redirects;
+      redirects = newRedirects;
+    }
+    if (oldRedirects != null) {
+      for (BacklinkNode redirect : oldRedirects) {
+        synchronized (redirect) {
+          redirect.targets.remove(this);
+        }
+      }
+    }
+    if (newRedirects != null) {
+      for (BacklinkNode redirect : newRedirects) {
+        synchronized (redirect) {
+          redirect.targets.add(this);
+        }
+      }
+    }
+    invalidate();
+  }
+
+  /**
+   * @return All links to the page, including through redirects.
+   */
+  List<Page> getAllLinks() {
+    return compute(null);
+  }
+
+  /**
+   * @return Count of links to the page, including through redirects.
+   */
+  Integer getCount() {
+    while (true) {
+      compute(null);
+      synchronized (this) {
+        if (valid) {
+          return (allLinks != null) ? Integer.valueOf(allLinks.size()) : null;
+        }
+      }
+    }
+  }
+
+  /**
+   * @return Count of links to the page in the main namespace, including through redirects.
+   */
+  Integer getCountInMainNamespace() {
+    while (true) {
+      compute(null);
+      synchronized (this) {
+        if (valid) {
+          return (allLinks != null) ? Integer.valueOf(countMain) : null;
+        }
+      }
+    }
+  }
+
+  /**
+   * @return Count of links to the page in the template namespace, including through redirects.
+   */
+  Integer getCountInTemplateNamespace() {
+    while (true) {
+      compute(null);
+      synchronized (this) {
+        if (valid) {
+          return (allLinks != null) ? Integer.valueOf(countTemplate) : null;
+        }
+      }
+    }
+  }
+
+  /**
+   * Invalidate the memorized information of the node and of the nodes depending on it.
+   */
+  private void invalidate() {
+    Map<BacklinkNode, Boolean> visited = new IdentityHashMap<>();
+    List<BacklinkNode> toInvalidate = new ArrayList<>();
+    toInvalidate.add(this);
+    while (!toInvalidate.isEmpty()) {
+      BacklinkNode node = toInvalidate.remove(toInvalidate.size() - 1);
+      if (visited.put(node, Boolean.TRUE) == null) {
+        synchronized (node) {
+          node.valid = false;
+          node.allLinks = null;
+          node.version++;
+          toInvalidate.addAll(node.targets);
+        }
+      }
+    }
+  }
+
+  /**
+   * Nodes being computed, to stop on redirect loops.
+   */
+  private static class Computation {
+
+    /** Depth of each node being computed */
+    final Map<BacklinkNode, Integer> depths = new IdentityHashMap<>();
+
+    /** Lowest depth of the nodes on which a redirect loop was stopped in the current subtree */
+    int loopDepth = Integer.MAX_VALUE;
+  }
+
+  /**
+   * Compute the memorized information if needed.
+   * 
+   * @param computation Nodes being computed, to stop on redirect loops.
+   * @return All links to the page, including through redirects.
+   */
+  private List<Page> compute(Computation computation) {
+
+    // Take a snapshot of the node
+    List<Page> currentLinksHere = null;
+    List<BacklinkNode> currentRedirects = null;
+    long currentVersion = 0;
+    synchronized (this) {
+      if (valid) {
+        return allLinks;
+      }
+      currentLinksHere = linksHere;
+      currentRedirects = redirects;
+      currentVersion = version;
+    }
+    if (computation == null) {
+      computation = new Computation();
+    }
+    Integer loopDepth = computation.depths.get(this);
+    if (loopDepth != null) {
+      computation.loopDepth = Math.min(computation.loopDepth, loopDepth.intValue());
+      return null;
+    }
+    int depth = computation.depths.size();
+    computation.depths.put(this, Integer.valueOf(depth));
+    int parentLoopDepth = computation.loopDepth;
+    computation.loopDepth = Integer.MAX_VALUE;
+
+    // Merge links to the page and links to the redirects
+    List<Page> result = currentLinksHere;
+    boolean merged = false;
+    if (currentRedirects != null) {
+      for (BacklinkNode redirect : currentRedirects) {
+        List<Page> redirectLinks = redirect.compute(computation);
+        if ((redirectLinks != null) && !redirectLinks.isEmpty()) {
+          if (!merged) {
+            result = (currentLinksHere != null) ? new ArrayList<>(currentLinksHere) : new ArrayList<Page>();
+            merged = true;
+          }
+          result.addAll(redirectLinks);
+        }
+      }
+    }
+    computation.depths.remove(this);
+    boolean complete = (computation.loopDepth >= depth);
+    computation.loopDepth = Math.min(parentLoopDepth, computation.loopDepth);
+    if (merged) {
+      Collections.sort(result);
+    }
+
+    // Remove duplicates and count by namespace
+    int newCountMain = 0;
+    int newCountTemplate = 0;
+    List<Page> newAllLinks = null;
+    if (result != null) {
+      Set<String> titles = new HashSet<>(result.size());
+      List<Page> deduplicated = new ArrayList<>(result.size());
+      for (Page page : result) {
+        if (titles.add(Page.normalizeTitle(page.getTitle()))) {
+          deduplicated.add(page);
+          if (page.isInMainNamespace()) {
+            newCountMain++;
+          } else if (page.isInTemplateNamespace()) {
+            newCountTemplate++;
+          }
+        }
+      }
+      newAllLinks = Collections.unmodifiableList(deduplicated);
+    }
+
+    // Memorize the result if it's complete and the node hasn't been modified in the meantime
+    synchronized (this) {
+      if (complete && (version == currentVersion)) {
+        allLinks = newAllLinks;
+        countMain = newCountMain;
+        countTemplate = newCountTemplate;
+        valid = true;
+      }
+    }
+    return newAllLinks;
+  }
+}
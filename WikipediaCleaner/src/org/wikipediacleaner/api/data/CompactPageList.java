@@ -0,0 +1,429 @@
+/*
+ *  WPCleaner: A tool to help on Wikipedia maintenance tasks.
+ *  Copyright (C) 2020  Nicolas Vervelle
+ *
+ *  See README.txt file for licensing information.
+ */
+
+package org.wikipediacleaner.api.data;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.wikipediacleaner.api.APIException;
+import org.wikipediacleaner.api.ResultIterator;
+import org.wikipediacleaner.api.constants.EnumWikipedia;
+
+
+/**
+ * Compact list of page references (title, namespace and page id).
+ * 
+ * <p>
+ * Information is stored in primitive arrays and titles are kept encoded in UTF-8
+ * in a shared array, so that very large lists of pages use little memory.
+ * Full {@link Page} objects are created only when requested.
+ * </p>
+ */
+public class CompactPageList implements Iterable<Page> {
+
+  /** Value used for an unknown namespace or page id */
+  private final static int UNKNOWN = Integer.MIN_VALUE;
+
+  /** Empty array */
+  private final static int[] EMPTY_INDEX = new int[0];
+
+  /** Wiki */
+  private final EnumWikipedia wiki;
+
+  /** True if duplicate titles are ignored */
+  private final boolean unique;
+
+  /** Number of pages */
+  private int size;
+
+  /** Page ids */
+  private int[] pageIds;
+
+  /** Namespaces */
+  private int[] namespaces;
+
+  /** End offset of each title in the titles array */
+  private int[] titleEnds;
+
+  /** Titles encoded in UTF-8 */
+  private byte[] titles;
+
+  /** Used length of the titles array */
+  private int titlesLength;
+
+  /** Hash table of titles (index + 1 of the page, 0 for an empty slot) */
+  private int[] index;
+
+  /**
+   * @param wiki Wiki.
+   * @param unique True if duplicate titles should be ignored.
+   */
+  public CompactPageList(EnumWikipedia wiki, boolean unique) {
+    this(wiki, unique, 16);
+  }
+
+  /**
+   * @param wiki Wiki.
+   * @param unique True if duplicate titles should be ignored.
+   * @param capacity Initial capacity.
+   */
+  public CompactPageList(EnumWikipedia wiki, boolean unique, int capacity) {
+    this.wiki = wiki;
+    this.unique = unique;
+    capacity = Math.max(capacity, 4);
+    this.size = 0;
+    this.pageIds = new int[capacity];
+    this.namespaces = new int[capacity];
+    this.titleEnds = new int[capacity];
+    this.titles = new byte[capacity * 16];
+    this.titlesLength = 0;
+    this.index = EMPTY_INDEX;
+  }
+
+  /**
+   * @return Wiki.
+   */
+  public EnumWikipedia getWiki() {
+    return wiki;
+  }
+
+  /**
+   * @return Number of pages.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return True if the list is empty.
+   */
+  public boolean isEmpty() {
+    return (size == 0);
+  }
+
+  /**
+   * Add a page to the list.
+   * 
+   * @param page Page.
+   * @return True if the page has been added.
+   */
+  public boolean add(Page page) {
+    if (page == null) {
+      return false;
+    }
+    return add(page.getTitle(), page.getNamespace(), page.getPageId());
+  }
+
+  /**
+   * Add a page to the list.
+   * 
+   * @param title Page title.
+   * @param namespace Namespace (may be null).
+   * @param pageId Page id (may be null).
+   * @return True if the page has been added.
+   */
+  public boolean add(String title, Integer namespace, Integer pageId) {
+    if (title == null) {
+      return false;
+    }
+    byte[] bytes = title.getBytes(StandardCharsets.UTF_8);
+    int hash = hash(bytes, 0, bytes.length);
+    if (unique && (find(bytes, hash) >= 0)) {
+      return false;
+    }
+
+    // Store the information
+    ensureCapacity(size + 1, bytes.length);
+    System.arraycopy(bytes, 0, titles, titlesLength, bytes.length);
+    titlesLength += bytes.length;
+    titleEnds[size] = titlesLength;
+    namespaces[size] = (namespace != null) ? namespace.intValue() : UNKNOWN;
+    pageIds[size] = (pageId != null) ? pageId.intValue() : UNKNOWN;
+    size++;
+
+    // Update the index
+    if (index.length > 0) {
+      if (size * 2 > index.length) {
+        rebuildIndex();
+      } else {
+        insertInIndex(size - 1, hash);
+      }
+    } else if (unique) {
+      rebuildIndex();
+    }
+    return true;
+  }
+
+  /**
+   * Add all the results of an iterator to the list, and close the iterator.
+   * 
+   * @param iterator Iterator over pages.
+   * @throws APIException Exception thrown by the API.
+   */
+  public void addAll(ResultIterator<Page> iterator) throws APIException {
+    try {
+      while (iterator.hasNext()) {
+        add(iterator.next());
+      }
+    } finally {
+      iterator.close();
+    }
+  }
+
+  /**
+   * @param title Page title.
+   * @return True if the list contains the page.
+   */
+  public boolean contains(String title) {
+    return (indexOf(title) >= 0);
+  }
+
+  /**
+   * @param title Page title.
+   * @return Index of the page in the list, -1 if not found.
+   */
+  public int indexOf(String title) {
+    if ((title == null) || (size == 0)) {
+      return -1;
+    }
+    if (index.length == 0) {
+      rebuildIndex();
+    }
+    byte[] bytes = title.getBytes(StandardCharsets.UTF_8);
+    return find(bytes, hash(bytes, 0, bytes.length));
+  }
+
+  /**
+   * @param position Position in the list.
+   * @return Page title.
+   */
+  public String getTitle(int position) {
+    checkPosition(position);
+    int begin = getTitleBegin(position);
+    return new String(titles, begin, titleEnds[position] - begin, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * @param position Position in the list.
+   * @return Namespace (null if unknown).
+   */
+  public Integer getNamespace(int position) {
+    checkPosition(position);
+    return (namespaces[position] != UNKNOWN) ? Integer.valueOf(namespaces[position]) : null;
+  }
+
+  /**
+   * @param position Position in the list.
+   * @return Page id (null if unknown).
+   */
+  public Integer getPageId(int position) {
+    checkPosition(position);
+    return (pageIds[position] != UNKNOWN) ? Integer.valueOf(pageIds[position]) : null;
+  }
+
+  /**
+   * Create a full page object for an element of the list.
+   * 
+   * @param position Position in the list.
+   * @return Page.
+   */
+  public Page getPage(int position) {
+    Page page = DataManager.getPage(wiki, getTitle(position), getPageId(position), null, null);
+    Integer namespace = getNamespace(position);
+    if (namespace != null) {
+      page.setNamespace(namespace);
+    }
+    return page;
+  }
+
+  /**
+   * View of the list as a list of pages.
+   * 
+   * <p>
+   * Nothing is cached by the view: each call to {@link List#get(int)} decodes the title
+   * and looks up the page through {@link DataManager#getPage}, so callers accessing
+   * the same element repeatedly should keep the returned page.
+   * </p>
+   * 
+   * @return View of the list as a list of pages, pages being created when accessed.
+   */
+  public List<Page> asList() {
+    return new AbstractList<Page>() {
+
+      @Override
+      public Page get(int position) {
+        return getPage(position);
+      }
+
+      @Override
+      public int size() {
+        return CompactPageList.this.size;
+      }
+    };
+  }
+
+  /**
+   * @return Iterator over the pages, pages being created when accessed.
+   * @see java.lang.Iterable#iterator()
+   */
+  @Override
+  public Iterator<Page> iterator() {
+    return new Iterator<Page>() {
+
+      /** Next position */
+      private int next = 0;
+
+      @Override
+      public boolean hasNext() {
+        return (next < size);
+      }
+
+      @Override
+      public Page next() {
+        if (next >= size) {
+          throw new NoSuchElementException();
+        }
+        return getPage(next++);
+      }
+
+      @Override
+      public void remove() {
+        throw new UnsupportedOperationException();
+      }
+    };
+  }
+
+  /**
+   * Reduce memory used by the list to its current content.
+   */
+  public void trimToSize() {
+    pageIds = Arrays.copyOf(pageIds, size);
+    namespaces = Arrays.copyOf(namespaces, size);
+    titleEnds = Arrays.copyOf(titleEnds, size);
+    titles = Arrays.copyOf(titles, titlesLength);
+  }
+
+  /**
+   * @param position Position in the list.
+   */
+  private void checkPosition(int position) {
+    if ((position < 0) || (position >= size)) {
+      throw new IndexOutOfBoundsException("Index: " + position + ", Size: " + size);
+    }
+  }
+
+  /**
+   * @param position Position in the list.
+   * @return Begin offset of the title in the titles array.
+   */
+  private int getTitleBegin(int position) {
+    return (position > 0) ? titleEnds[position - 1] : 0;
+  }
+
+  /**
+   * Ensure that arrays are big enough.
+   * 
+   * @param newSize Minimal number of pages.
+   * @param titleLength Length of the title being added.
+   */
+  private void ensureCapacity(int newSize, int titleLength) {
+    if (newSize > pageIds.length) {
+      int capacity = Math.max(newSize, pageIds.length + (pageIds.length >> 1) + 1);
+      pageIds = Arrays.copyOf(pageIds, capacity);
+      namespaces = Arrays.copyOf(namespaces, capacity);
+      titleEnds = Arrays.copyOf(titleEnds, capacity);
+    }
+    int newLength = titlesLength + titleLength;
+    if (newLength > titles.length) {
+      titles = Arrays.copyOf(titles, Math.max(newLength, titles.length + (titles.length >> 1) + 1));
+    }
+  }
+
+  /**
+   * Rebuild the hash table of titles.
+   */
+  private void rebuildIndex() {
+    int length = 16;
+    while (length < size * 2 + 2) {
+      length <<= 1;
+    }
+    index = new int[length];
+    for (int position = 0; position < size; position++) {
+      int begin = getTitleBegin(position);
+      insertInIndex(position, hash(titles, begin, titleEnds[position]));
+    }
+  }
+
+  /**
+   * @param position Position of the page in the list.
+   * @param hash Hash of the title.
+   */
+  private void insertInIndex(int position, int hash) {
+    int mask = index.length - 1;
+    int slot = hash & mask;
+    while (index[slot] != 0) {
+      slot = (slot + 1) & mask;
+    }
+    index[slot] = position + 1;
+  }
+
+  /**
+   * @param bytes Title encoded in UTF-8.
+   * @param hash Hash of the title.
+   * @return Position of the title in the list, -1 if not found.
+   */
+  private int find(byte[] bytes, int hash) {
+    if (index.length == 0) {
+      return -1;
+    }
+    int mask = index.length - 1;
+    int slot = hash & mask;
+    while (index[slot] != 0) {
+      int position = index[slot] - 1;
+      int begin = getTitleBegin(position);
+      int end = titleEnds[position];
+      if ((end - begin == bytes.length) && sameBytes(bytes, begin)) {
+        return position;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return -1;
+  }
+
+  /**
+   * @param bytes Bytes.
+   * @param begin Begin offset in the titles array.
+   * @return True if the titles array contains the bytes at the given offset.
+   */
+  private boolean sameBytes(byte[] bytes, int begin) {
+    for (int i = 0; i < bytes.length; i++) {
+      if (titles[begin + i] != bytes[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @param bytes Bytes.
+   * @param begin Begin offset.
+   * @param end End offset.
+   * @return Hash of the bytes.
+   */
+  private static int hash(byte[] bytes, int begin, int end) {
+    int hash = 1;
+    for (int i = begin; i < end; i++) {
+      hash = 31 * hash + bytes[i];
+    }
+    return hash ^ (hash >>> 16);
+  }
+}
@@ -81,14 +81,10 @@ public class DataManager {
     if (page.getTitle() != null) {
       int colonIndex = page.getTitle().indexOf(':');
       if (colonIndex > 0) {
-        String namespaceText = page.getTitle().substring(0, colonIndex);
-        List<Namespace> namespaces = wiki.getWikiConfiguration().getNamespaces();
-        if (namespaces != null) {
-          for (Namespace namespace : namespaces) {
-            if (namespace.isPossibleName(namespaceText)) {
-              page.setNamespace(namespace.getId());
-            }
-          }
+        Namespace namespace = wiki.getWikiConfiguration().getNamespaceByName(
+            page.getTitle(), 0, colonIndex);
+        if (namespace != null) {
+          page.setNamespace(namespace.getId());
         }
       }
       if (page.getNamespace() == null) {
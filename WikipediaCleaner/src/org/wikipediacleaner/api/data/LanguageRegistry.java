@@ -13,9 +13,15 @@ import java.io.InputStreamReader;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.zip.GZIPInputStream;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 
 /**
  * A registry for languages.
@@ -26,30 +32,58 @@ import java.util.zip.GZIPInputStream;
  */
 public class LanguageRegistry {
 
+  /** Logger */
+  private final static Logger log = LoggerFactory.getLogger(LanguageRegistry.class);
+
   /**
    * Lock object for initialization.
+   * 
+   * <p>
+   * The registry may be initialized by a background thread while it is being used:
+   * the fields below are volatile so that readers see fully built lists and indexes.
+   * </p>
    */
   private final static Object lock = new Object();
 
   /**
    * List of languages.
    */
-  private static List<LanguageRegistry.Language> languages;
+  private static volatile List<LanguageRegistry.Language> languages;
 
   /**
    * List of scripts.
    */
-  private static List<LanguageRegistry.Script> scripts;
+  private static volatile List<LanguageRegistry.Script> scripts;
 
   /**
    * List of regions.
    */
-  private static List<LanguageRegistry.Region> regions;
+  private static volatile List<LanguageRegistry.Region> regions;
 
   /**
    * List of variants.
    */
-  private static List<LanguageRegistry.Variant> variants;
+  private static volatile List<LanguageRegistry.Variant> variants;
+
+  /**
+   * Languages indexed by code (lower case).
+   */
+  private static volatile Map<String, LanguageRegistry.Language> languagesByCode;
+
+  /**
+   * Scripts indexed by code (lower case).
+   */
+  private static volatile Map<String, LanguageRegistry.Script> scriptsByCode;
+
+  /**
+   * Regions indexed by code (lower case).
+   */
+  private static volatile Map<String, LanguageRegistry.Region> regionsByCode;
+
+  /**
+   * Variants indexed by code (lower case).
+   */
+  private static volatile Map<String, LanguageRegistry.Variant> variantsByCode;
 
   /**
    * Constructor.
@@ -62,6 +96,26 @@ public class LanguageRegistry {
     }
   }
 
+  /**
+   * Initialize the registry in a background thread.
+   */
+  public static void initializeInBackground() {
+    Thread thread = new Thread(new Runnable() {
+
+      @Override
+      public void run() {
+        try {
+          initializeRegistry();
+        } catch (IOException e) {
+          log.warn("Unable to initialize language registry", e);
+        }
+      }
+    }, "LanguageRegistry");
+    thread.setDaemon(true);
+    thread.setPriority(Thread.MIN_PRIORITY);
+    thread.start();
+  }
+
   /**
    * @return List of all languages.
    */
@@ -77,12 +131,10 @@ public class LanguageRegistry {
     if (code == null) {
       return null;
     }
-    for (LanguageRegistry.Language language : languages) {
-      if (code.equalsIgnoreCase(language.getCode())) {
-        return language;
-      }
+    if (languagesByCode == null) {
+      return null;
     }
-    return null;
+    return languagesByCode.get(code.toLowerCase(Locale.ROOT));
   }
 
   /**
@@ -109,12 +161,10 @@ public class LanguageRegistry {
     if (code == null) {
       return null;
     }
-    for (LanguageRegistry.Script script : scripts) {
-      if (code.equalsIgnoreCase(script.getCode())) {
-        return script;
-      }
+    if (scriptsByCode == null) {
+      return null;
     }
-    return null;
+    return scriptsByCode.get(code.toLowerCase(Locale.ROOT));
   }
 
   /**
@@ -132,12 +182,10 @@ public class LanguageRegistry {
     if (code == null) {
       return null;
     }
-    for (LanguageRegistry.Region region : regions) {
-      if (code.equalsIgnoreCase(region.getCode())) {
-        return region;
-      }
+    if (regionsByCode == null) {
+      return null;
     }
-    return null;
+    return regionsByCode.get(code.toLowerCase(Locale.ROOT));
   }
 
   /**
@@ -163,12 +211,10 @@ public class LanguageRegistry {
     if (code == null) {
       return null;
     }
-    for (LanguageRegistry.Variant variant : variants) {
-      if (code.equalsIgnoreCase(variant.getCode())) {
-        return variant;
-      }
+    if (variantsByCode == null) {
+      return null;
     }
-    return null;
+    return variantsByCode.get(code.toLowerCase(Locale.ROOT));
   }
 
   /**
@@ -286,15 +332,34 @@ public class LanguageRegistry {
           }
         }
         Collections.sort(tmpLanguages);
-        languages = Collections.unmodifiableList(tmpLanguages);
         Collections.sort(tmpScripts);
-        scripts = Collections.unmodifiableList(tmpScripts);
         Collections.sort(tmpRegions);
-        regions = Collections.unmodifiableList(tmpRegions);
         Collections.sort(tmpVariants);
+        languagesByCode = createIndex(tmpLanguages);
+        scriptsByCode = createIndex(tmpScripts);
+        regionsByCode = createIndex(tmpRegions);
+        variantsByCode = createIndex(tmpVariants);
+        scripts = Collections.unmodifiableList(tmpScripts);
+        regions = Collections.unmodifiableList(tmpRegions);
         variants = Collections.unmodifiableList(tmpVariants);
+        languages = Collections.unmodifiableList(tmpLanguages);
+      }
+    }
+  }
+
+  /**
+   * @param elements List of elements.
+   * @return Elements indexed by code (lower case).
+   */
+  private static <T extends Element> Map<String, T> createIndex(List<T> elements) {
+    Map<String, T> index = new HashMap<String, T>(elements.size() * 2);
+    for (T element : elements) {
+      String code = element.getCode().toLowerCase(Locale.ROOT);
+      if (!index.containsKey(code)) {
+        index.put(code, element);
       }
     }
+    return Collections.unmodifiableMap(index);
   }
 
   /**
@@ -187,10 +187,25 @@ public class Namespace implements Comparable<Namespace> {
     if (name == null) {
       return false;
     }
-    name = CharacterUtils.ucFirst(CharacterUtils.trim(name));
+    return isPossibleName(name, 0, name.length());
+  }
+
+  /**
+   * @param text Text containing a namespace name (like a page title).
+   * @param beginIndex Begin index of the namespace name in the text.
+   * @param endIndex End index of the namespace name in the text.
+   * @return Flag indicating if the given part of the text can represent this namespace.
+   */
+  public boolean isPossibleName(String text, int beginIndex, int endIndex) {
+    if (text == null) {
+      return false;
+    }
+    int begin = NamespaceResolver.trimBegin(text, beginIndex, endIndex);
+    int length = NamespaceResolver.trimEnd(text, begin, endIndex) - begin;
     for (String alias : aliases) {
       // Apparently FILE: is detected as File: by MW 
-      if (name.equalsIgnoreCase(alias)) {
+      if ((alias.length() == length) &&
+          text.regionMatches(true, begin, alias, 0, length)) {
         return true;
       }
     }
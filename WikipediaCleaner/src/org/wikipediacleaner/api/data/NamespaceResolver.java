@@ -0,0 +1,228 @@
+/*
+ *  WPCleaner: A tool to help on Wikipedia maintenance tasks.
+ *  Copyright (C) 2020  Nicolas Vervelle
+ *
+ *  See README.txt file for licensing information.
+ */
+
+package org.wikipediacleaner.api.data;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+
+/**
+ * Immutable index of the namespaces of a wiki.
+ * 
+ * <p>Every namespace name and alias is stored case folded in an open addressing
+ * hash table, so that a prefix can be resolved directly in a title without
+ * creating any intermediate string.
+ * Matching follows {@link Namespace#isPossibleName(String)}: surrounding
+ * whitespace is ignored and the comparison is case insensitive.</p>
+ */
+public class NamespaceResolver {
+
+  /** Case folded names, indexed by hash. */
+  private final String[] names;
+
+  /** Namespaces, indexed like the names. */
+  private final Namespace[] namespacesByName;
+
+  /** Mask to compute index in the hash table. */
+  private final int mask;
+
+  /** Sorted namespace identifiers. */
+  private final int[] ids;
+
+  /** Namespaces, indexed like the identifiers. */
+  private final Namespace[] namespacesById;
+
+  /**
+   * @param namespaces List of namespaces.
+   * @return Index of the namespaces.
+   */
+  public static NamespaceResolver create(Collection<Namespace> namespaces) {
+    if (namespaces == null) {
+      return null;
+    }
+    return new NamespaceResolver(namespaces);
+  }
+
+  /**
+   * @param namespaces List of namespaces.
+   */
+  private NamespaceResolver(Collection<Namespace> namespaces) {
+
+    // Index by name
+    int count = 0;
+    for (Namespace namespace : namespaces) {
+      if (namespace != null) {
+        count += namespace.getAliases().size();
+      }
+    }
+    int capacity = 8;
+    while (capacity < 2 * count) {
+      capacity *= 2;
+    }
+    names = new String[capacity];
+    namespacesByName = new Namespace[capacity];
+    mask = capacity - 1;
+    for (Namespace namespace : namespaces) {
+      if (namespace != null) {
+        for (String alias : namespace.getAliases()) {
+          addName(alias, namespace);
+        }
+      }
+    }
+
+    // Index by identifier
+    Namespace[] tmpNamespaces = new Namespace[namespaces.size()];
+    int[] tmpIds = new int[namespaces.size()];
+    count = 0;
+    for (Namespace namespace : namespaces) {
+      if ((namespace != null) && (namespace.getId() != null)) {
+        int id = namespace.getId().intValue();
+        int index = Arrays.binarySearch(tmpIds, 0, count, id);
+        if (index < 0) {
+          index = -index - 1;
+          System.arraycopy(tmpIds, index, tmpIds, index + 1, count - index);
+          System.arraycopy(tmpNamespaces, index, tmpNamespaces, index + 1, count - index);
+          tmpIds[index] = id;
+          tmpNamespaces[index] = namespace;
+          count++;
+        }
+      }
+    }
+    ids = Arrays.copyOf(tmpIds, count);
+    namespacesById = Arrays.copyOf(tmpNamespaces, count);
+  }
+
+  /**
+   * Add a name to the index, the first namespace using a name is kept.
+   * 
+   * @param name Namespace name or alias.
+   * @param namespace Namespace.
+   */
+  private void addName(String name, Namespace namespace) {
+    if (name == null) {
+      return;
+    }
+    char[] folded = new char[name.length()];
+    for (int i = 0; i < folded.length; i++) {
+      folded[i] = fold(name.charAt(i));
+    }
+    String key = new String(folded);
+    int index = hash(key, 0, key.length()) & mask;
+    while (names[index] != null) {
+      if (names[index].equals(key)) {
+        return;
+      }
+      index = (index + 1) & mask;
+    }
+    names[index] = key;
+    namespacesByName[index] = namespace;
+  }
+
+  /**
+   * @param name Namespace name or alias.
+   * @return Namespace matching the name.
+   */
+  public Namespace getNamespace(String name) {
+    if (name == null) {
+      return null;
+    }
+    return getNamespace(name, 0, name.length());
+  }
+
+  /**
+   * Find the namespace corresponding to a part of a text.
+   * 
+   * @param text Text containing the namespace name (like a page title).
+   * @param beginIndex Begin index of the namespace name in the text.
+   * @param endIndex End index of the namespace name in the text.
+   * @return Namespace matching the name.
+   */
+  public Namespace getNamespace(CharSequence text, int beginIndex, int endIndex) {
+    if (text == null) {
+      return null;
+    }
+    int begin = trimBegin(text, beginIndex, endIndex);
+    int end = trimEnd(text, begin, endIndex);
+    int length = end - begin;
+    int index = hash(text, begin, end) & mask;
+    String key = null;
+    while ((key = names[index]) != null) {
+      if (key.length() == length) {
+        boolean equal = true;
+        for (int i = 0; (i < length) && equal; i++) {
+          equal = (key.charAt(i) == fold(text.charAt(begin + i)));
+        }
+        if (equal) {
+          return namespacesByName[index];
+        }
+      }
+      index = (index + 1) & mask;
+    }
+    return null;
+  }
+
+  /**
+   * @param id Namespace identifier.
+   * @return Namespace with this identifier.
+   */
+  public Namespace getNamespace(int id) {
+    int index = Arrays.binarySearch(ids, id);
+    if (index < 0) {
+      return null;
+    }
+    return namespacesById[index];
+  }
+
+  /**
+   * @param character Character.
+   * @return Case folded character, equal for characters matched by String.equalsIgnoreCase().
+   */
+  private static char fold(char character) {
+    return Character.toLowerCase(Character.toUpperCase(character));
+  }
+
+  /**
+   * @param text Text.
+   * @param beginIndex Begin index.
+   * @param endIndex End index.
+   * @return Hash of the case folded text.
+   */
+  private static int hash(CharSequence text, int beginIndex, int endIndex) {
+    int hash = 0;
+    for (int index = beginIndex; index < endIndex; index++) {
+      hash = 31 * hash + fold(text.charAt(index));
+    }
+    return hash ^ (hash >>> 16);
+  }
+
+  /**
+   * @param text Text.
+   * @param beginIndex Begin index.
+   * @param endIndex End index.
+   * @return Begin index after whitespace characters.
+   */
+  static int trimBegin(CharSequence text, int beginIndex, int endIndex) {
+    while ((beginIndex < endIndex) && CharacterUtils.isWhitespace(text.charAt(beginIndex))) {
+      beginIndex++;
+    }
+    return beginIndex;
+  }
+
+  /**
+   * @param text Text.
+   * @param beginIndex Begin index.
+   * @param endIndex End index.
+   * @return End index before whitespace characters.
+   */
+  static int trimEnd(CharSequence text, int beginIndex, int endIndex) {
+    while ((endIndex > beginIndex) && CharacterUtils.isWhitespace(text.charAt(endIndex - 1))) {
+      endIndex--;
+    }
+    return endIndex;
+  }
+}
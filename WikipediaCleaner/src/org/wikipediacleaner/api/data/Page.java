@@ -59,6 +59,7 @@ public class Page implements Comparable<Page> {
   private List<Page> templates;
 
   private final Map<RelatedPages, List<Page>> relatedPages;
+  private BacklinkNode backlinkNode;
 
   private PageComment comment;
 
@@ -571,6 +572,21 @@ public class Page implements Comparable<Page> {
     } else {
       relatedPages.put(type, pages);
     }
+    if (type == RelatedPages.LINKS_HERE) {
+      getBacklinkNode().setLinksHere(pages);
+    } else if (type == RelatedPages.REDIRECTS) {
+      getBacklinkNode().setRedirects(pages);
+    }
+  }
+
+  /**
+   * @return Node of the backlink graph for the page, created when first needed.
+   */
+  synchronized BacklinkNode getBacklinkNode() {
+    if (backlinkNode == null) {
+      backlinkNode = new BacklinkNode();
+    }
+    return backlinkNode;
   }
 
   /**
@@ -591,81 +607,32 @@ public class Page implements Comparable<Page> {
   }
 
   /**
-   * @return Links to the page (including through redirects).
+   * @return Links to the page (including through redirects), in a new list that callers may modify.
    */
   public List<Page> getAllLinksToPage() {
-    List<Page> linksHere = getRelatedPages(RelatedPages.LINKS_HERE);
-    List<Page> result = linksHere;
-    boolean originalList = true;
-    List<Page> tmpRedirects = getRelatedPages(RelatedPages.REDIRECTS);
-    if (tmpRedirects != null) {
-      for (Page p : tmpRedirects) {
-        List<Page> tmpLinksHere = p.getAllLinksToPage();
-        if ((tmpLinksHere != null) && (!tmpLinksHere.isEmpty())) {
-          if (originalList) {
-            result = new ArrayList<Page>(result);
-            originalList = false;
-          }
-          result.addAll(tmpLinksHere);
-        }
-      }
-    }
-    if (!originalList) {
-      Collections.sort(result);
-    }
-    if (result != null) {
-      for (int i = 0; i < result.size() - 1; i++) {
-        if (areSameTitle(result.get(i).getTitle(), result.get(i + 1).getTitle())) {
-          result.remove(i + 1);
-        }
-      }
-    }
-    return result;
+    List<Page> allLinks = getBacklinkNode().getAllLinks();
+    return (allLinks != null) ? new ArrayList<>(allLinks) : null;
   }
 
   /**
    * @return Backlinks count.
    */
   public Integer getBacklinksCount() {
-    List<Page> backlinks = getAllLinksToPage();
-    if (backlinks != null) {
-      return backlinks.size();
-    }
-    return null;
+    return getBacklinkNode().getCount();
   }
 
   /**
    * @return Backlinks count in article namespace.
    */
   public Integer getBacklinksCountInMainNamespace() {
-    List<Page> backlinks = getAllLinksToPage();
-    if (backlinks != null) {
-      int count = 0;
-      for (int i = 0; i < backlinks.size(); i++) {
-        if (backlinks.get(i).isInMainNamespace()) {
-          count++;
-        }
-      }
-      return Integer.valueOf(count);
-    }
-    return null;
+    return getBacklinkNode().getCountInMainNamespace();
   }
 
   /**
    * @return Backlinks count in template namespace.
    */
   public Integer getBacklinksCountInTemplateNamespace() {
-    List<Page> backlinks = getAllLinksToPage();
-    if (backlinks != null) {
-      int count = 0;
-      for (int i = 0; i < backlinks.size(); i++) {
-        if (backlinks.get(i).isInTemplateNamespace()) {
-          count++;
-        }
-      }
-      return Integer.valueOf(count);
-    }
-    return null;
+    return getBacklinkNode().getCountInTemplateNamespace();
   }
 
   /**
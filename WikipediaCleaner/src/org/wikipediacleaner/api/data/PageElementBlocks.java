@@ -0,0 +1,188 @@
+/*
+ *  WPCleaner: A tool to help on Wikipedia maintenance tasks.
+ *  Copyright (C) 2020  Nicolas Vervelle
+ *
+ *  See README.txt file for licensing information.
+ */
+
+package org.wikipediacleaner.api.data;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+
+/**
+ * Index of blocks in a page, shared by the parsers of page elements.
+ * 
+ * <p>
+ * It gives a direct access to the tags by position, to the enclosing references,
+ * and memorizes the result of the analysis of templates by position
+ * so that nested templates are analyzed only once:
+ * the analysis of a template can then jump directly to the end of a nested template.
+ * </p>
+ */
+public class PageElementBlocks {
+
+  /** Tags indexed by their begin index */
+  private final Map<Integer, PageElementTag> tagsByBeginIndex;
+
+  /** Begin index of the reference tags (complete tags), sorted */
+  private final int[] refBegins;
+
+  /** End index of the reference tags (complete tags), in the order of begin index */
+  private final int[] refEnds;
+
+  /** Maximum end index of the reference tags up to each position */
+  private final int[] refMaxEnds;
+
+  /** Templates analyzed by begin index (null value if there's no template) */
+  private final Map<Integer, PageElementTemplate> templates;
+
+  /** Begin index of templates without unclosed brackets inside */
+  private final Set<Integer> balancedTemplates;
+
+  /**
+   * @param tags Tags in the page.
+   */
+  public PageElementBlocks(List<PageElementTag> tags) {
+    this.tagsByBeginIndex = new HashMap<>();
+    List<PageElementTag> refTags = new ArrayList<>();
+    if (tags != null) {
+      for (PageElementTag tag : tags) {
+        tagsByBeginIndex.put(Integer.valueOf(tag.getBeginIndex()), tag);
+        if (PageElementTag.TAG_WIKI_REF.equals(tag.getName())) {
+          refTags.add(tag);
+        }
+      }
+    }
+
+    // Sort the bounds of the references by begin index
+    Collections.sort(refTags, new Comparator<PageElementTag>() {
+
+      @Override
+      public int compare(PageElementTag tag1, PageElementTag tag2) {
+        return Integer.compare(tag1.getCompleteBeginIndex(), tag2.getCompleteBeginIndex());
+      }
+    });
+    this.refBegins = new int[refTags.size()];
+    this.refEnds = new int[refTags.size()];
+    this.refMaxEnds = new int[refTags.size()];
+    int maxEnd = 0;
+    for (int i = 0; i < refTags.size(); i++) {
+      PageElementTag tag = refTags.get(i);
+      refBegins[i] = tag.getCompleteBeginIndex();
+      refEnds[i] = tag.getCompleteEndIndex();
+      maxEnd = Math.max(maxEnd, refEnds[i]);
+      refMaxEnds[i] = maxEnd;
+    }
+    this.templates = new HashMap<>();
+    this.balancedTemplates = new HashSet<>();
+  }
+
+  /**
+   * @param index Index in the page.
+   * @return Tag beginning at the given index (the last one if several tags begin there).
+   */
+  public PageElementTag getTagBeginningAt(int index) {
+    return tagsByBeginIndex.get(Integer.valueOf(index));
+  }
+
+  /**
+   * @param index Index in the page.
+   * @param maxLength Current maximum length.
+   * @return Maximum length, limited by the end of the references containing the index.
+   */
+  public int getMaxLengthInRef(int index, int maxLength) {
+
+    // Find the last reference beginning before the index
+    int low = 0;
+    int high = refBegins.length;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (refBegins[middle] < index) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+
+    // Go back while previous references may still contain the index
+    int position = low - 1;
+    while ((position >= 0) && (refMaxEnds[position] > index)) {
+      if (refEnds[position] > index) {
+        maxLength = Math.min(maxLength, refEnds[position]);
+      }
+      position--;
+    }
+    return maxLength;
+  }
+
+  /**
+   * @param index Index in the page.
+   * @return True if the analysis of a template at the given index is already known.
+   */
+  boolean isTemplateAnalyzed(int index) {
+    return templates.containsKey(Integer.valueOf(index));
+  }
+
+  /**
+   * @param index Index in the page.
+   * @return Template beginning at the given index (null if none).
+   */
+  PageElementTemplate getTemplate(int index) {
+    return templates.get(Integer.valueOf(index));
+  }
+
+  /**
+   * @param index Index in the page.
+   * @param template Template beginning at the given index (null if none).
+   */
+  void setTemplate(int index, PageElementTemplate template) {
+    templates.put(Integer.valueOf(index), template);
+  }
+
+  /**
+   * @param index Index in the page.
+   * @return True if the template beginning at the given index has no unclosed brackets inside.
+   */
+  boolean isTemplateBalanced(int index) {
+    return balancedTemplates.contains(Integer.valueOf(index));
+  }
+
+  /**
+   * Memorize that the template beginning at the given index has no unclosed brackets inside.
+   * 
+   * @param index Index in the page.
+   */
+  void setTemplateBalanced(int index) {
+    balancedTemplates.add(Integer.valueOf(index));
+  }
+
+  /**
+   * @param blocks Index of blocks (may be null).
+   * @param tags Tags in the page.
+   * @param index Index in the page.
+   * @return Tag beginning at the given index (the last one if several tags begin there).
+   */
+  static PageElementTag getTagBeginningAt(
+      PageElementBlocks blocks, List<PageElementTag> tags, int index) {
+    if (blocks != null) {
+      return blocks.getTagBeginningAt(index);
+    }
+    PageElementTag tag = null;
+    if (tags != null) {
+      for (PageElementTag tmpTag : tags) {
+        if (tmpTag.getBeginIndex() == index) {
+          tag = tmpTag;
+        }
+      }
+    }
+    return tag;
+  }
+}
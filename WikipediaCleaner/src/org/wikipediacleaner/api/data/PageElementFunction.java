@@ -88,6 +88,26 @@ public class PageElementFunction extends PageElement {
       String contents, int index,
       ContainerComment comments,
       List<PageElementTag> tags) {
+    return analyzeBlock(wiki, contents, index, comments, tags, null);
+  }
+
+  /**
+   * Analyze contents to check if it matches a block.
+   * 
+   * @param wiki Wiki.
+   * @param contents Contents.
+   * @param index Block start index.
+   * @param comments Comments in the page.
+   * @param tags Tags in the page.
+   * @param blocks Index of blocks in the page (may be null).
+   * @return Block details it there's a block.
+   */
+  public static PageElementFunction analyzeBlock(
+      EnumWikipedia wiki,
+      String contents, int index,
+      ContainerComment comments,
+      List<PageElementTag> tags,
+      PageElementBlocks blocks) {
     // Verify arguments
     if (contents == null) {
       return null;
@@ -190,7 +210,7 @@ public class PageElementFunction extends PageElement {
     List<Parameter> parameters = new ArrayList<Parameter>();
     int endIndex = analyzeFunctionParameters(
         wiki, contents, beginIndex, tmpIndex - 1, tmpIndex, parameters,
-        comments, tags);
+        comments, tags, blocks);
     if (endIndex < 0) {
       return null;
     }
@@ -210,6 +230,7 @@ public class PageElementFunction extends PageElement {
    * @param parameters Parameters.
    * @param comments Comments in the page.
    * @param tags Tags in the page.
+   * @param blocks Index of blocks in the page (may be null).
    * @return Position of the end of the function, or -1 if no function was found.
    */
   private static int analyzeFunctionParameters(
@@ -217,7 +238,8 @@ public class PageElementFunction extends PageElement {
       int functionBeginIndex, int separatorIndex, int parametersBeginIndex,
       List<Parameter> parameters,
       ContainerComment comments,
-      List<PageElementTag> tags) {
+      List<PageElementTag> tags,
+      PageElementBlocks blocks) {
     if (contents == null) {
       return -1;
     }
@@ -285,14 +307,7 @@ public class PageElementFunction extends PageElement {
         }
       } else if (contents.startsWith("<", tmpIndex)) {
         // Possible start of a tag
-        PageElementTag tag = null;
-        if (tags != null) {
-          for (PageElementTag tmpTag : tags) {
-            if (tmpTag.getBeginIndex() == tmpIndex) {
-              tag = tmpTag;
-            }
-          }
-        }
+        PageElementTag tag = PageElementBlocks.getTagBeginningAt(blocks, tags, tmpIndex);
         if (tag != null) {
           int count = 0;
           if (tag.isFullTag()) {
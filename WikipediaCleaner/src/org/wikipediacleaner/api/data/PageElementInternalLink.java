@@ -253,9 +253,11 @@ public class PageElementInternalLink extends PageElement {
     if (colonIndex <= 0) {
       return Namespace.MAIN;
     }
-    return Namespace.getNamespace(
-        wiki.getWikiConfiguration().getNamespaces(),
-        link.substring(0, colonIndex));
+    Namespace namespace = wiki.getWikiConfiguration().getNamespaceByName(link, 0, colonIndex);
+    if (namespace == null) {
+      return Namespace.MAIN;
+    }
+    return namespace.getId();
   }
 
   public String getLink() {
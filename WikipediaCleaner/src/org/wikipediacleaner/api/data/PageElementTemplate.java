@@ -8,6 +8,7 @@
 package org.wikipediacleaner.api.data;
 
 
+import java.nio.CharBuffer;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -32,40 +33,122 @@ public class PageElementTemplate extends PageElement {
    * Class containing information about a template parameter.
    */
   public static class Parameter extends PageElement {
-    final String name;
-    final String nameNotTrimmed;
-    final String computedName;
+
+    /** Page contents in which the parameter is defined. */
+    private final String contents;
+
+    /** Comments in the page, used to compute the stripped value. */
+    private final ContainerComment comments;
+
+    /** Begin index of the name (not trimmed) in page contents. */
+    private final int nameBeginIndex;
+
+    /** End index of the name (not trimmed) in page contents. */
+    private final int nameEndIndex;
+
+    /** Begin index of the trimmed name in page contents. */
+    private final int nameTrimmedBeginIndex;
+
+    /** End index of the trimmed name in page contents. */
+    private final int nameTrimmedEndIndex;
+
+    /** Position of the parameter among unnamed parameters, 0 for named parameters. */
+    private final int paramNum;
+
+    /** Parameter name start index. */
     final int nameStartIndex;
-    final String value;
-    final String strippedValue;
-    final String valueNotTrimmed;
+
+    /** Begin index of the value (not trimmed) in page contents. */
+    private final int valueBeginIndex;
+
+    /** Begin index of the trimmed value in page contents. */
+    private final int valueTrimmedBeginIndex;
+
+    /** End index of the trimmed value in page contents. */
+    private final int valueTrimmedEndIndex;
+
+    /** Parameter value start index. */
     final int valueStartIndex;
 
+    /** Lazily computed parameter name (not trimmed). */
+    private String nameNotTrimmed;
+
+    /** Lazily computed parameter name. */
+    private String name;
+
+    /** Lazily computed computed name. */
+    private String computedName;
+
+    /** Lazily computed parameter value (not trimmed). */
+    private String valueNotTrimmed;
+
+    /** Lazily computed parameter value. */
+    private String value;
+
+    /** Lazily computed parameter stripped value. */
+    private String strippedValue;
+
     /**
+     * Parameter is only kept as offsets in the page contents,
+     * strings are computed when they are requested.
+     * 
+     * @param contents Page contents.
+     * @param comments Comments in the page.
      * @param pipeIndex Index of the pipe "|" in page contents.
-     * @param endIndex Index of the end of the parameter.
-     * @param name Parameter name.
-     * @param computedName Computed name.
+     * @param endIndex Index of the end of the parameter (and of the value).
+     * @param nameBeginIndex Begin index of the name in page contents.
+     * @param nameEndIndex End index of the name in page contents.
+     * @param paramNum Position among unnamed parameters, 0 for named parameters.
      * @param nameStartIndex Index of parameter name in page contents.
-     * @param value Parameter value.
-     * @param strippedValue Parameter stripped value.
+     * @param valueBeginIndex Begin index of the value in page contents.
      * @param valueStartIndex Index of parameter value in page contents.
      */
-    public Parameter(
+    Parameter(
+        String contents, ContainerComment comments,
         int pipeIndex, int endIndex,
-        String name, String computedName, int nameStartIndex,
-        String value, String strippedValue, int valueStartIndex) {
+        int nameBeginIndex, int nameEndIndex, int paramNum, int nameStartIndex,
+        int valueBeginIndex, int valueStartIndex) {
       super(pipeIndex, endIndex);
-      this.nameNotTrimmed = name;
-      this.name = (name != null) ? name.trim() : null;
-      this.computedName = (computedName != null) ? computedName : this.name;
+      this.contents = contents;
+      this.comments = comments;
+      this.nameBeginIndex = nameBeginIndex;
+      this.nameEndIndex = nameEndIndex;
+      this.nameTrimmedBeginIndex = trimBegin(contents, nameBeginIndex, nameEndIndex);
+      this.nameTrimmedEndIndex = trimEnd(contents, nameTrimmedBeginIndex, nameEndIndex);
+      this.paramNum = paramNum;
       this.nameStartIndex = nameStartIndex;
-      this.valueNotTrimmed = value;
-      this.value = (value != null) ? value.trim() : null;
-      this.strippedValue = (strippedValue != null) ? strippedValue.trim() : null;
+      this.valueBeginIndex = valueBeginIndex;
+      this.valueTrimmedBeginIndex = trimBegin(contents, valueBeginIndex, endIndex);
+      this.valueTrimmedEndIndex = trimEnd(contents, valueTrimmedBeginIndex, endIndex);
       this.valueStartIndex = valueStartIndex;
     }
 
+    /**
+     * @param text Text.
+     * @param begin Begin index.
+     * @param end End index.
+     * @return Begin index after skipping characters removed by String.trim().
+     */
+    private static int trimBegin(String text, int begin, int end) {
+      while ((begin < end) && (text.charAt(begin) <= ' ')) {
+        begin++;
+      }
+      return begin;
+    }
+
+    /**
+     * @param text Text.
+     * @param begin Begin index.
+     * @param end End index.
+     * @return End index after skipping characters removed by String.trim().
+     */
+    private static int trimEnd(String text, int begin, int end) {
+      while ((end > begin) && (text.charAt(end - 1) <= ' ')) {
+        end--;
+      }
+      return end;
+    }
+
     /**
      * @return Parameter pipe index.
      */
@@ -77,6 +160,9 @@ public class PageElementTemplate extends PageElement {
      * @return Parameter name.
      */
     public String getNameNotTrimmed() {
+      if (nameNotTrimmed == null) {
+        nameNotTrimmed = contents.substring(nameBeginIndex, nameEndIndex);
+      }
       return nameNotTrimmed;
     }
 
@@ -84,13 +170,54 @@ public class PageElementTemplate extends PageElement {
      * @return Parameter name.
      */
     public String getName() {
+      if (name == null) {
+        if ((nameTrimmedBeginIndex == nameBeginIndex) &&
+            (nameTrimmedEndIndex == nameEndIndex)) {
+          name = getNameNotTrimmed();
+        } else {
+          name = contents.substring(nameTrimmedBeginIndex, nameTrimmedEndIndex);
+        }
+      }
       return name;
     }
 
+    /**
+     * @return Parameter name as a view on the page contents, without copy.
+     */
+    public CharSequence getNameView() {
+      if (name != null) {
+        return name;
+      }
+      return CharBuffer.wrap(contents, nameTrimmedBeginIndex, nameTrimmedEndIndex);
+    }
+
+    /**
+     * @return True if the parameter has a non empty name.
+     */
+    public boolean hasName() {
+      return nameTrimmedEndIndex > nameTrimmedBeginIndex;
+    }
+
+    /**
+     * @param text Text.
+     * @return True if the parameter name is equal to the text.
+     */
+    public boolean isName(String text) {
+      if (text == null) {
+        return false;
+      }
+      int length = nameTrimmedEndIndex - nameTrimmedBeginIndex;
+      return (text.length() == length) &&
+             contents.regionMatches(nameTrimmedBeginIndex, text, 0, length);
+    }
+
     /**
      * @return Computed parameter name.
      */
     public String getComputedName() {
+      if (computedName == null) {
+        computedName = (paramNum > 0) ? Integer.toString(paramNum) : getName();
+      }
       return computedName;
     }
 
@@ -105,6 +232,9 @@ public class PageElementTemplate extends PageElement {
      * @return Parameter value.
      */
     public String getValueNotTrimmed() {
+      if (valueNotTrimmed == null) {
+        valueNotTrimmed = contents.substring(valueBeginIndex, getEndIndex());
+      }
       return valueNotTrimmed;
     }
 
@@ -112,13 +242,37 @@ public class PageElementTemplate extends PageElement {
      * @return Parameter value.
      */
     public String getValue() {
+      if (value == null) {
+        if ((valueTrimmedBeginIndex == valueBeginIndex) &&
+            (valueTrimmedEndIndex == getEndIndex())) {
+          value = getValueNotTrimmed();
+        } else {
+          value = contents.substring(valueTrimmedBeginIndex, valueTrimmedEndIndex);
+        }
+      }
       return value;
     }
 
+    /**
+     * @return Parameter value as a view on the page contents, without copy.
+     */
+    public CharSequence getValueView() {
+      if (value != null) {
+        return value;
+      }
+      return CharBuffer.wrap(contents, valueTrimmedBeginIndex, valueTrimmedEndIndex);
+    }
+
     /**
      * @return Parameter stripped value.
      */
     public String getStrippedValue() {
+      if (strippedValue == null) {
+        String tmpValue = getValueNotTrimmed();
+        String tmpStripped = ContentsComment.stripComments(
+            comments.getAll(), tmpValue, valueBeginIndex);
+        strippedValue = (tmpStripped == tmpValue) ? getValue() : tmpStripped.trim();
+      }
       return strippedValue;
     }
 
@@ -131,10 +285,10 @@ public class PageElementTemplate extends PageElement {
 
     @Override
     public String toString() {
-      if ((name != null) && (!name.isEmpty())) {
-        return name + "=" + value;
+      if (hasName()) {
+        return getName() + "=" + getValue();
       }
-      return value;
+      return getValue();
     }
   }
 
@@ -153,11 +307,62 @@ public class PageElementTemplate extends PageElement {
       String contents, int index,
       ContainerComment comments,
       List<PageElementTag> tags) {
+    return analyzeBlock(wiki, contents, index, comments, tags, null);
+  }
+
+  /**
+   * Analyze contents to check if it matches a block.
+   * 
+   * @param wiki Wiki.
+   * @param contents Contents.
+   * @param index Block start index.
+   * @param comments Comments in the page.
+   * @param tags Tags in the page.
+   * @param blocks Index of blocks in the page (may be null).
+   * @return Block details it there's a block.
+   */
+  public static PageElementTemplate analyzeBlock(
+      EnumWikipedia wiki,
+      String contents, int index,
+      ContainerComment comments,
+      List<PageElementTag> tags,
+      PageElementBlocks blocks) {
     // Verify arguments
     if (contents == null) {
       return null;
     }
 
+    // Use the result of a previous analysis
+    if (blocks != null) {
+      if (blocks.isTemplateAnalyzed(index)) {
+        return blocks.getTemplate(index);
+      }
+      PageElementTemplate template = internalAnalyzeBlock(
+          wiki, contents, index, comments, tags, blocks);
+      blocks.setTemplate(index, template);
+      return template;
+    }
+    return internalAnalyzeBlock(wiki, contents, index, comments, tags, null);
+  }
+
+  /**
+   * Analyze contents to check if it matches a block.
+   * 
+   * @param wiki Wiki.
+   * @param contents Contents.
+   * @param index Block start index.
+   * @param comments Comments in the page.
+   * @param tags Tags in the page.
+   * @param blocks Index of blocks in the page (may be null).
+   * @return Block details it there's a block.
+   */
+  private static PageElementTemplate internalAnalyzeBlock(
+      EnumWikipedia wiki,
+      String contents, int index,
+      ContainerComment comments,
+      List<PageElementTag> tags,
+      PageElementBlocks blocks) {
+
     // Look for '{{'
     int beginIndex = index;
     int tmpIndex = beginIndex;
@@ -240,13 +445,16 @@ public class PageElementTemplate extends PageElement {
 
     // Check if it's a template without parameters
     if (contents.startsWith("}}", tmpIndex)) {
+      if (blocks != null) {
+        blocks.setTemplateBalanced(beginIndex);
+      }
       return new PageElementTemplate(
           templateName,
           beginIndex, tmpIndex + 2, null);
     }
 
     // Check if it's a template
-    if (contents.charAt(tmpIndex) != '|') {
+    if ((tmpIndex >= contents.length()) || (contents.charAt(tmpIndex) != '|')) {
       return null;
     }
 
@@ -255,7 +463,7 @@ public class PageElementTemplate extends PageElement {
     List<Parameter> parameters = new ArrayList<Parameter>();
     int endIndex = analyzeTemplateParameters(
         wiki, contents, beginIndex, tmpIndex - 1, tmpIndex, parameters,
-        comments, tags);
+        comments, tags, blocks);
     if (endIndex < 0) {
       return null;
     }
@@ -275,6 +483,7 @@ public class PageElementTemplate extends PageElement {
    * @param parameters Parameters.
    * @param comments Comments in the page.
    * @param tags Tags in the page.
+   * @param blocks Index of blocks in the page (may be null).
    * @return Position of the end of the template, or -1 if no template was found.
    */
   private static int analyzeTemplateParameters(
@@ -282,14 +491,17 @@ public class PageElementTemplate extends PageElement {
       int templateBeginIndex, int pipeIndex, int parametersBeginIndex,
       List<Parameter> parameters,
       ContainerComment comments,
-      List<PageElementTag> tags) {
+      List<PageElementTag> tags,
+      PageElementBlocks blocks) {
     if (contents == null) {
       return -1;
     }
 
     // Compute max length
     int maxLength = contents.length();
-    if (tags != null) {
+    if (blocks != null) {
+      maxLength = blocks.getMaxLengthInRef(parametersBeginIndex, maxLength);
+    } else if (tags != null) {
       for (PageElementTag tag : tags) {
         if ((tag.getCompleteBeginIndex() < parametersBeginIndex) &&
             (tag.getCompleteEndIndex() > parametersBeginIndex) &&
@@ -313,8 +525,22 @@ public class PageElementTemplate extends PageElement {
         depth3CurlyBrackets++;
       } else if (contents.startsWith("{{", tmpIndex)) {
         // Possible start of nested template
-        tmpIndex += 2;
-        depth2CurlyBrackets++;
+        PageElementTemplate nested = null;
+        if ((blocks != null) &&
+            (depth3CurlyBrackets <= 0) &&
+            (depth2SquareBrackets <= 0)) {
+          // Jump directly to the end of the nested template:
+          // its analysis goes through the same characters with the same rules
+          nested = analyzeBlock(wiki, contents, tmpIndex, comments, tags, blocks);
+        }
+        if ((nested != null) &&
+            (nested.getEndIndex() <= maxLength) &&
+            blocks.isTemplateBalanced(nested.getBeginIndex())) {
+          tmpIndex = nested.getEndIndex();
+        } else {
+          tmpIndex += 2;
+          depth2CurlyBrackets++;
+        }
       } else if (contents.startsWith("}}", tmpIndex)) {
         if (contents.startsWith("}}}", tmpIndex) &&
             (depth3CurlyBrackets > 0)) {
@@ -328,11 +554,15 @@ public class PageElementTemplate extends PageElement {
             depth2CurlyBrackets--;
           } else {
             addParameter(
-                parameters, pipeIndex, tmpIndex - 2,
-                contents.substring(parameterBeginIndex, tmpIndex - 2),
+                parameters, contents, pipeIndex, tmpIndex - 2,
                 equalIndex - parameterBeginIndex,
                 parameterBeginIndex,
                 comments);
+            if ((blocks != null) &&
+                (depth3CurlyBrackets <= 0) &&
+                (depth2SquareBrackets <= 0)) {
+              blocks.setTemplateBalanced(templateBeginIndex);
+            }
             return tmpIndex;
           }
         }
@@ -350,14 +580,7 @@ public class PageElementTemplate extends PageElement {
         }
       } else if (contents.startsWith("<", tmpIndex)) {
         // Possible start of a tag
-        PageElementTag tag = null;
-        if (tags != null) {
-          for (PageElementTag tmpTag : tags) {
-            if (tmpTag.getBeginIndex() == tmpIndex) {
-              tag = tmpTag;
-            }
-          }
-        }
+        PageElementTag tag = PageElementBlocks.getTagBeginningAt(blocks, tags, tmpIndex);
         if (tag != null) {
           String tagName = tag.getName();
           if (PageElementTag.TAG_WIKI_NOWIKI.equals(tagName) ||
@@ -389,8 +612,7 @@ public class PageElementTemplate extends PageElement {
             depth3CurlyBrackets = 0;
             depth2SquareBrackets = 0;
             addParameter(
-                parameters, pipeIndex, tmpIndex,
-                contents.substring(parameterBeginIndex, tmpIndex),
+                parameters, contents, pipeIndex, tmpIndex,
                 equalIndex - parameterBeginIndex,
                 parameterBeginIndex,
                 comments);
@@ -433,24 +655,26 @@ public class PageElementTemplate extends PageElement {
 
   /**
    * @param parameters List of parameters.
+   * @param contents Page contents.
    * @param pipeIndex Index of "|".
    * @param endIndex Index of the end of the parameter.
-   * @param parameter New parameter (name=value or value).
    * @param equalIndex Index of "=" in the parameter or < 0 if doesn't exist.
    * @param offset Offset of parameter start index in page contents.
    * @param comments Comments in the page.
    */
   private static void addParameter(
       List<Parameter> parameters,
-      int pipeIndex, int endIndex, String parameter,
+      String contents,
+      int pipeIndex, int endIndex,
       int equalIndex, int offset,
       ContainerComment comments) {
 
     // Check if the "=" is meaningful
+    int length = endIndex - offset;
     if (equalIndex >= 0) {
       boolean meaningful = true;
-      if ((equalIndex > 0) && (parameter.charAt(equalIndex - 1) == '\n')) {
-        if ((equalIndex + 1 < parameter.length()) && (parameter.charAt(equalIndex + 1) == '=')) {
+      if ((equalIndex > 0) && (contents.charAt(offset + equalIndex - 1) == '\n')) {
+        if ((equalIndex + 1 < length) && (contents.charAt(offset + equalIndex + 1) == '=')) {
           meaningful = false;
         }
       }
@@ -462,36 +686,34 @@ public class PageElementTemplate extends PageElement {
     // Analyze parameter
     if (equalIndex < 0) {
       int spaces = 0;
-      while ((spaces < parameter.length()) && (Character.isWhitespace(parameter.charAt(spaces)))) {
+      while ((spaces < length) && (Character.isWhitespace(contents.charAt(offset + spaces)))) {
         spaces++;
       }
       int paramNum = 1;
       for (Parameter param : parameters) {
-        String paramName = param.getName();
-        if ((paramName == null) || ("".equals(paramName))) {
+        if (!param.hasName()) {
           paramNum++;
         }
       }
-      String strippedValue = ContentsComment.stripComments(comments.getAll(), parameter, offset);
       parameters.add(new Parameter(
+          contents, comments,
           pipeIndex, endIndex,
-          "", Integer.toString(paramNum), offset + spaces,
-          parameter, strippedValue, offset + spaces));
+          offset, offset, paramNum, offset + spaces,
+          offset, offset + spaces));
     } else {
       int spacesName = 0;
-      while ((spacesName < equalIndex) && (Character.isWhitespace(parameter.charAt(spacesName)))) {
+      while ((spacesName < equalIndex) && (Character.isWhitespace(contents.charAt(offset + spacesName)))) {
         spacesName++;
       }
       int spacesValue = equalIndex + 1;
-      while ((spacesValue < parameter.length()) && (Character.isWhitespace(parameter.charAt(spacesValue)))) {
+      while ((spacesValue < length) && (Character.isWhitespace(contents.charAt(offset + spacesValue)))) {
         spacesValue++;
       }
-      String value = parameter.substring(equalIndex + 1);
-      String strippedValue = ContentsComment.stripComments(comments.getAll(), value, offset + equalIndex + 1);
       parameters.add(new Parameter(
+          contents, comments,
           pipeIndex, endIndex,
-          parameter.substring(0, equalIndex), null, offset + spacesName,
-          parameter.substring(equalIndex + 1), strippedValue, offset + spacesValue));
+          offset, offset + equalIndex, 0, offset + spacesName,
+          offset + equalIndex + 1, offset + spacesValue));
     }
   }
 
@@ -524,16 +746,26 @@ public class PageElementTemplate extends PageElement {
     }
     int index = 0;
     int paramNum = 1;
+    String paramNumName = null;
     while (index < parameters.size()) {
-      String parameterName = parameters.get(index).name;
-      if ((parameterName == null) || (parameterName.length() == 0)) {
-        parameterName = Integer.toString(paramNum);
+      Parameter parameter = parameters.get(index);
+      if (paramNumName == null) {
+        paramNumName = Integer.toString(paramNum);
       }
-      if (parameterName.equals(Integer.toString(paramNum))) {
+      if (!parameter.hasName()) {
+        if (name.equals(paramNumName)) {
+          return index;
+        }
         paramNum++;
-      }
-      if (name.equals(parameterName)) {
-        return index;
+        paramNumName = null;
+      } else {
+        if (parameter.isName(paramNumName)) {
+          paramNum++;
+          paramNumName = null;
+        }
+        if (parameter.isName(name)) {
+          return index;
+        }
       }
       index++;
     }
@@ -598,7 +830,7 @@ public class PageElementTemplate extends PageElement {
    */
   public String getParameterName(int index) {
     if ((index >= 0) && (index < parameters.size())) {
-      return parameters.get(index).name;
+      return parameters.get(index).getName();
     }
     return null;
   }
@@ -624,7 +856,7 @@ public class PageElementTemplate extends PageElement {
    */
   public String getParameterValue(int index) {
     if ((index >= 0) && (index < parameters.size())) {
-      return parameters.get(index).value;
+      return parameters.get(index).getValue();
     }
     return null;
   }
@@ -654,7 +886,7 @@ public class PageElementTemplate extends PageElement {
     }
     int index = getParameterIndex(name);
     if ((index >= 0) && (index < parameters.size())) {
-      return parameters.get(index).value;
+      return parameters.get(index).getValue();
     }
     return null;
   }
@@ -670,8 +902,8 @@ public class PageElementTemplate extends PageElement {
     /*System.err.println("Template: " + this.templateName);
     if (parameters != null) {
       for (Parameter parameter : this.parameters) {
-        System.err.println(" Parameter: " + parameter.name);
-        System.err.println(" Value: " + parameter.value);
+        System.err.println(" Parameter: " + parameter.getName());
+        System.err.println(" Value: " + parameter.getValue());
       }
     }*/
   }
@@ -683,7 +915,7 @@ public class PageElementTemplate extends PageElement {
 
   private void addPartFromParameters(StringBuilder sb) {
     for (Parameter parameter : parameters) {
-      addParameter(sb, parameter.name, parameter.value);
+      addParameter(sb, parameter.getName(), parameter.getValue());
     }
     sb.append("}}");
   }
@@ -710,7 +942,7 @@ public class PageElementTemplate extends PageElement {
     boolean parameterExist = false;
     if (parameters != null) {
       for (Parameter parameter : parameters) {
-        if (parameter.name.equals(parameterName)) {
+        if (parameter.getName().equals(parameterName)) {
           parameterExist = true;
         }
       }
@@ -725,7 +957,7 @@ public class PageElementTemplate extends PageElement {
       for (Parameter parameter : parameters) {
   
         // Managing unnamed
-        String currentParameterName = parameter.name;
+        String currentParameterName = parameter.getName();
         if ((currentParameterName == null) || (currentParameterName.length() == 0)) {
           currentParameterName = Integer.toString(paramNum);
         }
@@ -737,65 +969,65 @@ public class PageElementTemplate extends PageElement {
         // Manage whitespace characters before/after name/value
         tmpParameterName = parameterName;
         tmpParameterValue = parameterValue;
-        if ((parameter.name != null) && (parameter.name.length() > 0)) {
+        if ((parameter.getName() != null) && (parameter.getName().length() > 0)) {
           // Whitespace characters before name
           int spaces = 0;
-          while ((spaces < parameter.nameNotTrimmed.length()) &&
-                 (Character.isWhitespace(parameter.nameNotTrimmed.charAt(spaces)))) {
+          while ((spaces < parameter.getNameNotTrimmed().length()) &&
+                 (Character.isWhitespace(parameter.getNameNotTrimmed().charAt(spaces)))) {
             spaces++;
           }
           if (spaces > 0) {
-            tmpParameterName = parameter.nameNotTrimmed.substring(0, spaces) + parameterName;
+            tmpParameterName = parameter.getNameNotTrimmed().substring(0, spaces) + parameterName;
           }
   
           // Whitespace characters after name
-          spaces = parameter.nameNotTrimmed.length();
+          spaces = parameter.getNameNotTrimmed().length();
           while ((spaces > 0) &&
-                 (Character.isWhitespace(parameter.nameNotTrimmed.charAt(spaces - 1)))) {
+                 (Character.isWhitespace(parameter.getNameNotTrimmed().charAt(spaces - 1)))) {
             spaces--;
           }
-          if (spaces < parameter.nameNotTrimmed.length()) {
-            tmpParameterName += parameter.nameNotTrimmed.substring(spaces);
+          if (spaces < parameter.getNameNotTrimmed().length()) {
+            tmpParameterName += parameter.getNameNotTrimmed().substring(spaces);
           }
         }
   
-        if (parameter.value != null) {
+        if (parameter.getValue() != null) {
           // Whitespace characters before value
           int spaces = 0;
-          while ((spaces < parameter.valueNotTrimmed.length()) &&
-                 (Character.isWhitespace(parameter.valueNotTrimmed.charAt(spaces)))) {
+          while ((spaces < parameter.getValueNotTrimmed().length()) &&
+                 (Character.isWhitespace(parameter.getValueNotTrimmed().charAt(spaces)))) {
             spaces++;
           }
           if ((spaces > 0) && (tmpParameterValue != null)) {
-            tmpParameterValue = parameter.valueNotTrimmed.substring(0, spaces) + parameterValue;
+            tmpParameterValue = parameter.getValueNotTrimmed().substring(0, spaces) + parameterValue;
           }
   
           // Whitespace characters after value
-          spaces = parameter.valueNotTrimmed.length();
+          spaces = parameter.getValueNotTrimmed().length();
           while ((spaces > 0) &&
-                 (Character.isWhitespace(parameter.valueNotTrimmed.charAt(spaces - 1)))) {
+                 (Character.isWhitespace(parameter.getValueNotTrimmed().charAt(spaces - 1)))) {
             spaces--;
           }
-          if ((spaces < parameter.valueNotTrimmed.length()) && (tmpParameterValue != null)) {
-            tmpParameterValue += parameter.valueNotTrimmed.substring(spaces);
+          if ((spaces < parameter.getValueNotTrimmed().length()) && (tmpParameterValue != null)) {
+            tmpParameterValue += parameter.getValueNotTrimmed().substring(spaces);
           }
         }
   
         // Add parameter
         if (currentParameterName.equals(parameterName)) {
           if (tmpParameterValue != null) {
-            addParameter(sb, parameter.nameNotTrimmed, tmpParameterValue);
+            addParameter(sb, parameter.getNameNotTrimmed(), tmpParameterValue);
             paramNum = tmpParamNum;
           }
           parameterAdded = true;
         } else if ((!parameterExist) &&
                    (currentParameterName.equals(previousParameter))) {
-          addParameter(sb, parameter.nameNotTrimmed, parameter.valueNotTrimmed);
+          addParameter(sb, parameter.getNameNotTrimmed(), parameter.getValueNotTrimmed());
           addParameter(sb, tmpParameterName, tmpParameterValue);
           paramNum = tmpParamNum;
           parameterAdded = true;
         } else {
-          addParameter(sb, parameter.nameNotTrimmed, parameter.valueNotTrimmed);
+          addParameter(sb, parameter.getNameNotTrimmed(), parameter.getValueNotTrimmed());
           paramNum = tmpParamNum;
         }
       }
@@ -826,10 +1058,10 @@ public class PageElementTemplate extends PageElement {
     boolean parameterExist1 = false;
     boolean parameterExist2 = false;
     for (Parameter parameter : parameters) {
-      if (parameter.name.equals(parameterName1)) {
+      if (parameter.getName().equals(parameterName1)) {
         parameterExist1 = true;
       }
-      if (parameter.name.equals(parameterName2)) {
+      if (parameter.getName().equals(parameterName2)) {
         parameterExist2 = true;
       }
     }
@@ -845,7 +1077,7 @@ public class PageElementTemplate extends PageElement {
     for (Parameter parameter : parameters) {
 
       // Managing unname
-      String currentParameterName = parameter.name;
+      String currentParameterName = parameter.getName();
       if ((currentParameterName == null) || (currentParameterName.length() == 0)) {
         currentParameterName = Integer.toString(paramNum);
       }
@@ -856,57 +1088,57 @@ public class PageElementTemplate extends PageElement {
       // Manage whitespace characters before/after name/value
       tmpParameterName1 = parameterName1;
       tmpParameterValue1 = parameterValue1;
-      if ((parameter.name != null) && (parameter.name.length() > 0)) {
+      if ((parameter.getName() != null) && (parameter.getName().length() > 0)) {
         // Whitespace characters before name
         int spaces = 0;
-        while ((spaces < parameter.nameNotTrimmed.length()) &&
-               (Character.isWhitespace(parameter.nameNotTrimmed.charAt(spaces)))) {
+        while ((spaces < parameter.getNameNotTrimmed().length()) &&
+               (Character.isWhitespace(parameter.getNameNotTrimmed().charAt(spaces)))) {
           spaces++;
         }
         if (spaces > 0) {
-          tmpParameterName1 = parameter.nameNotTrimmed.substring(0, spaces) + parameterName1;
-          tmpParameterName2 = parameter.nameNotTrimmed.substring(0, spaces) + parameterName2;
+          tmpParameterName1 = parameter.getNameNotTrimmed().substring(0, spaces) + parameterName1;
+          tmpParameterName2 = parameter.getNameNotTrimmed().substring(0, spaces) + parameterName2;
         }
 
         // Whitespace characters after name
-        spaces = parameter.nameNotTrimmed.length();
+        spaces = parameter.getNameNotTrimmed().length();
         while ((spaces > 0) &&
-               (Character.isWhitespace(parameter.nameNotTrimmed.charAt(spaces - 1)))) {
+               (Character.isWhitespace(parameter.getNameNotTrimmed().charAt(spaces - 1)))) {
           spaces--;
         }
-        if (spaces < parameter.nameNotTrimmed.length()) {
-          tmpParameterName1 += parameter.nameNotTrimmed.substring(spaces);
-          tmpParameterName2 += parameter.nameNotTrimmed.substring(spaces);
+        if (spaces < parameter.getNameNotTrimmed().length()) {
+          tmpParameterName1 += parameter.getNameNotTrimmed().substring(spaces);
+          tmpParameterName2 += parameter.getNameNotTrimmed().substring(spaces);
         }
       }
 
-      if (parameter.value != null) {
+      if (parameter.getValue() != null) {
         // Whitespace characters before value
         int spaces = 0;
-        while ((spaces < parameter.valueNotTrimmed.length()) &&
-               (Character.isWhitespace(parameter.valueNotTrimmed.charAt(spaces)))) {
+        while ((spaces < parameter.getValueNotTrimmed().length()) &&
+               (Character.isWhitespace(parameter.getValueNotTrimmed().charAt(spaces)))) {
           spaces++;
         }
         if (spaces > 0) {
-          tmpParameterValue1 = parameter.valueNotTrimmed.substring(0, spaces) + parameterValue1;
-          tmpParameterValue2 = parameter.valueNotTrimmed.substring(0, spaces) + parameterValue2;
+          tmpParameterValue1 = parameter.getValueNotTrimmed().substring(0, spaces) + parameterValue1;
+          tmpParameterValue2 = parameter.getValueNotTrimmed().substring(0, spaces) + parameterValue2;
         }
 
         // Whitespace characters after value
-        spaces = parameter.valueNotTrimmed.length();
+        spaces = parameter.getValueNotTrimmed().length();
         while ((spaces > 0) &&
-               (Character.isWhitespace(parameter.valueNotTrimmed.charAt(spaces - 1)))) {
+               (Character.isWhitespace(parameter.getValueNotTrimmed().charAt(spaces - 1)))) {
           spaces--;
         }
-        if (spaces < parameter.valueNotTrimmed.length()) {
-          tmpParameterValue1 += parameter.valueNotTrimmed.substring(spaces);
-          tmpParameterValue2 += parameter.valueNotTrimmed.substring(spaces);
+        if (spaces < parameter.getValueNotTrimmed().length()) {
+          tmpParameterValue1 += parameter.getValueNotTrimmed().substring(spaces);
+          tmpParameterValue2 += parameter.getValueNotTrimmed().substring(spaces);
         }
       }
 
       // Add parameter
       if (currentParameterName.equals(parameterName1)) {
-        addParameter(sb, parameter.nameNotTrimmed, tmpParameterValue1);
+        addParameter(sb, parameter.getNameNotTrimmed(), tmpParameterValue1);
         parameterAdded1 = true;
         if (!parameterExist2) {
           addParameter(sb, tmpParameterName2, tmpParameterValue2);
@@ -917,10 +1149,10 @@ public class PageElementTemplate extends PageElement {
           addParameter(sb, tmpParameterName1, tmpParameterValue1);
           parameterAdded1 = true;
         }
-        addParameter(sb, parameter.nameNotTrimmed, tmpParameterValue2);
+        addParameter(sb, parameter.getNameNotTrimmed(), tmpParameterValue2);
         parameterAdded2 = true;
       } else {
-        addParameter(sb, parameter.nameNotTrimmed, parameter.valueNotTrimmed);
+        addParameter(sb, parameter.getNameNotTrimmed(), parameter.getValueNotTrimmed());
       }
     }
     if (!parameterAdded1) {
@@ -38,9 +38,14 @@ public class Suggestion implements Comparable<Suggestion> {
   private final String chapter;
 
   /**
-   * Regular expression pattern.
+   * Regular expression pattern text.
    */
-  private final Pattern pattern;
+  private final String patternText;
+
+  /**
+   * Regular expression pattern, compiled on first use.
+   */
+  private volatile Pattern pattern;
 
   /**
    *  True if the pattern is not a native WPCleaner pattern (AWB, ...)
@@ -120,7 +125,7 @@ public class Suggestion implements Comparable<Suggestion> {
             patternText.length() - TAG_NOWIKI_2.length());
       }
       Pattern pattern = Pattern.compile(patternText);
-      return new Suggestion(pattern, other, chapter);
+      return new Suggestion(patternText, pattern, other, chapter);
     } catch (PatternSyntaxException e) {
       log.warn("Incorrect pattern syntax for [" + patternText + "]: " + e.getMessage());
     }
@@ -128,14 +133,32 @@ public class Suggestion implements Comparable<Suggestion> {
   }
 
   /**
-   * @param pattern Search pattern.
+   * Restore a Suggestion whose pattern has already been validated by
+   * {@link #createSuggestion(String, boolean, String)}.
+   * The pattern is only compiled when it is first used.
+   * 
+   * @param patternText Search pattern, as returned by {@link #getPatternText()}.
+   * @param other True if the pattern is not a native WPCleaner pattern.
+   * @param chapter Page and chapter in which the suggestion is defined.
+   * @return Suggestion.
+   */
+  public static Suggestion restoreSuggestion(
+      String patternText, boolean other,
+      String chapter) {
+    return new Suggestion(patternText, null, other, chapter);
+  }
+
+  /**
+   * @param patternText Search pattern text.
+   * @param pattern Search pattern, null to compile it on first use.
    * @param other True if the pattern is not a native WPCleaner pattern.
    * @param chapter Page and chapter in which the suggestion is defined.
    */
   private Suggestion(
-      Pattern pattern, boolean other,
+      String patternText, Pattern pattern, boolean other,
       String chapter) {
     this.chapter = chapter;
+    this.patternText = patternText;
     this.pattern = pattern;
     this.other = other;
     this.suggestions = new ArrayList<ElementarySuggestion>();
@@ -160,7 +183,19 @@ public class Suggestion implements Comparable<Suggestion> {
    * @return Search pattern.
    */
   public String getPatternText() {
-    return pattern.pattern();
+    return patternText;
+  }
+
+  /**
+   * @return Search pattern.
+   */
+  private Pattern getPattern() {
+    Pattern result = pattern;
+    if (result == null) {
+      result = Pattern.compile(patternText);
+      pattern = result;
+    }
+    return result;
   }
 
   /**
@@ -192,6 +227,13 @@ public class Suggestion implements Comparable<Suggestion> {
     }
   }
 
+  /**
+   * @return All possible replacements, as defined in the configuration.
+   */
+  public List<ElementarySuggestion> getReplacements() {
+    return Collections.unmodifiableList(suggestions);
+  }
+
   /**
    * @param comment Comment.
    */
@@ -211,7 +253,7 @@ public class Suggestion implements Comparable<Suggestion> {
    * @return A matcher for the pattern
    */
   public Matcher initMatcher(String text) {
-    Matcher matcher = pattern.matcher(text);
+    Matcher matcher = getPattern().matcher(text);
     matcher.useAnchoringBounds(false);
     matcher.useTransparentBounds(true);
     return matcher;
@@ -243,7 +285,7 @@ public class Suggestion implements Comparable<Suggestion> {
     for (ElementarySuggestion suggestion : suggestions) {
       String replacement = suggestion.getReplacement();
       try {
-        String newText = pattern.matcher(initialText).replaceFirst(replacement);
+        String newText = getPattern().matcher(initialText).replaceFirst(replacement);
         String initialPrefix = initialText.substring(0, Math.min(begin, initialText.length()));
         String newPrefix = newText.substring(0, Math.min(begin, initialText.length()));
         String initialSuffix = initialText.substring(end);
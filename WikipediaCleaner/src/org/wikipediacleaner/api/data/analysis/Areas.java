@@ -261,9 +261,7 @@ public class Areas {
             addArea(beginIndex, template.getParameterValueStartIndex(0));
           }
           for (int numParam = 0; numParam < template.getParameterCount(); numParam++) {
-            String paramName = template.getParameterName(numParam);
-            if ((paramName != null) &&
-                (paramName.length() > 0)) {
+            if (template.getParameter(numParam).hasName()) {
               addArea(
                   template.getParameterPipeIndex(numParam),
                   template.getParameterValueStartIndex(numParam));
@@ -12,6 +12,12 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 import org.wikipediacleaner.api.check.CheckErrorResult;
 import org.wikipediacleaner.api.constants.EnumWikipedia;
@@ -21,6 +27,7 @@ import org.wikipediacleaner.api.constants.wiki.AbstractWikiSettings;
 import org.wikipediacleaner.api.data.MagicWord;
 import org.wikipediacleaner.api.data.Page;
 import org.wikipediacleaner.api.data.PageAnalysisUtils;
+import org.wikipediacleaner.api.data.PageElementBlocks;
 import org.wikipediacleaner.api.data.PageElementCategory;
 import org.wikipediacleaner.api.data.PageElementExternalLink;
 import org.wikipediacleaner.api.data.PageElementFunction;
@@ -45,8 +52,11 @@ import org.wikipediacleaner.api.data.contents.ContentsComment;
 import org.wikipediacleaner.api.data.contents.ContentsElement;
 import org.wikipediacleaner.api.data.contents.ContentsElementComparator;
 import org.wikipediacleaner.utils.Configuration;
+import org.wikipediacleaner.utils.NamedThreadFactory;
 import org.wikipediacleaner.utils.ConfigurationValueBoolean;
 import org.wikipediacleaner.utils.Performance;
+import org.wikipediacleaner.utils.metrics.Histogram;
+import org.wikipediacleaner.utils.metrics.Metrics;
 
 
 /**
@@ -60,6 +70,33 @@ public class PageAnalysis {
   /** Threshold for tracing time taken by execution */
   private final static long TRACE_THRESHOLD = 100;
 
+  /** Metrics for the time spent in level 1 analysis */
+  private final static Histogram level1Metrics = Metrics.getHistogram("analysis.level1");
+
+  /** Metrics for the time spent in level 2 analysis */
+  private final static Histogram level2Metrics = Metrics.getHistogram("analysis.level2");
+
+  /** Metrics for the time spent in level 3 analysis */
+  private final static Histogram level3Metrics = Metrics.getHistogram("analysis.level3");
+
+  /** Metrics for the time spent in level 4 analysis */
+  private final static Histogram level4Metrics = Metrics.getHistogram("analysis.level4");
+
+  /** Metrics for the time spent in level 5 analysis for ISBN */
+  private final static Histogram level5ISBNMetrics = Metrics.getHistogram("analysis.level5.isbn");
+
+  /** Metrics for the time spent in level 5 analysis for ISSN */
+  private final static Histogram level5ISSNMetrics = Metrics.getHistogram("analysis.level5.issn");
+
+  /** Metrics for the time spent in level 5 analysis for PMID */
+  private final static Histogram level5PMIDMetrics = Metrics.getHistogram("analysis.level5.pmid");
+
+  /** Metrics for the time spent in level 5 analysis for RFC */
+  private final static Histogram level5RFCMetrics = Metrics.getHistogram("analysis.level5.rfc");
+
+  /** Metrics for the time spent in level 6 analysis */
+  private final static Histogram level6Metrics = Metrics.getHistogram("analysis.level6");
+
   /** Page currently analyzed */
   private final Page page;
 
@@ -91,6 +128,41 @@ public class PageAnalysis {
     traceTime = trace;
   }
 
+  /** Minimum size of the page for analyzing independent levels in parallel */
+  private static int parallelThreshold = 500000;
+
+  /** Executor for analyzing independent levels in parallel */
+  private static ExecutorService parallelExecutor = null;
+
+  /**
+   * @param threshold Minimum size of the page for analyzing independent levels
+   *        in parallel (0 to disable parallel analysis).
+   */
+  public static void setParallelThreshold(int threshold) {
+    parallelThreshold = threshold;
+  }
+
+  /**
+   * @return Executor for analyzing independent levels in parallel.
+   */
+  private static synchronized ExecutorService getParallelExecutor() {
+    if (parallelExecutor == null) {
+      final ThreadFactory daemonFactory = new ThreadFactory() {
+
+        @Override
+        public Thread newThread(Runnable r) {
+          Thread thread = Executors.defaultThreadFactory().newThread(r);
+          thread.setDaemon(true);
+          return thread;
+        }
+      };
+      parallelExecutor = Executors.newFixedThreadPool(
+          Math.max(2, Runtime.getRuntime().availableProcessors()),
+          new NamedThreadFactory(daemonFactory, "PageAnalysis-{0}"));
+    }
+    return parallelExecutor;
+  }
+
   /**
    * @return Page.
    */
@@ -180,24 +252,58 @@ public class PageAnalysis {
    * @param perf Performance analysis.
    */
   public void performFullPageAnalysis(AnalysisPerformance perf) {
+    performPageAnalysis(AnalysisLevel.FULL, perf);
+  }
+
+  /**
+   * Perform page analysis up to a given level.
+   * 
+   * Elements of higher levels are still analyzed lazily when they are requested.
+   * 
+   * @param level Level of analysis to perform.
+   * @param perf Performance analysis.
+   */
+  public void performPageAnalysis(AnalysisLevel level, AnalysisPerformance perf) {
+    if (level == null) {
+      level = AnalysisLevel.FULL;
+    }
     long time0 = System.nanoTime();
     level1Analysis();
     long time1 = System.nanoTime();
-    level2Analysis();
+    if (level.compareTo(AnalysisLevel.TAGS) >= 0) {
+      level2Analysis();
+    }
     long time2 = System.nanoTime();
-    level3Analysis();
+    if (level.compareTo(AnalysisLevel.LINKS) >= 0) {
+      level3Analysis();
+    }
     long time3 = System.nanoTime();
-    level4Analysis();
+    if (level.compareTo(AnalysisLevel.EXTERNAL_LINKS) >= 0) {
+      level4Analysis();
+    }
     long time4 = System.nanoTime();
-    level5AnalysisISBN();
-    long time4a = System.nanoTime();
-    level5AnalysisISSN();
-    long time4b = System.nanoTime();
-    level5AnalysisPMID();
-    long time4c = System.nanoTime();
-    level5AnalysisRFC();
-    long time5 = System.nanoTime();
-    level6Analysis();
+    if ((level.compareTo(AnalysisLevel.IDENTIFIERS) >= 0) &&
+        (parallelThreshold > 0) &&
+        (contents.length() >= parallelThreshold)) {
+      parallelAnalysis(level.compareTo(AnalysisLevel.FULL) >= 0);
+    }
+    long time4a = time4;
+    long time4b = time4;
+    long time4c = time4;
+    long time5 = time4;
+    if (level.compareTo(AnalysisLevel.IDENTIFIERS) >= 0) {
+      level5AnalysisISBN();
+      time4a = System.nanoTime();
+      level5AnalysisISSN();
+      time4b = System.nanoTime();
+      level5AnalysisPMID();
+      time4c = System.nanoTime();
+      level5AnalysisRFC();
+      time5 = System.nanoTime();
+    }
+    if (level.compareTo(AnalysisLevel.FULL) >= 0) {
+      level6Analysis();
+    }
     long time6 = System.nanoTime();
     if (perf != null) {
       perf.level1 += (time1 - time0);
@@ -213,6 +319,31 @@ public class PageAnalysis {
     }
   }
 
+  /**
+   * Levels of analysis of a page.
+   * 
+   * Each level includes the elements of the previous levels.
+   */
+  public static enum AnalysisLevel {
+    COMMENTS,       // Level 1: comments
+    TAGS,           // Level 2: tags
+    LINKS,          // Level 3: internal links, templates, categories, titles, ...
+    EXTERNAL_LINKS, // Level 4: external links
+    IDENTIFIERS,    // Level 5: ISBN, ISSN, PMID, RFC
+    FULL;           // Level 6: paragraphs, list items, tables
+
+    /**
+     * @param other Other level.
+     * @return Highest level between this level and the other one.
+     */
+    public AnalysisLevel max(AnalysisLevel other) {
+      if ((other == null) || (other.compareTo(this) <= 0)) {
+        return this;
+      }
+      return other;
+    }
+  }
+
   /**
    * Bean for holding information about analysis performance.
    */
@@ -630,17 +761,29 @@ public class PageAnalysis {
 
   /** Internal lock for level 1 analysis. */
   private final Object level1Lock = new Object();
-  private boolean level1Done = false;
+  private volatile boolean level1Done = false;
 
   /** Internal lock for level 2 analysis. */
   private final Object level2Lock = new Object();
 
+  /** True when level 2 analysis is done, to avoid contention on the lock. */
+  private volatile boolean level2Done = false;
+
   /** Internal lock for level 3 analysis. */
   private final Object level3Lock = new Object();
 
+  /** True when level 3 analysis is done, to avoid contention on the lock. */
+  private volatile boolean level3Done = false;
+
+  /** Index of blocks, used during level 3 analysis. */
+  private PageElementBlocks blocks = null;
+
   /** Internal lock for level 4 analysis. */
   private final Object level4Lock = new Object();
 
+  /** True when level 4 analysis is done, to avoid contention on the lock. */
+  private volatile boolean level4Done = false;
+
   /** Internal lock for level 5 analysis. */
   private final Object level5Lock = new Object();
 
@@ -651,10 +794,14 @@ public class PageAnalysis {
    * Perform a level 1 analysis of the page (comments).
    */
   private void level1Analysis() {
+    if (level1Done) {
+      return;
+    }
     synchronized (level1Lock) {
       if (level1Done) {
         return;
       }
+      long beginTime = System.nanoTime();
 
       Performance perf = null;
       if (traceTime) {
@@ -665,6 +812,8 @@ public class PageAnalysis {
 
       // Update areas of non wiki text
       areas.addComments(comments().getAll());
+      level1Done = true;
+      level1Metrics.recordTimeSince(beginTime);
 
       if (perf != null) {
         perf.printEndAlways();
@@ -677,11 +826,15 @@ public class PageAnalysis {
    * Perform a level analysis 2 of the page (tags).
    */
   private void level2Analysis() {
+    if (level2Done) {
+      return;
+    }
     synchronized (level2Lock) {
       if (tags != null) {
         return;
       }
       level1Analysis();
+      long beginTime = System.nanoTime();
 
       Performance perf = null;
       if (traceTime) {
@@ -742,6 +895,8 @@ public class PageAnalysis {
 
       // Update areas of non wiki text
       areas.addTags(tags);
+      level2Done = true;
+      level2Metrics.recordTimeSince(beginTime);
 
       if (perf != null) {
         perf.printEndAlways();
@@ -754,11 +909,15 @@ public class PageAnalysis {
    * Perform a level 3 analysis of the page (links, templates, ...).
    */
   private void level3Analysis() {
+    if (level3Done) {
+      return;
+    }
     synchronized (level3Lock) {
       if (internalLinks != null) {
         return;
       }
       level2Analysis();
+      long beginTime = System.nanoTime();
 
       Performance perf = null;
       if (traceTime) {
@@ -778,6 +937,7 @@ public class PageAnalysis {
       templates = new ArrayList<PageElementTemplate>();
       parameters = new ArrayList<PageElementParameter>();
       titles = new ArrayList<PageElementTitle>();
+      blocks = new PageElementBlocks(tags);
       if (perf != null) {
         perf.stopPart("new");
       }
@@ -853,6 +1013,9 @@ public class PageAnalysis {
       areas.addMagicWords(magicWords);
       areas.addParameters(parameters);
       areas.addTitles(titles);
+      blocks = null;
+      level3Done = true;
+      level3Metrics.recordTimeSince(beginTime);
 
       if (perf != null) {
         perf.stopPart("addAreas");
@@ -866,11 +1029,15 @@ public class PageAnalysis {
    * Perform a level 4 analysis of the page (external links).
    */
   private void level4Analysis() {
+    if (level4Done) {
+      return;
+    }
     synchronized (level4Lock) {
       if (externalLinks != null) {
         return;
       }
       level3Analysis();
+      long beginTime = System.nanoTime();
 
       Performance perf = null;
       if (traceTime) {
@@ -920,6 +1087,8 @@ public class PageAnalysis {
         }
       }
       areas.addExternalLinks(externalLinks);
+      level4Done = true;
+      level4Metrics.recordTimeSince(beginTime);
 
       if (perf != null) {
         perf.printEndAlways();
@@ -933,31 +1102,10 @@ public class PageAnalysis {
    */
   private void level5Analysis() {
     synchronized (level5Lock) {
-      if ((isbns != null) || (issns != null) || (pmids != null)) {
-        return;
-      }
-      level4Analysis();
-
-      Performance perf = null;
-      if (traceTime) {
-        perf = Performance.getInstance(
-            "PageAnalysis.level5Analysis", TRACE_THRESHOLD);
-        perf.printStart();
-      }
-
-      isbns = PageElementISBN.analyzePage(this);
-      areas.addISBN(isbns);
-      issns = PageElementISSN.analyzePage(this);
-      areas.addISSN(issns);
-      pmids = PageElementPMID.analyzePage(this);
-      areas.addPMID(pmids);
-      rfcs = PageElementRFC.analyzePage(this);
-      areas.addRFC(rfcs);
-
-      if (perf != null) {
-        perf.printEndAlways();
-        perf.release();
-      }
+      level5AnalysisISBN();
+      level5AnalysisISSN();
+      level5AnalysisPMID();
+      level5AnalysisRFC();
     }
   }
 
@@ -970,6 +1118,7 @@ public class PageAnalysis {
         return;
       }
       level4Analysis();
+      long beginTime = System.nanoTime();
 
       Performance perf = null;
       if (traceTime) {
@@ -980,6 +1129,7 @@ public class PageAnalysis {
 
       isbns = PageElementISBN.analyzePage(this);
       areas.addISBN(isbns);
+      level5ISBNMetrics.recordTimeSince(beginTime);
 
       if (perf != null) {
         perf.printEndAlways();
@@ -997,6 +1147,7 @@ public class PageAnalysis {
         return;
       }
       level4Analysis();
+      long beginTime = System.nanoTime();
 
       Performance perf = null;
       if (traceTime) {
@@ -1007,6 +1158,7 @@ public class PageAnalysis {
 
       issns = PageElementISSN.analyzePage(this);
       areas.addISSN(issns);
+      level5ISSNMetrics.recordTimeSince(beginTime);
 
       if (perf != null) {
         perf.printEndAlways();
@@ -1024,6 +1176,7 @@ public class PageAnalysis {
         return;
       }
       level4Analysis();
+      long beginTime = System.nanoTime();
 
       Performance perf = null;
       if (traceTime) {
@@ -1034,6 +1187,7 @@ public class PageAnalysis {
 
       pmids = PageElementPMID.analyzePage(this);
       areas.addPMID(pmids);
+      level5PMIDMetrics.recordTimeSince(beginTime);
 
       if (perf != null) {
         perf.printEndAlways();
@@ -1051,6 +1205,7 @@ public class PageAnalysis {
         return;
       }
       level4Analysis();
+      long beginTime = System.nanoTime();
 
       Performance perf = null;
       if (traceTime) {
@@ -1061,6 +1216,7 @@ public class PageAnalysis {
 
       rfcs = PageElementRFC.analyzePage(this);
       areas.addRFC(rfcs);
+      level5RFCMetrics.recordTimeSince(beginTime);
 
       if (perf != null) {
         perf.printEndAlways();
@@ -1078,6 +1234,7 @@ public class PageAnalysis {
         return;
       }
       level5Analysis();
+      long beginTime = System.nanoTime();
 
       Performance perf = null;
       if (traceTime) {
@@ -1092,6 +1249,7 @@ public class PageAnalysis {
       // TODO: areas.addListItems(listItems);
       paragraphs = PageElementParagraph.analyzePage(this);
       // TODO: areas.addParagraph(paragraphs);
+      level6Metrics.recordTimeSince(beginTime);
 
       if (perf != null) {
         perf.printEndAlways();
@@ -1100,6 +1258,167 @@ public class PageAnalysis {
     }
   }
 
+  /**
+   * Perform in parallel the analysis of elements of levels 5 and 6,
+   * which are independent once level 4 is done.
+   * 
+   * Results are applied in the same order as in the sequential analysis.
+   * 
+   * @param withLevel6 True if elements of level 6 should also be analyzed.
+   */
+  private void parallelAnalysis(boolean withLevel6) {
+    if (withLevel6) {
+      synchronized (level6Lock) {
+        synchronized (level5Lock) {
+          internalParallelAnalysis(true);
+        }
+      }
+    } else {
+      synchronized (level5Lock) {
+        internalParallelAnalysis(false);
+      }
+    }
+  }
+
+  /**
+   * Perform in parallel the analysis of elements of levels 5 and 6.
+   * 
+   * @param withLevel6 True if elements of level 6 should also be analyzed.
+   */
+  private void internalParallelAnalysis(boolean withLevel6) {
+    level4Analysis();
+
+    Performance perf = null;
+    if (traceTime) {
+      perf = Performance.getInstance(
+          "PageAnalysis.parallelAnalysis", TRACE_THRESHOLD);
+      perf.printStart();
+    }
+
+    // Submit independent analysis
+    final PageAnalysis analysis = this;
+    ExecutorService executor = getParallelExecutor();
+    Future<List<PageElementISBN>> futureISBN = null;
+    if (isbns == null) {
+      futureISBN = executor.submit(new Callable<List<PageElementISBN>>() {
+
+        @Override
+        public List<PageElementISBN> call() {
+          return PageElementISBN.analyzePage(analysis);
+        }
+      });
+    }
+    Future<List<PageElementISSN>> futureISSN = null;
+    if (issns == null) {
+      futureISSN = executor.submit(new Callable<List<PageElementISSN>>() {
+
+        @Override
+        public List<PageElementISSN> call() {
+          return PageElementISSN.analyzePage(analysis);
+        }
+      });
+    }
+    Future<List<PageElementPMID>> futurePMID = null;
+    if (pmids == null) {
+      futurePMID = executor.submit(new Callable<List<PageElementPMID>>() {
+
+        @Override
+        public List<PageElementPMID> call() {
+          return PageElementPMID.analyzePage(analysis);
+        }
+      });
+    }
+    Future<List<PageElementRFC>> futureRFC = null;
+    if (rfcs == null) {
+      futureRFC = executor.submit(new Callable<List<PageElementRFC>>() {
+
+        @Override
+        public List<PageElementRFC> call() {
+          return PageElementRFC.analyzePage(analysis);
+        }
+      });
+    }
+    boolean level6Needed = withLevel6 && (tables == null) && (listItems == null);
+    Future<List<PageElementTable>> futureTables = null;
+    Future<List<PageElementListItem>> futureListItems = null;
+    if (level6Needed) {
+      futureTables = executor.submit(new Callable<List<PageElementTable>>() {
+
+        @Override
+        public List<PageElementTable> call() {
+          return PageElementTable.analyzePage(analysis);
+        }
+      });
+      futureListItems = executor.submit(new Callable<List<PageElementListItem>>() {
+
+        @Override
+        public List<PageElementListItem> call() {
+          return PageElementListItem.analyzePage(analysis);
+        }
+      });
+    }
+
+    // Apply results in a deterministic order
+    List<PageElementISBN> tmpISBN = getResult(futureISBN);
+    List<PageElementISSN> tmpISSN = getResult(futureISSN);
+    List<PageElementPMID> tmpPMID = getResult(futurePMID);
+    List<PageElementRFC> tmpRFC = getResult(futureRFC);
+    List<PageElementTable> tmpTables = getResult(futureTables);
+    List<PageElementListItem> tmpListItems = getResult(futureListItems);
+    if (tmpISBN != null) {
+      isbns = tmpISBN;
+      areas.addISBN(isbns);
+    }
+    if (tmpISSN != null) {
+      issns = tmpISSN;
+      areas.addISSN(issns);
+    }
+    if (tmpPMID != null) {
+      pmids = tmpPMID;
+      areas.addPMID(pmids);
+    }
+    if (tmpRFC != null) {
+      rfcs = tmpRFC;
+      areas.addRFC(rfcs);
+    }
+    if ((tmpTables != null) && (tmpListItems != null)) {
+      tables = tmpTables;
+      listItems = tmpListItems;
+
+      // Paragraphs depend on list items
+      paragraphs = PageElementParagraph.analyzePage(this);
+    }
+
+    if (perf != null) {
+      perf.printEndAlways();
+      perf.release();
+    }
+  }
+
+  /**
+   * @param future Result of an analysis performed in parallel.
+   * @return Result of the analysis (null if not available).
+   */
+  private static <T> T getResult(Future<T> future) {
+    if (future == null) {
+      return null;
+    }
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return null;
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      if (e.getCause() instanceof Error) {
+        throw (Error) e.getCause();
+      }
+      return null;
+    }
+  }
+
   /**
    * Part of the analysis when text is beginning with "[[".
    * 
@@ -1236,7 +1555,7 @@ public class PageAnalysis {
     // Check if this is a parameter
     String text = contents.getText();
     PageElementParameter parameter = PageElementParameter.analyzeBlock(
-        getWikipedia(), text, currentIndex, comments(), tags);
+        getWikipedia(), text, currentIndex, comments(), tags, blocks);
     if (parameter != null) {
       parameters.add(parameter);
       return currentIndex + 3;
@@ -1257,7 +1576,7 @@ public class PageAnalysis {
 
     // Check if this is a function
     PageElementFunction function = PageElementFunction.analyzeBlock(
-        getWikipedia(), text, currentIndex, comments(), tags);
+        getWikipedia(), text, currentIndex, comments(), tags, blocks);
     if (function != null) {
       functions.add(function);
       if (function.getParameterCount() == 0) {
@@ -1268,7 +1587,7 @@ public class PageAnalysis {
 
     // Check if this is a template
     PageElementTemplate template = PageElementTemplate.analyzeBlock(
-        getWikipedia(), text, currentIndex, comments(), tags);
+        getWikipedia(), text, currentIndex, comments(), tags, blocks);
     if (template != null) {
       templates.add(template);
       if (template.getParameterCount() == 0) {
@@ -0,0 +1,526 @@
+/*
+ *  WPCleaner: A tool to help on Wikipedia maintenance tasks.
+ *  Copyright (C) 2020  Nicolas Vervelle
+ *
+ *  See README.txt file for licensing information.
+ */
+
+
+package org.wikipediacleaner.api.deadlink;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketException;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.httpclient.HttpClient;
+import org.apache.commons.httpclient.HttpMethod;
+import org.apache.commons.httpclient.HttpStatus;
+import org.apache.commons.httpclient.MultiThreadedHttpConnectionManager;
+import org.apache.commons.httpclient.URI;
+import org.apache.commons.httpclient.URIException;
+import org.apache.commons.httpclient.methods.GetMethod;
+import org.apache.commons.httpclient.methods.HeadMethod;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wikipediacleaner.api.http.HttpUtils;
+import org.wikipediacleaner.i18n.GT;
+import org.wikipediacleaner.utils.NamedThreadFactory;
+
+
+/**
+ * Engine for checking concurrently the status of external links.
+ * 
+ * <p>
+ * The number of simultaneous requests is bounded globally and for each host,
+ * and a minimum delay is respected between two requests to the same host.
+ * A HEAD request is sent first, and a GET request is sent if the server
+ * doesn't seem to support HEAD requests.
+ * Results are stored in a cache, so that a link is checked only once.
+ * </p>
+ */
+public class LinkChecker {
+
+  /** Logs */
+  private final static Logger log = LoggerFactory.getLogger(LinkChecker.class);
+
+  /** Default maximum number of simultaneous requests */
+  public final static int DEFAULT_MAX_CONNECTIONS = 16;
+
+  /** Default maximum number of simultaneous requests for a host */
+  public final static int DEFAULT_MAX_CONNECTIONS_PER_HOST = 2;
+
+  /** Default minimum delay between two requests to the same host (in milliseconds) */
+  public final static long DEFAULT_HOST_DELAY = 500;
+
+  /** Maximum number of attempts for a link */
+  private final static int MAX_ATTEMPTS = 3;
+
+  /** Timeout for establishing a connection (in milliseconds) */
+  private final static int CONNECTION_TIMEOUT = 15000;
+
+  /** Timeout for reading the response (in milliseconds) */
+  private final static int SO_TIMEOUT = 30000;
+
+  /** Cache of the status of links */
+  private final LinkStatusCache cache;
+
+  /** Maximum number of simultaneous requests */
+  private final int maxConnections;
+
+  /** Maximum number of simultaneous requests for a host */
+  private final int maxConnectionsPerHost;
+
+  /** Minimum delay between two requests to the same host (in milliseconds) */
+  private final long hostDelay;
+
+  /** HTTP client */
+  private final HttpClient client;
+
+  /** Timeout for reading the response (in milliseconds) */
+  private int soTimeout;
+
+  /** State of each host */
+  private final Map<String, HostState> hosts;
+
+  /**
+   * Listener for the progress of the check.
+   */
+  public static interface Listener {
+
+    /**
+     * Called each time a link has been checked.
+     * 
+     * @param url URL of the link.
+     * @param status Status of the link.
+     * @param done Number of links already checked.
+     * @param total Total number of links to check.
+     * @return True if the check should continue.
+     */
+    boolean linkChecked(String url, LinkStatus status, int done, int total);
+  }
+
+  /**
+   * @param cache Cache of the status of links.
+   */
+  public LinkChecker(LinkStatusCache cache) {
+    this(cache, DEFAULT_MAX_CONNECTIONS, DEFAULT_MAX_CONNECTIONS_PER_HOST, DEFAULT_HOST_DELAY);
+  }
+
+  /**
+   * @param cache Cache of the status of links.
+   * @param maxConnections Maximum number of simultaneous requests.
+   * @param maxConnectionsPerHost Maximum number of simultaneous requests for a host.
+   * @param hostDelay Minimum delay between two requests to the same host (in milliseconds).
+   */
+  public LinkChecker(
+      LinkStatusCache cache,
+      int maxConnections, int maxConnectionsPerHost,
+      long hostDelay) {
+    this.cache = (cache != null) ? cache : new LinkStatusCache(null, LinkStatusCache.DEFAULT_TTL);
+    this.maxConnections = Math.max(1, maxConnections);
+    this.maxConnectionsPerHost = Math.max(1, Math.min(maxConnectionsPerHost, this.maxConnections));
+    this.hostDelay = Math.max(0, hostDelay);
+    MultiThreadedHttpConnectionManager manager = new MultiThreadedHttpConnectionManager();
+    manager.getParams().setMaxTotalConnections(this.maxConnections);
+    manager.getParams().setDefaultMaxConnectionsPerHost(this.maxConnectionsPerHost);
+    manager.getParams().setConnectionTimeout(CONNECTION_TIMEOUT);
+    this.client = new HttpClient(manager);
+    this.hosts = new HashMap<>();
+    this.soTimeout = SO_TIMEOUT;
+  }
+
+  /**
+   * @param timeout Timeout for reading the response (in milliseconds).
+   */
+  void setSoTimeout(int timeout) {
+    this.soTimeout = timeout;
+  }
+
+  /**
+   * Check a list of links.
+   * 
+   * @param urls URLs of the links.
+   * @param listener Listener for the progress of the check.
+   * @return Status of each link that has been checked.
+   */
+  public Map<String, LinkStatus> check(Collection<String> urls, Listener listener) {
+    Set<String> remaining = new LinkedHashSet<>(urls);
+    Map<String, LinkStatus> result = new HashMap<>();
+    int total = remaining.size();
+    int done = 0;
+
+    // Use cached status
+    List<String> toCheck = new ArrayList<>();
+    for (String url : remaining) {
+      LinkStatus status = cache.get(url);
+      if (status != null) {
+        result.put(url, status);
+        done++;
+        if ((listener != null) && !listener.linkChecked(url, status, done, total)) {
+          return result;
+        }
+      } else {
+        toCheck.add(url);
+      }
+    }
+    if (toCheck.isEmpty()) {
+      return result;
+    }
+
+    // Check other links concurrently
+    ScheduledExecutorService executor = Executors.newScheduledThreadPool(
+        Math.min(maxConnections, toCheck.size()),
+        new NamedThreadFactory(Executors.defaultThreadFactory(), "LinkChecker-{0}"));
+    try {
+      BlockingQueue<LinkCheck> results = new LinkedBlockingQueue<>();
+      Map<String, HostQueue> queues = new HashMap<>();
+      for (String url : toCheck) {
+        String host = extractHost(url);
+        HostQueue queue = queues.get(host);
+        if (queue == null) {
+          queue = new HostQueue(getHostState(url));
+          queues.put(host, queue);
+        }
+        queue.pending.add(new LinkCheck(url));
+      }
+      for (HostQueue queue : queues.values()) {
+        dispatch(queue, executor, results);
+      }
+      int remainingCount = toCheck.size();
+      while (remainingCount > 0) {
+        LinkCheck check = null;
+        try {
+          check = results.take();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          break;
+        }
+        HostQueue queue = queues.get(extractHost(check.url));
+        queue.active--;
+        if (check.prepareNextRequest()) {
+          // Retry or fallback to a GET request, after the other links of the host
+          queue.pending.add(check);
+        } else {
+          remainingCount--;
+          result.put(check.url, check.status);
+          cache.put(check.url, check.status);
+          done++;
+          if ((listener != null) && !listener.linkChecked(check.url, check.status, done, total)) {
+            break;
+          }
+        }
+        dispatch(queue, executor, results);
+      }
+    } finally {
+      executor.shutdownNow();
+      cache.save();
+    }
+    return result;
+  }
+
+  /**
+   * Schedule requests for a host, within the limits of simultaneous requests for the host.
+   * 
+   * <p>
+   * Requests are scheduled when the delay for the host has elapsed,
+   * so that no thread is waiting for a host while other hosts have links to check.
+   * </p>
+   * 
+   * @param queue Links to check for a host.
+   * @param executor Executor for the requests.
+   * @param results Queue receiving the links once a request has been executed.
+   */
+  private void dispatch(
+      HostQueue queue, ScheduledExecutorService executor,
+      final BlockingQueue<LinkCheck> results) {
+    while ((queue.active < maxConnectionsPerHost) && !queue.pending.isEmpty()) {
+      final LinkCheck check = queue.pending.removeFirst();
+      queue.active++;
+      long waitTime = queue.state.reserve(hostDelay);
+      executor.schedule(new Runnable() {
+
+        @Override
+        public void run() {
+          try {
+            check.status = executeRequest(check.url, check.get);
+          } catch (RuntimeException e) {
+            log.error("{} when accessing {}: {}", e.getClass().getSimpleName(), check.url, e.getMessage());
+            check.status = new LinkStatus(
+                e.getClass().getSimpleName() + ": " + e.getMessage(),
+                System.currentTimeMillis(), false);
+          } finally {
+            results.add(check);
+          }
+        }
+      }, waitTime, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Check a link.
+   * 
+   * @param url URL of the link.
+   * @return Status of the link.
+   */
+  public LinkStatus checkLink(String url) {
+    HostState host = getHostState(url);
+    LinkCheck check = new LinkCheck(url);
+    do {
+      long waitTime = host.reserve(hostDelay);
+      if (waitTime > 0) {
+        try {
+          Thread.sleep(waitTime);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          if (check.status != null) {
+            return check.status;
+          }
+          return new LinkStatus(e.getClass().getSimpleName(), System.currentTimeMillis(), true);
+        }
+      }
+      check.status = executeRequest(url, check.get);
+    } while (check.prepareNextRequest());
+    return check.status;
+  }
+
+  /**
+   * Execute a request for a link.
+   * 
+   * @param url URL of the link.
+   * @param get True to use a GET request, false to use a HEAD request.
+   * @return Status of the link.
+   */
+  private LinkStatus executeRequest(String url, boolean get) {
+    HttpMethod method = null;
+    try {
+      String requestUrl = HttpUtils.getRedirectedUrl(url);
+      URI uri = null;
+      try {
+        uri = new URI(requestUrl, true, "UTF8");
+      } catch (URIException e) {
+        uri = new URI(requestUrl, false, "UTF8");
+      }
+      method = get ? new GetMethod() : new HeadMethod();
+      method.setURI(uri);
+      method.getParams().setSoTimeout(soTimeout);
+      method.setRequestHeader("Accept", "text/html,application/xhtml+xml,application/xml;q=0.9,image/webp,image/apng,*/*;q=0.8,application/signed-exchange;v=b3");
+      method.setRequestHeader("Accept-Encoding", "gzip, deflate");
+      method.setRequestHeader("Accept-Language", "en-US,en");
+      method.setRequestHeader("Cache-Control", "no-cache");
+      method.setRequestHeader("Connection", "keep-alive");
+      method.setRequestHeader("Pragma", "no-cache");
+      method.setRequestHeader("Upgrade-Insecure-Requests", "1");
+      method.setRequestHeader("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/76.0.3809.100 Safari/537.36");
+      int statusCode = client.executeMethod(method);
+      if (get) {
+        // Don't download the body of the response
+        method.abort();
+      }
+      return new LinkStatus(
+          statusCode, System.currentTimeMillis(),
+          isTemporaryStatus(statusCode));
+    } catch (UnknownHostException e) {
+      return new LinkStatus(
+          GT._T("Unknown host {0}", e.getMessage()),
+          System.currentTimeMillis(), false);
+    } catch (SocketException | InterruptedIOException e) {
+      // Connection problems and timeouts (including ConnectTimeoutException)
+      log.warn("{} when accessing {}: {}", e.getClass().getSimpleName(), url, e.getMessage());
+      return new LinkStatus(
+          e.getClass().getSimpleName() + ": " + e.getMessage(),
+          System.currentTimeMillis(), true);
+    } catch (IOException e) {
+      log.error("{} when accessing {}: {}", e.getClass().getSimpleName(), url, e.getMessage());
+      return new LinkStatus(
+          e.getClass().getSimpleName() + ": " + e.getMessage(),
+          System.currentTimeMillis(), false);
+    } catch (IllegalStateException e) {
+      log.error("{} when accessing {}: {}", e.getClass().getSimpleName(), url, e.getMessage());
+      return new LinkStatus(e.getMessage(), System.currentTimeMillis(), false);
+    } finally {
+      if (method != null) {
+        method.releaseConnection();
+      }
+    }
+  }
+
+  /**
+   * @param statusCode HTTP status code.
+   * @return True if the status code may be temporary (timeout, rate limiting, server errors).
+   */
+  static boolean isTemporaryStatus(int statusCode) {
+    return (statusCode == HttpStatus.SC_REQUEST_TIMEOUT) ||
+           (statusCode == 429) || // Too Many Requests
+           (statusCode >= HttpStatus.SC_INTERNAL_SERVER_ERROR);
+  }
+
+  /**
+   * @param url URL.
+   * @return State of the host of the URL.
+   */
+  private HostState getHostState(String url) {
+    String host = extractHost(url);
+    synchronized (hosts) {
+      HostState state = hosts.get(host);
+      if (state == null) {
+        state = new HostState();
+        hosts.put(host, state);
+      }
+      return state;
+    }
+  }
+
+  /**
+   * @param url URL.
+   * @return Host of the URL.
+   */
+  static String extractHost(String url) {
+    if (url == null) {
+      return "";
+    }
+    int begin = url.indexOf("//");
+    begin = (begin < 0) ? 0 : begin + 2;
+    int end = begin;
+    while ((end < url.length()) && ("/?#".indexOf(url.charAt(end)) < 0)) {
+      end++;
+    }
+    String host = url.substring(begin, end);
+    int atIndex = host.lastIndexOf('@');
+    if (atIndex >= 0) {
+      host = host.substring(atIndex + 1);
+    }
+    int colonIndex = host.lastIndexOf(':');
+    if ((colonIndex >= 0) && (host.indexOf(']', colonIndex) < 0)) {
+      host = host.substring(0, colonIndex);
+    }
+    return host.toLowerCase();
+  }
+
+  /**
+   * Progress of the check of a link.
+   */
+  private static class LinkCheck {
+
+    /** URL of the link */
+    final String url;
+
+    /** True if the next request is a GET request, false for a HEAD request */
+    boolean get;
+
+    /** Number of the current attempt */
+    int attempt;
+
+    /** Status returned by the last request */
+    volatile LinkStatus status;
+
+    /**
+     * @param url URL of the link.
+     */
+    LinkCheck(String url) {
+      this.url = url;
+    }
+
+    /**
+     * Prepare the next request depending on the status returned by the last one.
+     * 
+     * @return True if a new request is needed.
+     */
+    boolean prepareNextRequest() {
+      if ((status == null) || (status.getStatus() == null)) {
+        return retry();
+      }
+      int statusCode = status.getStatus().intValue();
+      if (!get &&
+          ((statusCode == HttpStatus.SC_METHOD_NOT_ALLOWED) ||
+           (statusCode == HttpStatus.SC_NOT_IMPLEMENTED) ||
+           (statusCode == HttpStatus.SC_FORBIDDEN))) {
+        // Server may not support HEAD requests
+        get = true;
+        return true;
+      }
+      return retry();
+    }
+
+    /**
+     * @return True if the link should be checked again.
+     */
+    private boolean retry() {
+      if ((status != null) && !status.isTemporary()) {
+        return false;
+      }
+      if (attempt + 1 >= MAX_ATTEMPTS) {
+        return false;
+      }
+      attempt++;
+      get = false;
+      return true;
+    }
+  }
+
+  /**
+   * Links waiting to be checked for a host, only used by the thread dispatching the requests.
+   */
+  private static class HostQueue {
+
+    /** State of the host */
+    final HostState state;
+
+    /** Links waiting for a request */
+    final LinkedList<LinkCheck> pending;
+
+    /** Number of requests scheduled or running */
+    int active;
+
+    /**
+     * @param state State of the host.
+     */
+    HostQueue(HostState state) {
+      this.state = state;
+      this.pending = new LinkedList<>();
+      this.active = 0;
+    }
+  }
+
+  /**
+   * State of a host: limits the frequency of requests.
+   */
+  private static class HostState {
+
+    /** Time before which no new request should be sent */
+    private long nextRequestTime;
+
+    /**
+     * Constructor.
+     */
+    HostState() {
+      this.nextRequestTime = 0;
+    }
+
+    /**
+     * Reserve a time for a request, respecting the delay since the previous request.
+     * 
+     * @param delay Minimum delay between two requests.
+     * @return Time to wait before sending the request (in milliseconds).
+     */
+    synchronized long reserve(long delay) {
+      long now = System.currentTimeMillis();
+      long requestTime = Math.max(now, nextRequestTime);
+      nextRequestTime = requestTime + delay;
+      return requestTime - now;
+    }
+  }
+}
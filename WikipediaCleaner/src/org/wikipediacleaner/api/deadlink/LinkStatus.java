@@ -0,0 +1,97 @@
+/*
+ *  WPCleaner: A tool to help on Wikipedia maintenance tasks.
+ *  Copyright (C) 2020  Nicolas Vervelle
+ *
+ *  See README.txt file for licensing information.
+ */
+
+
+package org.wikipediacleaner.api.deadlink;
+
+import org.apache.commons.httpclient.HttpStatus;
+
+
+/**
+ * Bean representing the status of an external link.
+ */
+public class LinkStatus {
+
+  /** HTTP status code, null if the request failed */
+  private final Integer status;
+
+  /** Description of the failure, null if the request succeeded */
+  private final String statusText;
+
+  /** Time of the check (in milliseconds) */
+  private final long checkTime;
+
+  /** True if the failure may be temporary */
+  private final boolean temporary;
+
+  /**
+   * @param status HTTP status code.
+   * @param checkTime Time of the check.
+   */
+  public LinkStatus(int status, long checkTime) {
+    this(status, checkTime, false);
+  }
+
+  /**
+   * @param status HTTP status code.
+   * @param checkTime Time of the check.
+   * @param temporary True if the status may be temporary.
+   */
+  public LinkStatus(int status, long checkTime, boolean temporary) {
+    this.status = Integer.valueOf(status);
+    this.statusText = null;
+    this.checkTime = checkTime;
+    this.temporary = temporary;
+  }
+
+  /**
+   * @param statusText Description of the failure.
+   * @param checkTime Time of the check.
+   * @param temporary True if the failure may be temporary.
+   */
+  public LinkStatus(String statusText, long checkTime, boolean temporary) {
+    this.status = null;
+    this.statusText = statusText;
+    this.checkTime = checkTime;
+    this.temporary = temporary;
+  }
+
+  /**
+   * @return HTTP status code, null if the request failed.
+   */
+  public Integer getStatus() {
+    return status;
+  }
+
+  /**
+   * @return Description of the failure, null if the request succeeded.
+   */
+  public String getStatusText() {
+    return statusText;
+  }
+
+  /**
+   * @return Time of the check (in milliseconds).
+   */
+  public long getCheckTime() {
+    return checkTime;
+  }
+
+  /**
+   * @return True if the failure may be temporary.
+   */
+  public boolean isTemporary() {
+    return temporary;
+  }
+
+  /**
+   * @return True if the link is working.
+   */
+  public boolean isOk() {
+    return (status != null) && (status.intValue() == HttpStatus.SC_OK);
+  }
+}
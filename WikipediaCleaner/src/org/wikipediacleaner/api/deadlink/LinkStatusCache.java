@@ -0,0 +1,231 @@
+/*
+ *  WPCleaner: A tool to help on Wikipedia maintenance tasks.
+ *  Copyright (C) 2020  Nicolas Vervelle
+ *
+ *  See README.txt file for licensing information.
+ */
+
+
+package org.wikipediacleaner.api.deadlink;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.lang3.SystemUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wikipediacleaner.Version;
+
+
+/**
+ * Cache of the status of external links, persisted in a file between runs.
+ */
+public class LinkStatusCache {
+
+  /** Logs */
+  private final static Logger log = LoggerFactory.getLogger(LinkStatusCache.class);
+
+  /** Default time to live of the cached status (7 days) */
+  public final static long DEFAULT_TTL = 7L * 24 * 60 * 60 * 1000;
+
+  /** Default cache */
+  private static LinkStatusCache defaultCache;
+
+  /** File in which the cache is persisted, null if not persisted */
+  private final File file;
+
+  /** Time to live of the cached status (in milliseconds) */
+  private final long ttl;
+
+  /** Cached status by URL */
+  private final Map<String, LinkStatus> statuses;
+
+  /** True if the cache has been modified since it was last saved */
+  private volatile boolean modified;
+
+  /**
+   * @return Default cache, persisted in the user home directory.
+   */
+  public static synchronized LinkStatusCache getDefaultCache() {
+    if (defaultCache == null) {
+      File directory = new File(SystemUtils.getUserHome(), "." + Version.PROGRAM);
+      defaultCache = new LinkStatusCache(new File(directory, "deadLinks.txt"), DEFAULT_TTL);
+      defaultCache.load();
+    }
+    return defaultCache;
+  }
+
+  /**
+   * @param file File in which the cache is persisted, null if not persisted.
+   * @param ttl Time to live of the cached status (in milliseconds).
+   */
+  public LinkStatusCache(File file, long ttl) {
+    this.file = file;
+    this.ttl = ttl;
+    this.statuses = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * @param url URL.
+   * @return Cached status of the URL if it is still valid.
+   */
+  public LinkStatus get(String url) {
+    if (url == null) {
+      return null;
+    }
+    LinkStatus status = statuses.get(url);
+    if (status == null) {
+      return null;
+    }
+    if (isExpired(status, System.currentTimeMillis())) {
+      statuses.remove(url);
+      modified = true;
+      return null;
+    }
+    return status;
+  }
+
+  /**
+   * @param url URL.
+   * @param status Status of the URL.
+   */
+  public void put(String url, LinkStatus status) {
+    if ((url == null) || (status == null) || status.isTemporary()) {
+      return;
+    }
+    statuses.put(url, status);
+    modified = true;
+  }
+
+  /**
+   * @param status Status.
+   * @param now Current time.
+   * @return True if the status has expired.
+   */
+  private boolean isExpired(LinkStatus status, long now) {
+    return status.getCheckTime() + ttl < now;
+  }
+
+  /**
+   * Load the cache from the file.
+   */
+  public synchronized void load() {
+    if ((file == null) || !file.isFile()) {
+      return;
+    }
+    long now = System.currentTimeMillis();
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+        new FileInputStream(file), StandardCharsets.UTF_8))) {
+      String line = null;
+      while ((line = reader.readLine()) != null) {
+        String[] fields = line.split("\t", 4);
+        if (fields.length < 4) {
+          continue;
+        }
+        try {
+          long checkTime = Long.parseLong(fields[0]);
+          LinkStatus status = null;
+          if (!fields[1].isEmpty()) {
+            status = new LinkStatus(Integer.parseInt(fields[1]), checkTime);
+          } else {
+            status = new LinkStatus(fields[2], checkTime, false);
+          }
+          if (!isExpired(status, now)) {
+            statuses.put(fields[3], status);
+          }
+        } catch (NumberFormatException e) {
+          // Invalid line, ignored
+        }
+      }
+    } catch (IOException e) {
+      log.warn("Unable to load dead links cache from {}: {}", file, e.getMessage());
+    }
+  }
+
+  /**
+   * Save the cache to the file if it has been modified.
+   * 
+   * <p>
+   * The cache is written to a temporary file which then replaces the file,
+   * so that an interrupted save doesn't lose the previous cache.
+   * </p>
+   */
+  public synchronized void save() {
+    if ((file == null) || !modified) {
+      return;
+    }
+    modified = false;
+    File directory = file.getAbsoluteFile().getParentFile();
+    if ((directory != null) && !directory.isDirectory() && !directory.mkdirs()) {
+      log.warn("Unable to create directory {}", directory);
+      return;
+    }
+    long now = System.currentTimeMillis();
+    Path tmpFile = null;
+    try {
+      tmpFile = Files.createTempFile(directory.toPath(), file.getName(), ".tmp");
+      writeTo(tmpFile, now);
+      try {
+        Files.move(
+            tmpFile, file.toPath(),
+            StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(tmpFile, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      }
+      tmpFile = null;
+    } catch (IOException e) {
+      modified = true;
+      log.warn("Unable to save dead links cache to {}: {}", file, e.getMessage());
+    } finally {
+      if (tmpFile != null) {
+        try {
+          Files.deleteIfExists(tmpFile);
+        } catch (IOException e) {
+          // Nothing to do
+        }
+      }
+    }
+  }
+
+  /**
+   * @param path File to write the cache to.
+   * @param now Current time.
+   * @throws IOException Error writing the file.
+   */
+  private void writeTo(Path path, long now) throws IOException {
+    try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(
+        Files.newOutputStream(path), StandardCharsets.UTF_8))) {
+      for (Map.Entry<String, LinkStatus> entry : statuses.entrySet()) {
+        String url = entry.getKey();
+        LinkStatus status = entry.getValue();
+        if (isExpired(status, now) || (url.indexOf('\n') >= 0) || (url.indexOf('\r') >= 0)) {
+          continue;
+        }
+        writer.write(Long.toString(status.getCheckTime()));
+        writer.write('\t');
+        if (status.getStatus() != null) {
+          writer.write(status.getStatus().toString());
+        }
+        writer.write('\t');
+        if (status.getStatusText() != null) {
+          writer.write(status.getStatusText().replaceAll("[\t\r\n]", " "));
+        }
+        writer.write('\t');
+        writer.write(url);
+        writer.newLine();
+      }
+    }
+  }
+}
@@ -0,0 +1,758 @@
+/*
+ *  WPCleaner: A tool to help on Wikipedia maintenance tasks.
+ *  Copyright (C) 2020  Nicolas Vervelle
+ *
+ *  See README.txt file for licensing information.
+ */
+
+
+package org.wikipediacleaner.api.dump;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wikipediacleaner.api.check.CheckErrorResult.ErrorLevel;
+
+
+/**
+ * Persistent index of the detections made during a previous analysis of a dump.
+ * 
+ * <p>The index is made of two files:</p>
+ * <ul>
+ * <li><i>base</i>.idx: header (magic number, version, hash of the configuration,
+ *     generation, size of the data file, count)
+ *     followed by the sorted page ids (int), the revision ids (long) and the offsets
+ *     of the detections in the data file (long, -1 when nothing was detected).</li>
+ * <li><i>base</i>.dat: header (magic number, generation) followed by the detections,
+ *     each record being its length followed by the detections for each algorithm.</li>
+ * </ul>
+ * <p>
+ * Both files are memory mapped, so looking up a page doesn't use the heap.
+ * Mappings are released when the index is closed, so the index must be closed
+ * before a new index is committed on the same files
+ * (some systems refuse to replace a file that is still mapped).
+ * </p>
+ * <p>
+ * The generation, random for each index, and the size of the data file
+ * recorded in the index file ensure that both files have been written together.
+ * On commit, the data file is replaced before the index file,
+ * so an interrupted commit leaves an index that is rejected when opened.
+ * </p>
+ */
+public class DetectionIndex implements Closeable {
+
+  /** Logger */
+  private final static Logger log = LoggerFactory.getLogger(DetectionIndex.class);
+
+  /** Magic number at the beginning of the index file */
+  private final static int MAGIC = 0x57504349;
+
+  /** Version of the format */
+  private final static int VERSION = 3;
+
+  /** Size of the hash of the configuration */
+  private final static int HASH_LENGTH = 32;
+
+  /** Size of the header of the index file */
+  private final static int HEADER_LENGTH = 4 + 4 + HASH_LENGTH + 8 + 8 + 4;
+
+  /** Size of the header of the data file */
+  private final static int DATA_HEADER_LENGTH = 4 + 8;
+
+  /** Channel on the index file */
+  private final FileChannel indexChannel;
+
+  /** Channel on the data file */
+  private final FileChannel dataChannel;
+
+  /** Index file */
+  private final MappedByteBuffer index;
+
+  /** Sorted page ids */
+  private final IntBuffer pageIds;
+
+  /** Revision ids */
+  private final LongBuffer revisionIds;
+
+  /** Offsets of the detections in the data file */
+  private final LongBuffer offsets;
+
+  /** Data file, when it is small enough to be mapped */
+  private final MappedByteBuffer data;
+
+  /** Size of the data file */
+  private final long dataSize;
+
+  /** Number of pages in the index */
+  private final int count;
+
+  /**
+   * Open an existing index.
+   * 
+   * @param base Base name of the index files.
+   * @param signature Signature of the configuration used to create the index.
+   * @return Index or null if it doesn't exist or has been created with a different configuration.
+   */
+  public static DetectionIndex open(File base, String signature) {
+    File indexFile = getIndexFile(base);
+    File dataFile = getDataFile(base);
+    if (!indexFile.isFile() || !dataFile.isFile()) {
+      return null;
+    }
+    FileChannel indexChannel = null;
+    FileChannel dataChannel = null;
+    try {
+      indexChannel = new RandomAccessFile(indexFile, "r").getChannel();
+      dataChannel = new RandomAccessFile(dataFile, "r").getChannel();
+      DetectionIndex index = new DetectionIndex(indexChannel, dataChannel, computeHash(signature));
+      indexChannel = null;
+      dataChannel = null;
+      return index;
+    } catch (IOException e) {
+      log.info("Index of detections not used: " + e.getMessage());
+      return null;
+    } finally {
+      closeQuietly(indexChannel);
+      closeQuietly(dataChannel);
+    }
+  }
+
+  /**
+   * @param indexChannel Channel on the index file.
+   * @param dataChannel Channel on the data file.
+   * @param hash Expected hash of the configuration.
+   * @throws IOException Error reading the index or configuration mismatch.
+   */
+  private DetectionIndex(
+      FileChannel indexChannel, FileChannel dataChannel,
+      byte[] hash) throws IOException {
+    long indexSize = indexChannel.size();
+    if ((indexSize < HEADER_LENGTH) || (indexSize > Integer.MAX_VALUE)) {
+      throw new IOException("Invalid size for index file");
+    }
+    index = indexChannel.map(FileChannel.MapMode.READ_ONLY, 0, indexSize);
+    try {
+      if ((index.getInt() != MAGIC) || (index.getInt() != VERSION)) {
+        throw new IOException("Invalid format for index file");
+      }
+      byte[] indexHash = new byte[HASH_LENGTH];
+      index.get(indexHash);
+      if (!Arrays.equals(hash, indexHash)) {
+        throw new IOException("Configuration has changed");
+      }
+      long generation = index.getLong();
+      dataSize = index.getLong();
+      count = index.getInt();
+      if ((count < 0) || (indexSize != HEADER_LENGTH + 20L * count)) {
+        throw new IOException("Invalid size for index file");
+      }
+      ByteBuffer tmpIndex = index.duplicate();
+      tmpIndex.position(HEADER_LENGTH);
+      pageIds = tmpIndex.slice().asIntBuffer();
+      tmpIndex.position(HEADER_LENGTH + 4 * count);
+      revisionIds = tmpIndex.slice().asLongBuffer();
+      tmpIndex.position(HEADER_LENGTH + 12 * count);
+      offsets = tmpIndex.slice().asLongBuffer();
+
+      // Check that the data file has been written with the index file
+      if (dataChannel.size() != dataSize) {
+        throw new IOException("Data file doesn't match index file");
+      }
+      ByteBuffer dataHeader = ByteBuffer.allocate(DATA_HEADER_LENGTH);
+      while (dataHeader.hasRemaining()) {
+        if (dataChannel.read(dataHeader, dataHeader.position()) < 0) {
+          throw new IOException("Data file doesn't match index file");
+        }
+      }
+      if ((dataHeader.getInt(0) != MAGIC) || (dataHeader.getLong(4) != generation)) {
+        throw new IOException("Data file doesn't match index file");
+      }
+      data = (dataSize <= Integer.MAX_VALUE) ?
+          dataChannel.map(FileChannel.MapMode.READ_ONLY, 0, dataSize) : null;
+    } catch (IOException | RuntimeException e) {
+      unmap(index);
+      throw e;
+    }
+    this.indexChannel = indexChannel;
+    this.dataChannel = dataChannel;
+  }
+
+  /**
+   * @return Number of pages in the index.
+   */
+  public int size() {
+    return count;
+  }
+
+  /**
+   * Find a page in the index.
+   * 
+   * @param pageId Page id.
+   * @return Position of the page in the index or -1 if it is not in the index.
+   */
+  public int find(int pageId) {
+    int low = 0;
+    int high = count - 1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      int value = pageIds.get(middle);
+      if (value < pageId) {
+        low = middle + 1;
+      } else if (value > pageId) {
+        high = middle - 1;
+      } else {
+        return middle;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * @param position Position of the page in the index.
+   * @return Page id.
+   */
+  public int getPageId(int position) {
+    return pageIds.get(position);
+  }
+
+  /**
+   * @param position Position of the page in the index.
+   * @return Revision id that was analyzed.
+   */
+  public long getRevisionId(int position) {
+    return revisionIds.get(position);
+  }
+
+  /**
+   * @param position Position of the page in the index.
+   * @return True if something was detected in the page.
+   */
+  public boolean hasDetections(int position) {
+    return offsets.get(position) >= 0;
+  }
+
+  /**
+   * @param position Position of the page in the index.
+   * @return Detections in the page.
+   * @throws IOException Error reading the data file.
+   */
+  public List<Detection> getDetections(int position) throws IOException {
+    byte[] record = getRecord(position);
+    if (record == null) {
+      return Collections.emptyList();
+    }
+    return decode(record);
+  }
+
+  /**
+   * @param position Position of the page in the index.
+   * @return Encoded detections in the page or null if nothing was detected.
+   * @throws IOException Error reading the data file.
+   */
+  byte[] getRecord(int position) throws IOException {
+    long offset = offsets.get(position);
+    if (offset < 0) {
+      return null;
+    }
+    if ((offset < DATA_HEADER_LENGTH) || (offset + 4 > dataSize)) {
+      throw new IOException("Invalid offset in index file");
+    }
+    int length = 0;
+    if (data != null) {
+      length = data.getInt((int) offset);
+    } else {
+      ByteBuffer buffer = ByteBuffer.allocate(4);
+      readFully(buffer, offset);
+      length = buffer.getInt(0);
+    }
+    if ((length < 0) || (offset + 4 + length > dataSize)) {
+      throw new IOException("Invalid record length in data file");
+    }
+    if (data != null) {
+      ByteBuffer buffer = data.duplicate();
+      buffer.position((int) offset + 4);
+      byte[] record = new byte[length];
+      buffer.get(record);
+      return record;
+    }
+    ByteBuffer record = ByteBuffer.allocate(length);
+    readFully(record, offset + 4);
+    return record.array();
+  }
+
+  /**
+   * @param buffer Buffer to fill.
+   * @param offset Offset in the data file.
+   * @throws IOException Error reading the data file.
+   */
+  private void readFully(ByteBuffer buffer, long offset) throws IOException {
+    while (buffer.hasRemaining()) {
+      int read = dataChannel.read(buffer, offset + buffer.position());
+      if (read < 0) {
+        throw new IOException("Unexpected end of data file");
+      }
+    }
+  }
+
+  /**
+   * Close the index and release the memory mapped files.
+   * The index must not be used any more once it is closed.
+   */
+  @Override
+  public void close() {
+    closeQuietly(indexChannel);
+    closeQuietly(dataChannel);
+    unmap(index);
+    unmap(data);
+  }
+
+  /**
+   * Release a memory mapped file without waiting for the garbage collector.
+   * 
+   * <p>
+   * There's no public API for this, so it is done by reflection on a best effort basis:
+   * {@code Unsafe.invokeCleaner()} since Java 9, the buffer cleaner before.
+   * </p>
+   * 
+   * @param buffer Memory mapped file (not a slice or a duplicate).
+   */
+  private static void unmap(MappedByteBuffer buffer) {
+    if (buffer == null) {
+      return;
+    }
+    try {
+      Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+      Method invokeCleaner = null;
+      try {
+        invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+      } catch (NoSuchMethodException e) {
+        // Before Java 9
+      }
+      if (invokeCleaner != null) {
+        Field field = unsafeClass.getDeclaredField("theUnsafe");
+        field.setAccessible(true);
+        invokeCleaner.invoke(field.get(null), buffer);
+        return;
+      }
+      Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+      cleanerMethod.setAccessible(true);
+      Object cleaner = cleanerMethod.invoke(buffer);
+      if (cleaner != null) {
+        cleaner.getClass().getMethod("clean").invoke(cleaner);
+      }
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      log.debug("Unable to release memory mapped file: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Create a writer for a new index.
+   * The index is written in temporary files which replace the existing index on commit.
+   * 
+   * @param base Base name of the index files.
+   * @param signature Signature of the configuration used to create the index.
+   * @return Writer.
+   * @throws IOException Error creating the files.
+   */
+  public static Writer createWriter(File base, String signature) throws IOException {
+    return new Writer(base, computeHash(signature));
+  }
+
+  /**
+   * Detections for an algorithm in a page.
+   */
+  public static class Detection {
+
+    /** Error number */
+    public final int errorNumber;
+
+    /** Maximum level for the errors */
+    public final ErrorLevel maxLevel;
+
+    /** List of notices */
+    public final List<String> notices;
+
+    /**
+     * @param errorNumber Error number.
+     * @param maxLevel Maximum level for the errors.
+     * @param notices List of notices.
+     */
+    public Detection(int errorNumber, ErrorLevel maxLevel, List<String> notices) {
+      this.errorNumber = errorNumber;
+      this.maxLevel = maxLevel;
+      this.notices = notices;
+    }
+  }
+
+  /**
+   * Writer for a new index.
+   */
+  public static class Writer implements Closeable {
+
+    /** Base name of the index files */
+    private final File base;
+
+    /** Hash of the configuration */
+    private final byte[] hash;
+
+    /** Generation shared by the index file and the data file */
+    private final long generation;
+
+    /** Temporary data file */
+    private final File tmpDataFile;
+
+    /** Stream on the temporary data file */
+    private final DataOutputStream dataOutput;
+
+    /** Current size of the data file */
+    private long dataSize;
+
+    /** Page ids in the order they were added */
+    private int[] pageIds;
+
+    /** Revision ids in the order they were added */
+    private long[] revisionIds;
+
+    /** Offsets of the detections in the order they were added */
+    private long[] offsets;
+
+    /** Number of pages added */
+    private int count;
+
+    /** True when the writer is closed */
+    private boolean closed;
+
+    /**
+     * @param base Base name of the index files.
+     * @param hash Hash of the configuration.
+     * @throws IOException Error creating the files.
+     */
+    Writer(File base, byte[] hash) throws IOException {
+      this.base = base;
+      this.hash = hash;
+      this.generation = new SecureRandom().nextLong();
+      this.tmpDataFile = getTemporaryFile(getDataFile(base));
+      this.dataOutput = new DataOutputStream(new BufferedOutputStream(
+          new FileOutputStream(tmpDataFile)));
+      dataOutput.writeInt(MAGIC);
+      dataOutput.writeLong(generation);
+      this.dataSize = DATA_HEADER_LENGTH;
+      this.pageIds = new int[1024];
+      this.revisionIds = new long[1024];
+      this.offsets = new long[1024];
+      this.count = 0;
+      this.closed = false;
+    }
+
+    /**
+     * Add a page to the index.
+     * 
+     * @param pageId Page id.
+     * @param revisionId Revision id that was analyzed.
+     * @param detections Detections in the page.
+     * @throws IOException Error writing the data file.
+     */
+    public void add(int pageId, long revisionId, List<Detection> detections) throws IOException {
+      byte[] record = null;
+      if ((detections != null) && !detections.isEmpty()) {
+        record = encode(detections);
+      }
+      addRecord(pageId, revisionId, record);
+    }
+
+    /**
+     * Add a page to the index with the detections from a previous index.
+     * 
+     * @param previous Previous index.
+     * @param position Position of the page in the previous index.
+     * @throws IOException Error reading or writing the data files.
+     */
+    public void add(DetectionIndex previous, int position) throws IOException {
+      addRecord(
+          previous.getPageId(position), previous.getRevisionId(position),
+          previous.getRecord(position));
+    }
+
+    /**
+     * @param pageId Page id.
+     * @param revisionId Revision id that was analyzed.
+     * @param record Encoded detections or null if nothing was detected.
+     * @throws IOException Error writing the data file.
+     */
+    private synchronized void addRecord(int pageId, long revisionId, byte[] record) throws IOException {
+      if (closed) {
+        return;
+      }
+      if (count == pageIds.length) {
+        int newLength = count * 2;
+        pageIds = Arrays.copyOf(pageIds, newLength);
+        revisionIds = Arrays.copyOf(revisionIds, newLength);
+        offsets = Arrays.copyOf(offsets, newLength);
+      }
+      pageIds[count] = pageId;
+      revisionIds[count] = revisionId;
+      if (record != null) {
+        offsets[count] = dataSize;
+        dataOutput.writeInt(record.length);
+        dataOutput.write(record);
+        dataSize += 4 + record.length;
+      } else {
+        offsets[count] = -1;
+      }
+      count++;
+    }
+
+    /**
+     * Write the index and replace the existing one.
+     * 
+     * <p>
+     * When a page has been added several times, only the last addition is kept.
+     * An index opened on the same files must be closed before.
+     * </p>
+     * 
+     * @throws IOException Error writing the index.
+     */
+    public synchronized void commit() throws IOException {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      File tmpIndexFile = getTemporaryFile(getIndexFile(base));
+      try {
+        dataOutput.close();
+
+        // Sort pages by page id, keeping only the last addition of each page
+        long[] order = new long[count];
+        for (int i = 0; i < count; i++) {
+          order[i] = ((long) pageIds[i] << 32) | i;
+        }
+        Arrays.sort(order);
+        int uniqueCount = 0;
+        for (int i = 0; i < count; i++) {
+          if ((i + 1 < count) && ((order[i] >>> 32) == (order[i + 1] >>> 32))) {
+            continue;
+          }
+          order[uniqueCount] = order[i];
+          uniqueCount++;
+        }
+
+        // Write index
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+            new FileOutputStream(tmpIndexFile)))) {
+          output.writeInt(MAGIC);
+          output.writeInt(VERSION);
+          output.write(hash);
+          output.writeLong(generation);
+          output.writeLong(dataSize);
+          output.writeInt(uniqueCount);
+          for (int i = 0; i < uniqueCount; i++) {
+            output.writeInt(pageIds[(int) order[i]]);
+          }
+          for (int i = 0; i < uniqueCount; i++) {
+            output.writeLong(revisionIds[(int) order[i]]);
+          }
+          for (int i = 0; i < uniqueCount; i++) {
+            output.writeLong(offsets[(int) order[i]]);
+          }
+        }
+
+        // Replace existing index, the index file being replaced last
+        replace(tmpDataFile, getDataFile(base));
+        replace(tmpIndexFile, getIndexFile(base));
+      } catch (IOException e) {
+        deleteQuietly(tmpDataFile);
+        deleteQuietly(tmpIndexFile);
+        throw e;
+      }
+    }
+
+    /**
+     * @return Number of pages added.
+     */
+    public synchronized int size() {
+      return count;
+    }
+
+    /**
+     * Close the writer without replacing the existing index.
+     */
+    @Override
+    public synchronized void close() {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      closeQuietly(dataOutput);
+      deleteQuietly(tmpDataFile);
+    }
+
+    /**
+     * @param source Source file.
+     * @param target Target file.
+     * @throws IOException Error replacing the file.
+     */
+    private static void replace(File source, File target) throws IOException {
+      try {
+        Files.move(
+            source.toPath(), target.toPath(),
+            StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      }
+    }
+
+    /**
+     * @param file File to delete if it exists.
+     */
+    private static void deleteQuietly(File file) {
+      if (file.exists() && !file.delete()) {
+        log.warn("Unable to delete " + file);
+      }
+    }
+  }
+
+  /**
+   * @param detections Detections.
+   * @return Encoded detections.
+   * @throws IOException Error encoding the detections.
+   */
+  static byte[] encode(List<Detection> detections) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream output = new DataOutputStream(bytes);
+    output.writeInt(detections.size());
+    for (Detection detection : detections) {
+      output.writeInt(detection.errorNumber);
+      output.writeByte(detection.maxLevel.ordinal());
+      List<String> notices = detection.notices;
+      output.writeInt((notices != null) ? notices.size() : 0);
+      if (notices != null) {
+        for (String notice : notices) {
+          byte[] text = notice.getBytes(StandardCharsets.UTF_8);
+          output.writeInt(text.length);
+          output.write(text);
+        }
+      }
+    }
+    output.flush();
+    return bytes.toByteArray();
+  }
+
+  /**
+   * @param record Encoded detections.
+   * @return Detections.
+   * @throws IOException Error decoding the detections.
+   */
+  static List<Detection> decode(byte[] record) throws IOException {
+    DataInputStream input = new DataInputStream(new ByteArrayInputStream(record));
+    ErrorLevel[] levels = ErrorLevel.values();
+    int size = readLength(input);
+    List<Detection> detections = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      int errorNumber = input.readInt();
+      int level = input.readByte();
+      if ((level < 0) || (level >= levels.length)) {
+        throw new IOException("Invalid error level in data file");
+      }
+      int noticeCount = readLength(input);
+      List<String> notices = new ArrayList<>(noticeCount);
+      for (int j = 0; j < noticeCount; j++) {
+        byte[] text = new byte[readLength(input)];
+        input.readFully(text);
+        notices.add(new String(text, StandardCharsets.UTF_8));
+      }
+      detections.add(new Detection(errorNumber, levels[level], notices));
+    }
+    return detections;
+  }
+
+  /**
+   * @param input Encoded detections.
+   * @return Length or count read from the encoded detections.
+   * @throws IOException Error decoding the detections or invalid length.
+   */
+  private static int readLength(DataInputStream input) throws IOException {
+    int length = input.readInt();
+    if ((length < 0) || (length > input.available())) {
+      throw new IOException("Invalid length in data file");
+    }
+    return length;
+  }
+
+  /**
+   * @param signature Signature of the configuration.
+   * @return Hash of the signature.
+   */
+  private static byte[] computeHash(String signature) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      return digest.digest(signature.getBytes(StandardCharsets.UTF_8));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * @param base Base name of the index files.
+   * @return Index file.
+   */
+  static File getIndexFile(File base) {
+    return new File(base.getPath() + ".idx");
+  }
+
+  /**
+   * @param base Base name of the index files.
+   * @return Data file.
+   */
+  static File getDataFile(File base) {
+    return new File(base.getPath() + ".dat");
+  }
+
+  /**
+   * @param file File.
+   * @return Temporary file used while writing the file.
+   */
+  static File getTemporaryFile(File file) {
+    return new File(file.getPath() + ".tmp");
+  }
+
+  /**
+   * @param closeable Object to close.
+   */
+  static void closeQuietly(Closeable closeable) {
+    if (closeable != null) {
+      try {
+        closeable.close();
+      } catch (IOException e) {
+        // Nothing to do
+      }
+    }
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ *  WPCleaner: A tool to help on Wikipedia maintenance tasks.
+ *  Copyright (C) 2020  Nicolas Vervelle
+ *
+ *  See README.txt file for licensing information.
+ */
+
+
+package org.wikipediacleaner.api.dump;
+
+import java.io.IOException;
+import java.util.Collections;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wikipediacleaner.api.APIFactory;
+import org.wikipediacleaner.api.constants.EnumWikipedia;
+import org.wikipediacleaner.api.data.DataManager;
+import org.wikipediacleaner.api.data.Page;
+import org.wikipediacleaner.api.dataaccess.PageProvider;
+
+
+/**
+ * A page provider retrieving the page from a local multistream dump,
+ * to work on pages without access to the wiki.
+ * 
+ * @see org.wikipediacleaner.api.APIFactory#setLocalDump
+ */
+public class DumpPageProvider implements PageProvider {
+
+  /** Logger */
+  private final static Logger log = LoggerFactory.getLogger(DumpPageProvider.class);
+
+  /** Local dump */
+  private final MultistreamDumpStore store;
+
+  /** Wiki */
+  private final EnumWikipedia wiki;
+
+  /** Page title */
+  private final String title;
+
+  /** Page, once retrieved */
+  private Page page;
+
+  /**
+   * @param wiki Wiki.
+   * @param title Page title.
+   * @return Page provider using the local dump registered for the wiki, or null if none.
+   */
+  public static DumpPageProvider create(EnumWikipedia wiki, String title) {
+    MultistreamDumpStore store = APIFactory.getLocalDump(wiki);
+    if (store == null) {
+      return null;
+    }
+    return new DumpPageProvider(store, wiki, title);
+  }
+
+  /**
+   * @param store Local dump.
+   * @param wiki Wiki.
+   * @param title Page title.
+   */
+  public DumpPageProvider(MultistreamDumpStore store, EnumWikipedia wiki, String title) {
+    this.store = store;
+    this.wiki = wiki;
+    this.title = title;
+  }
+
+  /**
+   * @return Page, with its contents if it is in the dump.
+   * @see org.wikipediacleaner.api.dataaccess.PageProvider#getPage()
+   */
+  @Override
+  public Page getPage() {
+    if (page == null) {
+      Page tmpPage = DataManager.getPage(wiki, title, null, null, null);
+      try {
+        store.retrieveContents(wiki, Collections.singleton(tmpPage));
+      } catch (IOException e) {
+        log.error("Unable to retrieve " + title + " from dump: " + e.getMessage());
+      }
+      page = tmpPage;
+    }
+    return page;
+  }
+
+  /**
+   * @return Wiki.
+   * @see org.wikipediacleaner.api.dataaccess.WikiProvider#getWiki()
+   */
+  @Override
+  public EnumWikipedia getWiki() {
+    return wiki;
+  }
+}
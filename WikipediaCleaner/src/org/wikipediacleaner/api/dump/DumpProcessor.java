@@ -61,7 +61,7 @@ public class DumpProcessor {
       SAXParser parser = factory.newSAXParser();
       fis = new FileInputStream(file);
       bis = new BufferedInputStream(fis);
-      bzis = new BZip2CompressorInputStream(bis);
+      bzis = new BZip2CompressorInputStream(bis, true);
       Reader reader = new InputStreamReader(bzis, "UTF-8");
       InputSource is = new InputSource(reader); 
       DumpHandler dh = new DumpHandler();
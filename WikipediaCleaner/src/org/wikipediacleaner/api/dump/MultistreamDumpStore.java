@@ -0,0 +1,466 @@
+/*
+ *  WPCleaner: A tool to help on Wikipedia maintenance tasks.
+ *  Copyright (C) 2020  Nicolas Vervelle
+ *
+ *  See README.txt file for licensing information.
+ */
+
+
+package org.wikipediacleaner.api.dump;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wikipediacleaner.api.constants.EnumWikipedia;
+import org.wikipediacleaner.api.data.Page;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+
+/**
+ * Random access to the pages of a local multistream dump.
+ * 
+ * <p>Each bz2 stream of a multistream dump contains about 100 pages,
+ * so retrieving a page only requires decompressing its stream.
+ * The position of each page is given by a {@link MultistreamIndex},
+ * built once from the text index published with the dump.</p>
+ */
+public class MultistreamDumpStore implements Closeable {
+
+  /** Logger */
+  private final static Logger log = LoggerFactory.getLogger(MultistreamDumpStore.class);
+
+  /** Dump file */
+  private final File dumpFile;
+
+  /** Channel on the dump file */
+  private final FileChannel channel;
+
+  /** Index of the pages in the dump */
+  private final MultistreamIndex index;
+
+  /**
+   * @param dumpFile Multistream dump file.
+   * @return Binary index file for the dump.
+   */
+  public static File getIndexFile(File dumpFile) {
+    return new File(dumpFile.getPath() + ".wpcidx");
+  }
+
+  /**
+   * @param dumpFile Multistream dump file.
+   * @return Text index published with the dump.
+   */
+  public static File getTextIndexFile(File dumpFile) {
+    String name = dumpFile.getName();
+    if (name.endsWith(".xml.bz2")) {
+      name = name.substring(0, name.length() - 8) + "-index.txt.bz2";
+    }
+    return new File(dumpFile.getParentFile(), name);
+  }
+
+  /**
+   * @param dumpFile Multistream dump file.
+   * @return True if an index is available (or can be built) for the dump.
+   */
+  public static boolean isAvailable(File dumpFile) {
+    if ((dumpFile == null) || !dumpFile.isFile()) {
+      return false;
+    }
+    return getIndexFile(dumpFile).isFile() || getTextIndexFile(dumpFile).isFile();
+  }
+
+  /**
+   * Open a store on a multistream dump, building its index if needed.
+   * 
+   * @param dumpFile Multistream dump file.
+   * @return Store.
+   * @throws IOException Error reading the dump or its index.
+   */
+  public static MultistreamDumpStore open(File dumpFile) throws IOException {
+    File indexFile = getIndexFile(dumpFile);
+    if (!indexFile.isFile() ||
+        (indexFile.lastModified() < dumpFile.lastModified())) {
+      File textIndexFile = getTextIndexFile(dumpFile);
+      if (!textIndexFile.isFile()) {
+        throw new IOException("No index available for " + dumpFile.getName());
+      }
+      MultistreamIndex.build(textIndexFile, indexFile);
+    }
+    MultistreamIndex index = MultistreamIndex.open(indexFile);
+    try {
+      FileChannel channel = new RandomAccessFile(dumpFile, "r").getChannel();
+      return new MultistreamDumpStore(dumpFile, channel, index);
+    } catch (IOException e) {
+      index.close();
+      throw e;
+    }
+  }
+
+  /**
+   * @param dumpFile Multistream dump file.
+   * @param channel Channel on the dump file.
+   * @param index Index of the pages in the dump.
+   */
+  private MultistreamDumpStore(File dumpFile, FileChannel channel, MultistreamIndex index) {
+    this.dumpFile = dumpFile;
+    this.channel = channel;
+    this.index = index;
+  }
+
+  /**
+   * @return Dump file.
+   */
+  public File getDumpFile() {
+    return dumpFile;
+  }
+
+  /**
+   * @return Index of the pages in the dump.
+   */
+  public MultistreamIndex getIndex() {
+    return index;
+  }
+
+  /**
+   * Retrieve a page from the dump.
+   * 
+   * @param wiki Wiki.
+   * @param title Page title.
+   * @return Page with its contents, or null if the page is not in the dump.
+   * @throws IOException Error reading the dump.
+   */
+  public Page getPage(EnumWikipedia wiki, String title) throws IOException {
+    return getPageAt(wiki, index.findByTitle(title));
+  }
+
+  /**
+   * Retrieve a page from the dump.
+   * 
+   * @param wiki Wiki.
+   * @param pageId Page id.
+   * @return Page with its contents, or null if the page is not in the dump.
+   * @throws IOException Error reading the dump.
+   */
+  public Page getPage(EnumWikipedia wiki, int pageId) throws IOException {
+    return getPageAt(wiki, index.findByPageId(pageId));
+  }
+
+  /**
+   * @param wiki Wiki.
+   * @param position Position of the page in the index.
+   * @return Page with its contents, or null if the page is not in the dump.
+   * @throws IOException Error reading the dump.
+   */
+  private Page getPageAt(EnumWikipedia wiki, int position) throws IOException {
+    if (position < 0) {
+      return null;
+    }
+    PageCollector collector = new PageCollector(wiki);
+    collector.wanted.add(Integer.valueOf(index.getPageId(position)));
+    readStream(index.getStreamOffset(position), index.getStreamIndex(position), collector);
+    if (collector.pages.isEmpty()) {
+      return null;
+    }
+    return collector.pages.get(0);
+  }
+
+  /**
+   * Retrieve contents of pages from the dump, like {@link org.wikipediacleaner.api.API#retrieveContents}.
+   * Pages which are not in the dump are marked as not existing.
+   * 
+   * @param wiki Wiki.
+   * @param pages List of pages.
+   * @throws IOException Error reading the dump.
+   */
+  public void retrieveContents(EnumWikipedia wiki, Collection<Page> pages) throws IOException {
+    final Map<Integer, Page> targets = new HashMap<>();
+    for (Page page : pages) {
+      int position = index.findByTitle(page.getTitle());
+      if (position < 0) {
+        page.setExisting(Boolean.FALSE);
+      } else {
+        targets.put(Integer.valueOf(index.getPageId(position)), page);
+      }
+    }
+    processPages(wiki, targets.keySet(), new PageProcessor() {
+
+      /**
+       * @return Wiki.
+       */
+      @Override
+      public EnumWikipedia getWiki() {
+        return null;
+      }
+
+      /**
+       * @param page Page from the dump.
+       */
+      @Override
+      public void processPage(Page page) {
+        Page target = targets.get(page.getPageId());
+        if (target != null) {
+          target.setPageId(page.getPageId());
+          target.setNamespace(page.getNamespace());
+          target.setRevisionId((page.getRevisionId() != null) ? page.getRevisionId().toString() : null);
+          target.setContents(page.getContents());
+          target.setExisting(Boolean.TRUE);
+        }
+      }
+    });
+  }
+
+  /**
+   * Process pages from the dump.
+   * Each stream is decompressed only once, even if it contains several of the pages.
+   * 
+   * @param pages List of pages.
+   * @param processor Processor for the pages found in the dump.
+   * @throws IOException Error reading the dump.
+   */
+  public void processPages(Collection<Page> pages, PageProcessor processor) throws IOException {
+    List<Integer> pageIds = new ArrayList<>();
+    for (Page page : pages) {
+      int position = index.findByTitle(page.getTitle());
+      if (position >= 0) {
+        pageIds.add(Integer.valueOf(index.getPageId(position)));
+      }
+    }
+    processPages(processor.getWiki(), pageIds, processor);
+  }
+
+  /**
+   * @param wiki Wiki.
+   * @param pageIds Page ids.
+   * @param processor Processor for the pages found in the dump.
+   * @throws IOException Error reading the dump.
+   */
+  private void processPages(
+      EnumWikipedia wiki, Collection<Integer> pageIds,
+      PageProcessor processor) throws IOException {
+
+    // Group pages by stream
+    Map<Long, PageCollector> streams = new TreeMap<>();
+    Map<Long, Integer> lastIndexes = new HashMap<>();
+    for (Integer pageId : pageIds) {
+      int position = index.findByPageId(pageId.intValue());
+      if (position >= 0) {
+        Long offset = Long.valueOf(index.getStreamOffset(position));
+        PageCollector collector = streams.get(offset);
+        if (collector == null) {
+          collector = new PageCollector((wiki != null) ? wiki : processor.getWiki());
+          streams.put(offset, collector);
+        }
+        collector.wanted.add(pageId);
+        Integer lastIndex = lastIndexes.get(offset);
+        int streamIndex = index.getStreamIndex(position);
+        if ((lastIndex == null) || (lastIndex.intValue() < streamIndex)) {
+          lastIndexes.put(offset, Integer.valueOf(streamIndex));
+        }
+      }
+    }
+
+    // Read each stream once
+    for (Map.Entry<Long, PageCollector> stream : streams.entrySet()) {
+      PageCollector collector = stream.getValue();
+      readStream(
+          stream.getKey().longValue(),
+          lastIndexes.get(stream.getKey()).intValue(),
+          collector);
+      for (Page page : collector.pages) {
+        processor.processPage(page);
+      }
+    }
+  }
+
+  /**
+   * Decompress and parse a stream of the dump.
+   * 
+   * @param offset Offset of the stream in the dump file.
+   * @param lastIndex Position in the stream of the last page needed.
+   * @param collector Collector for the pages.
+   * @throws IOException Error reading the dump.
+   */
+  private void readStream(long offset, int lastIndex, PageCollector collector) throws IOException {
+    collector.lastIndex = lastIndex;
+    InputStream stream = new SequenceInputStream(Collections.enumeration(Arrays.<InputStream>asList(
+        new ByteArrayInputStream("<mediawiki>".getBytes(StandardCharsets.UTF_8)),
+        new BZip2CompressorInputStream(new BufferedInputStream(
+            new ChannelInputStream(channel, offset), 1 << 16), false),
+        new ByteArrayInputStream("</mediawiki>".getBytes(StandardCharsets.UTF_8)))));
+    try {
+      SAXParser parser = SAXParserFactory.newInstance().newSAXParser();
+      DumpHandler handler = new DumpHandler();
+      handler.setPageProcessor(collector);
+      parser.parse(new InputSource(new InputStreamReader(stream, StandardCharsets.UTF_8)), handler);
+    } catch (StopParsing e) {
+      // All the needed pages have been found
+    } catch (SAXException | ParserConfigurationException e) {
+      throw new IOException("Error parsing stream at " + offset + " in " + dumpFile.getName(), e);
+    } finally {
+      stream.close();
+    }
+  }
+
+  /**
+   * Close the store.
+   */
+  @Override
+  public void close() {
+    try {
+      channel.close();
+    } catch (IOException e) {
+      log.warn("Error closing dump file: " + e.getMessage());
+    }
+    index.close();
+  }
+
+  /**
+   * Page processor collecting the needed pages of a stream.
+   */
+  private static class PageCollector implements PageProcessor {
+
+    /** Wiki */
+    private final EnumWikipedia wiki;
+
+    /** Page ids of the needed pages */
+    final Set<Integer> wanted;
+
+    /** Pages found */
+    final List<Page> pages;
+
+    /** Position in the stream of the last page needed */
+    int lastIndex;
+
+    /** Count of pages parsed in the stream */
+    private int count;
+
+    /**
+     * @param wiki Wiki.
+     */
+    PageCollector(EnumWikipedia wiki) {
+      this.wiki = wiki;
+      this.wanted = new HashSet<>();
+      this.pages = new ArrayList<>();
+      this.count = 0;
+    }
+
+    /**
+     * @return Wiki.
+     * @see org.wikipediacleaner.api.dump.PageProcessor#getWiki()
+     */
+    @Override
+    public EnumWikipedia getWiki() {
+      return wiki;
+    }
+
+    /**
+     * @param page Page.
+     * @see org.wikipediacleaner.api.dump.PageProcessor#processPage(org.wikipediacleaner.api.data.Page)
+     */
+    @Override
+    public void processPage(Page page) {
+      if ((page != null) && wanted.contains(page.getPageId())) {
+        pages.add(page);
+      }
+      count++;
+      if ((pages.size() >= wanted.size()) || (count > lastIndex)) {
+        throw new StopParsing();
+      }
+    }
+  }
+
+  /**
+   * Exception used to stop parsing a stream when all the needed pages have been found.
+   */
+  private static class StopParsing extends RuntimeException {
+
+    /** Serialization */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Create the exception without stack trace.
+     */
+    StopParsing() {
+      super(null, null, false, false);
+    }
+  }
+
+  /**
+   * Input stream reading a file channel from a given position,
+   * without changing the position of the channel.
+   */
+  private static class ChannelInputStream extends InputStream {
+
+    /** Channel */
+    private final FileChannel channel;
+
+    /** Current position */
+    private long position;
+
+    /**
+     * @param channel Channel.
+     * @param position Initial position.
+     */
+    ChannelInputStream(FileChannel channel, long position) {
+      this.channel = channel;
+      this.position = position;
+    }
+
+    /**
+     * @return Next byte.
+     * @throws IOException Error reading the channel.
+     * @see java.io.InputStream#read()
+     */
+    @Override
+    public int read() throws IOException {
+      byte[] tmp = new byte[1];
+      int count = read(tmp, 0, 1);
+      return (count <= 0) ? -1 : (tmp[0] & 0xFF);
+    }
+
+    /**
+     * @param b Buffer.
+     * @param off Offset in the buffer.
+     * @param len Maximum number of bytes to read.
+     * @return Number of bytes read.
+     * @throws IOException Error reading the channel.
+     * @see java.io.InputStream#read(byte[], int, int)
+     */
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      int count = channel.read(ByteBuffer.wrap(b, off, len), position);
+      if (count > 0) {
+        position += count;
+      }
+      return count;
+    }
+  }
+}
@@ -0,0 +1,511 @@
+/*
+ *  WPCleaner: A tool to help on Wikipedia maintenance tasks.
+ *  Copyright (C) 2020  Nicolas Vervelle
+ *
+ *  See README.txt file for licensing information.
+ */
+
+
+package org.wikipediacleaner.api.dump;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Index of the pages in a multistream dump.
+ * 
+ * <p>For each page, the index gives the offset of the bz2 stream containing the page
+ * in the dump file and the position of the page in this stream.
+ * The index is built once from the text index published with multistream dumps
+ * (lines <code>offset:page id:title</code>) and saved in a binary file:</p>
+ * <ul>
+ * <li>header (magic number, version, count of pages, size of titles)</li>
+ * <li>page ids (sorted), stream offsets, positions in the streams</li>
+ * <li>beginning and length of each title, positions sorted by title</li>
+ * <li>titles encoded in UTF-8</li>
+ * </ul>
+ * <p>The binary file is memory mapped, so lookups don't use the heap.</p>
+ */
+public class MultistreamIndex implements Closeable {
+
+  /** Logger */
+  private final static Logger log = LoggerFactory.getLogger(MultistreamIndex.class);
+
+  /** Magic number at the beginning of the index file */
+  private final static int MAGIC = 0x5750434D;
+
+  /** Version of the format */
+  private final static int VERSION = 1;
+
+  /** Size of the header of the index file */
+  private final static int HEADER_LENGTH = 4 + 4 + 4 + 4;
+
+  /** Size of the information for each page in the index file */
+  private final static long ENTRY_LENGTH = 4 + 8 + 4 + 4 + 4 + 4;
+
+  /** Channel on the index file */
+  private final FileChannel channel;
+
+  /** Number of pages */
+  private final int count;
+
+  /** Sorted page ids */
+  private final IntBuffer pageIds;
+
+  /** Offsets of the streams containing the pages */
+  private final LongBuffer streamOffsets;
+
+  /** Positions of the pages in their streams */
+  private final IntBuffer streamIndexes;
+
+  /** Beginning of the titles */
+  private final IntBuffer titleBegins;
+
+  /** Length of the titles */
+  private final IntBuffer titleLengths;
+
+  /** Positions sorted by title */
+  private final IntBuffer byTitle;
+
+  /** Titles encoded in UTF-8 */
+  private final ByteBuffer titles;
+
+  /**
+   * Open an existing index.
+   * 
+   * @param file Index file.
+   * @return Index.
+   * @throws IOException Error reading the index.
+   */
+  public static MultistreamIndex open(File file) throws IOException {
+    FileChannel channel = new RandomAccessFile(file, "r").getChannel();
+    try {
+      MultistreamIndex index = new MultistreamIndex(channel);
+      channel = null;
+      return index;
+    } finally {
+      if (channel != null) {
+        channel.close();
+      }
+    }
+  }
+
+  /**
+   * @param channel Channel on the index file.
+   * @throws IOException Error reading the index.
+   */
+  private MultistreamIndex(FileChannel channel) throws IOException {
+    long size = channel.size();
+    if ((size < HEADER_LENGTH) || (size > Integer.MAX_VALUE)) {
+      throw new IOException("Invalid size for multistream index");
+    }
+    MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+    if ((buffer.getInt() != MAGIC) || (buffer.getInt() != VERSION)) {
+      throw new IOException("Invalid format for multistream index");
+    }
+    count = buffer.getInt();
+    int titlesLength = buffer.getInt();
+    if ((count < 0) || (titlesLength < 0) ||
+        (size != HEADER_LENGTH + ENTRY_LENGTH * count + titlesLength)) {
+      throw new IOException("Invalid size for multistream index");
+    }
+    int position = HEADER_LENGTH;
+    pageIds = slice(buffer, position, 4 * count).asIntBuffer();
+    position += 4 * count;
+    streamOffsets = slice(buffer, position, 8 * count).asLongBuffer();
+    position += 8 * count;
+    streamIndexes = slice(buffer, position, 4 * count).asIntBuffer();
+    position += 4 * count;
+    titleBegins = slice(buffer, position, 4 * count).asIntBuffer();
+    position += 4 * count;
+    titleLengths = slice(buffer, position, 4 * count).asIntBuffer();
+    position += 4 * count;
+    byTitle = slice(buffer, position, 4 * count).asIntBuffer();
+    position += 4 * count;
+    titles = slice(buffer, position, titlesLength);
+    this.channel = channel;
+  }
+
+  /**
+   * @param buffer Buffer.
+   * @param position Beginning of the slice.
+   * @param length Length of the slice.
+   * @return Slice of the buffer.
+   */
+  private static ByteBuffer slice(ByteBuffer buffer, int position, int length) {
+    ByteBuffer tmp = buffer.duplicate();
+    tmp.position(position);
+    tmp.limit(position + length);
+    return tmp.slice();
+  }
+
+  /**
+   * @return Number of pages in the index.
+   */
+  public int size() {
+    return count;
+  }
+
+  /**
+   * Find a page by its id.
+   * 
+   * @param pageId Page id.
+   * @return Position of the page in the index or -1 if it is not in the index.
+   */
+  public int findByPageId(int pageId) {
+    int low = 0;
+    int high = count - 1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      int value = pageIds.get(middle);
+      if (value < pageId) {
+        low = middle + 1;
+      } else if (value > pageId) {
+        high = middle - 1;
+      } else {
+        return middle;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Find a page by its title.
+   * 
+   * @param title Page title.
+   * @return Position of the page in the index or -1 if it is not in the index.
+   */
+  public int findByTitle(String title) {
+    if (title == null) {
+      return -1;
+    }
+    byte[] bytes = title.getBytes(StandardCharsets.UTF_8);
+    int low = 0;
+    int high = count - 1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      int position = byTitle.get(middle);
+      int compare = compareTitle(position, bytes);
+      if (compare < 0) {
+        low = middle + 1;
+      } else if (compare > 0) {
+        high = middle - 1;
+      } else {
+        return position;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * @param position Position of the page in the index.
+   * @param bytes Title encoded in UTF-8.
+   * @return Comparison between the title of the page and the given title.
+   */
+  private int compareTitle(int position, byte[] bytes) {
+    int begin = titleBegins.get(position);
+    int length = titleLengths.get(position);
+    int common = Math.min(length, bytes.length);
+    for (int i = 0; i < common; i++) {
+      int compare = (titles.get(begin + i) & 0xFF) - (bytes[i] & 0xFF);
+      if (compare != 0) {
+        return compare;
+      }
+    }
+    return length - bytes.length;
+  }
+
+  /**
+   * @param position Position of the page in the index.
+   * @return Page id.
+   */
+  public int getPageId(int position) {
+    return pageIds.get(position);
+  }
+
+  /**
+   * @param position Position of the page in the index.
+   * @return Offset of the stream containing the page in the dump file.
+   */
+  public long getStreamOffset(int position) {
+    return streamOffsets.get(position);
+  }
+
+  /**
+   * @param position Position of the page in the index.
+   * @return Position of the page in its stream.
+   */
+  public int getStreamIndex(int position) {
+    return streamIndexes.get(position);
+  }
+
+  /**
+   * @param position Position of the page in the index.
+   * @return Page title.
+   */
+  public String getTitle(int position) {
+    byte[] bytes = new byte[titleLengths.get(position)];
+    ByteBuffer tmp = titles.duplicate();
+    tmp.position(titleBegins.get(position));
+    tmp.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Close the index.
+   */
+  @Override
+  public void close() {
+    try {
+      channel.close();
+    } catch (IOException e) {
+      // Nothing to do
+    }
+  }
+
+  /**
+   * Build the binary index from the text index published with a multistream dump.
+   * 
+   * @param textIndex Text index (possibly compressed with bzip2).
+   * @param output Binary index file.
+   * @throws IOException Error reading or writing the index.
+   */
+  public static void build(File textIndex, File output) throws IOException {
+    log.info("Building multistream index from " + textIndex.getName());
+    Builder builder = new Builder();
+    InputStream input = new BufferedInputStream(new FileInputStream(textIndex));
+    try {
+      if (textIndex.getName().endsWith(".bz2")) {
+        input = new BZip2CompressorInputStream(input, true);
+      }
+      BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+      String line = null;
+      while ((line = reader.readLine()) != null) {
+        int firstColon = line.indexOf(':');
+        int secondColon = (firstColon > 0) ? line.indexOf(':', firstColon + 1) : -1;
+        if (secondColon > 0) {
+          try {
+            builder.add(
+                Long.parseLong(line.substring(0, firstColon)),
+                Integer.parseInt(line.substring(firstColon + 1, secondColon)),
+                line.substring(secondColon + 1));
+          } catch (NumberFormatException e) {
+            log.warn("Incorrect line in multistream index: " + line);
+          }
+        }
+      }
+    } finally {
+      input.close();
+    }
+    File tmpOutput = new File(output.getPath() + ".tmp");
+    builder.write(tmpOutput);
+    if (output.exists() && !output.delete()) {
+      throw new IOException("Unable to delete " + output);
+    }
+    if (!tmpOutput.renameTo(output)) {
+      throw new IOException("Unable to rename " + tmpOutput + " to " + output);
+    }
+    log.info("Multistream index built for " + builder.count + " pages");
+  }
+
+  /**
+   * Builder for the binary index.
+   */
+  private static class Builder {
+
+    /** Page ids */
+    int[] pageIds = new int[1024];
+
+    /** Stream offsets */
+    long[] streamOffsets = new long[1024];
+
+    /** Positions in the streams */
+    int[] streamIndexes = new int[1024];
+
+    /** Beginning of the titles */
+    int[] titleBegins = new int[1024];
+
+    /** Length of the titles */
+    int[] titleLengths = new int[1024];
+
+    /** Titles encoded in UTF-8 */
+    byte[] titles = new byte[65536];
+
+    /** Size of the titles */
+    int titlesLength = 0;
+
+    /** Number of pages */
+    int count = 0;
+
+    /**
+     * @param streamOffset Offset of the stream.
+     * @param pageId Page id.
+     * @param title Page title.
+     * @throws IOException Index too big.
+     */
+    void add(long streamOffset, int pageId, String title) throws IOException {
+      if (count == pageIds.length) {
+        int newLength = count * 2;
+        pageIds = Arrays.copyOf(pageIds, newLength);
+        streamOffsets = Arrays.copyOf(streamOffsets, newLength);
+        streamIndexes = Arrays.copyOf(streamIndexes, newLength);
+        titleBegins = Arrays.copyOf(titleBegins, newLength);
+        titleLengths = Arrays.copyOf(titleLengths, newLength);
+      }
+      byte[] bytes = title.getBytes(StandardCharsets.UTF_8);
+      if ((long) titlesLength + bytes.length > Integer.MAX_VALUE - HEADER_LENGTH - ENTRY_LENGTH * (count + 1)) {
+        throw new IOException("Multistream index is too big");
+      }
+      if (titlesLength + bytes.length > titles.length) {
+        titles = Arrays.copyOf(titles, Math.max(
+            titlesLength + bytes.length,
+            (int) Math.min(2L * titles.length, Integer.MAX_VALUE - 8)));
+      }
+      System.arraycopy(bytes, 0, titles, titlesLength, bytes.length);
+      pageIds[count] = pageId;
+      streamOffsets[count] = streamOffset;
+      streamIndexes[count] =
+          ((count > 0) && (streamOffsets[count - 1] == streamOffset)) ?
+          streamIndexes[count - 1] + 1 : 0;
+      titleBegins[count] = titlesLength;
+      titleLengths[count] = bytes.length;
+      titlesLength += bytes.length;
+      count++;
+    }
+
+    /**
+     * @param output Binary index file.
+     * @throws IOException Error writing the index.
+     */
+    void write(File output) throws IOException {
+
+      // Sort pages by page id
+      long[] keys = new long[count];
+      for (int i = 0; i < count; i++) {
+        keys[i] = ((long) pageIds[i] << 32) | i;
+      }
+      Arrays.sort(keys);
+      int[] order = new int[count];
+      for (int i = 0; i < count; i++) {
+        order[i] = (int) keys[i];
+      }
+      keys = null;
+
+      // Sort positions by title
+      int[] sortedTitles = new int[count];
+      for (int i = 0; i < count; i++) {
+        sortedTitles[i] = i;
+      }
+      sortByTitle(sortedTitles, order);
+
+      try (DataOutputStream stream = new DataOutputStream(new BufferedOutputStream(
+          new FileOutputStream(output), 1 << 16))) {
+        stream.writeInt(MAGIC);
+        stream.writeInt(VERSION);
+        stream.writeInt(count);
+        stream.writeInt(titlesLength);
+        for (int i = 0; i < count; i++) {
+          stream.writeInt(pageIds[order[i]]);
+        }
+        for (int i = 0; i < count; i++) {
+          stream.writeLong(streamOffsets[order[i]]);
+        }
+        for (int i = 0; i < count; i++) {
+          stream.writeInt(streamIndexes[order[i]]);
+        }
+        for (int i = 0; i < count; i++) {
+          stream.writeInt(titleBegins[order[i]]);
+        }
+        for (int i = 0; i < count; i++) {
+          stream.writeInt(titleLengths[order[i]]);
+        }
+        for (int i = 0; i < count; i++) {
+          stream.writeInt(sortedTitles[i]);
+        }
+        stream.write(titles, 0, titlesLength);
+      }
+    }
+
+    /**
+     * Sort positions by title with a merge sort.
+     * 
+     * @param positions Positions in the sorted index.
+     * @param order Order of the pages in the sorted index.
+     */
+    private void sortByTitle(int[] positions, int[] order) {
+      int[] tmp = new int[positions.length];
+      int[] source = positions;
+      int[] target = tmp;
+      for (int width = 1; width < positions.length; width *= 2) {
+        for (int low = 0; low < positions.length; low += 2 * width) {
+          int middle = Math.min(low + width, positions.length);
+          int high = Math.min(low + 2 * width, positions.length);
+          int i = low;
+          int j = middle;
+          int k = low;
+          while ((i < middle) && (j < high)) {
+            if (compareTitles(order[source[i]], order[source[j]]) <= 0) {
+              target[k++] = source[i++];
+            } else {
+              target[k++] = source[j++];
+            }
+          }
+          while (i < middle) {
+            target[k++] = source[i++];
+          }
+          while (j < high) {
+            target[k++] = source[j++];
+          }
+        }
+        int[] swap = source;
+        source = target;
+        target = swap;
+      }
+      if (source != positions) {
+        System.arraycopy(source, 0, positions, 0, positions.length);
+      }
+    }
+
+    /**
+     * @param page1 First page.
+     * @param page2 Second page.
+     * @return Comparison between the UTF-8 titles of the pages.
+     */
+    private int compareTitles(int page1, int page2) {
+      int begin1 = titleBegins[page1];
+      int begin2 = titleBegins[page2];
+      int length1 = titleLengths[page1];
+      int length2 = titleLengths[page2];
+      int common = Math.min(length1, length2);
+      for (int i = 0; i < common; i++) {
+        int compare = (titles[begin1 + i] & 0xFF) - (titles[begin2 + i] & 0xFF);
+        if (compare != 0) {
+          return compare;
+        }
+      }
+      return length1 - length2;
+    }
+  }
+}
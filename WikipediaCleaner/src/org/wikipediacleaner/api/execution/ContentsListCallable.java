@@ -0,0 +1,76 @@
+/*
+ *  WPCleaner: A tool to help on Wikipedia maintenance tasks.
+ *  Copyright (C) 2020  Nicolas Vervelle
+ *
+ *  See README.txt file for licensing information.
+ */
+
+package org.wikipediacleaner.api.execution;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.wikipediacleaner.api.API;
+import org.wikipediacleaner.api.APIException;
+import org.wikipediacleaner.api.MediaWikiListener;
+import org.wikipediacleaner.api.constants.EnumWikipedia;
+import org.wikipediacleaner.api.data.Page;
+import org.wikipediacleaner.api.data.PageRedirect;
+import org.wikipediacleaner.i18n.GT;
+
+
+/**
+ * A Callable implementation for retrieving Contents of a list of pages in one request.
+ */
+public class ContentsListCallable extends MediaWikiCallable<List<Page>> {
+
+  private final List<Page> pages;
+  private final boolean usePageId;
+  private final boolean withRedirects;
+
+  /**
+   * @param wikipedia Wikipedia.
+   * @param listener Listener of MediaWiki events.
+   * @param api MediaWiki API.
+   * @param pages Pages.
+   * @param usePageId True if page identifiers should be used.
+   * @param withRedirects Flag indicating if redirects information should be retrieved.
+   */
+  public ContentsListCallable(
+      EnumWikipedia wikipedia, MediaWikiListener listener, API api,
+      List<Page> pages, boolean usePageId, boolean withRedirects) {
+    super(wikipedia, listener, api);
+    this.pages = pages;
+    this.usePageId = usePageId;
+    this.withRedirects = withRedirects;
+  }
+
+  /* (non-Javadoc)
+   * @see java.util.concurrent.Callable#call()
+   */
+  @Override
+  public List<Page> call() throws APIException {
+    if ((pages == null) || pages.isEmpty()) {
+      return pages;
+    }
+    setText(GT._T("Retrieving contents") + " - " + pages.get(0).getTitle());
+    api.retrieveContents(getWikipedia(), pages, usePageId, withRedirects);
+    if (withRedirects) {
+      List<Page> redirectPages = new ArrayList<>();
+      for (Page page : pages) {
+        PageRedirect redirects = page.getRedirects();
+        if (redirects.isRedirect() && (redirects.getPageList() != null)) {
+          redirectPages.addAll(redirects.getPageList());
+        }
+      }
+      for (int index = 0; index < redirectPages.size(); index += pages.size()) {
+        api.retrieveContents(
+            getWikipedia(),
+            redirectPages.subList(index, Math.min(index + pages.size(), redirectPages.size())),
+            false, false);
+      }
+    }
+    return pages;
+  }
+
+}
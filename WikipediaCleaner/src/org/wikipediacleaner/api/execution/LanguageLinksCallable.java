@@ -0,0 +1,62 @@
+/*
+ *  WPCleaner: A tool to help on Wikipedia maintenance tasks.
+ *  Copyright (C) 2020  Nicolas Vervelle
+ *
+ *  See README.txt file for licensing information.
+ */
+
+package org.wikipediacleaner.api.execution;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.wikipediacleaner.api.API;
+import org.wikipediacleaner.api.APIException;
+import org.wikipediacleaner.api.MediaWikiListener;
+import org.wikipediacleaner.api.constants.EnumWikipedia;
+import org.wikipediacleaner.i18n.GT;
+
+
+/**
+ * A Callable implementation for retrieving language links of a list of pages in one request.
+ */
+public class LanguageLinksCallable extends MediaWikiCallable<Map<String, String>> {
+
+  private final EnumWikipedia to;
+  private final List<String> titles;
+
+  /**
+   * @param wikipedia Wikipedia.
+   * @param listener Listener of MediaWiki events.
+   * @param api MediaWiki API.
+   * @param to Wiki to which the links are searched.
+   * @param titles Page titles.
+   */
+  public LanguageLinksCallable(
+      EnumWikipedia wikipedia, MediaWikiListener listener, API api,
+      EnumWikipedia to, List<String> titles) {
+    super(wikipedia, listener, api);
+    this.to = to;
+    this.titles = titles;
+  }
+
+  /**
+   * @return Language links by page title (null value for pages without language link).
+   * @see java.util.concurrent.Callable#call()
+   */
+  @Override
+  public Map<String, String> call() throws APIException {
+    Map<String, String> result = new HashMap<>();
+    if ((titles == null) || titles.isEmpty()) {
+      return result;
+    }
+    setText(GT._T("Retrieving interwiki for {0}", titles.get(0)));
+    Map<String, String> links = api.getLanguageLinks(getWikipedia(), to, titles);
+    for (String title : titles) {
+      result.put(title, links.get(title));
+    }
+    return result;
+  }
+
+}
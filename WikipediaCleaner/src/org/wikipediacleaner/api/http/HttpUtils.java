@@ -61,6 +61,47 @@ public class HttpUtils {
         null, ConfigurationValueBoolean.DEBUG_URL);
   }
 
+  // ==========================================================================
+  // Redirection
+  // ==========================================================================
+
+  /**
+   * Base URL to which all requests are redirected (null for no redirection).
+   */
+  private static volatile String redirection = null;
+
+  /**
+   * Redirect all requests to a local server (API simulator, ...).
+   * 
+   * @param baseUrl Base URL of the server, null to stop redirecting requests.
+   */
+  public static void setRedirection(String baseUrl) {
+    if ((baseUrl != null) && !baseUrl.endsWith("/")) {
+      baseUrl += "/";
+    }
+    redirection = baseUrl;
+  }
+
+  /**
+   * Compute the URL to which a request is actually sent.
+   * The scheme and the host of the original URL are kept in the path,
+   * so that https://en.wikipedia.org/w/api.php is sent to {base}/https/en.wikipedia.org/w/api.php.
+   * 
+   * @param url Original URL.
+   * @return URL to which the request is sent.
+   */
+  public static String getRedirectedUrl(String url) {
+    String base = redirection;
+    if ((base == null) || (url == null)) {
+      return url;
+    }
+    int schemeIndex = url.indexOf("://");
+    if (schemeIndex <= 0) {
+      return url;
+    }
+    return base + url.substring(0, schemeIndex) + "/" + url.substring(schemeIndex + 3);
+  }
+
   // ==========================================================================
   // Debug URL
   // ==========================================================================
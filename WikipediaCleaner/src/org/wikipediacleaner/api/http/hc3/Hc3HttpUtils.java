@@ -42,6 +42,7 @@ public class Hc3HttpUtils extends HttpUtils {
       String url,
       Map<String, String> properties,
       boolean canUseGetMethod) {
+    url = getRedirectedUrl(url);
     try {
       if (canUseGetMethod) {
         return createHttpGetMethod(url, properties);
@@ -144,6 +145,7 @@ public class Hc3HttpUtils extends HttpUtils {
       Map<String, String> properties) throws URIException {
 
     // Initialize HEAD Method
+    url = getRedirectedUrl(url);
     org.apache.commons.httpclient.URI uri = null;
     try {
       uri = new org.apache.commons.httpclient.URI(url, true, "UTF8");
@@ -40,14 +40,18 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.wikipediacleaner.api.API;
 import org.wikipediacleaner.api.APIException;
+import org.wikipediacleaner.api.APIFactory;
+import org.wikipediacleaner.api.CategoryMembersListener;
 import org.wikipediacleaner.api.CaptchaException;
 import org.wikipediacleaner.api.RecentChangesListener;
+import org.wikipediacleaner.api.ResultIterator;
 import org.wikipediacleaner.api.constants.ConnectionInformation;
 import org.wikipediacleaner.api.constants.EnumQueryPage;
 import org.wikipediacleaner.api.constants.EnumQueryResult;
 import org.wikipediacleaner.api.constants.EnumWikipedia;
 import org.wikipediacleaner.api.constants.WPCConfiguration;
 import org.wikipediacleaner.api.constants.WPCConfigurationBoolean;
+import org.wikipediacleaner.api.constants.WPCConfigurationSnapshot;
 import org.wikipediacleaner.api.data.AbuseFilter;
 import org.wikipediacleaner.api.data.DataManager;
 import org.wikipediacleaner.api.data.LoginResult;
@@ -58,6 +62,7 @@ import org.wikipediacleaner.api.data.RecentChange;
 import org.wikipediacleaner.api.data.Section;
 import org.wikipediacleaner.api.data.TemplateData;
 import org.wikipediacleaner.api.data.User;
+import org.wikipediacleaner.api.dump.MultistreamDumpStore;
 import org.wikipediacleaner.api.http.HttpUtils;
 import org.wikipediacleaner.api.http.hc3.Hc3HttpUtils;
 import org.wikipediacleaner.api.request.ApiRequest;
@@ -164,6 +169,7 @@ import org.wikipediacleaner.i18n.GT;
 import org.wikipediacleaner.utils.Configuration;
 import org.wikipediacleaner.utils.ConfigurationValueBoolean;
 import org.wikipediacleaner.utils.ConfigurationValueInteger;
+import org.wikipediacleaner.utils.metrics.Metrics;
 
 
 /**
@@ -181,10 +187,11 @@ public class MediaWikiAPI implements API {
   private HttpClient httpClient;
 
   /**
-   * Time of last edit.
+   * Time of last edits for each wiki.
+   * Each list is also used as a lock, so that edits on a wiki are throttled
+   * whatever the task doing them, while edits on different wikis don't wait for each other.
    */
-  private LinkedList<Long> lastEditTimes = new LinkedList<Long>();
-  private final Object editLock = new Object();
+  private final Map<EnumWikipedia, LinkedList<Long>> lastEditTimes = new HashMap<EnumWikipedia, LinkedList<Long>>();
 
   /**
    * Constructor.
@@ -249,12 +256,19 @@ public class MediaWikiAPI implements API {
             null, null, null);
       }
 
-      // Retrieve contents
+      // Use the snapshot of the configuration if the pages haven't been modified
       List<Page> pages = new ArrayList<Page>();
       pages.add(page);
       if (userConfigPage != null) {
         pages.add(userConfigPage);
       }
+      retrieveInfo(wiki, pages);
+      if (wiki.getConfiguration().setConfigurationFromSnapshot(
+          WPCConfigurationSnapshot.computeKey(pages, null))) {
+        return;
+      }
+
+      // Retrieve contents
       retrieveContents(wiki, pages, false, false);
 
       // Set configuration
@@ -262,7 +276,8 @@ public class MediaWikiAPI implements API {
           new StringReader(page.getContents()),
           (userConfigPage != null) && Boolean.TRUE.equals(userConfigPage.isExisting()) ?
               new StringReader(userConfigPage.getContents()) :
-              null);
+              null,
+          WPCConfigurationSnapshot.computeKey(pages, null));
     }
   }
 
@@ -398,7 +413,7 @@ public class MediaWikiAPI implements API {
       }
       properties.put("watchlist", forceWatch ? "watch" : "nochange");
       CommentManager.manageComment(wikipedia.getConfiguration(), properties, "summary", "tags", automatic);
-      checkTimeForEdit(wikipedia.getConnection().getUser(), page.getNamespace());
+      checkTimeForEdit(wikipedia, wikipedia.getConnection().getUser(), page.getNamespace());
       try {
         boolean hasCaptcha = false;
         do {
@@ -557,7 +572,7 @@ public class MediaWikiAPI implements API {
       properties.put("token", wikipedia.getConnection().getEditToken());
       properties.put("watchlist", forceWatch ? "watch" : "nochange");
       CommentManager.manageComment(wikipedia.getConfiguration(), properties, "summary", "tags", automatic);
-      checkTimeForEdit(wikipedia.getConnection().getUser(), page.getNamespace());
+      checkTimeForEdit(wikipedia, wikipedia.getConnection().getUser(), page.getNamespace());
       try {
         boolean hasCaptcha = false;
         do {
@@ -987,7 +1002,23 @@ public class MediaWikiAPI implements API {
       throws APIException {
     ApiRevisionsResult result = new ApiXmlRevisionsResult(wiki, httpClient);
     ApiRevisionsRequest request = new ApiRevisionsRequest(wiki, result);
-    request.loadContent(pages, usePageId, withRedirects);
+    try {
+      request.loadContent(pages, usePageId, withRedirects);
+    } catch (APIException e) {
+
+      // Fall back on the local dump if one is available
+      MultistreamDumpStore store = APIFactory.getLocalDump(wiki);
+      if (store == null) {
+        throw e;
+      }
+      log.warn("Retrieving contents from local dump: " + e.getMessage());
+      try {
+        store.retrieveContents(wiki, pages);
+      } catch (IOException e2) {
+        log.error("Unable to retrieve contents from local dump: " + e2.getMessage());
+        throw e;
+      }
+    }
   }
 
   /**
@@ -1160,6 +1191,30 @@ public class MediaWikiAPI implements API {
     return request.getLanguageLink(DataManager.getPage(from, title, null, null, null), to);
   }
 
+  /**
+   * Retrieve specific language links in a list of pages.
+   * (<code>action=query</code>, <code>prop=langlinks</code>).
+   * 
+   * @param from Wiki in which the articles are.
+   * @param to Wiki to which the links are searched.
+   * @param titles Page titles.
+   * @return Page titles in the destination wiki by page title (only for pages having a language link).
+   * @throws APIException Exception thrown by the API.
+   * @see <a href="http://www.mediawiki.org/wiki/API:Properties#langlinks_.2F_ll">API:Properties#langlinks</a>
+   */
+  @Override
+  public Map<String, String> getLanguageLinks(
+      EnumWikipedia from, EnumWikipedia to, Collection<String> titles)
+      throws APIException {
+    List<Page> pages = new ArrayList<>(titles.size());
+    for (String title : titles) {
+      pages.add(DataManager.getPage(from, title, null, null, null));
+    }
+    ApiLanguageLinksResult result = new ApiXmlLanguageLinksResult(from, httpClient);
+    ApiLanguageLinksRequest request = new ApiLanguageLinksRequest(from, result);
+    return request.getLanguageLinks(pages, to);
+  }
+
   // ==========================================================================
   // API : Queries / Lists
   // ==========================================================================
@@ -1241,6 +1296,46 @@ public class MediaWikiAPI implements API {
     request.loadCategoryMembers(category, depth, limit, max);
   }
 
+  /**
+   * Retrieves the pages in a category tree, crawling sub-categories in parallel.
+   * (<code>action=query</code>, <code>list=categorymembers</code>).
+   * 
+   * @param wiki Wiki.
+   * @param category Category.
+   * @param depth Depth of lookup for sub-categories.
+   * @param limit Flag indicating if the number of results should be limited.
+   * @param max Absolute maximum number of results
+   * @param listener Listener notified as soon as members of a category are retrieved.
+   * @throws APIException Exception thrown by the API.
+   * @see <a href="http://www.mediawiki.org/wiki/API:Categorymembers">API:Categorymembers</a>
+   */
+  @Override
+  public void retrieveCategoryMembers(
+      EnumWikipedia wiki, Page category,
+      int depth, boolean limit, int max,
+      CategoryMembersListener listener) throws APIException {
+    ApiCategoryMembersResult result = new ApiXmlCategoryMembersResult(wiki, httpClient);
+    ApiCategoryMembersRequest request = new ApiCategoryMembersRequest(wiki, result);
+    request.loadCategoryMembers(category, depth, limit, max, listener);
+  }
+
+  /**
+   * Iterates over the members of a category, retrieving them progressively.
+   * (<code>action=query</code>, <code>list=categorymembers</code>).
+   * 
+   * @param wiki Wiki.
+   * @param category Category.
+   * @return Iterator over the members of the category.
+   * @see <a href="http://www.mediawiki.org/wiki/API:Categorymembers">API:Categorymembers</a>
+   */
+  @Override
+  public ResultIterator<Page> iterateCategoryMembers(
+      EnumWikipedia wiki, Page category) {
+    ApiCategoryMembersResult result = new ApiXmlCategoryMembersResult(wiki, httpClient);
+    ApiCategoryMembersRequest request = new ApiCategoryMembersRequest(wiki, result);
+    return request.iterateCategoryMembers(category);
+  }
+
   /**
    * Retrieves the pages in which <code>page</code> is embedded.
    * (<code>action=query</code>, <code>list=embeddedin</code>).
@@ -1261,6 +1356,24 @@ public class MediaWikiAPI implements API {
     request.loadEmbeddedIn(page, namespaces, limit);
   }
 
+  /**
+   * Iterates over the pages in which <code>page</code> is embedded, retrieving them progressively.
+   * (<code>action=query</code>, <code>list=embeddedin</code>).
+   * 
+   * @param wiki Wiki.
+   * @param page Page.
+   * @param namespaces Limit to some namespaces.
+   * @return Iterator over the pages in which the page is embedded.
+   * @see <a href="http://www.mediawiki.org/wiki/API:Embeddedin">API:Embeddedin</a>
+   */
+  @Override
+  public ResultIterator<Page> iterateEmbeddedIn(
+      EnumWikipedia wiki, Page page, List<Integer> namespaces) {
+    ApiEmbeddedInResult result = new ApiXmlEmbeddedInResult(wiki, httpClient);
+    ApiEmbeddedInRequest request = new ApiEmbeddedInRequest(wiki, result);
+    return request.iterateEmbeddedIn(page, namespaces);
+  }
+
   /**
    * Retrieves the pages in the <code>category</code> Linter category.
    * (<code>action=query</code>, <code>list=linterrors</code>).
@@ -1283,6 +1396,24 @@ public class MediaWikiAPI implements API {
     return request.loadLintErrors(category, namespace, withTemplates, true, max);
   }
 
+  /**
+   * Iterates over the pages in the <code>category</code> Linter category, retrieving them progressively.
+   * (<code>action=query</code>, <code>list=linterrors</code>).
+   * 
+   * @param wiki Wiki.
+   * @param category Category.
+   * @param namespace Optional name space.
+   * @param withTemplates True to retrieve also templates causing the error.
+   * @return Iterator over the pages in the given category.
+   */
+  @Override
+  public ResultIterator<Page> iterateLinterCategory(
+      EnumWikipedia wiki, String category, Integer namespace, boolean withTemplates) {
+    ApiLintErrorsResult result = new ApiXmlLintErrorsResult(wiki, httpClient);
+    ApiLintErrorsRequest request = new ApiLintErrorsRequest(wiki, result);
+    return request.iterateLintErrors(category, namespace, withTemplates);
+  }
+
   /**
    * Retrieves the pages which have a given property.
    * (<code>action=query</code>, <code>list=pageswithprop</code>).
@@ -1300,7 +1431,24 @@ public class MediaWikiAPI implements API {
     ApiPagesWithPropResult result = new ApiXmlPagesWithPropResult(wiki, httpClient);
     ApiPagesWithPropRequest request = new ApiPagesWithPropRequest(wiki, result);
     return request.loadPagesWithProp(property, limit);
+  }
+  /**
+   * Iterates over the pages which have a given property, retrieving them progressively.
+   * (<code>action=query</code>, <code>list=pageswithprop</code>).
+   * 
+   * @param wiki Wiki.
+   * @param property Property name.
+   * @return Iterator over the pages which have the property.
+   * @see <a href="http://www.mediawiki.org/wiki/API:Pageswithprop">API:Pageswithprop</a>
+   */
+  @Override
+  public ResultIterator<Page> iteratePagesWithProp(
+      EnumWikipedia wiki, String property) {
+    ApiPagesWithPropResult result = new ApiXmlPagesWithPropResult(wiki, httpClient);
+    ApiPagesWithPropRequest request = new ApiPagesWithPropRequest(wiki, result);
+    return request.iteratePagesWithProp(property);
   }
+
 
   /**
    * Retrieves the pages which are protected in creation indefinitely.
@@ -1319,7 +1467,24 @@ public class MediaWikiAPI implements API {
     ApiProtectedTitlesResult result = new ApiXmlProtectedTitlesResult(wiki, httpClient);
     ApiProtectedTitlesRequest request = new ApiProtectedTitlesRequest(wiki, result);
     return request.loadProtectedTitles(namespaces, limit);
+  }
+  /**
+   * Iterates over the pages which are protected in creation indefinitely, retrieving them progressively.
+   * (<code>action=query</code>, <code>list=protectedtitles</code>).
+   * 
+   * @param wiki Wiki.
+   * @param namespaces Limit to some namespaces.
+   * @return Iterator over the protected pages.
+   * @see <a href="http://www.mediawiki.org/wiki/API:Protectedtitles">API:Protectedtitles</a>
+   */
+  @Override
+  public ResultIterator<Page> iterateProtectedTitles(
+      EnumWikipedia wiki, List<Integer> namespaces) {
+    ApiProtectedTitlesResult result = new ApiXmlProtectedTitlesResult(wiki, httpClient);
+    ApiProtectedTitlesRequest request = new ApiProtectedTitlesRequest(wiki, result);
+    return request.iterateProtectedTitles(namespaces);
   }
+
 
   /**
    * Retrieves a special list of pages.
@@ -1337,7 +1502,24 @@ public class MediaWikiAPI implements API {
     ApiQueryPageResult result = new ApiXmlQueryPageResult(wiki, httpClient);
     ApiQueryPageRequest request = new ApiQueryPageRequest(wiki, result);
     return request.loadQueryPage(query);
+  }
+  /**
+   * Iterates over a special list of pages, retrieving them progressively.
+   * (<code>action=query</code>, <code>list=querypage</code>).
+   * 
+   * @param wiki Wiki.
+   * @param query Type of list.
+   * @return Iterator over the pages depending on the query.
+   * @see <a href="http://www.mediawiki.org/wiki/API:Querypage">API:Querypage</a>
+   */
+  @Override
+  public ResultIterator<Page> iterateQueryPages(
+      EnumWikipedia wiki, EnumQueryPage query) {
+    ApiQueryPageResult result = new ApiXmlQueryPageResult(wiki, httpClient);
+    ApiQueryPageRequest request = new ApiQueryPageRequest(wiki, result);
+    return request.iterateQueryPage(query);
   }
+
 
   /**
    * Retrieves random pages.
@@ -1732,15 +1914,16 @@ public class MediaWikiAPI implements API {
   /**
    * Check current time to see if edit is authorized (wait if needed).
    * 
+   * @param wikipedia Wiki on which the edit is done.
    * @param user Current user.
    * @param namespace Name space for the edit.
    */
-  private void checkTimeForEdit(User user, Integer namespace) {
+  private void checkTimeForEdit(EnumWikipedia wikipedia, User user, Integer namespace) {
     Configuration config = Configuration.getConfiguration();
     int minimumTime = config.getInt(null, ConfigurationValueInteger.TIME_BETWEEN_EDIT);
     int maxEdits = 0;
     if ((namespace == null) || (namespace.intValue() % 2 == 0)) {
-      config.getInt(null, ConfigurationValueInteger.MAX_EDITS_PER_MINUTE);
+      maxEdits = config.getInt(null, ConfigurationValueInteger.MAX_EDITS_PER_MINUTE);
       if ((maxEdits > ConfigurationValueInteger.MAX_EDITS_PER_MINUTE_NORMAL) ||
           (maxEdits <= 0)) {
         if (!user.isMemberOf("admin") &&
@@ -1752,10 +1935,19 @@ public class MediaWikiAPI implements API {
     if ((minimumTime <= 0) && (maxEdits <= 0)) {
       return;
     }
-    synchronized (editLock) {
+    long beginTime = System.nanoTime();
+    LinkedList<Long> editTimes = null;
+    synchronized (lastEditTimes) {
+      editTimes = lastEditTimes.get(wikipedia);
+      if (editTimes == null) {
+        editTimes = new LinkedList<Long>();
+        lastEditTimes.put(wikipedia, editTimes);
+      }
+    }
+    synchronized (editTimes) {
       long currentTime = System.currentTimeMillis();
-      if ((minimumTime > 0) && (!lastEditTimes.isEmpty())) {
-        long lastEditTime = lastEditTimes.getLast();
+      if ((minimumTime > 0) && (!editTimes.isEmpty())) {
+        long lastEditTime = editTimes.getLast();
         if (currentTime < lastEditTime + minimumTime * 1000) {
           try {
             Thread.sleep(lastEditTime + minimumTime * 1000 - currentTime);
@@ -1765,20 +1957,21 @@ public class MediaWikiAPI implements API {
           currentTime = System.currentTimeMillis();
         }
       }
-      while ((!lastEditTimes.isEmpty()) &&
-             (lastEditTimes.getFirst() + 60 * 1000 <= currentTime)) {
-        lastEditTimes.removeFirst();
+      while ((!editTimes.isEmpty()) &&
+             (editTimes.getFirst() + 60 * 1000 <= currentTime)) {
+        editTimes.removeFirst();
       }
-      if ((maxEdits > 0) && (lastEditTimes.size() >= maxEdits)) {
+      if ((maxEdits > 0) && (editTimes.size() >= maxEdits)) {
         try {
-          Thread.sleep(lastEditTimes.getFirst() + 60 * 1000 - currentTime);
+          Thread.sleep(editTimes.getFirst() + 60 * 1000 - currentTime);
         } catch (InterruptedException e) {
           // Nothing to do
         }
         currentTime = System.currentTimeMillis();
       }
-      lastEditTimes.add(currentTime);
+      editTimes.add(currentTime);
     }
+    Metrics.getHistogram("edit.throttle").recordTimeSince(beginTime);
   }
 
   /**
@@ -10,6 +10,9 @@ package org.wikipediacleaner.api.impl;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.wikipediacleaner.api.API;
 import org.wikipediacleaner.api.RecentChangesListener;
@@ -19,9 +22,18 @@ import org.wikipediacleaner.api.data.RecentChange;
 
 /**
  * Utility class to manage Recent changes.
+ * 
+ * <p>
+ * Recent changes are received in a background thread and queued.
+ * A dispatcher thread takes them from the queue and notifies the listeners,
+ * so that slow listeners don't delay the reception of recent changes.
+ * </p>
  */
 class RecentChangesManager {
 
+  /** Maximum number of batches of recent changes waiting to be dispatched */
+  private final static int QUEUE_SIZE = 1000;
+
   /**
    * Wiki.
    */
@@ -35,13 +47,28 @@ class RecentChangesManager {
   /**
    * Listeners.
    */
-  private final List<RecentChangesListener> listeners = new ArrayList<RecentChangesListener>();
+  private final List<RecentChangesListener> listeners = new CopyOnWriteArrayList<RecentChangesListener>();
 
   /**
    * Runnabel for querying recent changes.
    */
   private RecentChangesRunnable runnable;
 
+  /**
+   * Thread receiving recent changes.
+   */
+  private Thread receiver;
+
+  /**
+   * Queue of batches of recent changes waiting to be dispatched.
+   */
+  private final BlockingQueue<Batch> queue = new ArrayBlockingQueue<Batch>(QUEUE_SIZE);
+
+  /**
+   * Thread dispatching recent changes to the listeners.
+   */
+  private Thread dispatcher;
+
   /**
    * @param wiki Wiki.
    * @param api API.
@@ -73,6 +100,58 @@ class RecentChangesManager {
     listenersChanged();
   }
 
+  /**
+   * Queue recent changes for dispatching them to the listeners.
+   * 
+   * @param rc Recent changes.
+   * @param currentTime Current time.
+   */
+  public void queueRecentChanges(List<RecentChange> rc, Date currentTime) {
+    if ((rc == null) || rc.isEmpty()) {
+      return;
+    }
+    try {
+      queue.put(new Batch(rc, currentTime));
+    } catch (InterruptedException e) {
+      // Nothing to do.
+    }
+  }
+
+  /**
+   * Dispatch queued recent changes to the listeners.
+   * 
+   * <p>
+   * All batches available in the queue are merged before being dispatched.
+   * </p>
+   */
+  void dispatchRecentChanges() {
+    List<Batch> batches = new ArrayList<Batch>();
+    while (!Thread.currentThread().isInterrupted()) {
+      try {
+        batches.add(queue.take());
+      } catch (InterruptedException e) {
+        // Dispatching has been stopped
+        return;
+      }
+      queue.drainTo(batches);
+      if (batches.size() == 1) {
+        fireRecentChanges(batches.get(0).rc, batches.get(0).currentTime);
+      } else {
+        List<RecentChange> rc = new ArrayList<RecentChange>();
+        Date currentTime = null;
+        for (Batch batch : batches) {
+          rc.addAll(0, batch.rc);
+          if ((currentTime == null) ||
+              ((batch.currentTime != null) && batch.currentTime.after(currentTime))) {
+            currentTime = batch.currentTime;
+          }
+        }
+        fireRecentChanges(rc, currentTime);
+      }
+      batches.clear();
+    }
+  }
+
   /**
    * Invoked when Recent changes occured.
    * 
@@ -88,16 +167,59 @@ class RecentChangesManager {
   /**
    * Event fired when the list of listeners has changed.
    */
-  private void listenersChanged() {
+  private synchronized void listenersChanged() {
     if (listeners.isEmpty()) {
       if (runnable != null) {
         runnable.shouldStop();
+        runnable = null;
+      }
+      if (receiver != null) {
+        receiver.interrupt();
+        receiver = null;
       }
+      if (dispatcher != null) {
+        dispatcher.interrupt();
+        dispatcher = null;
+      }
+      queue.clear();
     } else {
+      if (dispatcher == null) {
+        dispatcher = new Thread(new Runnable() {
+
+          @Override
+          public void run() {
+            dispatchRecentChanges();
+          }
+        }, "RecentChangesDispatcher-" + wiki.getSettings().getCode());
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+      }
       if (runnable == null) {
         runnable = new RecentChangesRunnable(this, wiki, api);
-        new Thread(runnable, "RecentChanges-" + wiki.getSettings().getCode()).start();
+        receiver = new Thread(runnable, "RecentChanges-" + wiki.getSettings().getCode());
+        receiver.start();
       }
     }
   }
+
+  /**
+   * Batch of recent changes.
+   */
+  private static class Batch {
+
+    /** Recent changes, most recent first */
+    final List<RecentChange> rc;
+
+    /** Current time */
+    final Date currentTime;
+
+    /**
+     * @param rc Recent changes.
+     * @param currentTime Current time.
+     */
+    Batch(List<RecentChange> rc, Date currentTime) {
+      this.rc = rc;
+      this.currentTime = currentTime;
+    }
+  }
 }
@@ -7,11 +7,14 @@
 
 package org.wikipediacleaner.api.impl;
 
+import java.io.IOException;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.wikipediacleaner.api.API;
 import org.wikipediacleaner.api.APIException;
 import org.wikipediacleaner.api.constants.EnumWikipedia;
@@ -20,10 +23,28 @@ import org.wikipediacleaner.api.data.RecentChange;
 
 
 /**
- * Runnable for querying recent changes.
+ * Runnable for receiving recent changes.
+ * 
+ * <p>
+ * Recent changes are read from the event stream when it is available for the wiki.
+ * Otherwise, or when the stream fails, the API is queried for recent changes
+ * with an interval adapted to the activity of the wiki.
+ * </p>
  */
 class RecentChangesRunnable implements Runnable {
 
+  /** Logger */
+  private final static Logger log = LoggerFactory.getLogger(RecentChangesRunnable.class);
+
+  /** Minimum interval between two queries (in milliseconds) */
+  private final static long MIN_INTERVAL = 5000;
+
+  /** Maximum interval between two queries (in milliseconds) */
+  private final static long MAX_INTERVAL = 30000;
+
+  /** Number of queries before trying the event stream again */
+  private final static int QUERIES_BEFORE_STREAM_RETRY = 20;
+
   /**
    * Recent changes manager.
    */
@@ -39,15 +60,25 @@ class RecentChangesRunnable implements Runnable {
    */
   private final API api;
 
+  /**
+   * Event stream, null if not available for the wiki.
+   */
+  private final RecentChangesStream stream;
+
   /**
    * Start for next recent changes request.
    */
   private String start;
 
+  /**
+   * Current interval between two queries (in milliseconds).
+   */
+  private long interval;
+
   /**
    * Flag set when it is requested to stop querying for recent changes.
    */
-  private boolean shouldStop;
+  private volatile boolean shouldStop;
 
   /**
    * @param manager Recent changes manager.
@@ -60,32 +91,73 @@ class RecentChangesRunnable implements Runnable {
     this.manager = manager;
     this.wiki = wiki;
     this.api = api;
+    this.stream = RecentChangesStream.isAvailable(wiki) ?
+        new RecentChangesStream(wiki, null) : null;
+    this.interval = MAX_INTERVAL;
   }
 
   /**
-   * Regularly query the API for recent changes.
+   * Receive recent changes from the event stream or regularly query the API.
    * 
    * @see java.lang.Runnable#run()
    */
   @Override
   public void run() {
     while (!shouldStop) {
-      try {
-        List<RecentChange> recentChanges = new ArrayList<RecentChange>();
-        start = api.getRecentChanges(wiki, start, recentChanges);
-        if (!recentChanges.isEmpty()) {
-          Date currentTime = DataManager.convertIso8601DateTime(start);
-          manager.fireRecentChanges(recentChanges, currentTime);
+
+      // Read event stream
+      if (stream != null) {
+        boolean streamFailed = false;
+        try {
+          stream.read(manager, start);
+        } catch (IOException e) {
+          streamFailed = true;
+          if (!shouldStop) {
+            log.warn("Recent changes stream unavailable, falling back to queries: " + e.getMessage());
+          }
+        }
+        if (stream.getLastTimestamp() != null) {
+          start = stream.getLastTimestamp();
+        }
+        if (!streamFailed) {
+          // Stream closed by the server: reconnect
+          try {
+            Thread.sleep(MIN_INTERVAL);
+          } catch (InterruptedException e) {
+            // Nothing to do.
+          }
+          continue;
         }
-      } catch (APIException e) {
-        // Nothing to do.
-      } catch (ParseException e) {
-        // Nothing to do.
       }
-      try {
-        Thread.sleep(30000);
-      } catch (InterruptedException e) {
-        // Nothing to do.
+
+      // Query the API
+      int count = 0;
+      while (!shouldStop && ((stream == null) || (count < QUERIES_BEFORE_STREAM_RETRY))) {
+        count++;
+        boolean changes = false;
+        try {
+          List<RecentChange> recentChanges = new ArrayList<RecentChange>();
+          start = api.getRecentChanges(wiki, start, recentChanges);
+          if (!recentChanges.isEmpty()) {
+            changes = true;
+            Date currentTime = DataManager.convertIso8601DateTime(start);
+            manager.queueRecentChanges(recentChanges, currentTime);
+          }
+        } catch (APIException e) {
+          // Nothing to do.
+        } catch (ParseException e) {
+          // Nothing to do.
+        }
+        if (changes) {
+          interval = Math.max(MIN_INTERVAL, interval / 2);
+        } else {
+          interval = Math.min(MAX_INTERVAL, interval * 2);
+        }
+        try {
+          Thread.sleep(interval);
+        } catch (InterruptedException e) {
+          // Nothing to do.
+        }
       }
     }
   }
@@ -95,5 +167,8 @@ class RecentChangesRunnable implements Runnable {
    */
   public void shouldStop() {
     shouldStop = true;
+    if (stream != null) {
+      stream.shouldStop();
+    }
   }
 }
@@ -0,0 +1,287 @@
+/*
+ *  WPCleaner: A tool to help on Wikipedia maintenance tasks.
+ *  Copyright (C) 2020  Nicolas Vervelle
+ *
+ *  See README.txt file for licensing information.
+ */
+
+package org.wikipediacleaner.api.impl;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wikipediacleaner.api.constants.EnumWikipedia;
+import org.wikipediacleaner.api.data.RecentChange;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+
+/**
+ * Reader for the recent changes feed of Wikimedia EventStreams (Server-Sent Events).
+ */
+class RecentChangesStream {
+
+  /** Logger */
+  private final static Logger log = LoggerFactory.getLogger(RecentChangesStream.class);
+
+  /** Default URL of the recent changes stream */
+  public final static String DEFAULT_URL = "https://stream.wikimedia.org/v2/stream/recentchange";
+
+  /** Domains of the wikis for which the recent changes are available in the stream */
+  private final static String[] WIKIMEDIA_DOMAINS = {
+    ".mediawiki.org",
+    ".wikibooks.org",
+    ".wikidata.org",
+    ".wikimedia.org",
+    ".wikinews.org",
+    ".wikipedia.org",
+    ".wikiquote.org",
+    ".wikisource.org",
+    ".wikiversity.org",
+    ".wikivoyage.org",
+    ".wiktionary.org",
+  };
+
+  /** Timeout for connecting to the stream (in milliseconds) */
+  private final static int CONNECT_TIMEOUT = 30000;
+
+  /** Timeout for reading the stream (in milliseconds) */
+  private final static int READ_TIMEOUT = 60000;
+
+  /** Wiki */
+  private final EnumWikipedia wiki;
+
+  /** URL of the stream */
+  private final String url;
+
+  /** Identifier of the last event received, used to resume the stream */
+  private String lastEventId;
+
+  /** Timestamp of the last recent change received */
+  private String lastTimestamp;
+
+  /** Current connection */
+  private HttpURLConnection connection;
+
+  /** Flag set when it is requested to stop reading the stream */
+  private volatile boolean shouldStop;
+
+  /** JSON parser */
+  private final ObjectMapper mapper;
+
+  /** Formatter for timestamps, in the format used by the API */
+  private final SimpleDateFormat timestampFormat;
+
+  /**
+   * @param wiki Wiki.
+   * @param url URL of the stream.
+   */
+  public RecentChangesStream(EnumWikipedia wiki, String url) {
+    this.wiki = wiki;
+    this.url = (url != null) ? url : DEFAULT_URL;
+    this.mapper = new ObjectMapper();
+    this.timestampFormat = new SimpleDateFormat("yyyy'-'MM'-'dd'T'HH':'mm':'ss'Z'");
+    this.timestampFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+  }
+
+  /**
+   * @param wiki Wiki.
+   * @return True if the recent changes of the wiki are available in the stream.
+   */
+  public static boolean isAvailable(EnumWikipedia wiki) {
+    if ((wiki == null) || (wiki.getSettings() == null)) {
+      return false;
+    }
+    String host = wiki.getSettings().getHost();
+    if (host == null) {
+      return false;
+    }
+    for (String domain : WIKIMEDIA_DOMAINS) {
+      if (host.endsWith(domain)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return Timestamp of the last recent change received.
+   */
+  public String getLastTimestamp() {
+    return lastTimestamp;
+  }
+
+  /**
+   * Read the stream until an error occurs or until it is requested to stop.
+   * 
+   * @param manager Recent changes manager to which recent changes are sent.
+   * @param since Timestamp from which to resume when no event has been received yet.
+   * @throws IOException Error reading the stream.
+   */
+  public void read(RecentChangesManager manager, String since) throws IOException {
+    InputStream stream = null;
+    try {
+      synchronized (this) {
+        if (shouldStop) {
+          return;
+        }
+        String fullUrl = url;
+        if ((lastEventId == null) && (since != null)) {
+          fullUrl += "?since=" + URLEncoder.encode(since, "UTF-8");
+        }
+        connection = (HttpURLConnection) new URL(fullUrl).openConnection();
+      }
+      connection.setConnectTimeout(CONNECT_TIMEOUT);
+      connection.setReadTimeout(READ_TIMEOUT);
+      connection.setRequestProperty("Accept", "text/event-stream");
+      connection.setRequestProperty(
+          "User-Agent",
+          "WPCleaner (+http://en.wikipedia.org/wiki/User:NicoV/Wikipedia_Cleaner/Documentation)");
+      if (lastEventId != null) {
+        connection.setRequestProperty("Last-Event-ID", lastEventId);
+      }
+      int statusCode = connection.getResponseCode();
+      if (statusCode != HttpURLConnection.HTTP_OK) {
+        throw new IOException("Stream access returned " + statusCode);
+      }
+      stream = connection.getInputStream();
+      BufferedReader reader = new BufferedReader(
+          new InputStreamReader(stream, StandardCharsets.UTF_8));
+
+      // Read events
+      String eventId = null;
+      StringBuilder data = new StringBuilder();
+      String line = null;
+      while (!shouldStop && ((line = reader.readLine()) != null)) {
+        if (line.isEmpty()) {
+          // End of an event
+          if (data.length() > 0) {
+            RecentChange rc = parseEvent(data.toString());
+            if (rc != null) {
+              List<RecentChange> rcs = new ArrayList<>(1);
+              rcs.add(rc);
+              manager.queueRecentChanges(rcs, rc.getTimestamp());
+            }
+          }
+          if (eventId != null) {
+            lastEventId = eventId;
+          }
+          eventId = null;
+          data.setLength(0);
+        } else if (line.startsWith(":")) {
+          // Comment, ignored
+        } else {
+          int colonIndex = line.indexOf(':');
+          String field = (colonIndex < 0) ? line : line.substring(0, colonIndex);
+          String value = "";
+          if (colonIndex >= 0) {
+            value = line.substring(colonIndex + 1);
+            if (value.startsWith(" ")) {
+              value = value.substring(1);
+            }
+          }
+          if ("data".equals(field)) {
+            if (data.length() > 0) {
+              data.append('\n');
+            }
+            data.append(value);
+          } else if ("id".equals(field)) {
+            eventId = value;
+          }
+        }
+      }
+    } finally {
+      if (stream != null) {
+        try {
+          stream.close();
+        } catch (IOException e) {
+          // Nothing to do
+        }
+      }
+      synchronized (this) {
+        if (connection != null) {
+          connection.disconnect();
+          connection = null;
+        }
+      }
+    }
+  }
+
+  /**
+   * Parse an event of the stream.
+   * 
+   * @param data Data of the event.
+   * @return Recent change if the event is for the wiki.
+   */
+  private RecentChange parseEvent(String data) {
+    try {
+      JsonNode root = mapper.readTree(data);
+      if ((root == null) || !root.isObject()) {
+        return null;
+      }
+      String host = wiki.getSettings().getHost();
+      if ((host == null) || !host.equals(root.path("server_name").asText())) {
+        return null;
+      }
+      JsonNode revision = root.path("revision");
+      RecentChange rc = new RecentChange(
+          root.path("id").asInt(), root.path("namespace").asInt(),
+          root.path("title").asText(), 0,
+          revision.path("new").asInt());
+      String type = root.path("type").asText(null);
+      rc.setType(type);
+      rc.setNew(RecentChange.TYPE_NEW.equals(type));
+      rc.setBot(root.path("bot").asBoolean());
+      rc.setMinor(root.path("minor").asBoolean());
+      rc.setComment(root.path("comment").asText(null));
+      rc.setUser(root.path("user").asText(null));
+      rc.setLogType(root.path("log_type").asText(null));
+      rc.setLogAction(root.path("log_action").asText(null));
+
+      // Timestamp: the numeric value is used because meta.dt may contain fractional seconds
+      JsonNode timestampNode = root.path("timestamp");
+      if (!timestampNode.canConvertToLong()) {
+        return null;
+      }
+      String timestamp = null;
+      synchronized (timestampFormat) {
+        timestamp = timestampFormat.format(new Date(timestampNode.asLong() * 1000));
+      }
+      rc.setTimestamp(timestamp);
+      if (rc.getTimestamp() == null) {
+        return null;
+      }
+      lastTimestamp = timestamp;
+      return rc;
+    } catch (IOException e) {
+      log.warn("Unable to parse event from recent changes stream", e);
+      return null;
+    }
+  }
+
+  /**
+   * Called to stop reading the stream.
+   */
+  public void shouldStop() {
+    shouldStop = true;
+    synchronized (this) {
+      if (connection != null) {
+        connection.disconnect();
+      }
+    }
+  }
+}
@@ -0,0 +1,150 @@
+/*
+ *  WPCleaner: A tool to help on Wikipedia maintenance tasks.
+ *  Copyright (C) 2020  Nicolas Vervelle
+ *
+ *  See README.txt file for licensing information.
+ */
+
+
+package org.wikipediacleaner.api.linter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.wikipediacleaner.api.APIException;
+import org.wikipediacleaner.api.constants.EnumWikipedia;
+
+
+/**
+ * Cache of linter errors, keyed by wiki, page title and hash of the text.
+ * 
+ * <p>
+ * The least recently used entries are removed when the cache is full.
+ * Simultaneous requests for the same text are collapsed into a single call.
+ * </p>
+ */
+public class LinterErrorsCache {
+
+  /** Default maximum number of entries */
+  public final static int DEFAULT_MAX_ENTRIES = 100;
+
+  /** Maximum number of entries */
+  final int maxEntries;
+
+  /** Cached linter errors */
+  private final Map<String, List<LinterError>> errors;
+
+  /** Requests in progress */
+  private final Map<String, FutureTask<List<LinterError>>> inProgress;
+
+  /**
+   * @param maxEntries Maximum number of entries.
+   */
+  public LinterErrorsCache(int maxEntries) {
+    this.maxEntries = maxEntries;
+    this.errors = new LinkedHashMap<String, List<LinterError>>(16, 0.75f, true) {
+
+      /** Serialisation */
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, List<LinterError>> eldest) {
+        return size() > LinterErrorsCache.this.maxEntries;
+      }
+    };
+    this.inProgress = new HashMap<>();
+  }
+
+  /**
+   * Retrieve linter errors, either from the cache or by calling the loader.
+   * 
+   * @param wiki Wiki.
+   * @param title Page title.
+   * @param text Wiki text to analyze.
+   * @param loader Loader for the linter errors if they are not in the cache.
+   * @return List of errors found in the wiki text (a new list that can be modified).
+   * @throws APIException Exception thrown by the loader.
+   */
+  public List<LinterError> get(
+      EnumWikipedia wiki, String title, String text,
+      Callable<List<LinterError>> loader) throws APIException {
+    String key = getKey(wiki, title, text);
+
+    // Check if the errors are available or being retrieved
+    FutureTask<List<LinterError>> task = null;
+    boolean owner = false;
+    synchronized (this) {
+      if (errors.containsKey(key)) {
+        return copy(errors.get(key));
+      }
+      task = inProgress.get(key);
+      if (task == null) {
+        task = new FutureTask<>(loader);
+        inProgress.put(key, task);
+        owner = true;
+      }
+    }
+
+    // Retrieve the errors
+    if (owner) {
+      task.run();
+    }
+    try {
+      List<LinterError> result = task.get();
+      if (owner) {
+        synchronized (this) {
+          if (result != null) {
+            errors.put(key, new ArrayList<>(result));
+          }
+        }
+      }
+      return copy(result);
+    } catch (InterruptedException e) {
+      throw new APIException("Interrupted while retrieving linter errors", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof APIException) {
+        throw (APIException) e.getCause();
+      }
+      throw new APIException("Error retrieving linter errors", e.getCause());
+    } finally {
+      if (owner) {
+        synchronized (this) {
+          inProgress.remove(key);
+        }
+      }
+    }
+  }
+
+  /**
+   * Remove all entries from the cache.
+   */
+  public synchronized void clear() {
+    errors.clear();
+  }
+
+  /**
+   * @param list List of errors.
+   * @return Copy of the list of errors.
+   */
+  private static List<LinterError> copy(List<LinterError> list) {
+    return (list != null) ? new ArrayList<>(list) : null;
+  }
+
+  /**
+   * @param wiki Wiki.
+   * @param title Page title.
+   * @param text Wiki text.
+   * @return Key in the cache.
+   */
+  private static String getKey(EnumWikipedia wiki, String title, String text) {
+    return wiki.getSettings().getCode() + "|" + title + "|" +
+        DigestUtils.sha256Hex((text != null) ? text : "");
+  }
+}
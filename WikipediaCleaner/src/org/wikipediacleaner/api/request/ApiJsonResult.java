@@ -28,6 +28,8 @@ import org.wikipediacleaner.api.data.DataManager;
 import org.wikipediacleaner.api.data.Page;
 import org.wikipediacleaner.utils.Configuration;
 import org.wikipediacleaner.utils.ConfigurationValueBoolean;
+import org.wikipediacleaner.utils.metrics.CountingInputStream;
+import org.wikipediacleaner.utils.metrics.Metrics;
 
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -96,20 +98,27 @@ public abstract class ApiJsonResult extends BasicApiResult {
       Map<String, String> properties,
       int maxTry)
           throws APIException {
+    String metricName = getMetricName(properties);
     int attempt = 0;
     for (;;) {
       JsonNode root = null;
       HttpMethod method = null;
       InputStream stream = null;
+      CountingInputStream countingStream = null;
+      long beginTime = System.nanoTime();
       try {
         // Executing HTTP method
         attempt++;
+        if (attempt > 1) {
+          Metrics.getCounter(metricName + ".retries").increment();
+        }
         method = createHttpMethod(properties);
         int statusCode = getHttpClient().executeMethod(method);
 
         // Accessing response
         stream = method.getResponseBodyAsStream();
-        stream = new BufferedInputStream(stream);
+        countingStream = new CountingInputStream(stream);
+        stream = new BufferedInputStream(countingStream);
         Header contentEncoding = method.getResponseHeader("Content-Encoding");
         if (contentEncoding != null) {
           if (contentEncoding.getValue().equals("gzip")) {
@@ -177,6 +186,10 @@ public abstract class ApiJsonResult extends BasicApiResult {
         if (method != null) {
           method.releaseConnection();
         }
+        Metrics.getHistogram(metricName + ".time").recordTimeSince(beginTime);
+        if (countingStream != null) {
+          Metrics.getHistogram(metricName + ".bytes").record(countingStream.getCount());
+        }
       }
       log.warn("Error. Trying again");
     }
@@ -127,6 +127,11 @@ public abstract class ApiRequest {
    */
   public final static int MAX_PAGES_PER_QUERY = 50;
 
+  /**
+   * Maximum number of pages in a request for users with high limits (bots, ...).
+   */
+  public final static int MAX_PAGES_PER_QUERY_HIGH_LIMITS = 500;
+
   /**
    * Maximum size for an URL encoded list.
    */
@@ -114,6 +114,27 @@ public abstract class BasicApiResult implements ApiResult {
     return false;
   }
 
+  /**
+   * @param properties Properties to drive the API.
+   * @return Name used for metrics about the request.
+   */
+  protected static String getMetricName(Map<String, String> properties) {
+    if (properties == null) {
+      return "api.unknown";
+    }
+    StringBuilder name = new StringBuilder("api.");
+    String action = properties.get("action");
+    name.append((action != null) ? action : "unknown");
+    for (String type : new String[] { "list", "prop", "meta", "generator" }) {
+      String value = properties.get(type);
+      if (value != null) {
+        name.append('.');
+        name.append(value.replace('|', '+'));
+      }
+    }
+    return name.toString();
+  }
+
   /**
    * @param properties Properties to drive the API.
    * @return True if GET method can be used.
@@ -10,15 +10,27 @@ package org.wikipediacleaner.api.request.query.list;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.wikipediacleaner.api.APIException;
+import org.wikipediacleaner.api.CategoryMembersListener;
 import org.wikipediacleaner.api.constants.EnumWikipedia;
 import org.wikipediacleaner.api.data.Namespace;
 import org.wikipediacleaner.api.data.Page;
 import org.wikipediacleaner.utils.ConfigurationValueInteger;
+import org.wikipediacleaner.utils.NamedThreadFactory;
 
 
 /**
@@ -169,6 +181,35 @@ public class ApiCategoryMembersRequest extends ApiListRequest {
   // Request management
   // ==========================================================================
 
+  /** Maximum number of simultaneous requests per wiki when crawling category trees */
+  private final static int MAX_SIMULTANEOUS_REQUESTS = 4;
+
+  /** Executors for crawling category trees, shared by all requests on the same wiki */
+  private final static Map<EnumWikipedia, ExecutorService> executors = new HashMap<>();
+
+  /**
+   * @param wiki Wiki.
+   * @return Executor shared by all category tree crawls on the wiki.
+   */
+  private static ExecutorService getExecutor(EnumWikipedia wiki) {
+    synchronized (executors) {
+      ExecutorService executor = executors.get(wiki);
+      if (executor == null) {
+        ThreadPoolExecutor tmpExecutor = new ThreadPoolExecutor(
+            MAX_SIMULTANEOUS_REQUESTS, MAX_SIMULTANEOUS_REQUESTS,
+            60, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>(),
+            new NamedThreadFactory(
+                Executors.defaultThreadFactory(),
+                "CategoryMembers-" + wiki.getSettings().getCode() + "-{0}"));
+        tmpExecutor.allowCoreThreadTimeOut(true);
+        executor = tmpExecutor;
+        executors.put(wiki, executor);
+      }
+      return executor;
+    }
+  }
+
   private final ApiCategoryMembersResult result;
 
   /**
@@ -192,55 +233,201 @@ public class ApiCategoryMembersRequest extends ApiListRequest {
   public void loadCategoryMembers(
       Page category,
       int depth, boolean limit, int max) throws APIException {
+    loadCategoryMembers(category, depth, limit, max, null);
+  }
+
+  /**
+   * Load list of category members.
+   * 
+   * <p>
+   * The category tree is crawled breadth-first: all the categories of a given depth
+   * are analyzed in parallel before the categories of the next depth.
+   * </p>
+   * 
+   * @param category Category for which members are requested.
+   * @param depth Depth of lookup for sub-categories.
+   * @param limit Flag indicating if the number of results should be limited.
+   * @param max Absolute maximum number of results
+   * @param listener Listener notified as soon as members of a category are retrieved.
+   * @throws APIException Exception thrown by the API.
+   */
+  public void loadCategoryMembers(
+      Page category,
+      int depth, boolean limit, int max,
+      CategoryMembersListener listener) throws APIException {
 
-    List<String> categoriesAnalyzed = new ArrayList<String>();
-    Map<Page, Integer> categories = new HashMap<Page, Integer>();
-    categories.put(category, Integer.valueOf(0));
     int maxSize = getMaxSize(limit, ConfigurationValueInteger.MAX_CATEGORY_MEMBERS);
     maxSize = Math.min(maxSize, max);
-    while (!categories.isEmpty()) {
-
-      // Find which category to analyze
-      Entry<Page, Integer> entry = categories.entrySet().iterator().next();
-      Page currentCategory = entry.getKey();
-      categories.remove(currentCategory);
-      int currentDepth = entry.getValue().intValue();
-      String categoryName = currentCategory.getTitle();
-      int colonIndex = categoryName.indexOf(':');
-      if (colonIndex < 0) {
-        categoryName = getWiki().getWikiConfiguration().getPageTitle(
-            Namespace.CATEGORY, categoryName);
-      } else {
-        Namespace namespaceCategory = getWiki().getWikiConfiguration().getNamespace(Namespace.CATEGORY);
-        if (!namespaceCategory.isPossibleName(categoryName.substring(0, colonIndex))) {
-          categoryName = getWiki().getWikiConfiguration().getPageTitle(Namespace.CATEGORY, categoryName);
+    Set<String> categoriesAnalyzed = new HashSet<>();
+    List<Page> currentLevel = new ArrayList<>();
+    currentLevel.add(category);
+    categoriesAnalyzed.add(Page.normalizeTitle(getCategoryName(category)));
+    List<Future<CategoryMembers>> futures = new ArrayList<>();
+    try {
+      for (int currentDepth = 0; !currentLevel.isEmpty(); currentDepth++) {
+
+        // Analyze all categories of the current depth
+        List<CategoryMembers> levelResults = new ArrayList<>(currentLevel.size());
+        if (currentLevel.size() == 1) {
+          levelResults.add(retrieveCategoryMembers(currentLevel.get(0), currentDepth, maxSize));
+        } else {
+          ExecutorService executor = getExecutor(getWiki());
+          futures.clear();
+          for (final Page currentCategory : currentLevel) {
+            final int tmpDepth = currentDepth;
+            final int tmpMaxSize = maxSize;
+            futures.add(executor.submit(new Callable<CategoryMembers>() {
+
+              @Override
+              public CategoryMembers call() throws APIException {
+                return retrieveCategoryMembers(currentCategory, tmpDepth, tmpMaxSize);
+              }
+            }));
+          }
+          for (Future<CategoryMembers> future : futures) {
+            try {
+              levelResults.add(future.get());
+            } catch (InterruptedException e) {
+              throw new APIException("Interrupted while retrieving category members", e);
+            } catch (ExecutionException e) {
+              if (e.getCause() instanceof APIException) {
+                throw (APIException) e.getCause();
+              }
+              throw new APIException("Error retrieving category members", e.getCause());
+            }
+          }
+        }
+
+        // Store results and prepare next depth
+        List<Page> nextLevel = new ArrayList<>();
+        for (CategoryMembers members : levelResults) {
+          members.category.setRelatedPages(Page.RelatedPages.CATEGORY_MEMBERS, members.members);
+          if (listener != null) {
+            listener.categoryMembers(members.category, currentDepth, members.members);
+          }
+          if (currentDepth < depth) {
+            for (Page subCategory : members.subCategories) {
+              if (categoriesAnalyzed.add(Page.normalizeTitle(getCategoryName(subCategory)))) {
+                nextLevel.add(subCategory);
+              }
+            }
+          }
         }
+        currentLevel = nextLevel;
+      }
+    } finally {
+      // Cancel requests that are still pending after a failure
+      for (Future<CategoryMembers> future : futures) {
+        future.cancel(true);
       }
-      boolean shouldAnalyze = true;
-      if (currentDepth > depth) {
-        shouldAnalyze = false;
+    }
+  }
+
+  /**
+   * Retrieve members of one category.
+   * 
+   * @param category Category.
+   * @param depth Depth of the category.
+   * @param maxSize Maximum number of members.
+   * @return Members of the category.
+   * @throws APIException Exception thrown by the API.
+   */
+  CategoryMembers retrieveCategoryMembers(
+      Page category, int depth, int maxSize) throws APIException {
+    Map<String, String> properties = getCategoryMembersProperties(getCategoryName(category));
+    List<Page> list = new ArrayList<Page>();
+    Map<Page, Integer> categories = new LinkedHashMap<Page, Integer>();
+    while (result.executeCategoryMembers(
+        properties, list, categories, depth) &&
+        (list.size() < maxSize)) {
+      //
+    }
+    Collections.sort(list);
+    List<Page> members = new ArrayList<Page>(list.size());
+    Page previous = null;
+    for (Page page : list) {
+      if ((previous == null) || !previous.equals(page)) {
+        members.add(page);
       }
-      if (categoriesAnalyzed.contains(categoryName)) {
-        shouldAnalyze = false;
+      previous = page;
+    }
+    return new CategoryMembers(category, members, categories.keySet());
+  }
+
+  /**
+   * Bean for holding the members of one category.
+   */
+  static class CategoryMembers {
+
+    /** Category */
+    final Page category;
+
+    /** Members of the category (without sub-categories) */
+    final List<Page> members;
+
+    /** Sub-categories */
+    final Set<Page> subCategories;
+
+    /**
+     * @param category Category.
+     * @param members Members of the category.
+     * @param subCategories Sub-categories.
+     */
+    CategoryMembers(Page category, List<Page> members, Set<Page> subCategories) {
+      this.category = category;
+      this.members = members;
+      this.subCategories = subCategories;
+    }
+  }
+
+  /**
+   * Iterate over the list of members of a category (without sub-categories lookup).
+   * 
+   * @param category Category for which members are requested.
+   * @return Iterator over the category members, in the order returned by the API.
+   */
+  public ApiListIterator<Page> iterateCategoryMembers(Page category) {
+    Map<String, String> properties = getCategoryMembersProperties(getCategoryName(category));
+    return createIterator(properties, new ApiListFetcher<Page>() {
+
+      @Override
+      public boolean fetch(Map<String, String> currentProperties, List<Page> list)
+          throws APIException {
+        return result.executeCategoryMembers(
+            currentProperties, list, new HashMap<Page, Integer>(), 0);
       }
+    }, false, Integer.MAX_VALUE);
+  }
 
-      // Analyze the category
-      if (shouldAnalyze) {
-        categoriesAnalyzed.add(categoryName);
-        Map<String, String> properties = getProperties(ACTION_QUERY, result.getFormat());
-        properties.put(PROPERTY_LIST, PROPERTY_LIST_CATEGORYMEMBERS);
-        properties.put(PROPERTY_CONTINUE, PROPERTY_CONTINUE_DEFAULT);
-        properties.put(PROPERTY_LIMIT, LIMIT_MAX);
-        properties.put(PROPERTY_TITLE, categoryName);
-        List<Page> list = new ArrayList<Page>();
-        while (result.executeCategoryMembers(
-            properties, list, categories, currentDepth) &&
-            (list.size() < maxSize)) {
-          //
-        }
-        Collections.sort(list);
-        currentCategory.setRelatedPages(Page.RelatedPages.CATEGORY_MEMBERS, list);
+  /**
+   * @param category Category.
+   * @return Full name of the category.
+   */
+  private String getCategoryName(Page category) {
+    String categoryName = category.getTitle();
+    int colonIndex = categoryName.indexOf(':');
+    if (colonIndex < 0) {
+      categoryName = getWiki().getWikiConfiguration().getPageTitle(
+          Namespace.CATEGORY, categoryName);
+    } else {
+      Namespace namespaceCategory = getWiki().getWikiConfiguration().getNamespace(Namespace.CATEGORY);
+      if (!namespaceCategory.isPossibleName(categoryName, 0, colonIndex)) {
+        categoryName = getWiki().getWikiConfiguration().getPageTitle(Namespace.CATEGORY, categoryName);
       }
     }
+    return categoryName;
+  }
+
+  /**
+   * @param categoryName Full name of the category.
+   * @return Properties for retrieving the list of category members.
+   */
+  private Map<String, String> getCategoryMembersProperties(String categoryName) {
+    Map<String, String> properties = getProperties(ACTION_QUERY, result.getFormat());
+    properties.put(PROPERTY_LIST, PROPERTY_LIST_CATEGORYMEMBERS);
+    properties.put(PROPERTY_CONTINUE, PROPERTY_CONTINUE_DEFAULT);
+    properties.put(PROPERTY_LIMIT, LIMIT_MAX);
+    properties.put(PROPERTY_TITLE, categoryName);
+    return properties;
   }
 }
@@ -88,14 +88,7 @@ public class ApiEmbeddedInRequest extends ApiListRequest {
   public void loadEmbeddedIn(
       Page page, List<Integer> namespaces,
       boolean limit) throws APIException {
-    Map<String, String> properties = getProperties(ACTION_QUERY, result.getFormat());
-    properties.put(PROPERTY_LIST, PROPERTY_LIST_EMBEDDEDIN);
-    properties.put(PROPERTY_CONTINUE, PROPERTY_CONTINUE_DEFAULT);
-    properties.put(PROPERTY_LIMIT, LIMIT_MAX);
-    if ((namespaces != null) && (namespaces.size() > 0)) {
-      properties.put(PROPERTY_NAMESPACE, constructList(namespaces));
-    }
-    properties.put(PROPERTY_TITLE, page.getTitle());
+    Map<String, String> properties = getEmbeddedInProperties(page, namespaces);
     List<Page> list = new ArrayList<Page>();
     int maxSize = getMaxSize(limit, ConfigurationValueInteger.MAX_EMBEDDED_IN);
     while (result.executeEmbeddedIn(properties, list) &&
@@ -105,4 +98,42 @@ public class ApiEmbeddedInRequest extends ApiListRequest {
     Collections.sort(list);
     page.setRelatedPages(Page.RelatedPages.EMBEDDED_IN, list);
   }
+
+  /**
+   * Iterate over the list of pages embedding a page.
+   * 
+   * @param page Page for list of embedding pages is requested.
+   * @param namespaces List of name spaces to restrict result.
+   * @return Iterator over the embedding pages, in the order returned by the API.
+   */
+  public ApiListIterator<Page> iterateEmbeddedIn(
+      Page page, List<Integer> namespaces) {
+    Map<String, String> properties = getEmbeddedInProperties(page, namespaces);
+    return createIterator(properties, new ApiListFetcher<Page>() {
+
+      @Override
+      public boolean fetch(Map<String, String> currentProperties, List<Page> list)
+          throws APIException {
+        return result.executeEmbeddedIn(currentProperties, list);
+      }
+    }, false, Integer.MAX_VALUE);
+  }
+
+  /**
+   * @param page Page for list of embedding pages is requested.
+   * @param namespaces List of name spaces to restrict result.
+   * @return Properties for retrieving the list of embedding pages.
+   */
+  private Map<String, String> getEmbeddedInProperties(
+      Page page, List<Integer> namespaces) {
+    Map<String, String> properties = getProperties(ACTION_QUERY, result.getFormat());
+    properties.put(PROPERTY_LIST, PROPERTY_LIST_EMBEDDEDIN);
+    properties.put(PROPERTY_CONTINUE, PROPERTY_CONTINUE_DEFAULT);
+    properties.put(PROPERTY_LIMIT, LIMIT_MAX);
+    if ((namespaces != null) && (namespaces.size() > 0)) {
+      properties.put(PROPERTY_NAMESPACE, constructList(namespaces));
+    }
+    properties.put(PROPERTY_TITLE, page.getTitle());
+    return properties;
+  }
 }
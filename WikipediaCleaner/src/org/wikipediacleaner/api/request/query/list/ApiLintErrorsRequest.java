@@ -71,14 +71,7 @@ public class ApiLintErrorsRequest extends ApiListRequest {
 
     int maxSize = getMaxSize(limit, ConfigurationValueInteger.MAX_LINT_ERRORS);
     maxSize = Math.min(maxSize, max);
-    Map<String, String> properties = getProperties(ACTION_QUERY, result.getFormat());
-    properties.put(PROPERTY_LIST, PROPERTY_LIST_LINTERRORS);
-    properties.put(PROPERTY_CONTINUE, PROPERTY_CONTINUE_DEFAULT);
-    properties.put(PROPERTY_LIMIT, LIMIT_MAX);
-    properties.put(PROPERTY_CATEGORIES, category);
-    if (namespace != null) {
-      properties.put(PROPERTY_NAMESPACE, namespace.toString());
-    }
+    Map<String, String> properties = getLintErrorsProperties(category, namespace);
     List<Page> list = new ArrayList<Page>();
     while (result.executeLinterCategory(
         properties, list, category, withTemplates) &&
@@ -88,4 +81,42 @@ public class ApiLintErrorsRequest extends ApiListRequest {
     Collections.sort(list);
     return list;
   }
+
+  /**
+   * Iterate over the list of lint errors.
+   * 
+   * @param category Linter category.
+   * @param namespace Optional name space.
+   * @param withTemplates True to retrieve also templates causing the error.
+   * @return Iterator over the pages with the error, in the order returned by the API.
+   */
+  public ApiListIterator<Page> iterateLintErrors(
+      final String category, Integer namespace, final boolean withTemplates) {
+    Map<String, String> properties = getLintErrorsProperties(category, namespace);
+    return createIterator(properties, new ApiListFetcher<Page>() {
+
+      @Override
+      public boolean fetch(Map<String, String> currentProperties, List<Page> list)
+          throws APIException {
+        return result.executeLinterCategory(currentProperties, list, category, withTemplates);
+      }
+    }, true, Integer.MAX_VALUE);
+  }
+
+  /**
+   * @param category Linter category.
+   * @param namespace Optional name space.
+   * @return Properties for retrieving the list of lint errors.
+   */
+  private Map<String, String> getLintErrorsProperties(String category, Integer namespace) {
+    Map<String, String> properties = getProperties(ACTION_QUERY, result.getFormat());
+    properties.put(PROPERTY_LIST, PROPERTY_LIST_LINTERRORS);
+    properties.put(PROPERTY_CONTINUE, PROPERTY_CONTINUE_DEFAULT);
+    properties.put(PROPERTY_LIMIT, LIMIT_MAX);
+    properties.put(PROPERTY_CATEGORIES, category);
+    if (namespace != null) {
+      properties.put(PROPERTY_NAMESPACE, namespace.toString());
+    }
+    return properties;
+  }
 }
@@ -0,0 +1,34 @@
+/*
+ *  WPCleaner: A tool to help on Wikipedia maintenance tasks.
+ *  Copyright (C) 2020  Nicolas Vervelle
+ *
+ *  See README.txt file for licensing information.
+ */
+
+package org.wikipediacleaner.api.request.query.list;
+
+import java.util.List;
+import java.util.Map;
+
+import org.wikipediacleaner.api.APIException;
+
+
+/**
+ * Interface for executing one request of a list query.
+ * 
+ * @param <T> Type of results.
+ */
+public interface ApiListFetcher<T> {
+
+  /**
+   * Execute one request of a list query.
+   * 
+   * @param properties Properties defining request (updated for continuation).
+   * @param list List to be filled with results.
+   * @return True if request should be continued.
+   * @throws APIException Exception thrown by the API.
+   */
+  public boolean fetch(
+      Map<String, String> properties,
+      List<T> list) throws APIException;
+}
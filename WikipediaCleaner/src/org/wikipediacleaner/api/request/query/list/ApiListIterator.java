@@ -0,0 +1,199 @@
+/*
+ *  WPCleaner: A tool to help on Wikipedia maintenance tasks.
+ *  Copyright (C) 2020  Nicolas Vervelle
+ *
+ *  See README.txt file for licensing information.
+ */
+
+package org.wikipediacleaner.api.request.query.list;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.wikipediacleaner.api.APIException;
+import org.wikipediacleaner.api.ResultIterator;
+
+
+/**
+ * Iterator over the results of a list query, driven by continuation.
+ * 
+ * <p>
+ * Results are retrieved one request at a time:
+ * the next request is sent in the background while the results of the current one are consumed.
+ * Background requests run in a shared pool whose idle threads expire,
+ * so an iterator abandoned without being closed keeps no thread alive
+ * once its only pending request is finished.
+ * </p>
+ * 
+ * @param <T> Type of results.
+ */
+public class ApiListIterator<T> implements ResultIterator<T> {
+
+  /** Executor for the background requests, shared by all iterators */
+  private final static ExecutorService executor = Executors.newCachedThreadPool(new ThreadFactory() {
+
+    @Override
+    public Thread newThread(Runnable r) {
+      Thread thread = new Thread(r, "ApiListIterator");
+      thread.setDaemon(true);
+      return thread;
+    }
+  });
+
+  /** Properties defining request */
+  final Map<String, String> properties;
+
+  /** Executor of one request */
+  final ApiListFetcher<T> fetcher;
+
+  /** True if results appearing several times should be returned only once */
+  private final boolean deduplicate;
+
+  /**
+   * Results of the previous request, null if results are not deduplicated.
+   * Only duplicates between consecutive requests (results repeated around a continuation)
+   * are removed, so that memory doesn't depend on the number of results.
+   */
+  private Set<T> previousResults;
+
+  /** Maximum number of results */
+  private final int maxSize;
+
+  /** Results available */
+  private final LinkedList<T> results;
+
+  /** Pending request */
+  private Future<Boolean> pending;
+
+  /** Results of the pending request */
+  private List<T> pendingResults;
+
+  /** Number of results returned */
+  private int count;
+
+  /**
+   * @param properties Properties defining request.
+   * @param fetcher Executor of one request.
+   * @param deduplicate True if results appearing several times should be returned only once.
+   * @param maxSize Maximum number of results.
+   */
+  public ApiListIterator(
+      Map<String, String> properties,
+      ApiListFetcher<T> fetcher,
+      boolean deduplicate, int maxSize) {
+    this.properties = properties;
+    this.fetcher = fetcher;
+    this.deduplicate = deduplicate;
+    this.previousResults = null;
+    this.maxSize = maxSize;
+    this.results = new LinkedList<>();
+    submit();
+  }
+
+  /**
+   * Send the next request in the background.
+   */
+  private void submit() {
+    final List<T> list = new ArrayList<>();
+    pendingResults = list;
+    pending = executor.submit(new Callable<Boolean>() {
+
+      @Override
+      public Boolean call() throws APIException {
+        return Boolean.valueOf(fetcher.fetch(properties, list));
+      }
+    });
+  }
+
+  /**
+   * @return True if there are more results.
+   * @throws APIException Exception thrown by the API.
+   * @see org.wikipediacleaner.api.ResultIterator#hasNext()
+   */
+  @Override
+  public boolean hasNext() throws APIException {
+    if (count >= maxSize) {
+      close();
+      return false;
+    }
+    while (results.isEmpty() && (pending != null)) {
+
+      // Wait for the pending request
+      boolean shouldContinue = false;
+      try {
+        shouldContinue = pending.get().booleanValue();
+      } catch (InterruptedException e) {
+        close();
+        throw new APIException("Interrupted while retrieving list", e);
+      } catch (ExecutionException e) {
+        close();
+        if (e.getCause() instanceof APIException) {
+          throw (APIException) e.getCause();
+        }
+        throw new APIException("Error retrieving list", e.getCause());
+      }
+      List<T> list = pendingResults;
+
+      // Send the next request while the results are consumed
+      if (shouldContinue) {
+        submit();
+      } else {
+        close();
+      }
+
+      // Keep new results
+      if (deduplicate) {
+        Set<T> currentResults = new HashSet<>(list.size());
+        for (T result : list) {
+          if (currentResults.add(result) &&
+              ((previousResults == null) || !previousResults.contains(result))) {
+            results.add(result);
+          }
+        }
+        previousResults = currentResults;
+      } else {
+        results.addAll(list);
+      }
+    }
+    return !results.isEmpty();
+  }
+
+  /**
+   * @return Next result.
+   * @throws APIException Exception thrown by the API.
+   * @see org.wikipediacleaner.api.ResultIterator#next()
+   */
+  @Override
+  public T next() throws APIException {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    count++;
+    return results.removeFirst();
+  }
+
+  /**
+   * Stop retrieving results.
+   * 
+   * @see org.wikipediacleaner.api.ResultIterator#close()
+   */
+  @Override
+  public void close() {
+    if (pending != null) {
+      pending.cancel(true);
+      pending = null;
+      pendingResults = null;
+    }
+  }
+}
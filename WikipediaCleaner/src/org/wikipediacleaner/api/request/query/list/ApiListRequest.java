@@ -7,6 +7,8 @@
 
 package org.wikipediacleaner.api.request.query.list;
 
+import java.util.Map;
+
 import org.wikipediacleaner.api.constants.EnumWikipedia;
 import org.wikipediacleaner.api.request.ApiRequest;
 
@@ -77,4 +79,24 @@ public class ApiListRequest extends ApiRequest {
   protected ApiListRequest(EnumWikipedia wiki) {
     super(wiki);
   }
+
+  // ==========================================================================
+  // Iteration
+  // ==========================================================================
+
+  /**
+   * Create an iterator over the results of a list query.
+   * 
+   * @param properties Properties defining request.
+   * @param fetcher Executor of one request.
+   * @param deduplicate True if results appearing several times should be returned only once.
+   * @param maxSize Maximum number of results.
+   * @return Iterator over the results.
+   */
+  protected <T> ApiListIterator<T> createIterator(
+      Map<String, String> properties,
+      ApiListFetcher<T> fetcher,
+      boolean deduplicate, int maxSize) {
+    return new ApiListIterator<>(properties, fetcher, deduplicate, maxSize);
+  }
 }
@@ -98,12 +98,7 @@ public class ApiPagesWithPropRequest extends ApiListRequest {
   public List<Page> loadPagesWithProp(
       String property,
       boolean limit) throws APIException {
-    Map<String, String> properties = getProperties(ACTION_QUERY, result.getFormat());
-    properties.put(
-        PROPERTY_LIST,
-        PROPERTY_LIST_PAGESWITHPROP);
-    properties.put(PROPERTY_LIMIT, LIMIT_MAX);
-    properties.put(PROPERTY_PROPERTY_NAME, property);
+    Map<String, String> properties = getPagesWithPropProperties(property);
     List<Page> list = new ArrayList<Page>();
     int maxSize = getMaxSize(limit, ConfigurationValueInteger.MAX_PAGES_WITH_PROP);
     while (result.executePagesWithProp(properties, list) &&
@@ -113,4 +108,36 @@ public class ApiPagesWithPropRequest extends ApiListRequest {
     Collections.sort(list);
     return list;
   }
+
+  /**
+   * Iterate over the list of pages with a given property.
+   * 
+   * @param property Property name.
+   * @return Iterator over the pages, in the order returned by the API.
+   */
+  public ApiListIterator<Page> iteratePagesWithProp(String property) {
+    Map<String, String> properties = getPagesWithPropProperties(property);
+    return createIterator(properties, new ApiListFetcher<Page>() {
+
+      @Override
+      public boolean fetch(Map<String, String> currentProperties, List<Page> list)
+          throws APIException {
+        return result.executePagesWithProp(currentProperties, list);
+      }
+    }, false, Integer.MAX_VALUE);
+  }
+
+  /**
+   * @param property Property name.
+   * @return Properties for retrieving the list of pages with a given property.
+   */
+  private Map<String, String> getPagesWithPropProperties(String property) {
+    Map<String, String> properties = getProperties(ACTION_QUERY, result.getFormat());
+    properties.put(
+        PROPERTY_LIST,
+        PROPERTY_LIST_PAGESWITHPROP);
+    properties.put(PROPERTY_LIMIT, LIMIT_MAX);
+    properties.put(PROPERTY_PROPERTY_NAME, property);
+    return properties;
+  }
 }
@@ -123,6 +123,40 @@ public class ApiProtectedTitlesRequest extends ApiListRequest {
   public List<Page> loadProtectedTitles(
       List<Integer> namespaces,
       boolean limit) throws APIException {
+    Map<String, String> properties = getProtectedTitlesProperties(namespaces);
+    List<Page> list = new ArrayList<Page>();
+    int maxSize = getMaxSize(limit, ConfigurationValueInteger.MAX_PROTECTED_TITLES);
+    while (result.executeProtectedTitles(properties, list) &&
+           (list.size() < maxSize)) {
+      //
+    }
+    Collections.sort(list);
+    return list;
+  }
+
+  /**
+   * Iterate over the list of protected titles.
+   * 
+   * @param namespaces List of name spaces to restrict result.
+   * @return Iterator over the protected titles, in the order returned by the API.
+   */
+  public ApiListIterator<Page> iterateProtectedTitles(List<Integer> namespaces) {
+    Map<String, String> properties = getProtectedTitlesProperties(namespaces);
+    return createIterator(properties, new ApiListFetcher<Page>() {
+
+      @Override
+      public boolean fetch(Map<String, String> currentProperties, List<Page> list)
+          throws APIException {
+        return result.executeProtectedTitles(currentProperties, list);
+      }
+    }, false, Integer.MAX_VALUE);
+  }
+
+  /**
+   * @param namespaces List of name spaces to restrict result.
+   * @return Properties for retrieving the list of protected titles.
+   */
+  private Map<String, String> getProtectedTitlesProperties(List<Integer> namespaces) {
     Map<String, String> properties = getProperties(ACTION_QUERY, result.getFormat());
     properties.put(
         PROPERTY_LIST,
@@ -133,13 +167,6 @@ public class ApiProtectedTitlesRequest extends ApiListRequest {
     }
     properties.put(PROPERTY_LEVEL, "sysop");
     properties.put(PROPERTY_PROPERTIES, PROPERTY_PROPERTIES_EXPIRY);
-    List<Page> list = new ArrayList<Page>();
-    int maxSize = getMaxSize(limit, ConfigurationValueInteger.MAX_PROTECTED_TITLES);
-    while (result.executeProtectedTitles(properties, list) &&
-           (list.size() < maxSize)) {
-      //
-    }
-    Collections.sort(list);
-    return list;
+    return properties;
   }
 }
@@ -67,12 +67,7 @@ public class ApiQueryPageRequest extends ApiListRequest {
    */
   public List<Page> loadQueryPage(
       EnumQueryPage query) throws APIException {
-    Map<String, String> properties = getProperties(ACTION_QUERY, result.getFormat());
-    properties.put(
-        PROPERTY_LIST,
-        PROPERTY_LIST_QUERYPAGE);
-    properties.put(PROPERTY_PAGE, query.getCode());
-    properties.put(PROPERTY_LIMIT, LIMIT_MAX);
+    Map<String, String> properties = getQueryPageProperties(query);
     List<Page> list = new ArrayList<Page>();
     int maxSize = getMaxSize(true, ConfigurationValueInteger.MAX_QUERY_PAGE);
     while (result.executeQueryPage(properties, list) &&
@@ -82,4 +77,36 @@ public class ApiQueryPageRequest extends ApiListRequest {
     Collections.sort(list);
     return list;
   }
+
+  /**
+   * Iterate over a special list of pages.
+   * 
+   * @param query Type of list.
+   * @return Iterator over the pages, in the order returned by the API.
+   */
+  public ApiListIterator<Page> iterateQueryPage(EnumQueryPage query) {
+    Map<String, String> properties = getQueryPageProperties(query);
+    return createIterator(properties, new ApiListFetcher<Page>() {
+
+      @Override
+      public boolean fetch(Map<String, String> currentProperties, List<Page> list)
+          throws APIException {
+        return result.executeQueryPage(currentProperties, list);
+      }
+    }, false, Integer.MAX_VALUE);
+  }
+
+  /**
+   * @param query Type of list.
+   * @return Properties for retrieving a special list of pages.
+   */
+  private Map<String, String> getQueryPageProperties(EnumQueryPage query) {
+    Map<String, String> properties = getProperties(ACTION_QUERY, result.getFormat());
+    properties.put(
+        PROPERTY_LIST,
+        PROPERTY_LIST_QUERYPAGE);
+    properties.put(PROPERTY_PAGE, query.getCode());
+    properties.put(PROPERTY_LIMIT, LIMIT_MAX);
+    return properties;
+  }
 }
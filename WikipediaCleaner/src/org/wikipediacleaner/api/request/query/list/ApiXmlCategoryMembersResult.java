@@ -74,9 +74,7 @@ public class ApiXmlCategoryMembersResult extends ApiXmlResult implements ApiCate
             (page.getNamespace().intValue() == Namespace.CATEGORY)) {
           categories.put(page, depth + 1);
         } else {
-          if (!list.contains(page)) {
-            list.add(page);
-          }
+          list.add(page);
         }
       }
 
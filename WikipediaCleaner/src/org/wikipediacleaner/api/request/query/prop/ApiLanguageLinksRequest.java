@@ -7,7 +7,10 @@
 
 package org.wikipediacleaner.api.request.query.prop;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.wikipediacleaner.api.APIException;
@@ -74,4 +77,58 @@ public class ApiLanguageLinksRequest extends ApiPropertiesRequest {
     }
     return languageLinks.get(toWikiCode);
   }
+
+  /**
+   * Get language links in a list of pages to a specific wiki.
+   * 
+   * @param pages Pages.
+   * @param toWiki Destination wiki.
+   * @throws APIException Exception thrown by the API.
+   * @return Language links by page title (only for pages having a language link).
+   */
+  public Map<String, String> getLanguageLinks(
+      Collection<Page> pages, EnumWikipedia toWiki) throws APIException {
+    Map<String, String> languageLinks = new HashMap<>();
+    if ((pages == null) || pages.isEmpty()) {
+      return languageLinks;
+    }
+    List<Collection<Page>> splitPagesList = splitListPages(pages, MAX_PAGES_PER_QUERY);
+    for (Collection<Page> splitPages : splitPagesList) {
+      Map<String, String> properties = getProperties(ACTION_QUERY, result.getFormat());
+      properties.put(PROPERTY_PROP, PROPERTY_PROP_LANGLINKS);
+      properties.put(PROPERTY_CONTINUE, PROPERTY_CONTINUE_DEFAULT);
+      properties.put(PROPERTY_LANG, toWiki.getSettings().getCode());
+      properties.put(PROPERTY_LIMIT, LIMIT_MAX);
+      properties.put(PROPERTY_REDIRECTS, "");
+      properties.put(PROPERTY_TITLES, constructListTitles(splitPages));
+      Map<String, String> normalization = new HashMap<>();
+      Map<String, String> redirects = new HashMap<>();
+      Map<String, String> pageLinks = new HashMap<>();
+      while (result.getLanguageLinks(properties, normalization, redirects, pageLinks)) {
+        //
+      }
+
+      // Associate language links to the requested titles
+      for (Page page : splitPages) {
+        String title = page.getTitle();
+        String target = normalization.containsKey(title) ? normalization.get(title) : title;
+        String fragment = null;
+        List<String> visited = new ArrayList<>();
+        while (redirects.containsKey(target) && !visited.contains(target)) {
+          visited.add(target);
+          target = redirects.get(target);
+          int fragmentIndex = target.indexOf('#');
+          if (fragmentIndex >= 0) {
+            fragment = target.substring(fragmentIndex);
+            target = target.substring(0, fragmentIndex);
+          }
+        }
+        String link = pageLinks.get(target);
+        if (link != null) {
+          languageLinks.put(title, (fragment != null) ? link + fragment : link);
+        }
+      }
+    }
+    return languageLinks;
+  }
 }
@@ -28,4 +28,20 @@ public interface ApiLanguageLinksResult extends ApiPropertiesResult {
   public boolean getLanguageLinks(
       Map<String, String> properties,
       Map<String, String> languageLinks) throws APIException;
+
+  /**
+   * Get language links of a list of pages.
+   * 
+   * @param properties Properties defining request.
+   * @param normalization Map of title normalizations to be completed (key=From, value=To).
+   * @param redirects Map of redirects to be completed (key=From, value=To with fragment).
+   * @param languageLinks Map of language links by page title to be completed.
+   * @return True if request should be continued.
+   * @throws APIException Exception thrown by the API.
+   */
+  public boolean getLanguageLinks(
+      Map<String, String> properties,
+      Map<String, String> normalization,
+      Map<String, String> redirects,
+      Map<String, String> languageLinks) throws APIException;
 }
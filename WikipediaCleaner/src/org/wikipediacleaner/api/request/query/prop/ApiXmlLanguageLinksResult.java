@@ -75,4 +75,66 @@ public class ApiXmlLanguageLinksResult extends ApiXmlPropertiesResult implements
       throw new APIException("Error parsing XML", e);
     }
   }
+
+  /**
+   * Get language links of a list of pages.
+   * 
+   * @param properties Properties defining request.
+   * @param normalization Map of title normalizations to be completed (key=From, value=To).
+   * @param redirects Map of redirects to be completed (key=From, value=To with fragment).
+   * @param languageLinks Map of language links by page title to be completed.
+   * @return True if request should be continued.
+   * @throws APIException Exception thrown by the API.
+   */
+  @Override
+  public boolean getLanguageLinks(
+      Map<String, String> properties,
+      Map<String, String> normalization,
+      Map<String, String> redirects,
+      Map<String, String> languageLinks) throws APIException {
+    try {
+      Element root = getRoot(properties, ApiRequest.MAX_ATTEMPTS);
+
+      // Retrieve normalization and redirects
+      retrieveNormalization(root, normalization);
+      XPathExpression<Element> xpaRedirects = XPathFactory.instance().compile(
+          "/api/query/redirects/r", Filters.element());
+      for (Element redirect : xpaRedirects.evaluate(root)) {
+        String from = redirect.getAttributeValue("from");
+        String to = redirect.getAttributeValue("to");
+        if ((from != null) && (to != null)) {
+          String fragment = redirect.getAttributeValue("tofragment");
+          if ((fragment != null) && (fragment.length() > 0)) {
+            to += "#" + fragment;
+          }
+          redirects.put(from, to);
+        }
+      }
+
+      // Retrieve language links
+      XPathExpression<Element> xpaPages = XPathFactory.instance().compile(
+          "/api/query/pages/page", Filters.element());
+      XPathExpression<Element> xpaLangLinks = XPathFactory.instance().compile(
+          "langlinks/ll", Filters.element());
+      for (Element page : xpaPages.evaluate(root)) {
+        String pageTitle = page.getAttributeValue("title");
+        if (pageTitle != null) {
+          for (Element langLink : xpaLangLinks.evaluate(page)) {
+            String title = langLink.getText();
+            if ((title != null) && (title.trim().length() > 0)) {
+              languageLinks.put(pageTitle, title);
+            }
+          }
+        }
+      }
+
+      // Retrieve continue
+      return shouldContinue(
+          root, "/api/query-continue/langlinks",
+          properties);
+    } catch (JDOMException e) {
+      log.error("Error retrieving language links", e);
+      throw new APIException("Error parsing XML", e);
+    }
+  }
 }
@@ -246,6 +246,12 @@ public class ApiXmlPropertiesResult extends ApiXmlResult implements ApiPropertie
             }
           }
 
+          // Add information about the last revision
+          String lastRevisionId = page.getAttributeValue("lastrevid");
+          if (lastRevisionId != null) {
+            tmp.setRevisionId(lastRevisionId);
+          }
+
           // Add information about translated pages
           List<Element> errorNodes = xpaEditErrors.evaluate(page);
           if ((errorNodes != null) && !errorNodes.isEmpty()) {
@@ -1371,10 +1371,18 @@ public class MainWindow
         Namespace.CATEGORY, pageName); 
     Page page = DataManager.getPage(
         getWikipedia(), title, null, null, null);
+    String[] depths = { "0", "1", "2", "3", "4", "5" };
+    String depth = Utilities.askForValue(
+        getParentComponent(),
+        GT._T("How deep should sub-categories be analyzed?"),
+        depths, true, depths[0], (StringChecker) null);
+    if (depth == null) {
+      return;
+    }
     new PageListWorker(
         getWikipedia(), this, page,
         Collections.singletonList(title),
-        PageListWorker.Mode.CATEGORY_MEMBERS, false,
+        PageListWorker.Mode.CATEGORY_MEMBERS, Integer.parseInt(depth), false,
         GT._T("Category members of {0}", title)).start();
   }
 
@@ -24,6 +24,7 @@ import org.wikipediacleaner.api.algorithm.AlgorithmError;
 import org.wikipediacleaner.api.check.CheckErrorPage;
 import org.wikipediacleaner.api.check.CheckWiki;
 import org.wikipediacleaner.api.check.algorithm.CheckErrorAlgorithm;
+import org.wikipediacleaner.api.check.algorithm.CheckErrorAlgorithms;
 import org.wikipediacleaner.api.constants.EnumQueryResult;
 import org.wikipediacleaner.api.constants.EnumWikipedia;
 import org.wikipediacleaner.api.constants.WPCConfiguration;
@@ -164,6 +165,7 @@ public abstract class AutomaticFixWorker extends BasicWorker {
     if (analysis == null) {
       return;
     }
+    analysis.performPageAnalysis(CheckErrorAlgorithms.getAnalysisLevel(algorithms), null);
 
     // Analyze page to check if an error has been found
     List<CheckErrorPage> errorPages = AlgorithmError.analyzeErrors(algorithms, analysis, true);
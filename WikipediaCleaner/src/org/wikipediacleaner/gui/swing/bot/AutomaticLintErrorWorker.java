@@ -14,6 +14,7 @@ import java.util.List;
 import org.wikipediacleaner.api.API;
 import org.wikipediacleaner.api.APIException;
 import org.wikipediacleaner.api.APIFactory;
+import org.wikipediacleaner.api.ResultIterator;
 import org.wikipediacleaner.api.check.algorithm.CheckErrorAlgorithm;
 import org.wikipediacleaner.api.constants.EnumWikipedia;
 import org.wikipediacleaner.api.data.LinterCategory;
@@ -67,25 +68,26 @@ public class AutomaticLintErrorWorker extends AutomaticFixWorker {
     try {
       API api = APIFactory.getAPI();
       for (Integer namespace : selectedNamespaces) {
-        List<Page> pages = api.retrieveLinterCategory(
-            getWikipedia(), category.getCategory(), namespace,
-            false, false, Integer.MAX_VALUE);
-        while (!pages.isEmpty()) {
-          List<Page> tmpPages = new ArrayList<>();
-          while (!pages.isEmpty() && (tmpPages.size() < ApiRequest.MAX_PAGES_PER_QUERY)) {
-            Page page = pages.remove(0);
-            tmpPages.add(page);
-          }
-          if (!shouldContinue()) {
-            return null;
-          }
-          if (getWikipedia().getWikiConfiguration().isTranslatable()) {
-            api.retrieveInfo(getWikipedia(), tmpPages);
-          }
-          while (!tmpPages.isEmpty()) {
-            Page page = tmpPages.remove(0);
-            analyzePage(page, selectedAlgorithms, null);
+        ResultIterator<Page> pages = api.iterateLinterCategory(
+            getWikipedia(), category.getCategory(), namespace, false);
+        try {
+          while (pages.hasNext()) {
+            List<Page> tmpPages = new ArrayList<>();
+            while (pages.hasNext() && (tmpPages.size() < ApiRequest.MAX_PAGES_PER_QUERY)) {
+              tmpPages.add(pages.next());
+            }
+            if (!shouldContinue()) {
+              return null;
+            }
+            if (getWikipedia().getWikiConfiguration().isTranslatable()) {
+              api.retrieveInfo(getWikipedia(), tmpPages);
+            }
+            for (Page page : tmpPages) {
+              analyzePage(page, selectedAlgorithms, null);
+            }
           }
+        } finally {
+          pages.close();
         }
       }
     } catch (APIException e) {
@@ -15,8 +15,10 @@ import java.io.OutputStreamWriter;
 import java.net.SocketTimeoutException;
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -28,6 +30,7 @@ import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.wikipediacleaner.Version;
 import org.wikipediacleaner.api.API;
 import org.wikipediacleaner.api.APIException;
 import org.wikipediacleaner.api.APIFactory;
@@ -36,21 +39,29 @@ import org.wikipediacleaner.api.MediaWikiListener;
 import org.wikipediacleaner.api.check.CheckErrorResult;
 import org.wikipediacleaner.api.check.CheckErrorResult.ErrorLevel;
 import org.wikipediacleaner.api.check.algorithm.CheckErrorAlgorithm;
+import org.wikipediacleaner.api.check.algorithm.CheckErrorAlgorithmPrefilter;
+import org.wikipediacleaner.api.check.algorithm.CheckErrorAlgorithms;
+import org.wikipediacleaner.api.constants.CWConfigurationError;
 import org.wikipediacleaner.api.constants.EnumQueryResult;
 import org.wikipediacleaner.api.constants.EnumWikipedia;
+import org.wikipediacleaner.api.constants.WikiConfiguration;
+import org.wikipediacleaner.api.data.CompactPageList;
 import org.wikipediacleaner.api.data.DataManager;
 import org.wikipediacleaner.api.data.Namespace;
 import org.wikipediacleaner.api.data.Page;
 import org.wikipediacleaner.api.data.PageElementInternalLink;
 import org.wikipediacleaner.api.data.analysis.PageAnalysis;
 import org.wikipediacleaner.api.data.contents.ContentsComment;
+import org.wikipediacleaner.api.dump.DetectionIndex;
 import org.wikipediacleaner.api.dump.DumpProcessor;
+import org.wikipediacleaner.api.dump.MultistreamDumpStore;
 import org.wikipediacleaner.api.dump.PageProcessor;
 import org.wikipediacleaner.api.execution.MediaWikiCallable;
 import org.wikipediacleaner.gui.swing.basic.BasicWindow;
 import org.wikipediacleaner.gui.swing.basic.BasicWorker;
 import org.wikipediacleaner.gui.swing.basic.Utilities;
 import org.wikipediacleaner.i18n.GT;
+import org.wikipediacleaner.utils.metrics.Histogram;
 
 
 /**
@@ -85,6 +96,12 @@ public class ListCWWorker extends BasicWorker {
   /** True to just check the pages that have been previously reported */
   final boolean onlyRecheck;
 
+  /** Level of analysis needed by the selected algorithms */
+  final PageAnalysis.AnalysisLevel analysisLevel;
+
+  /** Prefilter to find which selected algorithms may detect errors in a page */
+  final CheckErrorAlgorithmPrefilter prefilter;
+
   /** Time spent in analysis. */
   PageAnalysis.AnalysisPerformance analysisTime;
 
@@ -94,6 +111,21 @@ public class ListCWWorker extends BasicWorker {
   /** Count of pages found with errors */
   int countDetections;
 
+  /** Count of pages for which detections from a previous run were reused */
+  int countReused;
+
+  /** Count of pages skipped by the prefilter */
+  int countSkipped;
+
+  /** Base name of the files for the index of detections */
+  private File detectionIndexFile;
+
+  /** Index of detections from a previous run */
+  DetectionIndex previousDetections;
+
+  /** Index of detections for this run */
+  DetectionIndex.Writer currentDetections;
+
   /**
    * @param wiki Wiki.
    * @param window Window.
@@ -120,6 +152,8 @@ public class ListCWWorker extends BasicWorker {
     } else {
       this.selectedNamespaces.add(Namespace.MAIN);
     }
+    this.analysisLevel = AlgorithmInformation.getAnalysisLevel(this.selectedAlgorithms);
+    this.prefilter = new CheckErrorAlgorithmPrefilter(selectedAlgorithms);
     this.analysisTime = new PageAnalysis.AnalysisPerformance();
     this.countAnalyzed = 0;
     this.countDetections = 0;
@@ -154,6 +188,8 @@ public class ListCWWorker extends BasicWorker {
     } else {
       this.selectedNamespaces.add(Namespace.MAIN);
     }
+    this.analysisLevel = AlgorithmInformation.getAnalysisLevel(this.selectedAlgorithms);
+    this.prefilter = new CheckErrorAlgorithmPrefilter(selectedAlgorithms);
     this.analysisTime = new PageAnalysis.AnalysisPerformance();
     this.countAnalyzed = 0;
     this.countDetections = 0;
@@ -161,6 +197,15 @@ public class ListCWWorker extends BasicWorker {
     this.onlyRecheck = onlyRecheck;
   }
 
+  /**
+   * Use an index of detections to skip analysis of pages which haven't changed since the previous run.
+   * 
+   * @param file Base name of the files for the index of detections.
+   */
+  public void setDetectionIndex(File file) {
+    this.detectionIndexFile = file;
+  }
+
   /** 
    * Compute the value to be returned by the <code>get</code> method. 
    * 
@@ -209,8 +254,11 @@ public class ListCWWorker extends BasicWorker {
         // Nothing to do
       }
     }
-    DumpProcessor dumpProcessor = new DumpProcessor(pageProcessor);
-    dumpProcessor.processDump(dumpFile);
+    openDetectionIndex();
+    if (!onlyRecheck || !processPagesFromStore(pageProcessor)) {
+      DumpProcessor dumpProcessor = new DumpProcessor(pageProcessor);
+      dumpProcessor.processDump(dumpFile);
+    }
     while (!pageProcessor.hasFinished()) {
       try {
         Thread.sleep(100);
@@ -218,6 +266,7 @@ public class ListCWWorker extends BasicWorker {
         // Nothing to do
       }
     }
+    closeDetectionIndex();
     logCW.info("Beginning of result output");
     for (AlgorithmInformation algorithm : selectedAlgorithms) {
       Map<String, Detection> pages = algorithm.getDetections();
@@ -232,6 +281,105 @@ public class ListCWWorker extends BasicWorker {
     return null;
   }
 
+  /**
+   * Process only the requested pages by random access in a multistream dump.
+   * 
+   * @param pageProcessor Page processor.
+   * @return True if the pages have been processed.
+   */
+  private boolean processPagesFromStore(CWPageProcessor pageProcessor) {
+    List<Page> pages = pageProcessor.getPages();
+    if ((pages == null) || !MultistreamDumpStore.isAvailable(dumpFile)) {
+      return false;
+    }
+    // Pages processed before an error are skipped by the full pass over the dump
+    pageProcessor.trackProcessedPages();
+    try (MultistreamDumpStore store = MultistreamDumpStore.open(dumpFile)) {
+      logCW.info("Retrieving " + pages.size() + " pages from " + dumpFile.getName());
+      store.processPages(pages, pageProcessor);
+      return true;
+    } catch (IOException e) {
+      log.warn("Unable to use random access in dump: " + e.getMessage());
+      return false;
+    }
+  }
+
+  /**
+   * Open the index of detections from the previous run and create the one for this run.
+   */
+  private void openDetectionIndex() {
+    if (detectionIndexFile == null) {
+      return;
+    }
+    String signature = getConfigurationSignature();
+    previousDetections = DetectionIndex.open(detectionIndexFile, signature);
+    if (previousDetections != null) {
+      logCW.info("Using index of detections for " + previousDetections.size() + " pages");
+    }
+    if (!onlyRecheck) {
+      try {
+        currentDetections = DetectionIndex.createWriter(detectionIndexFile, signature);
+      } catch (IOException e) {
+        log.error("Unable to create index of detections: " + e.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Close the index of detections from the previous run and save the one for this run.
+   */
+  private void closeDetectionIndex() {
+    if (previousDetections != null) {
+      previousDetections.close();
+      previousDetections = null;
+    }
+    if (currentDetections != null) {
+      try {
+        currentDetections.commit();
+        logCW.info("Index of detections saved for " + currentDetections.size() + " pages");
+      } catch (IOException e) {
+        log.error("Unable to save index of detections: " + e.getMessage());
+      } finally {
+        currentDetections.close();
+        currentDetections = null;
+      }
+    }
+  }
+
+  /**
+   * Build a signature of everything that has an influence on the detections.
+   * 
+   * @return Signature of the configuration.
+   */
+  private String getConfigurationSignature() {
+    EnumWikipedia wiki = getWikipedia();
+    StringBuilder sb = new StringBuilder();
+    sb.append(Version.VERSION).append('\n');
+    sb.append(wiki.getSettings().getCode()).append('\n');
+    sb.append(analysisLevel).append('\n');
+    List<AlgorithmInformation> algorithms = new ArrayList<>(selectedAlgorithms);
+    Collections.sort(algorithms, new Comparator<AlgorithmInformation>() {
+
+      /**
+       * @param o1 First algorithm.
+       * @param o2 Second algorithm.
+       * @return Comparison of error numbers.
+       */
+      @Override
+      public int compare(AlgorithmInformation o1, AlgorithmInformation o2) {
+        return Integer.compare(o1.algorithm.getErrorNumber(), o2.algorithm.getErrorNumber());
+      }
+    });
+    for (AlgorithmInformation algorithm : algorithms) {
+      CWConfigurationError error = wiki.getCWConfiguration().getErrorConfiguration(
+          algorithm.algorithm.getErrorNumber());
+      sb.append(algorithm.algorithm.getErrorNumber()).append('\n');
+      sb.append((error != null) ? error.getConfigurationSignature() : "").append('\n');
+    }
+    sb.append(wiki.getConfiguration().getConfigurationSignature());
+    return sb.toString();
+  }
+
   /**
    * Report progress.
    */
@@ -239,6 +387,8 @@ public class ListCWWorker extends BasicWorker {
     StringBuilder buffer = new StringBuilder();
     buffer.append("\n");
     buffer.append("Pages processed: " + countAnalyzed);
+    buffer.append(" / reused: " + countReused);
+    buffer.append(" / skipped: " + countSkipped);
     buffer.append(" / errors detected: " + countDetections);
     buffer.append(" Analysis: " + analysisTime.toString());
     for (AlgorithmInformation algorithm : selectedAlgorithms) {
@@ -250,139 +400,195 @@ public class ListCWWorker extends BasicWorker {
   }
 
   /**
+   * @return Header of the formatted result.
+   */
+  private String formatResultHeader() {
+    return "<!-- Generated using " + dumpFile.getName() + " -->\n";
+  }
+
+  /**
+   * Format the line of the result for a detection.
+   * 
+   * @param detection Detection.
+   * @param lastLevel Level of the previous detection in the result.
+   * @param line Buffer receiving the formatted line.
+   */
+  static void formatResultLine(
+      Detection detection, ErrorLevel lastLevel,
+      StringBuilder line) {
+    line.setLength(0);
+    if ((detection.maxLevel != null) &&
+        !detection.maxLevel.equals(lastLevel)) {
+      line.append("<!-- ");
+      line.append(detection.maxLevel.toString());
+      line.append(" -->\n");
+    }
+    line.append("* ");
+    line.append(PageElementInternalLink.createInternalLink(
+        Namespace.isColonNeeded(detection.namespace),
+        detection.pageName, null));
+    if (detection.notices != null) {
+      boolean first = true;
+      for (String notice : detection.notices) {
+        line.append(first ? ": " : ", ");
+        first = false;
+        line.append("<nowiki>");
+        int index = 0;
+        while (index < notice.length()) {
+          int codePoint = notice.codePointAt(index);
+          switch (codePoint) {
+          case '&': // Replace "&" by its HTML element
+            line.append("&amp;");
+            break;
+          case '\n': // Replace \n by a visual character
+            line.append('\u21b5');
+            break;
+          case '<': // Replace "<" by its HTML element
+            line.append("&lt;");
+            break;
+          case '\u007F': // Replace control characters by visible text
+            line.append("[DEL]");
+            break;
+          case '\u00A0': // Replace control characters by visible text
+            line.append("[NBSP]");
+            break;
+          case '\u00AD': // Replace control characters by visible text
+            line.append("[SHY]");
+            break;
+          case '\u2004': // Replace control characters by visible text
+            line.append("[3EM]");
+            break;
+          case '\u2005': // Replace control characters by visible text
+            line.append("[4EM]");
+            break;
+          case '\u2006': // Replace control characters by visible text
+            line.append("[6EM]");
+            break;
+          case '\u2007': // Replace control characters by visible text
+            line.append("[FS]");
+            break;
+          case '\u2008': // Replace control characters by visible text
+            line.append("[PS]");
+            break;
+          case '\u200B': // Replace control characters by visible text
+            line.append("[0WS]");
+            break;
+          case '\u200E': // Replace control characters by visible text
+            line.append("[LRM]");
+            break;
+          case '\u200F': // Replace control characters by visible text
+            line.append("[RLM]");
+            break;
+          case '\u2028': // Replace control characters by visible text
+            line.append("[LS]");
+            break;
+          case '\u202A': // Replace control characters by visible text
+            line.append("[LRE]");
+            break;
+          case '\u202B': // Replace control characters by visible text
+            line.append("[RLE]");
+            break;
+          case '\u202C': // Replace control characters by visible text
+            line.append("[POPD]");
+            break;
+          case '\u202D': // Replace control characters by visible text
+            line.append("[LRO]");
+            break;
+          case '\u202E': // Replace control characters by visible text
+            line.append("[RLO]");
+            break;
+          case '\uFEFF': // Replace control characters by visible text
+            line.append("[BOM]");
+            break;
+          case '\uFFFC': // Replace control characters by visible text
+            line.append("[ORC]");
+            break;
+          default:
+            if ((codePoint >= 0xE000) && (codePoint <= 0xF8FF)) {
+              line.append("[PUA]");
+            } else if ((codePoint >= 0XF0000) && (codePoint <= 0xFFFFD)) {
+              line.append("[PUA_A]");
+            } else if ((codePoint >= 0x100000) && (codePoint <= 0x10FFFD)) {
+              line.append("[PUA_B]");
+            } else {
+              line.appendCodePoint(codePoint);
+            }
+          } 
+          index = notice.offsetByCodePoints(index, 1);
+        }
+        line.append("</nowiki>");
+      }
+    }
+    line.append("\n");
+  }
+
+  /**
+   * Compute the sizes of the formatted result.
+   * 
+   * @param header Header of the formatted result.
    * @param pages List of detections.
-   * @param maxSize Maximum size.
-   * @param result Formatted result.
-   * @return True if result was saved completely.
+   * @return Cumulated sizes in bytes: element i is the size of the header
+   *         followed by the lines of the first i detections.
    */
-  private boolean appendResult(
-      List<Detection> pages, Long maxSize,
-      StringBuilder result) {
-    boolean full = true;
-    StringBuilder buffer = new StringBuilder();
-    buffer.append("<!-- Generated using ");
-    buffer.append(dumpFile.getName());
-    buffer.append(" -->\n");
+  static long[] computeResultSizes(String header, List<Detection> pages) {
+    long[] sizes = new long[pages.size() + 1];
+    sizes[0] = WikiConfiguration.getArticleSize(header, 0, header.length());
     ErrorLevel lastLevel = null;
     StringBuilder line = new StringBuilder();
-    List<Detection> pagesToRemove = new ArrayList<>();
+    int index = 0;
     for (Detection detection : pages) {
-      line.setLength(0);
-      if ((detection.maxLevel != null) &&
-          !detection.maxLevel.equals(lastLevel)) {
+      formatResultLine(detection, lastLevel, line);
+      if (detection.maxLevel != null) {
         lastLevel = detection.maxLevel;
-        line.append("<!-- ");
-        line.append(lastLevel.toString());
-        line.append(" -->\n");
-      }
-      line.append("* ");
-      line.append(PageElementInternalLink.createInternalLink(
-          Namespace.isColonNeeded(detection.namespace),
-          detection.pageName, null));
-      if (detection.notices != null) {
-        boolean first = true;
-        for (String notice : detection.notices) {
-          line.append(first ? ": " : ", ");
-          first = false;
-          line.append("<nowiki>");
-          int index = 0;
-          while (index < notice.length()) {
-            int codePoint = notice.codePointAt(index);
-            switch (codePoint) {
-            case '&': // Replace "&" by its HTML element
-              line.append("&amp;");
-              break;
-            case '\n': // Replace \n by a visual character
-              line.append('\u21b5');
-              break;
-            case '<': // Replace "<" by its HTML element
-              line.append("&lt;");
-              break;
-            case '\u007F': // Replace control characters by visible text
-              line.append("[DEL]");
-              break;
-            case '\u00A0': // Replace control characters by visible text
-              line.append("[NBSP]");
-              break;
-            case '\u00AD': // Replace control characters by visible text
-              line.append("[SHY]");
-              break;
-            case '\u2004': // Replace control characters by visible text
-              line.append("[3EM]");
-              break;
-            case '\u2005': // Replace control characters by visible text
-              line.append("[4EM]");
-              break;
-            case '\u2006': // Replace control characters by visible text
-              line.append("[6EM]");
-              break;
-            case '\u2007': // Replace control characters by visible text
-              line.append("[FS]");
-              break;
-            case '\u2008': // Replace control characters by visible text
-              line.append("[PS]");
-              break;
-            case '\u200B': // Replace control characters by visible text
-              line.append("[0WS]");
-              break;
-            case '\u200E': // Replace control characters by visible text
-              line.append("[LRM]");
-              break;
-            case '\u200F': // Replace control characters by visible text
-              line.append("[RLM]");
-              break;
-            case '\u2028': // Replace control characters by visible text
-              line.append("[LS]");
-              break;
-            case '\u202A': // Replace control characters by visible text
-              line.append("[LRE]");
-              break;
-            case '\u202B': // Replace control characters by visible text
-              line.append("[RLE]");
-              break;
-            case '\u202C': // Replace control characters by visible text
-              line.append("[POPD]");
-              break;
-            case '\u202D': // Replace control characters by visible text
-              line.append("[LRO]");
-              break;
-            case '\u202E': // Replace control characters by visible text
-              line.append("[RLO]");
-              break;
-            case '\uFEFF': // Replace control characters by visible text
-              line.append("[BOM]");
-              break;
-            case '\uFFFC': // Replace control characters by visible text
-              line.append("[ORC]");
-              break;
-            default:
-              if ((codePoint >= 0xE000) && (codePoint <= 0xF8FF)) {
-                line.append("[PUA]");
-              } else if ((codePoint >= 0XF0000) && (codePoint <= 0xFFFFD)) {
-                line.append("[PUA_A]");
-              } else if ((codePoint >= 0x100000) && (codePoint <= 0x10FFFD)) {
-                line.append("[PUA_B]");
-              } else {
-                line.appendCodePoint(codePoint);
-              }
-            } 
-            index = notice.offsetByCodePoints(index, 1);
-          }
-          line.append("</nowiki>");
-        }
       }
-      line.append("\n");
-      if ((maxSize == null) ||
-          (buffer.length() + line.length() < maxSize)) {
-        buffer.append(line);
+      sizes[index + 1] = sizes[index] + WikiConfiguration.getArticleSize(line, 0, line.length());
+      index++;
+    }
+    return sizes;
+  }
+
+  /**
+   * @param sizes Cumulated sizes of the formatted result.
+   * @param available Available size.
+   * @return Maximum number of detections fitting in the available size.
+   */
+  static int computeResultCount(long[] sizes, long available) {
+    int low = 0;
+    int high = sizes.length - 1;
+    while (low < high) {
+      int middle = (low + high + 1) >>> 1;
+      if (sizes[middle] <= available) {
+        low = middle;
       } else {
-        pagesToRemove.add(detection);
-        full = false;
+        high = middle - 1;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Write the formatted result, one line at a time.
+   * 
+   * @param header Header of the formatted result.
+   * @param pages List of detections.
+   * @param count Number of detections to write.
+   * @param result Destination of the formatted result.
+   * @throws IOException Error when writing the result.
+   */
+  static void writeResult(
+      String header, List<Detection> pages, int count,
+      Appendable result) throws IOException {
+    result.append(header);
+    ErrorLevel lastLevel = null;
+    StringBuilder line = new StringBuilder();
+    for (int index = 0; index < count; index++) {
+      Detection detection = pages.get(index);
+      formatResultLine(detection, lastLevel, line);
+      if (detection.maxLevel != null) {
+        lastLevel = detection.maxLevel;
       }
+      result.append(line);
     }
-    pages.removeAll(pagesToRemove);
-    result.append(buffer);
-    return full;
   }
 
   /**
@@ -449,14 +655,38 @@ public class ListCWWorker extends BasicWorker {
       throw new APIException("Unable to read page " + truePageName);
     }
 
-    // Generate result
+    // Find place holders in the page
+    int begin = -1;
+    int end = -1;
+    for (ContentsComment comment : page.getAnalysis(initialContents, true).comments().getAll()) {
+      String value = comment.getComment().trim();
+      if ("BOT BEGIN".equals(value)) {
+        if (begin < 0) {
+          begin = comment.getEndIndex();
+        }
+      } else if ("BOT END".equals(value)) {
+        end = comment.getBeginIndex();
+      }
+    }
+    if ((begin < 0) || (end < 0) || (end < begin)) {
+      throw new APIException("Page " + truePageName + " doesn't have place holders for the result");
+    }
+
+    // Compute how many detections fit in the page
     logCW.info("Preparing results of dump analysis for error " + algorithm.getErrorNumberString());
     int nbPages = pages.size();
+    int count = nbPages;
     Long maxSize = getWikipedia().getWikiConfiguration().getMaxArticleSize();
-    List<Detection> tmpPages = new ArrayList<>(pages);
+    if (maxSize != null) {
+      long available =
+          maxSize.longValue() -
+          WikiConfiguration.getArticleSize(initialContents, 0, begin) - 1 -
+          WikiConfiguration.getArticleSize(initialContents, end, initialContents.length());
+      count = computeResultCount(computeResultSizes(formatResultHeader(), pages), available);
+    }
+    boolean fullySaved = (count == nbPages);
 
     // Loop
-    boolean fullySaved = true;
     int attemptCount = 0;
     while (attemptCount < 10) {
       attemptCount++;
@@ -470,42 +700,17 @@ public class ListCWWorker extends BasicWorker {
         throw new APIException("Page " + truePageName + " has been modified");
       }
 
-      // Find place holders in the page
-      int begin = -1;
-      int end = -1;
-      for (ContentsComment comment : page.getAnalysis(contents, true).comments().getAll()) {
-        String value = comment.getComment().trim();
-        if ("BOT BEGIN".equals(value)) {
-          if (begin < 0) {
-            begin = comment.getEndIndex();
-          }
-        } else if ("BOT END".equals(value)) {
-          end = comment.getBeginIndex();
-        }
-      }
-      if ((begin < 0) || (end < 0) || (end < begin)) {
-        throw new APIException("Page " + truePageName + " doesn't have place holders for the result");
-      }
-
       // Build new text for the page
-      String text = "";
-      boolean finished = false;
-      do {
-        StringBuilder newText = new StringBuilder();
-        newText.append(contents.substring(0, begin));
-        newText.append("\n");
-        fullySaved &= appendResult(tmpPages, maxSize - begin - contents.length() + end, newText);
-        newText.append(contents.substring(end));
-        text = newText.toString();
-        if (getWikipedia().getWikiConfiguration().isArticleTooLong(text)) {
-          if (!tmpPages.isEmpty()) {
-            tmpPages.remove(tmpPages.size() - 1);
-            fullySaved = false;
-          }
-        } else {
-          finished = true;
-        }
-      } while (!finished && !tmpPages.isEmpty());
+      StringBuilder newText = new StringBuilder();
+      newText.append(contents, 0, begin);
+      newText.append("\n");
+      try {
+        writeResult(formatResultHeader(), pages, count, newText);
+      } catch (IOException e) {
+        // Not thrown when writing to a StringBuilder
+      }
+      newText.append(contents, end, contents.length());
+      String text = newText.toString();
 
       // Update page
       try {
@@ -536,12 +741,9 @@ public class ListCWWorker extends BasicWorker {
         if (!tooBig) {
           throw e;
         }
-        for (int i = 0; i < 100; i++) {
-          if (!tmpPages.isEmpty()) {
-            tmpPages.remove(tmpPages.size() - 1);
-          }
-        }
-        logCW.info("Trying with smaller list (" + tmpPages.size() + ")");
+        count = Math.max(0, count - 100);
+        fullySaved = false;
+        logCW.info("Trying with smaller list (" + count + ")");
       }
     }
 
@@ -572,17 +774,12 @@ public class ListCWWorker extends BasicWorker {
       outputFile = new File(MessageFormat.format(output.getAbsolutePath(), algorithm.getErrorNumberString()));
     }
 
-    // Generate result
-    logCW.info("Preparing results of dump analysis for error " + algorithm.getErrorNumberString());
-    StringBuilder result = new StringBuilder();
-    appendResult(pages, null, result);
-
-    // Write the file
+    // Write the file, formatting the result line by line
     logCW.info("Writing dump analysis results for error " + algorithm.getErrorNumberString() + " to file " + outputFile.getName());
     try (FileOutputStream fo = new FileOutputStream(outputFile, false);
          OutputStreamWriter osw = new OutputStreamWriter(fo, "UTF8");
          BufferedWriter writer = new BufferedWriter(osw)) {
-      writer.write(result.toString());
+      writeResult(formatResultHeader(), pages, pages.size(), writer);
     } catch (IOException e) {
       // Nothing to do
     }
@@ -713,11 +910,23 @@ public class ListCWWorker extends BasicWorker {
     @Override
     public Page call() throws APIException {
       EnumWikipedia wiki = getWikipedia();
-      PageAnalysis analysis = page.getAnalysis(page.getContents(), false);
-      analysis.performFullPageAnalysis(analysisTime);
+
+      // Analyze the page only if an algorithm may detect errors
+      BitSet candidates = prefilter.getCandidates(page.getContents());
+      PageAnalysis analysis = null;
+      if (!candidates.isEmpty()) {
+        analysis = page.getAnalysis(page.getContents(), false);
+        analysis.performPageAnalysis(analysisLevel, analysisTime);
+      } else {
+        countSkipped++;
+      }
       Page currentPage = null;
       PageAnalysis currentAnalysis = null; 
-      for (AlgorithmInformation algorithm : selectedAlgorithms) {
+      List<DetectionIndex.Detection> dumpDetections = new ArrayList<>();
+      for (int algorithmNum = candidates.nextSetBit(0);
+           algorithmNum >= 0;
+           algorithmNum = candidates.nextSetBit(algorithmNum + 1)) {
+        AlgorithmInformation algorithm = selectedAlgorithms.get(algorithmNum);
         List<CheckErrorResult> errors = new ArrayList<>();
         boolean detected = false;
         if (!algorithm.algorithm.isInWhiteList(page.getTitle())) {
@@ -728,6 +937,12 @@ public class ListCWWorker extends BasicWorker {
           long endTime = System.nanoTime();
           algorithm.addTimeSpent(endTime - beginTime);
         }
+        if (detected && (currentDetections != null)) {
+          Detection dumpDetection = new Detection(page, errors);
+          dumpDetections.add(new DetectionIndex.Detection(
+              algorithm.algorithm.getErrorNumber(),
+              dumpDetection.maxLevel, dumpDetection.notices));
+        }
         if (detected) {
           boolean detectionConfirmed = false;
 
@@ -743,7 +958,7 @@ public class ListCWWorker extends BasicWorker {
                   currentAnalysis = analysis; 
                 } else {
                   currentAnalysis = currentPage.getAnalysis(currentPage.getContents(), false);
-                  currentAnalysis.performFullPageAnalysis(analysisTime);
+                  currentAnalysis.performPageAnalysis(analysisLevel, analysisTime);
                 }
               }
               if (Boolean.FALSE.equals(currentPage.isExisting())) {
@@ -778,6 +993,15 @@ public class ListCWWorker extends BasicWorker {
           }
         }
       }
+      DetectionIndex.Writer writer = currentDetections;
+      if ((writer != null) &&
+          (page.getPageId() != null) && (page.getRevisionId() != null)) {
+        try {
+          writer.add(page.getPageId().intValue(), page.getRevisionId().longValue(), dumpDetections);
+        } catch (IOException e) {
+          log.error("Unable to add page to index of detections: " + e.getMessage());
+        }
+      }
       countAnalyzed++;
       if (countAnalyzed % 100000 == 0) {
         reportProgress();
@@ -810,7 +1034,10 @@ public class ListCWWorker extends BasicWorker {
     private final API api;
 
     /** Restrict the processing to this list of pages */
-    private List<String> pagesList;
+    private CompactPageList pagesList;
+
+    /** Pages already processed, when they are tracked to be processed only once */
+    private CompactPageList processedPages;
 
     /**
      * @param wiki Wiki.
@@ -849,13 +1076,30 @@ public class ListCWWorker extends BasicWorker {
       if (page == null) {
         return;
       }
-      String title = page.getTitle();
       if (pagesList == null) {
-        pagesList = new ArrayList<>();
+        pagesList = new CompactPageList(wiki, true);
+      }
+      pagesList.add(page);
+    }
+
+    /**
+     * Keep track of the processed pages, so that a page is processed only once
+     * even if it is provided again (when falling back to a full pass over the dump).
+     */
+    public void trackProcessedPages() {
+      if (processedPages == null) {
+        processedPages = new CompactPageList(wiki, true);
       }
-      if (!pagesList.contains(title)) {
-        pagesList.add(title);
+    }
+
+    /**
+     * @return List of pages to check, or null if all pages should be checked.
+     */
+    public List<Page> getPages() {
+      if (pagesList == null) {
+        return null;
       }
+      return pagesList.asList();
     }
 
     /**
@@ -868,8 +1112,55 @@ public class ListCWWorker extends BasicWorker {
         return;
       }
       if ((pagesList == null) || pagesList.contains(page.getTitle())) {
-        controller.addTask(new CWPageCallable(wiki, listener, api, page));
+        if ((processedPages != null) && !processedPages.add(page)) {
+          return;
+        }
+        if (!reuseDetections(page)) {
+          controller.addTask(new CWPageCallable(wiki, listener, api, page));
+        }
+      }
+    }
+
+    /**
+     * Reuse detections from the previous run if the page hasn't changed.
+     * 
+     * @param page Page.
+     * @return True if the detections have been reused, false if the page needs to be analyzed.
+     */
+    private boolean reuseDetections(Page page) {
+      DetectionIndex index = previousDetections;
+      if ((index == null) ||
+          (page.getPageId() == null) || (page.getRevisionId() == null)) {
+        return false;
+      }
+      int position = index.find(page.getPageId().intValue());
+      if ((position < 0) ||
+          (index.getRevisionId(position) != page.getRevisionId().longValue())) {
+        return false;
+      }
+      if (index.hasDetections(position) && checkWiki) {
+        // Detections need to be confirmed on the current version of the page
+        return false;
+      }
+      try {
+        for (DetectionIndex.Detection detection : index.getDetections(position)) {
+          for (AlgorithmInformation algorithm : selectedAlgorithms) {
+            if (algorithm.algorithm.getErrorNumber() == detection.errorNumber) {
+              algorithm.addDetection(page, detection);
+              countDetections++;
+            }
+          }
+        }
+        DetectionIndex.Writer writer = currentDetections;
+        if (writer != null) {
+          writer.add(index, position);
+        }
+      } catch (IOException e) {
+        log.error("Unable to reuse detections for " + page.getTitle() + ": " + e.getMessage());
+        return false;
       }
+      countReused++;
+      return true;
     }
 
     /**
@@ -922,6 +1213,17 @@ public class ListCWWorker extends BasicWorker {
       this.maxLevel = tmpLevel;
     }
 
+    /**
+     * @param page Page.
+     * @param detection Detection from a previous run.
+     */
+    public Detection(Page page, DetectionIndex.Detection detection) {
+      this.namespace = page.getNamespace();
+      this.pageName = page.getTitle();
+      this.notices = new ArrayList<>(detection.notices);
+      this.maxLevel = detection.maxLevel;
+    }
+
     /**
      * @param o
      * @return
@@ -982,6 +1284,9 @@ public class ListCWWorker extends BasicWorker {
     /** Time spent in analysis. */
     private long timeSpent;
 
+    /** Metrics for time spent in analysis. */
+    private final Histogram timeMetrics;
+
     /**
      * @param algorithm Algorithm.
      */
@@ -989,6 +1294,7 @@ public class ListCWWorker extends BasicWorker {
       this.algorithm = algorithm;
       this.detections = new HashMap<>();
       this.timeSpent = 0;
+      this.timeMetrics = algorithm.getAnalyzeHistogram();
     }
 
     /**
@@ -1005,6 +1311,20 @@ public class ListCWWorker extends BasicWorker {
       return list;
     }
 
+    /**
+     * Compute the level of analysis needed by a list of algorithms.
+     * 
+     * @param algorithms List of information about algorithms.
+     * @return Highest level of analysis needed by the algorithms.
+     */
+    public static PageAnalysis.AnalysisLevel getAnalysisLevel(List<AlgorithmInformation> algorithms) {
+      List<CheckErrorAlgorithm> list = new ArrayList<>(algorithms.size());
+      for (AlgorithmInformation algorithm : algorithms) {
+        list.add(algorithm.algorithm);
+      }
+      return CheckErrorAlgorithms.getAnalysisLevel(list);
+    }
+
     /**
      * @return Errors found.
      */
@@ -1020,11 +1340,20 @@ public class ListCWWorker extends BasicWorker {
       detections.put(page.getTitle(), new Detection(page, errors));
     }
 
+    /**
+     * @param page Page.
+     * @param detection Detection from a previous run.
+     */
+    public void addDetection(Page page, DetectionIndex.Detection detection) {
+      detections.put(page.getTitle(), new Detection(page, detection));
+    }
+
     /**
      * @param time Time spent.
      */
     public void addTimeSpent(long time) {
       timeSpent += time;
+      timeMetrics.record(time);
     }
 
     /**
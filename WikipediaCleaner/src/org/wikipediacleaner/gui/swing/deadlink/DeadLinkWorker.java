@@ -8,30 +8,23 @@
 
 package org.wikipediacleaner.gui.swing.deadlink;
 
-import java.io.IOException;
-import java.net.SocketException;
-import java.net.UnknownHostException;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import javax.swing.text.JTextComponent;
 
-import org.apache.commons.httpclient.HttpClient;
-import org.apache.commons.httpclient.HttpConnectionManager;
-import org.apache.commons.httpclient.HttpMethod;
-import org.apache.commons.httpclient.HttpStatus;
-import org.apache.commons.httpclient.MultiThreadedHttpConnectionManager;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.wikipediacleaner.api.API;
 import org.wikipediacleaner.api.APIException;
 import org.wikipediacleaner.api.APIFactory;
 import org.wikipediacleaner.api.constants.EnumWikipedia;
 import org.wikipediacleaner.api.data.Page;
 import org.wikipediacleaner.api.data.PageElementExternalLink;
-import org.wikipediacleaner.api.http.hc3.Hc3HttpUtils;
+import org.wikipediacleaner.api.deadlink.LinkChecker;
+import org.wikipediacleaner.api.deadlink.LinkStatus;
+import org.wikipediacleaner.api.deadlink.LinkStatusCache;
 import org.wikipediacleaner.gui.swing.basic.BasicWindow;
 import org.wikipediacleaner.gui.swing.basic.BasicWorker;
 import org.wikipediacleaner.i18n.GT;
@@ -42,8 +35,8 @@ import org.wikipediacleaner.i18n.GT;
  */
 public class DeadLinkWorker extends BasicWorker {
 
-  /** Logs */
-  private final Logger log = LoggerFactory.getLogger(DeadLinkWorker.class);
+  /** Link checker, shared between runs */
+  private static LinkChecker checker;
 
   /** List of pages */
   private final List<Page> pages;
@@ -102,80 +95,48 @@ public class DeadLinkWorker extends BasicWorker {
           page.setContents(textPane.getText());
         }
       }
-      HttpConnectionManager manager = new MultiThreadedHttpConnectionManager();
-      HttpClient client = new HttpClient(manager);
-      Map<String, DeadLink> checkedLinks = new HashMap<>();
+
+      // Retrieve external links
+      Set<String> urls = new LinkedHashSet<>();
+      List<List<PageElementExternalLink>> pagesLinks = new ArrayList<>(pages.size());
       for (Page page : pages) {
         if (!shouldContinue()) {
           return errors;
         }
         setText(GT._T("Analyzing {0}", page.getTitle()));
         List<PageElementExternalLink> links = page.getAnalysis(page.getContents(), false).getExternalLinks();
+        pagesLinks.add(links);
         if (links != null) {
           for (PageElementExternalLink link : links) {
-            String url = link.getLink();
-            DeadLink deadLink = null;
-            if (checkedLinks.containsKey(url)) {
-              deadLink = checkedLinks.get(url);
-              if (deadLink != null) {
-                deadLink = new DeadLink(page.getTitle(), link, deadLink.getStatus());
-              }
-            } else {
-              setText(GT._T("Analyzing {0}", url));
-              int count = 0;
-              boolean retry = true;
-              while (retry && (count < 3)) {
-                retry = false;
-                deadLink = null;
-                HttpMethod method = null;
-                try {
-                  method = Hc3HttpUtils.createHttpHeadMethod(url, null);
-                  int questionIndex = url.indexOf('?');
-                  if (questionIndex > 0) {
-                    method.setQueryString(url.substring(questionIndex + 1));
-                  }
-                  method.getParams().setSoTimeout(30000);
-                  method.setRequestHeader("Accept", "text/html,application/xhtml+xml,application/xml;q=0.9,image/webp,image/apng,*/*;q=0.8,application/signed-exchange;v=b3");
-                  method.setRequestHeader("Accept-Encoding", "gzip, deflate");
-                  method.setRequestHeader("Accept-Language", "en-US,en");
-                  method.setRequestHeader("Cache-Control", "no-cache");
-                  method.setRequestHeader("Connection", "keep-alive");
-                  method.setRequestHeader("Pragma", "no-cache");
-                  method.setRequestHeader("Upgrade-Insecure-Requests", "1");
-                  //method.setRequestHeader("Content-Type", "text/html");
-                  method.setRequestHeader("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/76.0.3809.100 Safari/537.36");
-                  int statusCode = client.executeMethod(method);
-                  if (statusCode != HttpStatus.SC_OK) {
-                    deadLink = new DeadLink(page.getTitle(), link, statusCode);
-                  }
-                } catch (IOException e) {
-                  if (e instanceof UnknownHostException) {
-                    deadLink = new DeadLink(page.getTitle(), link, GT._T("Unknown host {0}", e.getMessage()));
-                  } else if (e instanceof SocketException) {
-                    log.warn("{} when accessing {}: {}", e.getClass().getSimpleName(), url, e.getMessage());
-                    deadLink = new DeadLink(page.getTitle(), link, e.getClass().getSimpleName() + ": " + e.getMessage());
-                    retry = true;
-                    count++;
-                  } else {
-                    log.error("{} when accessing {}: {}", e.getClass().getSimpleName(), url, e.getMessage());
-                    deadLink = new DeadLink(page.getTitle(), link, e.getClass().getSimpleName() + ": " + e.getMessage());
-                  }
-                } catch (IllegalStateException e) {
-                  log.error("{} when accessing {}: {}", e.getClass().getSimpleName(), url, e.getMessage());
-                  deadLink = new DeadLink(page.getTitle(), link, e.getMessage());
-                } finally {
-                  if (method != null) {
-                    method.releaseConnection();
-                  }
-                }
+            urls.add(link.getLink());
+          }
+        }
+      }
+
+      // Check external links
+      Map<String, LinkStatus> statuses = getChecker().check(urls, new LinkChecker.Listener() {
+
+        @Override
+        public boolean linkChecked(String url, LinkStatus status, int done, int total) {
+          setText(GT._T("Analyzing {0}", url) + " (" + done + "/" + total + ")");
+          return shouldContinue();
+        }
+      });
+
+      // Report dead links
+      for (int pageNum = 0; pageNum < pages.size(); pageNum++) {
+        Page page = pages.get(pageNum);
+        List<PageElementExternalLink> links = pagesLinks.get(pageNum);
+        if (links != null) {
+          for (PageElementExternalLink link : links) {
+            LinkStatus status = statuses.get(link.getLink());
+            if ((status != null) && !status.isOk()) {
+              if (status.getStatus() != null) {
+                errors.add(new DeadLink(page.getTitle(), link, status.getStatus()));
+              } else {
+                errors.add(new DeadLink(page.getTitle(), link, status.getStatusText()));
               }
             }
-            if (deadLink != null) {
-              errors.add(deadLink);
-            }
-            if (!checkedLinks.containsKey(url)) {
-              checkedLinks.put(url, deadLink);
-            }
           }
         }
       }
@@ -184,4 +145,14 @@ public class DeadLinkWorker extends BasicWorker {
     }
     return errors;
   }
+
+  /**
+   * @return Link checker.
+   */
+  private static synchronized LinkChecker getChecker() {
+    if (checker == null) {
+      checker = new LinkChecker(LinkStatusCache.getDefaultCache());
+    }
+    return checker;
+  }
 }
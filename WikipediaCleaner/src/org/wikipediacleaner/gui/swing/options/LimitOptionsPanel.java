@@ -183,6 +183,23 @@ public class LimitOptionsPanel extends OptionsPanel {
     add(spin, constraints);
     constraints.gridy++;
 
+    // Batches of pages loaded in advance
+    spin = createJSpinner(
+        ConfigurationValueInteger.PREFETCH_BATCHES,
+        1, 20, 1);
+    JLabel labelPrefetch = Utilities.createJLabel(GT._T("Number of batches of pages loaded in advance :"));
+    labelPrefetch.setLabelFor(spin);
+    labelPrefetch.setHorizontalAlignment(SwingConstants.TRAILING);
+    constraints.gridwidth = 2;
+    constraints.gridx = 0;
+    constraints.weightx = 0;
+    add(labelPrefetch, constraints);
+    constraints.gridwidth = 1;
+    constraints.gridx = 2;
+    constraints.weightx = 1;
+    add(spin, constraints);
+    constraints.gridy++;
+
     // Add size limit for syntax highlighting
     spin = createJSpinner(
         ConfigurationValueInteger.SYNTAX_HIGHLIGHTING_LIMIT,
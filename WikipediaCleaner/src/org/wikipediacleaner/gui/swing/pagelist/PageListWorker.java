@@ -20,6 +20,7 @@ import javax.swing.JOptionPane;
 import org.wikipediacleaner.api.API;
 import org.wikipediacleaner.api.APIException;
 import org.wikipediacleaner.api.APIFactory;
+import org.wikipediacleaner.api.CategoryMembersListener;
 import org.wikipediacleaner.api.MediaWiki;
 import org.wikipediacleaner.api.constants.EnumQueryPage;
 import org.wikipediacleaner.api.constants.EnumWikipedia;
@@ -124,6 +125,7 @@ public class PageListWorker extends BasicWorker {
   private final Page referencePage;
   private final List<String> elementNames;
   private final Mode mode;
+  private final int depth;
   private final boolean watchList;
   private final List<Page> pageList;
   private final String message;
@@ -142,11 +144,30 @@ public class PageListWorker extends BasicWorker {
       Page referencePage,
       List<String> elementNames, Mode mode,
       boolean watchList, String message) {
+    this(wikipedia, window, referencePage, elementNames, mode, 0, watchList, message);
+  }
+
+  /**
+   * @param wikipedia Wikipedia.
+   * @param window Window.
+   * @param referencePage Reference page.
+   * @param elementNames List of elements (page names, ...).
+   * @param mode Mode for determining the list of pages.
+   * @param depth Depth of lookup for sub-categories (category modes).
+   * @param watchList True if it's the watch list.
+   * @param message Window title.
+   */
+  public PageListWorker(
+      EnumWikipedia wikipedia, BasicWindow window,
+      Page referencePage,
+      List<String> elementNames, Mode mode, int depth,
+      boolean watchList, String message) {
     super(wikipedia, window);
     this.referencePage = referencePage;
     this.pageList = new ArrayList<Page>();
     this.elementNames = elementNames;
     this.mode = mode;
+    this.depth = depth;
     this.watchList = watchList;
     this.message = message;
   }
@@ -351,19 +372,23 @@ public class PageListWorker extends BasicWorker {
    * @param pages List of pages members of the categories.
    * @throws APIException
    */
-  private void constructCategoryMembers(List<Page> pages) throws APIException {
+  private void constructCategoryMembers(final List<Page> pages) throws APIException {
     final API api = APIFactory.getAPI();
-    for (String pageName : elementNames) {
-      Page page = DataManager.getPage(getWikipedia(), pageName, null, null, null);
-      api.retrieveCategoryMembers(getWikipedia(), page, 0, true, Integer.MAX_VALUE);
-      List<Page> tmpPages = page.getRelatedPages(Page.RelatedPages.CATEGORY_MEMBERS);
-      if (tmpPages != null) {
-        for (Page tmpPage : tmpPages) {
-          if (!pages.contains(tmpPage)) {
+    final Set<Page> knownPages = new HashSet<Page>(pages);
+    CategoryMembersListener listener = new CategoryMembersListener() {
+
+      @Override
+      public void categoryMembers(Page category, int depth, List<Page> members) {
+        for (Page tmpPage : members) {
+          if (knownPages.add(tmpPage)) {
             pages.add(tmpPage);
           }
         }
       }
+    };
+    for (String pageName : elementNames) {
+      Page page = DataManager.getPage(getWikipedia(), pageName, null, null, null);
+      api.retrieveCategoryMembers(getWikipedia(), page, depth, true, Integer.MAX_VALUE, listener);
     }
   }
 
@@ -373,15 +398,15 @@ public class PageListWorker extends BasicWorker {
    * @param pages List of articles members of the categories.
    * @throws APIException
    */
-  private void constructCategoryMembersArticles(List<Page> pages) throws APIException {
+  private void constructCategoryMembersArticles(final List<Page> pages) throws APIException {
     final API api = APIFactory.getAPI();
-    for (String pageName : elementNames) {
-      Page page = DataManager.getPage(getWikipedia(), pageName, null, null, null);
-      api.retrieveCategoryMembers(getWikipedia(), page, 0, true, Integer.MAX_VALUE);
-      List<Page> tmpPages = page.getRelatedPages(Page.RelatedPages.CATEGORY_MEMBERS);
-      if (tmpPages != null) {
+    final Set<Page> knownPages = new HashSet<Page>(pages);
+    CategoryMembersListener listener = new CategoryMembersListener() {
+
+      @Override
+      public void categoryMembers(Page category, int depth, List<Page> members) {
         WPCConfiguration configuration = getWikipedia().getConfiguration();
-        for (Page tmpPage : tmpPages) {
+        for (Page tmpPage : members) {
           if (!tmpPage.isArticle()) {
             String title = tmpPage.getArticlePageName();
             String todoSubpage = configuration.getString(WPCConfigurationString.TODO_SUBPAGE);
@@ -392,11 +417,15 @@ public class PageListWorker extends BasicWorker {
             }
             tmpPage = DataManager.getPage(getWikipedia(), title, null, null, null);
           }
-          if (!pages.contains(tmpPage)) {
+          if (knownPages.add(tmpPage)) {
             pages.add(tmpPage);
           }
         }
       }
+    };
+    for (String pageName : elementNames) {
+      Page page = DataManager.getPage(getWikipedia(), pageName, null, null, null);
+      api.retrieveCategoryMembers(getWikipedia(), page, depth, true, Integer.MAX_VALUE, listener);
     }
   }
 
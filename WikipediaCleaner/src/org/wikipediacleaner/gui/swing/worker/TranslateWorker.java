@@ -10,13 +10,13 @@ package org.wikipediacleaner.gui.swing.worker;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
 
-import org.wikipediacleaner.api.API;
 import org.wikipediacleaner.api.APIException;
-import org.wikipediacleaner.api.APIFactory;
+import org.wikipediacleaner.api.MediaWiki;
 import org.wikipediacleaner.api.constants.EnumWikipedia;
-import org.wikipediacleaner.api.data.DataManager;
 import org.wikipediacleaner.api.data.Namespace;
 import org.wikipediacleaner.api.data.Page;
 import org.wikipediacleaner.api.data.PageElementCategory;
@@ -39,6 +39,9 @@ public class TranslateWorker extends BasicWorker {
   private final Page page;
   private final String initialText;
 
+  /** Language links retrieved in advance */
+  private final Map<String, String> languageLinks;
+
   /**
    * @param wikipedia Wikipedia.
    * @param window Window.
@@ -54,6 +57,7 @@ public class TranslateWorker extends BasicWorker {
     this.from = from;
     this.page = page;
     this.initialText = text;
+    this.languageLinks = new HashMap<String, String>();
   }
 
   /**
@@ -66,6 +70,10 @@ public class TranslateWorker extends BasicWorker {
 
     try {
       Configuration config = Configuration.getConfiguration();
+      retrieveLanguageLinks(
+          text,
+          config.getBoolean(null, ConfigurationValueBoolean.TRANSLATION_CATEGORY),
+          config.getBoolean(null, ConfigurationValueBoolean.TRANSLATION_TEMPLATE_NAME));
       text = translateInternalLinks(
           text,
           config.getBoolean(null, ConfigurationValueBoolean.TRANSLATION_INTERNAL_LINK_TEXT),
@@ -84,6 +92,44 @@ public class TranslateWorker extends BasicWorker {
     return text;
   }
 
+  /**
+   * Retrieve in advance all the language links needed for translating the text.
+   * 
+   * @param text Text to translate.
+   * @param translateCategories Flag indicating if categories should be translated.
+   * @param translateTemplates Flag indicating if templates names should be translated.
+   * @throws APIException
+   */
+  private void retrieveLanguageLinks(
+      String text,
+      boolean translateCategories,
+      boolean translateTemplates) throws APIException {
+    PageAnalysis analysis = page.getAnalysis(text, true);
+    Set<String> titles = new LinkedHashSet<String>();
+    for (PageElementInternalLink link : analysis.getInternalLinks()) {
+      titles.add(link.getLink());
+    }
+    if (translateCategories) {
+      Namespace categoryNamespace = getWikipedia().getWikiConfiguration().getNamespace(Namespace.CATEGORY);
+      if (categoryNamespace != null) {
+        for (PageElementCategory category : analysis.getCategories()) {
+          titles.add(categoryNamespace.getCanonicalTitle() + ":" + category.getName());
+        }
+      }
+    }
+    if (translateTemplates) {
+      Namespace templateNamespace = getWikipedia().getWikiConfiguration().getNamespace(Namespace.TEMPLATE);
+      if (templateNamespace != null) {
+        for (PageElementTemplate template : analysis.getTemplates()) {
+          titles.add(templateNamespace.getCanonicalTitle() + ":" + template.getTemplateName());
+        }
+      }
+    }
+    setText(GT._T("Retrieving interwiki for {0}", page.getTitle()));
+    MediaWiki mw = MediaWiki.getMediaWikiAccess(this);
+    languageLinks.putAll(mw.retrieveLanguageLinks(from, getWikipedia(), titles));
+  }
+
   /**
    * @param text Text to translate.
    * @param translateText Flag indicating if internal link text should be translated.
@@ -296,27 +342,11 @@ public class TranslateWorker extends BasicWorker {
    * @throws APIException
    */
   private String getLanguageLink(String pageName) throws APIException {
-    API api = APIFactory.getAPI();
-    String link = api.getLanguageLink(from, getWikipedia(), pageName);
-    if (link != null) {
-      return link;
-    }
-    Page original = DataManager.getPage(from, pageName, null, null, null);
-    //api.retrieveLinksWithRedirects(from, original, null, null);
-    api.initializeRedirect(from, Collections.singletonList(original));
-    if (!original.getRedirects().isRedirect()) {
-      return link;
-    }
-    api.retrieveContents(from, Collections.singletonList(original), false, true);
-    link = api.getLanguageLink(from, getWikipedia(), original.getRedirects().getTitle());
-    if (link == null) {
-      return null;
-    }
-    String destination = original.getRedirects().getDestination();
-    int anchorPos = destination.indexOf('#');
-    if (anchorPos < 0) {
-      return link;
+    if (languageLinks.containsKey(pageName)) {
+      return languageLinks.get(pageName);
     }
-    return link + destination.substring(anchorPos);
+    MediaWiki mw = MediaWiki.getMediaWikiAccess(this);
+    return mw.retrieveLanguageLinks(
+        from, getWikipedia(), Collections.singleton(pageName)).get(pageName);
   }
 }
@@ -16,6 +16,7 @@ import java.util.Map;
 import org.wikipediacleaner.api.API;
 import org.wikipediacleaner.api.APIException;
 import org.wikipediacleaner.api.APIFactory;
+import org.wikipediacleaner.api.ResultIterator;
 import org.wikipediacleaner.api.algorithm.AlgorithmError;
 import org.wikipediacleaner.api.check.CheckWiki;
 import org.wikipediacleaner.api.check.algorithm.CheckErrorAlgorithm;
@@ -127,16 +128,15 @@ public abstract class UpdateWarningWorker extends BasicWorker {
           warningTemplateName);
       Page warningTemplate = DataManager.getPage(
           wiki, templateTitle, null, null, null);
-      api.retrieveEmbeddedIn(
+      ResultIterator<Page> talkPages = api.iterateEmbeddedIn(
           wiki, warningTemplate,
-          configuration.getEncyclopedicTalkNamespaces(),
-          false);
+          configuration.getEncyclopedicTalkNamespaces());
 
       // Convert them to article pages
       setText(GT._T("Constructing list of articles with warning"));
-      List<Page> talkPages = warningTemplate.getRelatedPages(Page.RelatedPages.EMBEDDED_IN);
-      if (talkPages != null) {
-        for (Page talkPage : talkPages) {
+      try {
+        while (talkPages.hasNext()) {
+          Page talkPage = talkPages.next();
           Page page=  null;
           if (talkPage.isArticle()) {
             page = talkPage;
@@ -163,6 +163,8 @@ public abstract class UpdateWarningWorker extends BasicWorker {
           }
           addPage(page, pages);
         }
+      } finally {
+        talkPages.close();
       }
     }
   }
@@ -217,13 +219,13 @@ public abstract class UpdateWarningWorker extends BasicWorker {
       for (String category : categories) {
         String categoryTitle = wikiConfiguration.getPageTitle(Namespace.CATEGORY, category);
         Page categoryPage = DataManager.getPage(wiki, categoryTitle, null, null, null);
-        api.retrieveCategoryMembers(wiki, categoryPage, 0, false, Integer.MAX_VALUE);
-        List<Page> categoryMembers = categoryPage.getRelatedPages(
-            Page.RelatedPages.CATEGORY_MEMBERS);
-        if (categoryMembers != null) {
-          for (Page page : categoryMembers) {
-            addPage(page, pages);
+        ResultIterator<Page> categoryMembers = api.iterateCategoryMembers(wiki, categoryPage);
+        try {
+          while (categoryMembers.hasNext()) {
+            addPage(categoryMembers.next(), pages);
           }
+        } finally {
+          categoryMembers.close();
         }
       }
     }
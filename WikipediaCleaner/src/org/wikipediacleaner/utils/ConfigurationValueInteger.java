@@ -35,6 +35,7 @@ public enum ConfigurationValueInteger {
   MAX_SEARCH("MaxSearch", 1000),
   MENU_SIZE("MenuSize", 30),
   PLAF_TYPE("LookAndFeelType", ConfigurationConstants.VALUE_PLAF_TYPE_WPCLEANER),
+  PREFETCH_BATCHES("PrefetchBatches", 2),
   SAVE_USER("SaveUser", ConfigurationConstants.VALUE_SAVE_USER_NAME),
   SLOW_REGEXP("SlowRegexp", 1000),
   SYNTAX_HIGHLIGHTING_LIMIT("SyntaxHighlightingLimit", 40000),
@@ -0,0 +1,390 @@
+/*
+ *  WPCleaner: A tool to help on Wikipedia maintenance tasks.
+ *  Copyright (C) 2020  Nicolas Vervelle
+ *
+ *  See README.txt file for licensing information.
+ */
+
+
+package org.wikipediacleaner.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+
+/**
+ * Automaton (Aho-Corasick) for finding which literals of a list are present in a text.
+ * 
+ * <p>
+ * Literals are associated with a value (several literals can share the same value),
+ * and the text is scanned only once whatever the number of literals.
+ * Literals can be matched without taking case into account,
+ * by folding each character of both the literals and the text.
+ * </p>
+ * 
+ * <p>
+ * All literals must be added before calling {@link #build()},
+ * the automaton can then be used concurrently by several threads.
+ * </p>
+ */
+public class MultiLiteralMatcher {
+
+  /** Number of characters for which the transitions from the root are kept in an array */
+  private final static int ROOT_SIZE = 128;
+
+  /** Empty list of values */
+  private final static int[] NO_VALUES = new int[0];
+
+  /** True if case should be ignored */
+  private final boolean ignoreCase;
+
+  /** Transitions between states */
+  private final TransitionTable transitions;
+
+  /** Transitions from the root, for the most common characters */
+  private int[] rootTransitions;
+
+  /** Failure link for each state */
+  private int[] failures;
+
+  /** Values of the literals recognized in each state */
+  private int[][] outputs;
+
+  /** Number of states */
+  private int stateCount;
+
+  /** Temporary list of values recognized in each state, only used while building */
+  private List<List<Integer>> tmpOutputs;
+
+  /**
+   * @param ignoreCase True if case should be ignored.
+   */
+  public MultiLiteralMatcher(boolean ignoreCase) {
+    this.ignoreCase = ignoreCase;
+    this.transitions = new TransitionTable();
+    this.stateCount = 1;
+    this.tmpOutputs = new ArrayList<>();
+    this.tmpOutputs.add(null);
+  }
+
+  /**
+   * Add a literal to the automaton.
+   * 
+   * @param literal Literal (not empty).
+   * @param value Value associated with the literal.
+   */
+  public void add(String literal, int value) {
+    if (tmpOutputs == null) {
+      throw new IllegalStateException("Automaton already built");
+    }
+    if ((literal == null) || literal.isEmpty()) {
+      throw new IllegalArgumentException("Empty literal");
+    }
+    int state = 0;
+    for (int pos = 0; pos < literal.length(); pos++) {
+      char currentChar = ignoreCase ? fold(literal.charAt(pos)) : literal.charAt(pos);
+      int next = transitions.get(state, currentChar);
+      if (next < 0) {
+        next = stateCount;
+        stateCount++;
+        tmpOutputs.add(null);
+        transitions.put(state, currentChar, next);
+      }
+      state = next;
+    }
+    List<Integer> output = tmpOutputs.get(state);
+    if (output == null) {
+      output = new ArrayList<>();
+      tmpOutputs.set(state, output);
+    }
+    output.add(Integer.valueOf(value));
+  }
+
+  /**
+   * Compute failure links once all literals have been added.
+   */
+  public void build() {
+    failures = new int[stateCount];
+    outputs = new int[stateCount][];
+    rootTransitions = new int[ROOT_SIZE];
+    for (int currentChar = 0; currentChar < ROOT_SIZE; currentChar++) {
+      rootTransitions[currentChar] = transitions.get(0, (char) currentChar);
+    }
+    int[] queue = new int[stateCount];
+    int queueBegin = 0;
+    int queueEnd = 0;
+    outputs[0] = toArray(tmpOutputs.get(0), null);
+
+    // Breadth first walk through the states, so that failure links are always known
+    List<int[]> children = transitions.getChildrenByState(stateCount);
+    int[] rootChildren = children.get(0);
+    if (rootChildren != null) {
+      for (int i = 0; i < rootChildren.length; i += 2) {
+        int child = rootChildren[i + 1];
+        failures[child] = 0;
+        outputs[child] = toArray(tmpOutputs.get(child), outputs[0]);
+        queue[queueEnd++] = child;
+      }
+    }
+    while (queueBegin < queueEnd) {
+      int state = queue[queueBegin++];
+      int[] stateChildren = children.get(state);
+      if (stateChildren != null) {
+        for (int i = 0; i < stateChildren.length; i += 2) {
+          char currentChar = (char) stateChildren[i];
+          int child = stateChildren[i + 1];
+          int failure = failures[state];
+          int next = getTransition(failure, currentChar);
+          while ((next < 0) && (failure != 0)) {
+            failure = failures[failure];
+            next = getTransition(failure, currentChar);
+          }
+          failures[child] = (next >= 0) ? next : 0;
+          outputs[child] = toArray(tmpOutputs.get(child), outputs[failures[child]]);
+          queue[queueEnd++] = child;
+        }
+      }
+    }
+    tmpOutputs = null;
+  }
+
+  /**
+   * @param own Values recognized by a state.
+   * @param inherited Values recognized by the failure state.
+   * @return All values recognized by the state.
+   */
+  private static int[] toArray(List<Integer> own, int[] inherited) {
+    int ownSize = (own != null) ? own.size() : 0;
+    int inheritedSize = (inherited != null) ? inherited.length : 0;
+    if (ownSize == 0) {
+      return (inherited != null) ? inherited : NO_VALUES;
+    }
+    int[] result = new int[ownSize + inheritedSize];
+    for (int i = 0; i < ownSize; i++) {
+      result[i] = own.get(i).intValue();
+    }
+    if (inheritedSize > 0) {
+      System.arraycopy(inherited, 0, result, ownSize, inheritedSize);
+    }
+    return result;
+  }
+
+  /**
+   * @return True if no literal has been added.
+   */
+  public boolean isEmpty() {
+    return stateCount <= 1;
+  }
+
+  /**
+   * Search for all literals in a text.
+   * 
+   * @param text Text.
+   * @return Values of the literals present in the text.
+   */
+  public BitSet search(CharSequence text) {
+    BitSet result = new BitSet();
+    search(text, result, Integer.MAX_VALUE);
+    return result;
+  }
+
+  /**
+   * Search for literals in a text.
+   * 
+   * @param text Text.
+   * @param result Values of the literals present in the text are added to this set.
+   * @param maxCount The search stops as soon as the set contains this number of values.
+   */
+  public void search(CharSequence text, BitSet result, int maxCount) {
+    if (tmpOutputs != null) {
+      throw new IllegalStateException("Automaton not built");
+    }
+    int count = result.cardinality();
+    if (isEmpty() || (count >= maxCount)) {
+      return;
+    }
+    int state = 0;
+    int length = text.length();
+    for (int pos = 0; pos < length; pos++) {
+      char currentChar = ignoreCase ? fold(text.charAt(pos)) : text.charAt(pos);
+      int next = getTransition(state, currentChar);
+      while ((next < 0) && (state != 0)) {
+        state = failures[state];
+        next = getTransition(state, currentChar);
+      }
+      state = (next >= 0) ? next : 0;
+      for (int value : outputs[state]) {
+        if (!result.get(value)) {
+          result.set(value);
+          count++;
+          if (count >= maxCount) {
+            return;
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * @param state State.
+   * @param currentChar Character.
+   * @return Next state, or -1 if there's no transition.
+   */
+  private int getTransition(int state, char currentChar) {
+    if ((state == 0) && (currentChar < ROOT_SIZE)) {
+      return rootTransitions[currentChar];
+    }
+    return transitions.get(state, currentChar);
+  }
+
+  /**
+   * Fold a character so that comparisons don't take case into account.
+   * 
+   * @param character Character.
+   * @return Folded character.
+   */
+  public static char fold(char character) {
+    if (character < ROOT_SIZE) {
+      if ((character >= 'A') && (character <= 'Z')) {
+        return (char) (character + 'a' - 'A');
+      }
+      return character;
+    }
+    return Character.toLowerCase(Character.toUpperCase(character));
+  }
+
+  /**
+   * Hash table (open addressing) for transitions between states of the automaton.
+   */
+  private static class TransitionTable {
+
+    /** Keys: state and character, -1 for empty slots */
+    private long[] keys;
+
+    /** Values: next state */
+    private int[] values;
+
+    /** Number of transitions */
+    private int size;
+
+    /**
+     * Constructor.
+     */
+    public TransitionTable() {
+      keys = new long[64];
+      values = new int[64];
+      Arrays.fill(keys, -1);
+      size = 0;
+    }
+
+    /**
+     * @param state State.
+     * @param currentChar Character.
+     * @return Key for the transition.
+     */
+    private static long key(int state, char currentChar) {
+      return (((long) state) << 16) | currentChar;
+    }
+
+    /**
+     * @param key Key.
+     * @param length Length of the table.
+     * @return Initial slot for the key.
+     */
+    private static int slot(long key, int length) {
+      long hash = key * 0x9E3779B97F4A7C15L;
+      return (int) (hash >>> 40) & (length - 1);
+    }
+
+    /**
+     * @param state State.
+     * @param currentChar Character.
+     * @return Next state, or -1 if there's no transition.
+     */
+    public int get(int state, char currentChar) {
+      long key = key(state, currentChar);
+      int mask = keys.length - 1;
+      int index = slot(key, keys.length);
+      while (keys[index] != -1) {
+        if (keys[index] == key) {
+          return values[index];
+        }
+        index = (index + 1) & mask;
+      }
+      return -1;
+    }
+
+    /**
+     * @param state State.
+     * @param currentChar Character.
+     * @param next Next state.
+     */
+    public void put(int state, char currentChar, int next) {
+      if (2 * (size + 1) > keys.length) {
+        resize();
+      }
+      long key = key(state, currentChar);
+      int mask = keys.length - 1;
+      int index = slot(key, keys.length);
+      while ((keys[index] != -1) && (keys[index] != key)) {
+        index = (index + 1) & mask;
+      }
+      if (keys[index] == -1) {
+        size++;
+      }
+      keys[index] = key;
+      values[index] = next;
+    }
+
+    /**
+     * Double the size of the table.
+     */
+    private void resize() {
+      long[] oldKeys = keys;
+      int[] oldValues = values;
+      keys = new long[oldKeys.length * 2];
+      values = new int[oldValues.length * 2];
+      Arrays.fill(keys, -1);
+      int mask = keys.length - 1;
+      for (int i = 0; i < oldKeys.length; i++) {
+        if (oldKeys[i] != -1) {
+          int index = slot(oldKeys[i], keys.length);
+          while (keys[index] != -1) {
+            index = (index + 1) & mask;
+          }
+          keys[index] = oldKeys[i];
+          values[index] = oldValues[i];
+        }
+      }
+    }
+
+    /**
+     * @param stateCount Number of states.
+     * @return For each state, pairs of (character, next state).
+     */
+    public List<int[]> getChildrenByState(int stateCount) {
+      int[] counts = new int[stateCount];
+      for (int i = 0; i < keys.length; i++) {
+        if (keys[i] != -1) {
+          counts[(int) (keys[i] >>> 16)]++;
+        }
+      }
+      List<int[]> result = new ArrayList<>(stateCount);
+      for (int state = 0; state < stateCount; state++) {
+        result.add((counts[state] > 0) ? new int[2 * counts[state]] : null);
+        counts[state] = 0;
+      }
+      for (int i = 0; i < keys.length; i++) {
+        if (keys[i] != -1) {
+          int state = (int) (keys[i] >>> 16);
+          int[] children = result.get(state);
+          children[counts[state]++] = (int) (keys[i] & 0xFFFF);
+          children[counts[state]++] = values[i];
+        }
+      }
+      return result;
+    }
+  }
+}
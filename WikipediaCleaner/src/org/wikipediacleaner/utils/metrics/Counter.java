@@ -0,0 +1,66 @@
+/*
+ *  WPCleaner: A tool to help on Wikipedia maintenance tasks.
+ *  Copyright (C) 2020  Nicolas Vervelle
+ *
+ *  See README.txt file for licensing information.
+ */
+
+package org.wikipediacleaner.utils.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Counter for metrics.
+ */
+public class Counter {
+
+  /** Name of the counter */
+  private final String name;
+
+  /** Value of the counter */
+  private final AtomicLong value;
+
+  /**
+   * @param name Name of the counter.
+   */
+  Counter(String name) {
+    this.name = name;
+    this.value = new AtomicLong();
+  }
+
+  /**
+   * @return Name of the counter.
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Increment the counter.
+   */
+  public void increment() {
+    value.incrementAndGet();
+  }
+
+  /**
+   * @param delta Value to add to the counter.
+   */
+  public void add(long delta) {
+    value.addAndGet(delta);
+  }
+
+  /**
+   * @return Value of the counter.
+   */
+  public long getValue() {
+    return value.get();
+  }
+
+  /**
+   * Reset the counter.
+   */
+  void reset() {
+    value.set(0);
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ *  WPCleaner: A tool to help on Wikipedia maintenance tasks.
+ *  Copyright (C) 2020  Nicolas Vervelle
+ *
+ *  See README.txt file for licensing information.
+ */
+
+package org.wikipediacleaner.utils.metrics;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+
+/**
+ * Input stream counting the number of bytes read.
+ */
+public class CountingInputStream extends FilterInputStream {
+
+  /** Number of bytes read */
+  private long count;
+
+  /**
+   * @param in Underlying input stream.
+   */
+  public CountingInputStream(InputStream in) {
+    super(in);
+    this.count = 0;
+  }
+
+  /**
+   * @return Number of bytes read.
+   */
+  public long getCount() {
+    return count;
+  }
+
+  /**
+   * @return Next byte of data.
+   * @throws IOException Exception when reading the stream.
+   * @see java.io.FilterInputStream#read()
+   */
+  @Override
+  public int read() throws IOException {
+    int result = super.read();
+    if (result >= 0) {
+      count++;
+    }
+    return result;
+  }
+
+  /**
+   * @param b Buffer.
+   * @param off Offset in the buffer.
+   * @param len Maximum number of bytes to read.
+   * @return Number of bytes read.
+   * @throws IOException Exception when reading the stream.
+   * @see java.io.FilterInputStream#read(byte[], int, int)
+   */
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    int result = super.read(b, off, len);
+    if (result > 0) {
+      count += result;
+    }
+    return result;
+  }
+
+  /**
+   * @param n Number of bytes to skip.
+   * @return Number of bytes skipped.
+   * @throws IOException Exception when reading the stream.
+   * @see java.io.FilterInputStream#skip(long)
+   */
+  @Override
+  public long skip(long n) throws IOException {
+    long result = super.skip(n);
+    if (result > 0) {
+      count += result;
+    }
+    return result;
+  }
+}
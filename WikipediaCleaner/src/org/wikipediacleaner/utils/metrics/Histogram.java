@@ -0,0 +1,187 @@
+/*
+ *  WPCleaner: A tool to help on Wikipedia maintenance tasks.
+ *  Copyright (C) 2020  Nicolas Vervelle
+ *
+ *  See README.txt file for licensing information.
+ */
+
+package org.wikipediacleaner.utils.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+
+/**
+ * Histogram for metrics.
+ * 
+ * <p>
+ * Values are recorded in buckets with a logarithmic scale subdivided linearly,
+ * so that the relative error on percentiles stays below 12.5%
+ * while recording a value only requires a few atomic operations.
+ * </p>
+ */
+public class Histogram {
+
+  /** Number of bits for subdividing each power of 2 */
+  private final static int SUB_BITS = 3;
+
+  /** Number of sub buckets in each power of 2 */
+  private final static int SUB_COUNT = 1 << SUB_BITS;
+
+  /** Total number of buckets */
+  private final static int BUCKET_COUNT = SUB_COUNT + (63 - SUB_BITS) * SUB_COUNT;
+
+  /** Name of the histogram */
+  private final String name;
+
+  /** Count of values in each bucket */
+  private final AtomicLongArray buckets;
+
+  /** Number of values */
+  private final AtomicLong count;
+
+  /** Sum of values */
+  private final AtomicLong sum;
+
+  /** Maximum value */
+  private final AtomicLong max;
+
+  /**
+   * @param name Name of the histogram.
+   */
+  Histogram(String name) {
+    this.name = name;
+    this.buckets = new AtomicLongArray(BUCKET_COUNT);
+    this.count = new AtomicLong();
+    this.sum = new AtomicLong();
+    this.max = new AtomicLong();
+  }
+
+  /**
+   * @return Name of the histogram.
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Record a value.
+   * 
+   * @param value Value (negative values are recorded as 0).
+   */
+  public void record(long value) {
+    if (value < 0) {
+      value = 0;
+    }
+    buckets.incrementAndGet(getBucket(value));
+    count.incrementAndGet();
+    sum.addAndGet(value);
+    long currentMax = max.get();
+    while ((value > currentMax) && !max.compareAndSet(currentMax, value)) {
+      currentMax = max.get();
+    }
+  }
+
+  /**
+   * Record the time elapsed since a given time.
+   * 
+   * @param beginTime Begin time (as given by {@link System#nanoTime()}).
+   */
+  public void recordTimeSince(long beginTime) {
+    record(System.nanoTime() - beginTime);
+  }
+
+  /**
+   * @return Number of values.
+   */
+  public long getCount() {
+    return count.get();
+  }
+
+  /**
+   * @return Sum of values.
+   */
+  public long getSum() {
+    return sum.get();
+  }
+
+  /**
+   * @return Maximum value.
+   */
+  public long getMax() {
+    return max.get();
+  }
+
+  /**
+   * @return Mean value.
+   */
+  public long getMean() {
+    long tmpCount = count.get();
+    return (tmpCount > 0) ? sum.get() / tmpCount : 0;
+  }
+
+  /**
+   * @param percentile Percentile (between 0 and 100).
+   * @return Approximate value at the given percentile.
+   */
+  public long getPercentile(double percentile) {
+    long[] tmpBuckets = new long[BUCKET_COUNT];
+    long total = 0;
+    for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+      tmpBuckets[bucket] = buckets.get(bucket);
+      total += tmpBuckets[bucket];
+    }
+    if (total == 0) {
+      return 0;
+    }
+    long threshold = (long) Math.ceil(total * Math.min(Math.max(percentile, 0), 100) / 100);
+    threshold = Math.max(threshold, 1);
+    long current = 0;
+    for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+      current += tmpBuckets[bucket];
+      if (current >= threshold) {
+        return Math.min(getBucketMax(bucket), max.get());
+      }
+    }
+    return max.get();
+  }
+
+  /**
+   * Reset the histogram.
+   */
+  void reset() {
+    for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+      buckets.set(bucket, 0);
+    }
+    count.set(0);
+    sum.set(0);
+    max.set(0);
+  }
+
+  /**
+   * @param value Value.
+   * @return Bucket for the value.
+   */
+  private static int getBucket(long value) {
+    if (value < SUB_COUNT) {
+      return (int) value;
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(value);
+    int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_COUNT - 1);
+    return SUB_COUNT + (exponent - SUB_BITS) * SUB_COUNT + sub;
+  }
+
+  /**
+   * @param bucket Bucket.
+   * @return Maximum value in the bucket.
+   */
+  private static long getBucketMax(int bucket) {
+    if (bucket < SUB_COUNT) {
+      return bucket;
+    }
+    int shift = (bucket - SUB_COUNT) / SUB_COUNT;
+    long sub = (bucket - SUB_COUNT) % SUB_COUNT;
+    long min = (SUB_COUNT + sub) << shift;
+    return min + (1L << shift) - 1;
+  }
+}
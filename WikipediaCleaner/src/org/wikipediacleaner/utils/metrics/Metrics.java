@@ -0,0 +1,287 @@
+/*
+ *  WPCleaner: A tool to help on Wikipedia maintenance tasks.
+ *  Copyright (C) 2020  Nicolas Vervelle
+ *
+ *  See README.txt file for licensing information.
+ */
+
+package org.wikipediacleaner.utils.metrics;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Registry of metrics (counters and histograms).
+ * 
+ * <p>
+ * Durations are recorded in nanoseconds.
+ * Metrics can be accessed through JMX and periodically written to a CSV file.
+ * </p>
+ */
+public class Metrics {
+
+  /** Logger */
+  private final static Logger log = LoggerFactory.getLogger(Metrics.class);
+
+  /** Name of the JMX bean */
+  private final static String MBEAN_NAME = "org.wikipediacleaner:type=Metrics";
+
+  /** Counters */
+  private final static ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<>();
+
+  /** Histograms */
+  private final static ConcurrentMap<String, Histogram> histograms = new ConcurrentHashMap<>();
+
+  /** True when the JMX bean is registered */
+  private static boolean mbeanRegistered = false;
+
+  /** Executor for periodic reports */
+  private static ScheduledExecutorService reportExecutor = null;
+
+  /** File for reports */
+  private static File reportFile = null;
+
+  /**
+   * @param name Name of the counter.
+   * @return Counter.
+   */
+  public static Counter getCounter(String name) {
+    Counter counter = counters.get(name);
+    if (counter == null) {
+      counter = new Counter(name);
+      Counter previous = counters.putIfAbsent(name, counter);
+      if (previous != null) {
+        counter = previous;
+      }
+    }
+    return counter;
+  }
+
+  /**
+   * @param name Name of the histogram.
+   * @return Histogram.
+   */
+  public static Histogram getHistogram(String name) {
+    Histogram histogram = histograms.get(name);
+    if (histogram == null) {
+      histogram = new Histogram(name);
+      Histogram previous = histograms.putIfAbsent(name, histogram);
+      if (previous != null) {
+        histogram = previous;
+      }
+    }
+    return histogram;
+  }
+
+  /**
+   * Reset all metrics.
+   */
+  public static void reset() {
+    for (Counter counter : counters.values()) {
+      counter.reset();
+    }
+    for (Histogram histogram : histograms.values()) {
+      histogram.reset();
+    }
+  }
+
+  /**
+   * Write a report of all metrics in CSV format.
+   * 
+   * @param writer Writer.
+   * @throws IOException Exception when writing.
+   */
+  public static void writeReport(Writer writer) throws IOException {
+    writer.write("type;name;count;sum;mean;p50;p90;p99;max\n");
+    for (Counter counter : new TreeMap<>(counters).values()) {
+      writer.write("counter;" + counter.getName() + ";" + counter.getValue() + ";;;;;;\n");
+    }
+    for (Histogram histogram : new TreeMap<>(histograms).values()) {
+      writer.write(
+          "histogram;" + histogram.getName() + ";" +
+          histogram.getCount() + ";" + histogram.getSum() + ";" +
+          histogram.getMean() + ";" +
+          histogram.getPercentile(50) + ";" +
+          histogram.getPercentile(90) + ";" +
+          histogram.getPercentile(99) + ";" +
+          histogram.getMax() + "\n");
+    }
+  }
+
+  /**
+   * @return Report of all metrics in CSV format.
+   */
+  public static String getReport() {
+    StringWriter writer = new StringWriter();
+    try {
+      writeReport(writer);
+    } catch (IOException e) {
+      // Not possible with a StringWriter
+    }
+    return writer.toString();
+  }
+
+  /**
+   * Register metrics in JMX.
+   */
+  public static synchronized void registerMBean() {
+    if (mbeanRegistered) {
+      return;
+    }
+    try {
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      server.registerMBean(new MBean(), new ObjectName(MBEAN_NAME));
+      mbeanRegistered = true;
+    } catch (JMException e) {
+      log.warn("Unable to register metrics in JMX: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Start writing periodically a report of all metrics to a file.
+   * 
+   * @param file File.
+   * @param period Period in seconds.
+   */
+  public static synchronized void startReport(File file, int period) {
+    stopReport();
+    reportFile = file;
+    reportExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+
+      @Override
+      public Thread newThread(Runnable r) {
+        Thread thread = new Thread(r, "Metrics");
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+    reportExecutor.scheduleAtFixedRate(new Runnable() {
+
+      @Override
+      public void run() {
+        dumpReport();
+      }
+    }, period, Math.max(period, 1), TimeUnit.SECONDS);
+  }
+
+  /**
+   * Stop writing periodically a report of all metrics, after a last report.
+   */
+  public static synchronized void stopReport() {
+    if (reportExecutor != null) {
+      reportExecutor.shutdownNow();
+      reportExecutor = null;
+      dumpReport();
+    }
+  }
+
+  /**
+   * Write a report of all metrics to the report file, if any.
+   */
+  public static void dumpReport() {
+    File file = null;
+    synchronized (Metrics.class) {
+      file = reportFile;
+    }
+    if (file == null) {
+      return;
+    }
+    File tmpFile = new File(file.getPath() + ".tmp");
+    try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+        new FileOutputStream(tmpFile), StandardCharsets.UTF_8))) {
+      writeReport(writer);
+    } catch (IOException e) {
+      log.warn("Unable to write metrics to " + file + ": " + e.getMessage());
+      return;
+    }
+    if ((file.exists() && !file.delete()) || !tmpFile.renameTo(file)) {
+      log.warn("Unable to write metrics to " + file);
+    }
+  }
+
+  /**
+   * JMX bean giving access to the metrics.
+   */
+  private static class MBean implements MetricsMXBean {
+
+    /**
+     * Constructor.
+     */
+    MBean() {
+      // Nothing to do
+    }
+
+    /**
+     * @return Values of the counters.
+     * @see org.wikipediacleaner.utils.metrics.MetricsMXBean#getCounters()
+     */
+    @Override
+    public Map<String, Long> getCounters() {
+      Map<String, Long> result = new TreeMap<>();
+      for (Counter counter : counters.values()) {
+        result.put(counter.getName(), counter.getValue());
+      }
+      return result;
+    }
+
+    /**
+     * @return Summary of the histograms.
+     * @see org.wikipediacleaner.utils.metrics.MetricsMXBean#getHistograms()
+     */
+    @Override
+    public Map<String, String> getHistograms() {
+      Map<String, String> result = new TreeMap<>();
+      for (Histogram histogram : histograms.values()) {
+        result.put(
+            histogram.getName(),
+            "count=" + histogram.getCount() +
+            ", mean=" + histogram.getMean() +
+            ", p50=" + histogram.getPercentile(50) +
+            ", p99=" + histogram.getPercentile(99) +
+            ", max=" + histogram.getMax());
+      }
+      return result;
+    }
+
+    /**
+     * @return Report of all metrics in CSV format.
+     * @see org.wikipediacleaner.utils.metrics.MetricsMXBean#getReport()
+     */
+    @Override
+    public String getReport() {
+      return Metrics.getReport();
+    }
+
+    /**
+     * Reset all metrics.
+     * @see org.wikipediacleaner.utils.metrics.MetricsMXBean#reset()
+     */
+    @Override
+    public void reset() {
+      Metrics.reset();
+    }
+  }
+}
@@ -0,0 +1,37 @@
+/*
+ *  WPCleaner: A tool to help on Wikipedia maintenance tasks.
+ *  Copyright (C) 2020  Nicolas Vervelle
+ *
+ *  See README.txt file for licensing information.
+ */
+
+package org.wikipediacleaner.utils.metrics;
+
+import java.util.Map;
+
+
+/**
+ * Management interface to access metrics through JMX.
+ */
+public interface MetricsMXBean {
+
+  /**
+   * @return Values of the counters.
+   */
+  public Map<String, Long> getCounters();
+
+  /**
+   * @return Summary of the histograms.
+   */
+  public Map<String, String> getHistograms();
+
+  /**
+   * @return Report of all metrics in CSV format.
+   */
+  public String getReport();
+
+  /**
+   * Reset all metrics.
+   */
+  public void reset();
+}
@@ -0,0 +1,233 @@
+/*
+ *  WPCleaner: A tool to help on Wikipedia maintenance tasks.
+ *  Copyright (C) 2020  Nicolas Vervelle
+ *
+ *  See README.txt file for licensing information.
+ */
+
+package org.wikipediacleaner;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.wikipediacleaner.api.constants.EnumWikipedia;
+import org.wikipediacleaner.gui.swing.basic.BasicWorker;
+
+
+/**
+ * Test class for the scheduling of the bot actions.
+ */
+public class BotTest {
+
+  /**
+   * Test the analysis of the task options.
+   */
+  @Test
+  public void testTaskOptions() {
+    Bot.Action task = createAction("Task -id a -after b,c -wiki fr -cpu FixCheckWiki 1 2");
+    assertTrue("Task", task.isTask());
+    assertTrue("Task OK", task.isOk());
+    assertEquals("Task id", "a", task.taskId);
+    assertEquals("Dependencies", new HashSet<>(Arrays.asList("b", "c")), task.dependencies);
+    assertEquals("Task wiki", EnumWikipedia.FR, task.wiki);
+    assertTrue("CPU bound", task.cpuBound);
+    assertEquals("Task action", "FixCheckWiki", task.action);
+    assertArrayEquals("Task arguments", new String[] { "1", "2" }, task.actionArgs);
+    assertEquals("Full action", "Task -id a -after b,c -wiki fr -cpu FixCheckWiki 1 2", task.fullAction);
+
+    Bot.Action action = createAction("FixCheckWiki 1");
+    assertFalse("Action", action.isTask());
+    assertEquals("Default wiki", EnumWikipedia.EN, action.wiki);
+    assertNull("No task id", action.taskId);
+    assertTrue("No dependencies", action.dependencies.isEmpty());
+    assertFalse("Not CPU bound", action.cpuBound);
+
+    assertTrue("Dump analysis CPU bound", createAction("Task ListCheckWiki dump output 1").cpuBound);
+    assertFalse("Unknown wiki", createAction("Task -wiki unknown Wait").isOk());
+    assertFalse("Missing action", createAction("Task -id a").isOk());
+    assertFalse("Set never a task", createAction("Task -id a Set Namespaces 0").isTask());
+  }
+
+  /**
+   * Test that actions which are not tasks are barriers.
+   */
+  @Test
+  public void testBarriers() {
+    TestBot bot = new TestBot(
+        "Task -id a A",
+        "Task -id b B",
+        "C",
+        "Task D");
+    bot.scheduleActions();
+    assertEquals("Tasks before barrier", Arrays.asList("A", "B"), bot.started);
+    bot.finish("A");
+    assertEquals("Barrier waiting", Arrays.asList("A", "B"), bot.started);
+    bot.finish("B");
+    assertEquals("Barrier started", Arrays.asList("A", "B", "C"), bot.started);
+    bot.finish("C");
+    assertEquals("Task after barrier", Arrays.asList("A", "B", "C", "D"), bot.started);
+    assertNull("Still running", bot.exitStatus);
+    bot.finish("D");
+    assertEquals("Exit", Integer.valueOf(0), bot.exitStatus);
+  }
+
+  /**
+   * Test that tasks wait for their dependencies.
+   */
+  @Test
+  public void testDependencies() {
+    TestBot bot = new TestBot(
+        "Task -id a A",
+        "Task -id b -after a B",
+        "Task -after a,b C",
+        "Task D");
+    bot.scheduleActions();
+    assertEquals("Independent tasks", Arrays.asList("A", "D"), bot.started);
+    bot.finish("D");
+    assertEquals("Unrelated task finished", Arrays.asList("A", "D"), bot.started);
+    bot.finish("A");
+    assertEquals("First dependency", Arrays.asList("A", "D", "B"), bot.started);
+    bot.finish("B");
+    assertEquals("All dependencies", Arrays.asList("A", "D", "B", "C"), bot.started);
+  }
+
+  /**
+   * Test the budget of CPU bound tasks.
+   */
+  @Test
+  public void testMaxCpuTasks() {
+    TestBot bot = new TestBot(
+        "Task -cpu A",
+        "Task -cpu B",
+        "Task C");
+    bot.scheduleActions();
+    assertEquals("Default budget", Arrays.asList("A", "C"), bot.started);
+    bot.finish("A");
+    assertEquals("Budget released", Arrays.asList("A", "C", "B"), bot.started);
+
+    bot = new TestBot(
+        "Set MaxCpuTasks 2",
+        "Task -cpu A",
+        "Task -cpu B",
+        "Task -cpu C");
+    bot.scheduleActions();
+    assertEquals("Increased budget", Arrays.asList("A", "B"), bot.started);
+    bot.finish("B");
+    assertEquals("Budget released", Arrays.asList("A", "B", "C"), bot.started);
+  }
+
+  /**
+   * Test that each action keeps the context set before it.
+   */
+  @Test
+  public void testContext() {
+    TestBot bot = new TestBot(
+        "Set Namespaces 0 4",
+        "Set RangeBegin M",
+        "Task -id a A",
+        "Set Namespaces 2",
+        "Set RangeBegin N",
+        "Task B");
+    bot.scheduleActions();
+    assertEquals("Before second context", Arrays.asList("A"), bot.started);
+    bot.finish("A");
+    assertEquals("After second context", Arrays.asList("A", "B"), bot.started);
+    Bot.Action first = bot.actions.get("A");
+    Bot.Action second = bot.actions.get("B");
+    assertEquals("First namespaces", new HashSet<>(Arrays.asList(0, 4)), first.namespaces);
+    assertEquals("First range", "M", first.rangeBegin);
+    assertEquals("Second namespaces", new HashSet<>(Arrays.asList(2)), second.namespaces);
+    assertEquals("Second range", "N", second.rangeBegin);
+    assertTrue("No additional algorithms", second.additionalAlgorithms.isEmpty());
+  }
+
+  /**
+   * @param line Line describing the action.
+   * @return Action.
+   */
+  private static Bot.Action createAction(String line) {
+    return new Bot.Action(line.split(" +"), null, EnumWikipedia.EN);
+  }
+
+  /**
+   * Bot recording the actions instead of executing them.
+   */
+  private static class TestBot extends Bot {
+
+    /** Names of the started actions, in order */
+    final List<String> started;
+
+    /** Started actions, by name */
+    final Map<String, Bot.Action> actions;
+
+    /** Workers of the started actions, by name */
+    private final Map<String, BasicWorker> workers;
+
+    /** Exit status, null while running */
+    Integer exitStatus;
+
+    /**
+     * @param lines Lines describing the actions.
+     */
+    TestBot(String... lines) {
+      super(EnumWikipedia.EN);
+      started = new ArrayList<>();
+      actions = new HashMap<>();
+      workers = new HashMap<>();
+      for (String line : lines) {
+        addAction(createAction(line));
+      }
+    }
+
+    /**
+     * Execute Set and Wait actions, record the other ones.
+     * 
+     * @param actionConfig Action and its configuration.
+     * @return Worker to be started for the action, null if the action is already done.
+     */
+    @Override
+    BasicWorker executeAction(final Bot.Action actionConfig) {
+      if ("Set".equalsIgnoreCase(actionConfig.action) ||
+          "Wait".equalsIgnoreCase(actionConfig.action)) {
+        return super.executeAction(actionConfig);
+      }
+      BasicWorker worker = new BasicWorker(actionConfig.wiki, null) {
+
+        @Override
+        public Object construct() {
+          return null;
+        }
+
+        @Override
+        public void start() {
+          started.add(actionConfig.action);
+        }
+      };
+      actions.put(actionConfig.action, actionConfig);
+      workers.put(actionConfig.action, worker);
+      return worker;
+    }
+
+    /**
+     * @param status Exit status.
+     */
+    @Override
+    void exit(int status) {
+      exitStatus = Integer.valueOf(status);
+    }
+
+    /**
+     * @param name Name of the action to finish.
+     */
+    void finish(String name) {
+      afterFinished(workers.get(name), true);
+    }
+  }
+}
@@ -0,0 +1,178 @@
+/*
+ *  WPCleaner: A tool to help on Wikipedia maintenance tasks.
+ *  Copyright (C) 2020  Nicolas Vervelle
+ *
+ *  See README.txt file for licensing information.
+ */
+
+package org.wikipediacleaner.api.check.algorithm;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.wikipediacleaner.api.check.CheckErrorResult;
+import org.wikipediacleaner.api.constants.EnumCaseSensitiveness;
+import org.wikipediacleaner.api.constants.EnumWikipedia;
+import org.wikipediacleaner.api.constants.WikiConfiguration;
+import org.wikipediacleaner.api.data.DataManager;
+import org.wikipediacleaner.api.data.MagicWord;
+import org.wikipediacleaner.api.data.Namespace;
+import org.wikipediacleaner.api.data.Page;
+import org.wikipediacleaner.api.data.analysis.PageAnalysis;
+
+
+/**
+ * Test class for the prefilter of algorithms.
+ * 
+ * <p>
+ * Algorithms run only on the candidates found by the prefilter
+ * must report the same detections as all algorithms run on every page.
+ * </p>
+ */
+public class CheckErrorAlgorithmPrefilterTest {
+
+  /** Fragments used to build random wikitext */
+  private final static String[] FRAGMENTS = {
+    "[[", "]]", "[[Link]]", "[[Link|text", "{{", "}}", "{{Tpl|a}}", "{{Tpl|",
+    "{|", "|-", "|}", "<table>", "</table>", "<TABLE>", "<gallery>", "</gallery>", "<Gallery>",
+    "&nbsp;", "&eacute;", "&amp;", "&", "%20", "[http://example.com%20a]",
+    "PMID 12345", "pmid 12345", "ISBN 978-0-306-40615-7", "isbn 0306406152", "EAN 123",
+    "RFC 1234", "rfc 1234", " ", " ", "\n", "text", "|", "=", "<ref>", "</ref>",
+    "<nowiki>", "</nowiki>", "</ nowiki>", "<font>", "</FONT>", "</\u00A0font>", "nowiki", "font",
+  };
+
+  /** Number of random texts */
+  private final static int TEXT_COUNT = 300;
+
+  /**
+   * Initialize the configuration normally retrieved from the wiki.
+   */
+  @BeforeClass
+  public static void beforeClass() {
+    WikiConfiguration configuration = EnumWikipedia.EN.getWikiConfiguration();
+    configuration.setMagicWords(new HashMap<String, MagicWord>());
+    List<Namespace> namespaces = new ArrayList<>();
+    String[] names = { "", "Talk", "User", "User talk", "Wikipedia", "Wikipedia talk", "File", "File talk",
+        "MediaWiki", "MediaWiki talk", "Template", "Template talk", "Help", "Help talk",
+        "Category", "Category talk" };
+    for (int id = 0; id < names.length; id++) {
+      namespaces.add(new Namespace(
+          Integer.toString(id), names[id], names[id], EnumCaseSensitiveness.FIRST_LETTER, false));
+    }
+    configuration.setNamespaces(namespaces);
+  }
+
+  /**
+   * @return Algorithms declaring required literals, and one without.
+   */
+  private static List<CheckErrorAlgorithm> createAlgorithms() {
+    List<CheckErrorAlgorithm> algorithms = new ArrayList<>();
+    algorithms.add(new CheckErrorAlgorithm010());
+    algorithms.add(new CheckErrorAlgorithm011());
+    algorithms.add(new CheckErrorAlgorithm028());
+    algorithms.add(new CheckErrorAlgorithm029());
+    algorithms.add(new CheckErrorAlgorithm023());
+    algorithms.add(new CheckErrorAlgorithm040());
+    algorithms.add(new CheckErrorAlgorithm043());
+    algorithms.add(new CheckErrorAlgorithm046());
+    algorithms.add(new CheckErrorAlgorithm047());
+    algorithms.add(new CheckErrorAlgorithm076());
+    algorithms.add(new CheckErrorAlgorithm528());
+    algorithms.add(new CheckErrorAlgorithm529());
+    algorithms.add(new CheckErrorAlgorithm530());
+    algorithms.add(new CheckErrorAlgorithm002());
+    EnumWikipedia wiki = EnumWikipedia.EN;
+    for (CheckErrorAlgorithm algorithm : algorithms) {
+      algorithm.setConfiguration(
+          wiki.getWikiConfiguration(), wiki.getCWConfiguration(), wiki.getConfiguration());
+    }
+    return algorithms;
+  }
+
+  /**
+   * @param random Random generator.
+   * @return Random wikitext.
+   */
+  private static String createText(Random random) {
+    StringBuilder sb = new StringBuilder();
+    int count = 1 + random.nextInt(25);
+    for (int i = 0; i < count; i++) {
+      sb.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+    }
+    return sb.toString();
+  }
+
+  /**
+   * @param algorithm Algorithm.
+   * @param text Text.
+   * @return Description of the detections of the algorithm in the text.
+   */
+  private static String analyze(CheckErrorAlgorithm algorithm, String text) {
+    Page page = DataManager.getPage(EnumWikipedia.EN, "Prefilter test", null, null, null);
+    PageAnalysis analysis = page.getAnalysis(text, false);
+    analysis.performPageAnalysis(algorithm.getAnalysisLevel(), null);
+    List<CheckErrorResult> errors = new ArrayList<>();
+    if (!algorithm.analyze(analysis, errors, false)) {
+      return "";
+    }
+    StringBuilder sb = new StringBuilder();
+    for (CheckErrorResult error : errors) {
+      sb.append(error.getStartPosition()).append('-').append(error.getEndPosition()).append(' ');
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Test that candidates include the algorithms without required literals.
+   */
+  @Test
+  public void testUnfiltered() {
+    List<CheckErrorAlgorithm> algorithms = createAlgorithms();
+    CheckErrorAlgorithmPrefilter prefilter = new CheckErrorAlgorithmPrefilter(algorithms);
+    BitSet candidates = prefilter.getCandidates("Nothing special here");
+    assertEquals("Only the unfiltered algorithm expected", 1, candidates.cardinality());
+    assertTrue("Unfiltered algorithm missing", candidates.get(algorithms.size() - 1));
+    assertEquals(
+        "All algorithms expected without text",
+        algorithms.size(), prefilter.getCandidates(null).cardinality());
+  }
+
+  /**
+   * Test that running only the candidates gives the same detections as running all algorithms.
+   */
+  @Test
+  public void testSameDetections() {
+    List<CheckErrorAlgorithm> algorithms = createAlgorithms();
+    CheckErrorAlgorithmPrefilter prefilter = new CheckErrorAlgorithmPrefilter(algorithms);
+    Random random = new Random(42);
+    int skipped = 0;
+    int detected = 0;
+    for (int textNum = 0; textNum < TEXT_COUNT; textNum++) {
+      String text = createText(random);
+      BitSet candidates = prefilter.getCandidates(text);
+      for (int algorithmNum = 0; algorithmNum < algorithms.size(); algorithmNum++) {
+        CheckErrorAlgorithm algorithm = algorithms.get(algorithmNum);
+        String unfiltered = analyze(algorithm, text);
+        String prefiltered = candidates.get(algorithmNum) ? analyze(algorithm, text) : "";
+        assertEquals(
+            "Different detections for error " + algorithm.getErrorNumberString() + " in " + text,
+            unfiltered, prefiltered);
+        if (!candidates.get(algorithmNum)) {
+          skipped++;
+        }
+        if (!unfiltered.isEmpty()) {
+          detected++;
+        }
+      }
+    }
+    assertTrue("No algorithm skipped by the prefilter", skipped > 0);
+    assertTrue("No error detected", detected > 0);
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ *  WPCleaner: A tool to help on Wikipedia maintenance tasks.
+ *  Copyright (C) 2020  Nicolas Vervelle
+ *
+ *  See README.txt file for licensing information.
+ */
+
+
+package org.wikipediacleaner.api.constants;
+
+import static org.junit.Assert.*;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+
+/**
+ * Test class for the wiki configuration.
+ */
+public class WikiConfigurationTest {
+
+  /**
+   * Test the size of texts with characters encoded on 1 to 4 bytes.
+   */
+  @Test
+  public void testArticleSize() {
+    checkArticleSize("ASCII", "abc");
+    checkArticleSize("Boundary 1/2 bytes", "\u007F\u0080");
+    checkArticleSize("Two bytes", "\u00e9\u07FF");
+    checkArticleSize("Boundary 2/3 bytes", "\u07FF\u0800");
+    checkArticleSize("Three bytes", "\u20AC\uFFFF");
+    checkArticleSize("Four bytes", "\uD83D\uDE00");
+    checkArticleSize("Mixed", "a\u00e9\u20AC\uD83D\uDE00z");
+    checkArticleSize("Empty", "");
+  }
+
+  /**
+   * Test the size of texts with unpaired surrogates.
+   */
+  @Test
+  public void testUnpairedSurrogates() {
+    checkArticleSize("Lone high surrogate", "a\uD83Db");
+    checkArticleSize("Lone low surrogate", "a\uDE00b");
+    checkArticleSize("Reversed surrogates", "\uDE00\uD83D");
+    checkArticleSize("High surrogate at end", "ab\uD83D");
+  }
+
+  /**
+   * Test the size of parts of a text.
+   */
+  @Test
+  public void testArticleSizeRange() {
+    String text = "a\u00e9\u20AC\uD83D\uDE00z";
+    assertEquals("Empty range", 0, WikiConfiguration.getArticleSize(text, 2, 2));
+    assertEquals("Middle range", 3 + 4, WikiConfiguration.getArticleSize(text, 2, 5));
+    assertEquals("Pair split at end", 3 + 1, WikiConfiguration.getArticleSize(text, 2, 4));
+    assertEquals("Pair split at begin", 1 + 1, WikiConfiguration.getArticleSize(text, 4, 6));
+    assertEquals(
+        "Sum of adjacent ranges",
+        WikiConfiguration.getArticleSize(text, 0, text.length()),
+        WikiConfiguration.getArticleSize(text, 0, 3) + WikiConfiguration.getArticleSize(text, 3, text.length()));
+    assertEquals(
+        "StringBuilder",
+        WikiConfiguration.getArticleSize(text, 0, text.length()),
+        WikiConfiguration.getArticleSize(new StringBuilder(text), 0, text.length()));
+  }
+
+  /**
+   * Check the size of a text against its UTF-8 encoding.
+   * 
+   * @param message Message.
+   * @param text Text.
+   */
+  private void checkArticleSize(String message, String text) {
+    assertEquals(
+        message,
+        text.getBytes(StandardCharsets.UTF_8).length,
+        WikiConfiguration.getArticleSize(text, 0, text.length()));
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ *  WPCleaner: A tool to help on Wikipedia maintenance tasks.
+ *  Copyright (C) 2020  Nicolas Vervelle
+ *
+ *  See README.txt file for licensing information.
+ */
+
+package org.wikipediacleaner.api.data;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.wikipediacleaner.api.constants.EnumWikipedia;
+import org.wikipediacleaner.api.data.Page.RelatedPages;
+
+
+/**
+ * Test class for the backlink graph.
+ */
+public class BacklinkNodeTest {
+
+  /**
+   * @param title Page title.
+   * @return Page.
+   */
+  private static Page getPage(String title) {
+    return DataManager.getPage(EnumWikipedia.EN, title, null, null, null);
+  }
+
+  /**
+   * Links through a redirect are merged and deduplicated.
+   */
+  @Test
+  public void testRedirect() {
+    Page page = getPage("Backlink redirect target");
+    Page redirect = getPage("Backlink redirect source");
+    Page link1 = getPage("Backlink redirect link 1");
+    Page link2 = getPage("Backlink redirect link 2");
+    page.setRelatedPages(RelatedPages.LINKS_HERE, Arrays.asList(link1));
+    redirect.setRelatedPages(RelatedPages.LINKS_HERE, Arrays.asList(link1, link2));
+    page.setRelatedPages(RelatedPages.REDIRECTS, Collections.singletonList(redirect));
+    assertEquals("Wrong links", Arrays.asList(link1, link2), page.getAllLinksToPage());
+
+    // Updating the redirect invalidates the target
+    redirect.setRelatedPages(RelatedPages.LINKS_HERE, Arrays.asList(link2));
+    assertEquals("Wrong links after update", Arrays.asList(link1, link2), page.getAllLinksToPage());
+    redirect.setRelatedPages(RelatedPages.LINKS_HERE, Collections.<Page>emptyList());
+    assertEquals("Wrong links after removal", Arrays.asList(link1), page.getAllLinksToPage());
+  }
+
+  /**
+   * Results computed inside a redirect loop are not memorized with missing links.
+   */
+  @Test
+  public void testRedirectLoop() {
+    Page pageA = getPage("Backlink loop A");
+    Page pageB = getPage("Backlink loop B");
+    Page linkA = getPage("Backlink loop link A");
+    Page linkB = getPage("Backlink loop link B");
+    pageA.setRelatedPages(RelatedPages.LINKS_HERE, Arrays.asList(linkA));
+    pageB.setRelatedPages(RelatedPages.LINKS_HERE, Arrays.asList(linkB));
+    pageA.setRelatedPages(RelatedPages.REDIRECTS, Collections.singletonList(pageB));
+    pageB.setRelatedPages(RelatedPages.REDIRECTS, Collections.singletonList(pageA));
+
+    // Computing B first computes A inside the loop
+    assertEquals("Wrong links for B", Arrays.asList(linkA, linkB), pageB.getAllLinksToPage());
+    assertEquals("Wrong links for A", Arrays.asList(linkA, linkB), pageA.getAllLinksToPage());
+    assertEquals("Wrong count for A", Integer.valueOf(2), pageA.getBacklinksCount());
+  }
+
+  /**
+   * Callers may modify the list of links.
+   */
+  @Test
+  public void testModifiableResult() {
+    Page page = getPage("Backlink modifiable");
+    Page link = getPage("Backlink modifiable link");
+    page.setRelatedPages(RelatedPages.LINKS_HERE, Arrays.asList(link));
+    List<Page> links = page.getAllLinksToPage();
+    links.clear();
+    assertEquals("Memorized links modified", Arrays.asList(link), page.getAllLinksToPage());
+  }
+}
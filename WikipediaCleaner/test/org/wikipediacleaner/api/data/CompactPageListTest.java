@@ -0,0 +1,148 @@
+/*
+ *  WPCleaner: A tool to help on Wikipedia maintenance tasks.
+ *  Copyright (C) 2020  Nicolas Vervelle
+ *
+ *  See README.txt file for licensing information.
+ */
+
+package org.wikipediacleaner.api.data;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Test;
+import org.wikipediacleaner.api.APIException;
+import org.wikipediacleaner.api.ResultIterator;
+import org.wikipediacleaner.api.constants.EnumWikipedia;
+
+
+/**
+ * Test class for the compact list of pages.
+ */
+public class CompactPageListTest {
+
+  /**
+   * Titles are found through the index, including non ASCII titles.
+   */
+  @Test
+  public void testTitleIndex() {
+    CompactPageList list = new CompactPageList(EnumWikipedia.EN, false, 4);
+    for (int i = 0; i < 100; i++) {
+      assertTrue("Page not added", list.add("Page " + i, Integer.valueOf(i % 3), Integer.valueOf(i)));
+    }
+    assertTrue("Page not added", list.add("Caf\u00e9 \u65e5\u672c", null, null));
+    assertEquals("Wrong size", 101, list.size());
+    for (int i = 0; i < 100; i++) {
+      assertEquals("Wrong index", i, list.indexOf("Page " + i));
+      assertEquals("Wrong title", "Page " + i, list.getTitle(i));
+      assertEquals("Wrong namespace", Integer.valueOf(i % 3), list.getNamespace(i));
+      assertEquals("Wrong page id", Integer.valueOf(i), list.getPageId(i));
+    }
+    assertEquals("Wrong index", 100, list.indexOf("Caf\u00e9 \u65e5\u672c"));
+    assertNull("Namespace should be unknown", list.getNamespace(100));
+    assertNull("Page id should be unknown", list.getPageId(100));
+    assertEquals("Unexpected index", -1, list.indexOf("Page 100"));
+    assertFalse("Unexpected page", list.contains("Page"));
+
+    // Index is kept up to date by later additions
+    list.add("Page 100", null, null);
+    assertEquals("Wrong index after addition", 101, list.indexOf("Page 100"));
+  }
+
+  /**
+   * Duplicate titles are ignored only in unique lists.
+   */
+  @Test
+  public void testUnique() {
+    CompactPageList unique = new CompactPageList(EnumWikipedia.EN, true);
+    assertTrue("Page not added", unique.add("Page", null, null));
+    assertFalse("Duplicate added", unique.add("Page", Integer.valueOf(0), Integer.valueOf(1)));
+    assertEquals("Wrong size", 1, unique.size());
+
+    CompactPageList duplicates = new CompactPageList(EnumWikipedia.EN, false);
+    assertTrue("Page not added", duplicates.add("Page", null, null));
+    assertTrue("Duplicate not added", duplicates.add("Page", null, null));
+    assertEquals("Wrong size", 2, duplicates.size());
+    assertEquals("Wrong index", 0, duplicates.indexOf("Page"));
+  }
+
+  /**
+   * The list keeps working after its arrays have been trimmed.
+   */
+  @Test
+  public void testTrimToSize() {
+    CompactPageList list = new CompactPageList(EnumWikipedia.EN, true, 100);
+    list.add("Page A", null, Integer.valueOf(1));
+    list.add("Page B", null, Integer.valueOf(2));
+    list.trimToSize();
+    assertEquals("Wrong size after trim", 2, list.size());
+    assertEquals("Wrong title after trim", "Page B", list.getTitle(1));
+    assertTrue("Page not added after trim", list.add("Page C", null, Integer.valueOf(3)));
+    assertFalse("Duplicate added after trim", list.add("Page A", null, null));
+    assertEquals("Wrong title", "Page C", list.getTitle(2));
+    assertEquals("Wrong page id", Integer.valueOf(3), list.getPageId(2));
+    assertEquals("Wrong index", 2, list.indexOf("Page C"));
+
+    CompactPageList empty = new CompactPageList(EnumWikipedia.EN, false);
+    empty.trimToSize();
+    assertTrue("Page not added to trimmed empty list", empty.add("Page", null, null));
+    assertEquals("Wrong title", "Page", empty.getTitle(0));
+  }
+
+  /**
+   * All results of an iterator are added and the iterator is closed.
+   * 
+   * @throws APIException Exception thrown by the API.
+   */
+  @Test
+  public void testAddAll() throws APIException {
+    List<Page> pages = Arrays.asList(
+        DataManager.getPage(EnumWikipedia.EN, "Compact page 1", Integer.valueOf(1), null, null),
+        DataManager.getPage(EnumWikipedia.EN, "Compact page 2", Integer.valueOf(2), null, null),
+        DataManager.getPage(EnumWikipedia.EN, "Compact page 1", Integer.valueOf(1), null, null));
+    PageIterator iterator = new PageIterator(pages);
+    CompactPageList list = new CompactPageList(EnumWikipedia.EN, true);
+    list.addAll(iterator);
+    assertTrue("Iterator not closed", iterator.closed);
+    assertEquals("Wrong size", 2, list.size());
+    assertEquals("Wrong pages", pages.subList(0, 2), list.asList());
+    assertEquals("Wrong page id", Integer.valueOf(2), list.getPageId(1));
+  }
+
+  /**
+   * Result iterator over a list of pages.
+   */
+  private static class PageIterator implements ResultIterator<Page> {
+
+    /** Iterator over the pages */
+    private final Iterator<Page> iterator;
+
+    /** True when the iterator has been closed */
+    boolean closed;
+
+    /**
+     * @param pages List of pages.
+     */
+    PageIterator(List<Page> pages) {
+      this.iterator = pages.iterator();
+    }
+
+    @Override
+    public boolean hasNext() {
+      return iterator.hasNext();
+    }
+
+    @Override
+    public Page next() {
+      return iterator.next();
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+  }
+}
@@ -0,0 +1,320 @@
+/*
+ *  WPCleaner: A tool to help on Wikipedia maintenance tasks.
+ *  Copyright (C) 2020  Nicolas Vervelle
+ *
+ *  See README.txt file for licensing information.
+ */
+
+package org.wikipediacleaner.api.data;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.wikipediacleaner.api.constants.EnumWikipedia;
+import org.wikipediacleaner.api.data.analysis.Contents;
+import org.wikipediacleaner.api.data.contents.ContainerComment;
+import org.wikipediacleaner.api.data.contents.ContentsComment;
+
+
+/**
+ * Test class for the analysis of templates on randomized wikitext.
+ * 
+ * <p>
+ * The analysis using the index of blocks is compared to the analysis without it,
+ * and the parameters kept as offsets are compared to the strings
+ * computed the way parameters were built before.
+ * </p>
+ */
+public class PageElementTemplateTest {
+
+  /** Fragments used to build random wikitext */
+  private final static String[] FRAGMENTS = {
+    "{{", "{{", "{{", "}}", "}}", "}}", "{{{", "}}}", "[[", "]]",
+    "|", "|", "|", "=", "=", "\n", "\n=", "==", " ", " ", "  ",
+    "a", "b", "Tpl", "x y", "<ref>", "</ref>", "<ref name=\"n\"/>",
+    "<!--", "-->", "<!-- c -->", "<nowiki>", "</nowiki>", "<br/>",
+    "{{Tpl|", "{{Tpl|", "{{ Tpl\n|", "|p=", "| p = v ", "|v", "}}", "}}",
+  };
+
+  /** Number of random texts */
+  private final static int TEXT_COUNT = 3000;
+
+  /**
+   * @param random Random generator.
+   * @return Random wikitext.
+   */
+  private static String createText(Random random) {
+    StringBuilder sb = new StringBuilder();
+    int count = 10 + random.nextInt(80);
+    for (int i = 0; i < count; i++) {
+      sb.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Analyze tags the same way as the page analysis does.
+   * 
+   * @param text Text.
+   * @return Tags in the text.
+   */
+  private static List<PageElementTag> analyzeTags(String text) {
+    List<PageElementTag> tags = new ArrayList<>();
+    int currentIndex = 0;
+    while (currentIndex < text.length()) {
+      currentIndex = text.indexOf('<', currentIndex);
+      if (currentIndex < 0) {
+        break;
+      }
+      PageElementTag tag = PageElementTag.analyzeBlock(text, currentIndex);
+      if (tag == null) {
+        currentIndex++;
+        continue;
+      }
+      if (tag.isEndTag() && !tag.isFullTag()) {
+        int level = 0;
+        for (int i = tags.size() - 1; i >= 0; i--) {
+          PageElementTag tmpTag = tags.get(i);
+          if (tag.getNormalizedName().equals(tmpTag.getNormalizedName()) && !tmpTag.isFullTag()) {
+            if (tmpTag.isEndTag()) {
+              level++;
+            } else {
+              level--;
+              if (level < 0) {
+                tmpTag.setMatchingTag(tag);
+                break;
+              }
+            }
+          }
+        }
+      }
+      tags.add(tag);
+      currentIndex = tag.getEndIndex();
+    }
+    return tags;
+  }
+
+  /**
+   * Compare the maximum length in references with a scan of all tags.
+   */
+  @Test
+  public void testMaxLengthInRef() {
+    Random random = new Random(20201);
+    for (int textNum = 0; textNum < TEXT_COUNT; textNum++) {
+      String text = createText(random);
+      List<PageElementTag> tags = analyzeTags(text);
+      PageElementBlocks blocks = new PageElementBlocks(tags);
+      for (int index = 0; index <= text.length(); index++) {
+        int expected = text.length();
+        for (PageElementTag tag : tags) {
+          if ((tag.getCompleteBeginIndex() < index) &&
+              (tag.getCompleteEndIndex() > index) &&
+              (PageElementTag.TAG_WIKI_REF.equals(tag.getName()))) {
+            expected = Math.min(expected, tag.getCompleteEndIndex());
+          }
+        }
+        assertEquals(
+            "Maximum length at " + index + " in " + text,
+            expected, blocks.getMaxLengthInRef(index, text.length()));
+      }
+    }
+  }
+
+  /**
+   * Compare the analysis of templates with and without the index of blocks.
+   */
+  @Test
+  public void testBlocksEquivalence() {
+    Random random = new Random(20202);
+    for (int textNum = 0; textNum < TEXT_COUNT; textNum++) {
+      String text = createText(random);
+      ContainerComment comments = Contents.createContents(text).comments();
+      List<PageElementTag> tags = analyzeTags(text);
+      PageElementBlocks blocks = new PageElementBlocks(tags);
+      int index = text.indexOf("{{");
+      while (index >= 0) {
+        PageElementTemplate expected = PageElementTemplate.analyzeBlock(
+            EnumWikipedia.EN, text, index, comments, tags);
+        PageElementTemplate actual = PageElementTemplate.analyzeBlock(
+            EnumWikipedia.EN, text, index, comments, tags, blocks);
+        String message = "Template at " + index + " in " + text;
+        if (expected == null) {
+          assertNull(message, actual);
+        } else {
+          assertNotNull(message, actual);
+          assertEquals(message, expected.getBeginIndex(), actual.getBeginIndex());
+          assertEquals(message, expected.getEndIndex(), actual.getEndIndex());
+          assertEquals(message, expected.getTemplateName(), actual.getTemplateName());
+          assertEquals(message, expected.getParameterCount(), actual.getParameterCount());
+          for (int paramNum = 0; paramNum < expected.getParameterCount(); paramNum++) {
+            assertSameParameter(
+                message + ", parameter " + paramNum,
+                expected.getParameter(paramNum), actual.getParameter(paramNum));
+          }
+        }
+        index = text.indexOf("{{", index + 1);
+      }
+    }
+  }
+
+  /**
+   * Compare the parameters with the strings computed the way parameters were built before.
+   */
+  @Test
+  public void testParametersEquivalence() {
+    Random random = new Random(20203);
+    int parameterCount = 0;
+    for (int textNum = 0; textNum < TEXT_COUNT; textNum++) {
+      String text = createText(random);
+      ContainerComment comments = Contents.createContents(text).comments();
+      List<PageElementTag> tags = analyzeTags(text);
+      PageElementBlocks blocks = new PageElementBlocks(tags);
+      int index = text.indexOf("{{");
+      while (index >= 0) {
+        PageElementTemplate template = PageElementTemplate.analyzeBlock(
+            EnumWikipedia.EN, text, index, comments, tags, blocks);
+        if (template != null) {
+          List<String> previousNames = new ArrayList<>();
+          for (int paramNum = 0; paramNum < template.getParameterCount(); paramNum++) {
+            String message = "Template at " + index + ", parameter " + paramNum + " in " + text;
+            PageElementTemplate.Parameter param = template.getParameter(paramNum);
+            checkParameter(message, text, comments, param, previousNames);
+            previousNames.add(param.getName());
+            parameterCount++;
+          }
+        }
+        index = text.indexOf("{{", index + 1);
+      }
+    }
+    assertTrue("Not enough parameters tested: " + parameterCount, parameterCount > 1000);
+  }
+
+  /**
+   * Check a parameter against the strings computed the way parameters were built before.
+   * 
+   * @param message Message.
+   * @param text Text.
+   * @param comments Comments in the text.
+   * @param param Parameter.
+   * @param previousNames Names of the previous parameters of the template.
+   */
+  private static void checkParameter(
+      String message, String text, ContainerComment comments,
+      PageElementTemplate.Parameter param, List<String> previousNames) {
+    int offset = param.getPipeIndex() + 1;
+    String parameter = text.substring(offset, param.getEndIndex());
+    int valueLength = param.getValueNotTrimmed().length();
+    int equalIndex = (valueLength < parameter.length()) ? parameter.length() - valueLength - 1 : -1;
+    if (equalIndex >= 0) {
+      assertEquals(message, '=', parameter.charAt(equalIndex));
+    }
+
+    // Compute the expected strings
+    String nameNotTrimmed = null;
+    String computedName = null;
+    String value = null;
+    String strippedValue = null;
+    int nameStartIndex = 0;
+    int valueStartIndex = 0;
+    if (equalIndex < 0) {
+      int spaces = 0;
+      while ((spaces < parameter.length()) && (Character.isWhitespace(parameter.charAt(spaces)))) {
+        spaces++;
+      }
+      int paramNum = 1;
+      for (String previousName : previousNames) {
+        if ((previousName == null) || previousName.isEmpty()) {
+          paramNum++;
+        }
+      }
+      nameNotTrimmed = "";
+      computedName = Integer.toString(paramNum);
+      value = parameter;
+      strippedValue = stripComments(comments.getAll(), parameter, offset);
+      nameStartIndex = offset + spaces;
+      valueStartIndex = offset + spaces;
+    } else {
+      int spacesName = 0;
+      while ((spacesName < equalIndex) && (Character.isWhitespace(parameter.charAt(spacesName)))) {
+        spacesName++;
+      }
+      int spacesValue = equalIndex + 1;
+      while ((spacesValue < parameter.length()) && (Character.isWhitespace(parameter.charAt(spacesValue)))) {
+        spacesValue++;
+      }
+      nameNotTrimmed = parameter.substring(0, equalIndex);
+      computedName = nameNotTrimmed.trim();
+      value = parameter.substring(equalIndex + 1);
+      strippedValue = stripComments(comments.getAll(), value, offset + equalIndex + 1);
+      nameStartIndex = offset + spacesName;
+      valueStartIndex = offset + spacesValue;
+    }
+
+    // Compare, calling the views and the stripped value first to check the lazy computation
+    assertEquals(message, nameNotTrimmed.trim(), param.getNameView().toString());
+    assertEquals(message, value.trim(), param.getValueView().toString());
+    assertEquals(message, strippedValue.trim(), param.getStrippedValue());
+    assertEquals(message, nameNotTrimmed, param.getNameNotTrimmed());
+    assertEquals(message, nameNotTrimmed.trim(), param.getName());
+    assertEquals(message, !nameNotTrimmed.trim().isEmpty(), param.hasName());
+    assertTrue(message, param.isName(nameNotTrimmed.trim()));
+    assertEquals(message, computedName, param.getComputedName());
+    assertEquals(message, value, param.getValueNotTrimmed());
+    assertEquals(message, value.trim(), param.getValue());
+    assertEquals(message, nameStartIndex, param.getNameStartIndex());
+    assertEquals(message, valueStartIndex, param.getValueStartIndex());
+  }
+
+  /**
+   * Remove comments from a text, character by character.
+   * 
+   * @param comments List of comments.
+   * @param text Text.
+   * @param offset Index of the start of the text.
+   * @return Text stripped of its comments.
+   */
+  private static String stripComments(
+      List<ContentsComment> comments, String text, int offset) {
+    StringBuilder result = new StringBuilder(text.length());
+    for (int index = 0; index < text.length(); index++) {
+      boolean inComment = false;
+      for (ContentsComment comment : comments) {
+        if ((comment.getBeginIndex() <= offset + index) &&
+            (comment.getEndIndex() > offset + index)) {
+          inComment = true;
+        }
+      }
+      if (!inComment) {
+        result.append(text.charAt(index));
+      }
+    }
+    return result.toString();
+  }
+
+  /**
+   * Check that two parameters are identical.
+   * 
+   * @param message Message.
+   * @param expected Expected parameter.
+   * @param actual Actual parameter.
+   */
+  private static void assertSameParameter(
+      String message,
+      PageElementTemplate.Parameter expected,
+      PageElementTemplate.Parameter actual) {
+    assertEquals(message, expected.getPipeIndex(), actual.getPipeIndex());
+    assertEquals(message, expected.getEndIndex(), actual.getEndIndex());
+    assertEquals(message, expected.getValue(), actual.getValue());
+    assertEquals(message, expected.getStrippedValue(), actual.getStrippedValue());
+    assertEquals(message, expected.getNameNotTrimmed(), actual.getNameNotTrimmed());
+    assertEquals(message, expected.getName(), actual.getName());
+    assertEquals(message, expected.getComputedName(), actual.getComputedName());
+    assertEquals(message, expected.getValueNotTrimmed(), actual.getValueNotTrimmed());
+    assertEquals(message, expected.getNameStartIndex(), actual.getNameStartIndex());
+    assertEquals(message, expected.getValueStartIndex(), actual.getValueStartIndex());
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ *  WPCleaner: A tool to help on Wikipedia maintenance tasks.
+ *  Copyright (C) 2020  Nicolas Vervelle
+ *
+ *  See README.txt file for licensing information.
+ */
+
+
+package org.wikipediacleaner.api.deadlink;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Test;
+
+
+/**
+ * Test class for the cache of the status of external links.
+ */
+public class LinkStatusCacheTest {
+
+  /**
+   * Status older than the time to live are expired.
+   */
+  @Test
+  public void testExpiry() {
+    long now = System.currentTimeMillis();
+    LinkStatusCache cache = new LinkStatusCache(null, 1000);
+    cache.put("http://example.org/recent", new LinkStatus(404, now));
+    cache.put("http://example.org/old", new LinkStatus(404, now - 2000));
+    assertNotNull("Recent status should be cached", cache.get("http://example.org/recent"));
+    assertNull("Old status should be expired", cache.get("http://example.org/old"));
+  }
+
+  /**
+   * Temporary status are not cached.
+   */
+  @Test
+  public void testTemporary() {
+    long now = System.currentTimeMillis();
+    LinkStatusCache cache = new LinkStatusCache(null, LinkStatusCache.DEFAULT_TTL);
+    cache.put("http://example.org/503", new LinkStatus(503, now, true));
+    cache.put("http://example.org/timeout", new LinkStatus("SocketTimeoutException", now, true));
+    assertNull("Temporary status code should not be cached", cache.get("http://example.org/503"));
+    assertNull("Temporary failure should not be cached", cache.get("http://example.org/timeout"));
+  }
+
+  /**
+   * Status are persisted in the file, except the expired ones.
+   * 
+   * @throws IOException Error with the temporary file.
+   */
+  @Test
+  public void testPersistence() throws IOException {
+    File file = File.createTempFile("deadLinks", ".txt");
+    try {
+      long now = System.currentTimeMillis();
+      LinkStatusCache cache = new LinkStatusCache(file, 60000);
+      cache.put("http://example.org/ok", new LinkStatus(200, now));
+      cache.put("http://example.org/missing", new LinkStatus(404, now));
+      cache.put("http://example.org/unknown", new LinkStatus("Unknown host\texample", now, false));
+      cache.put("http://example.org/old", new LinkStatus(404, now - 120000));
+      cache.save();
+
+      LinkStatusCache loaded = new LinkStatusCache(file, 60000);
+      loaded.load();
+      LinkStatus ok = loaded.get("http://example.org/ok");
+      assertNotNull("OK status should be persisted", ok);
+      assertTrue("OK status", ok.isOk());
+      assertEquals("Check time", now, ok.getCheckTime());
+      LinkStatus missing = loaded.get("http://example.org/missing");
+      assertNotNull("404 status should be persisted", missing);
+      assertEquals("Status code", Integer.valueOf(404), missing.getStatus());
+      LinkStatus unknown = loaded.get("http://example.org/unknown");
+      assertNotNull("Failure should be persisted", unknown);
+      assertEquals("Failure text", "Unknown host example", unknown.getStatusText());
+      assertNull("Expired status should not be persisted", loaded.get("http://example.org/old"));
+    } finally {
+      file.delete();
+    }
+  }
+}
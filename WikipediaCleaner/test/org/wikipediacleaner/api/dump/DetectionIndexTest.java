@@ -0,0 +1,286 @@
+/*
+ *  WPCleaner: A tool to help on Wikipedia maintenance tasks.
+ *  Copyright (C) 2020  Nicolas Vervelle
+ *
+ *  See README.txt file for licensing information.
+ */
+
+
+package org.wikipediacleaner.api.dump;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.wikipediacleaner.api.check.CheckErrorResult.ErrorLevel;
+
+
+/**
+ * Test class for the persistent index of detections.
+ */
+public class DetectionIndexTest {
+
+  /** Signature of the configuration */
+  private final static String SIGNATURE = "signature";
+
+  /** Temporary directory */
+  private File directory;
+
+  /** Base name of the index files */
+  private File base;
+
+  /**
+   * Create a temporary directory.
+   * 
+   * @throws IOException Error creating the directory.
+   */
+  @Before
+  public void setUp() throws IOException {
+    directory = Files.createTempDirectory("detections").toFile();
+    base = new File(directory, "index");
+  }
+
+  /**
+   * Delete the temporary directory.
+   */
+  @After
+  public void tearDown() {
+    File[] files = directory.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        file.delete();
+      }
+    }
+    directory.delete();
+  }
+
+  /**
+   * Write an index.
+   * 
+   * @param indexBase Base name of the index files.
+   * @param notice Notice for the detection of page 2.
+   * @throws IOException Error writing the index.
+   */
+  private static void writeIndex(File indexBase, String notice) throws IOException {
+    DetectionIndex.Writer writer = DetectionIndex.createWriter(indexBase, SIGNATURE);
+    try {
+      writer.add(3, 30, null);
+      writer.add(2, 20, Collections.singletonList(
+          new DetectionIndex.Detection(17, ErrorLevel.ERROR, Arrays.asList(notice, "other"))));
+      writer.add(1, 10, Collections.<DetectionIndex.Detection>emptyList());
+      writer.commit();
+    } finally {
+      writer.close();
+    }
+  }
+
+  /**
+   * Detections are read back from a committed index.
+   * 
+   * @throws IOException Error with the index.
+   */
+  @Test
+  public void testRoundTrip() throws IOException {
+    writeIndex(base, "notice");
+    assertFalse("Temporary data file should be removed",
+        DetectionIndex.getTemporaryFile(DetectionIndex.getDataFile(base)).exists());
+    assertFalse("Temporary index file should be removed",
+        DetectionIndex.getTemporaryFile(DetectionIndex.getIndexFile(base)).exists());
+    DetectionIndex index = DetectionIndex.open(base, SIGNATURE);
+    assertNotNull("Index should be opened", index);
+    try {
+      assertEquals("Number of pages", 3, index.size());
+      assertEquals("Missing page", -1, index.find(4));
+      int position = index.find(2);
+      assertTrue("Page 2 should be found", position >= 0);
+      assertEquals("Revision id", 20, index.getRevisionId(position));
+      assertTrue("Page 2 has detections", index.hasDetections(position));
+      List<DetectionIndex.Detection> detections = index.getDetections(position);
+      assertEquals("Number of detections", 1, detections.size());
+      assertEquals("Error number", 17, detections.get(0).errorNumber);
+      assertEquals("Error level", ErrorLevel.ERROR, detections.get(0).maxLevel);
+      assertEquals("Notices", Arrays.asList("notice", "other"), detections.get(0).notices);
+      assertFalse("Page 3 has no detections", index.hasDetections(index.find(3)));
+    } finally {
+      index.close();
+    }
+    assertNull("Index with another signature", DetectionIndex.open(base, "other"));
+  }
+
+  /**
+   * Revision ids beyond the range of an int are kept.
+   * 
+   * @throws IOException Error with the index.
+   */
+  @Test
+  public void testLongRevisionId() throws IOException {
+    long revisionId = Integer.MAX_VALUE + 10L;
+    DetectionIndex.Writer writer = DetectionIndex.createWriter(base, SIGNATURE);
+    try {
+      writer.add(1, revisionId, null);
+      writer.commit();
+    } finally {
+      writer.close();
+    }
+    DetectionIndex index = DetectionIndex.open(base, SIGNATURE);
+    assertNotNull("Index should be opened", index);
+    try {
+      assertEquals("Revision id", revisionId, index.getRevisionId(index.find(1)));
+    } finally {
+      index.close();
+    }
+  }
+
+  /**
+   * Only the last addition of a page is kept.
+   * 
+   * @throws IOException Error with the index.
+   */
+  @Test
+  public void testDuplicatePages() throws IOException {
+    DetectionIndex.Writer writer = DetectionIndex.createWriter(base, SIGNATURE);
+    try {
+      writer.add(2, 20, Collections.singletonList(
+          new DetectionIndex.Detection(17, ErrorLevel.ERROR, Collections.<String>emptyList())));
+      writer.add(1, 10, null);
+      writer.add(2, 21, null);
+      writer.add(3, 30, null);
+      writer.add(1, 11, Collections.singletonList(
+          new DetectionIndex.Detection(18, ErrorLevel.WARNING, Collections.<String>emptyList())));
+      writer.commit();
+    } finally {
+      writer.close();
+    }
+    DetectionIndex index = DetectionIndex.open(base, SIGNATURE);
+    assertNotNull("Index should be opened", index);
+    try {
+      assertEquals("Number of pages", 3, index.size());
+      for (int pageId = 1; pageId <= 3; pageId++) {
+        assertEquals("Page order", pageId, index.getPageId(pageId - 1));
+      }
+      assertEquals("Revision id of page 1", 11, index.getRevisionId(index.find(1)));
+      assertEquals("Detections of page 1", 18, index.getDetections(index.find(1)).get(0).errorNumber);
+      assertEquals("Revision id of page 2", 21, index.getRevisionId(index.find(2)));
+      assertFalse("Page 2 has no detections", index.hasDetections(index.find(2)));
+    } finally {
+      index.close();
+    }
+  }
+
+  /**
+   * An index can be replaced once the previous one has been closed.
+   * 
+   * @throws IOException Error with the index.
+   */
+  @Test
+  public void testReplaceAfterClose() throws IOException {
+    writeIndex(base, "notice");
+    DetectionIndex previous = DetectionIndex.open(base, SIGNATURE);
+    assertNotNull("Index should be opened", previous);
+    DetectionIndex.Writer writer = DetectionIndex.createWriter(base, SIGNATURE);
+    try {
+      writer.add(previous, previous.find(2));
+      writer.add(4, 40, null);
+      previous.close();
+      writer.commit();
+    } finally {
+      writer.close();
+    }
+    DetectionIndex index = DetectionIndex.open(base, SIGNATURE);
+    assertNotNull("Index should be opened", index);
+    try {
+      assertEquals("Number of pages", 2, index.size());
+      assertEquals("Missing page", -1, index.find(3));
+      assertEquals("Revision id", 20, index.getRevisionId(index.find(2)));
+      assertEquals(
+          "Notices", Arrays.asList("notice", "other"),
+          index.getDetections(index.find(2)).get(0).notices);
+      assertEquals("Revision id", 40, index.getRevisionId(index.find(4)));
+    } finally {
+      index.close();
+    }
+  }
+
+  /**
+   * An index is rejected when its data file comes from another index.
+   * 
+   * @throws IOException Error with the index.
+   */
+  @Test
+  public void testMismatchedDataFile() throws IOException {
+    writeIndex(base, "notice");
+    File otherBase = new File(directory, "other");
+    writeIndex(otherBase, "notice");
+
+    // Same size, but different generation
+    Files.copy(
+        DetectionIndex.getDataFile(otherBase).toPath(),
+        DetectionIndex.getDataFile(base).toPath(),
+        StandardCopyOption.REPLACE_EXISTING);
+    assertNull("Index with data file from another index", DetectionIndex.open(base, SIGNATURE));
+
+    // Different size
+    writeIndex(base, "notice");
+    writeIndex(otherBase, "a much longer notice");
+    Files.copy(
+        DetectionIndex.getDataFile(otherBase).toPath(),
+        DetectionIndex.getDataFile(base).toPath(),
+        StandardCopyOption.REPLACE_EXISTING);
+    assertNull("Index with data file of a different size", DetectionIndex.open(base, SIGNATURE));
+  }
+
+  /**
+   * Corrupted records are reported as IOException.
+   * 
+   * @throws IOException Error with the index.
+   */
+  @Test
+  public void testCorruptedRecord() throws IOException {
+    writeIndex(base, "notice");
+    DetectionIndex index = DetectionIndex.open(base, SIGNATURE);
+    int position = index.find(2);
+    index.close();
+
+    // Record length beyond the end of the data file
+    try (RandomAccessFile file = new RandomAccessFile(DetectionIndex.getDataFile(base), "rw")) {
+      file.seek(12);
+      file.writeInt(Integer.MAX_VALUE - 100);
+    }
+    index = DetectionIndex.open(base, SIGNATURE);
+    assertNotNull("Index should be opened", index);
+    try {
+      index.getDetections(position);
+      fail("Invalid record length should be reported");
+    } catch (IOException e) {
+      // Expected
+    } finally {
+      index.close();
+    }
+
+    // Invalid length inside the record
+    writeIndex(base, "notice");
+    try (RandomAccessFile file = new RandomAccessFile(DetectionIndex.getDataFile(base), "rw")) {
+      file.seek(16);
+      file.writeInt(-1);
+    }
+    index = DetectionIndex.open(base, SIGNATURE);
+    try {
+      index.getDetections(position);
+      fail("Invalid count should be reported");
+    } catch (IOException e) {
+      // Expected
+    } finally {
+      index.close();
+    }
+  }
+}
@@ -0,0 +1,269 @@
+/*
+ *  WPCleaner: A tool to help on Wikipedia maintenance tasks.
+ *  Copyright (C) 2020  Nicolas Vervelle
+ *
+ *  See README.txt file for licensing information.
+ */
+
+
+package org.wikipediacleaner.api.dump;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.wikipediacleaner.api.constants.EnumWikipedia;
+import org.wikipediacleaner.api.data.DataManager;
+import org.wikipediacleaner.api.data.Page;
+
+
+/**
+ * Test class for the random access to multistream dumps.
+ */
+public class MultistreamDumpStoreTest {
+
+  /** Temporary directory */
+  private File directory;
+
+  /** Dump file */
+  private File dumpFile;
+
+  /** Dump contents, before compression */
+  private ByteArrayOutputStream dump;
+
+  /** Text index */
+  private StringBuilder textIndex;
+
+  /**
+   * Create a temporary directory.
+   * 
+   * @throws IOException Error creating the directory.
+   */
+  @Before
+  public void setUp() throws IOException {
+    directory = Files.createTempDirectory("multistream").toFile();
+    dumpFile = new File(directory, "wiki-pages-articles-multistream.xml.bz2");
+    dump = new ByteArrayOutputStream();
+    textIndex = new StringBuilder();
+  }
+
+  /**
+   * Delete the temporary directory.
+   */
+  @After
+  public void tearDown() {
+    File[] files = directory.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        file.delete();
+      }
+    }
+    directory.delete();
+  }
+
+  /**
+   * Pages are retrieved from any stream, by title or by id.
+   * 
+   * @throws IOException Error with the dump.
+   */
+  @Test
+  public void testGetPage() throws IOException {
+    writeDefaultDump();
+    try (MultistreamDumpStore store = MultistreamDumpStore.open(dumpFile)) {
+      assertTrue("Index should be built", MultistreamDumpStore.getIndexFile(dumpFile).isFile());
+      Page page = store.getPage(EnumWikipedia.EN, "Store page 2");
+      assertNotNull("Page in first stream", page);
+      assertEquals("Page id", Integer.valueOf(2), page.getPageId());
+      assertEquals("Contents", "Text of page 2", page.getContents());
+      page = store.getPage(EnumWikipedia.EN, 5);
+      assertNotNull("Page in middle stream", page);
+      assertEquals("Title", "Store page 5", page.getTitle());
+      assertEquals("Revision id", Integer.valueOf(500), page.getRevisionId());
+      page = store.getPage(EnumWikipedia.EN, "Store page 9");
+      assertNotNull("Page in last stream", page);
+      assertEquals("Contents", "Text of page 9", page.getContents());
+      assertNull("Missing title", store.getPage(EnumWikipedia.EN, "Store page 10"));
+      assertNull("Missing page id", store.getPage(EnumWikipedia.EN, 10));
+    }
+  }
+
+  /**
+   * Contents are retrieved for several pages, missing pages being marked as not existing.
+   * 
+   * @throws IOException Error with the dump.
+   */
+  @Test
+  public void testRetrieveContents() throws IOException {
+    writeDefaultDump();
+    try (MultistreamDumpStore store = MultistreamDumpStore.open(dumpFile)) {
+      List<Page> pages = new ArrayList<>();
+      for (String title : Arrays.asList("Store page 6", "Store page 1", "Store page 4", "Missing page")) {
+        pages.add(DataManager.getPage(EnumWikipedia.EN, title, null, null, null));
+      }
+      store.retrieveContents(EnumWikipedia.EN, pages);
+      assertEquals("Contents", "Text of page 6", pages.get(0).getContents());
+      assertEquals("Contents", "Text of page 1", pages.get(1).getContents());
+      assertEquals("Contents", "Text of page 4", pages.get(2).getContents());
+      assertEquals("Page id", Integer.valueOf(4), pages.get(2).getPageId());
+      assertEquals("Existing page", Boolean.TRUE, pages.get(0).isExisting());
+      assertEquals("Missing page", Boolean.FALSE, pages.get(3).isExisting());
+
+      // Page provider on the dump
+      DumpPageProvider provider = new DumpPageProvider(store, EnumWikipedia.EN, "Store page 8");
+      assertEquals("Contents", "Text of page 8", provider.getPage().getContents());
+    }
+  }
+
+  /**
+   * Parsing stops as soon as the needed pages of a stream have been found.
+   * 
+   * @throws IOException Error with the dump.
+   */
+  @Test
+  public void testStopParsing() throws IOException {
+    addStream(null, 0);
+    addStream(page(1) + page(2) + "<page><title>Broken", 1, 2, 3);
+    writeDump();
+    try (MultistreamDumpStore store = MultistreamDumpStore.open(dumpFile)) {
+      Page page = store.getPage(EnumWikipedia.EN, 2);
+      assertNotNull("Page before the broken one", page);
+      assertEquals("Contents", "Text of page 2", page.getContents());
+      try {
+        store.getPage(EnumWikipedia.EN, 3);
+        fail("Broken page should be reported");
+      } catch (IOException e) {
+        // Expected
+      }
+    }
+  }
+
+  /**
+   * Only the stream of a page is decompressed, not the following ones.
+   * 
+   * @throws IOException Error with the dump.
+   */
+  @Test
+  public void testSingleStream() throws IOException {
+    addStream(null, 0);
+    addStream(page(1) + page(2), 1, 2, 3);
+    writeDump();
+
+    // Garbage after the stream
+    try (OutputStream output = new FileOutputStream(dumpFile, true)) {
+      output.write("This is not a bz2 stream".getBytes(StandardCharsets.UTF_8));
+    }
+    try (MultistreamDumpStore store = MultistreamDumpStore.open(dumpFile)) {
+      assertNull(
+          "Page listed in the index but missing from its stream",
+          store.getPage(EnumWikipedia.EN, 3));
+      assertNotNull("Page in the stream", store.getPage(EnumWikipedia.EN, 1));
+    }
+  }
+
+  /**
+   * Write a dump with 3 streams of 3 pages, after the stream for the header.
+   * 
+   * @throws IOException Error writing the dump.
+   */
+  private void writeDefaultDump() throws IOException {
+    addStream(null, 0);
+    for (int stream = 0; stream < 3; stream++) {
+      int first = stream * 3 + 1;
+      addStream(page(first) + page(first + 1) + page(first + 2), first, first + 1, first + 2);
+    }
+    writeDump();
+  }
+
+  /**
+   * @param pageId Page id.
+   * @return XML for the page.
+   */
+  private static String page(int pageId) {
+    return
+        "<page><title>Store page " + pageId + "</title><ns>0</ns><id>" + pageId + "</id>" +
+        "<revision><id>" + (pageId * 100) + "</id><text>Text of page " + pageId + "</text></revision>" +
+        "</page>\n";
+  }
+
+  /**
+   * Add a bz2 stream to the dump.
+   * 
+   * @param xml XML in the stream, null for the header of the dump.
+   * @param pageIds Page ids listed in the index for the stream.
+   * @throws IOException Error compressing the stream.
+   */
+  private void addStream(String xml, int... pageIds) throws IOException {
+    if (xml == null) {
+      xml = "<mediawiki><siteinfo><sitename>Test</sitename></siteinfo>\n";
+    }
+    long offset = dump.size();
+    try (BZip2CompressorOutputStream output = new BZip2CompressorOutputStream(new NonClosingStream(dump))) {
+      output.write(xml.getBytes(StandardCharsets.UTF_8));
+    }
+    for (int pageId : pageIds) {
+      if (pageId > 0) {
+        textIndex.append(offset).append(':').append(pageId).append(":Store page ").append(pageId).append('\n');
+      }
+    }
+  }
+
+  /**
+   * Write the dump and its text index.
+   * 
+   * @throws IOException Error writing the files.
+   */
+  private void writeDump() throws IOException {
+    try (BZip2CompressorOutputStream output = new BZip2CompressorOutputStream(new NonClosingStream(dump))) {
+      output.write("</mediawiki>\n".getBytes(StandardCharsets.UTF_8));
+    }
+    Files.write(dumpFile.toPath(), dump.toByteArray());
+    try (OutputStream output = new BZip2CompressorOutputStream(new FileOutputStream(
+        MultistreamDumpStore.getTextIndexFile(dumpFile)))) {
+      output.write(textIndex.toString().getBytes(StandardCharsets.UTF_8));
+    }
+  }
+
+  /**
+   * Output stream ignoring close(), to write several bz2 streams in the same buffer.
+   */
+  private static class NonClosingStream extends OutputStream {
+
+    /** Underlying stream */
+    private final OutputStream output;
+
+    /**
+     * @param output Underlying stream.
+     */
+    NonClosingStream(OutputStream output) {
+      this.output = output;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      output.write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      output.write(b, off, len);
+    }
+
+    @Override
+    public void close() {
+      // Keep the underlying stream open
+    }
+  }
+}
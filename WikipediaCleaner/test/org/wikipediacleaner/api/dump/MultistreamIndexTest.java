@@ -0,0 +1,126 @@
+/*
+ *  WPCleaner: A tool to help on Wikipedia maintenance tasks.
+ *  Copyright (C) 2020  Nicolas Vervelle
+ *
+ *  See README.txt file for licensing information.
+ */
+
+
+package org.wikipediacleaner.api.dump;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+
+/**
+ * Test class for the index of multistream dumps.
+ */
+public class MultistreamIndexTest {
+
+  /** Temporary directory */
+  private File directory;
+
+  /** Index */
+  private MultistreamIndex index;
+
+  /**
+   * Build an index from a text index.
+   * 
+   * @throws IOException Error building the index.
+   */
+  @Before
+  public void setUp() throws IOException {
+    directory = Files.createTempDirectory("multistream").toFile();
+    File textIndex = new File(directory, "dump-index.txt");
+    Files.write(textIndex.toPath(), Arrays.asList(
+        "600:30:Zeta",
+        "600:12:Alpha",
+        "600:31:B\u00e9ta",
+        "1234:7:Gamma",
+        "1234:40:Delta: with colon",
+        "not an index line",
+        "9876543210:5:Last stream"), StandardCharsets.UTF_8);
+    File indexFile = new File(directory, "dump.wpcidx");
+    MultistreamIndex.build(textIndex, indexFile);
+    index = MultistreamIndex.open(indexFile);
+  }
+
+  /**
+   * Delete the temporary directory.
+   */
+  @After
+  public void tearDown() {
+    if (index != null) {
+      index.close();
+    }
+    File[] files = directory.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        file.delete();
+      }
+    }
+    directory.delete();
+  }
+
+  /**
+   * Pages are found by id with the offset of their stream and their position in it.
+   */
+  @Test
+  public void testOffsets() {
+    assertEquals("Number of pages", 6, index.size());
+    checkPage(30, "Zeta", 600, 0);
+    checkPage(12, "Alpha", 600, 1);
+    checkPage(31, "B\u00e9ta", 600, 2);
+    checkPage(7, "Gamma", 1234, 0);
+    checkPage(40, "Delta: with colon", 1234, 1);
+  }
+
+  /**
+   * Offsets beyond the range of an int are kept for the last stream.
+   */
+  @Test
+  public void testLastStream() {
+    checkPage(5, "Last stream", 9876543210L, 0);
+  }
+
+  /**
+   * Missing pages are reported as -1.
+   */
+  @Test
+  public void testMissing() {
+    assertEquals("Missing title", -1, index.findByTitle("Missing"));
+    assertEquals("Prefix of a title", -1, index.findByTitle("Alph"));
+    assertEquals("Title with a different case", -1, index.findByTitle("alpha"));
+    assertEquals("Null title", -1, index.findByTitle(null));
+    assertEquals("Title before all others", -1, index.findByTitle("A"));
+    assertEquals("Title after all others", -1, index.findByTitle("\u00ff"));
+    assertEquals("Missing page id", -1, index.findByPageId(13));
+    assertEquals("Page id before all others", -1, index.findByPageId(1));
+    assertEquals("Page id after all others", -1, index.findByPageId(1000));
+  }
+
+  /**
+   * @param pageId Page id.
+   * @param title Page title.
+   * @param offset Offset of the stream.
+   * @param streamIndex Position of the page in the stream.
+   */
+  private void checkPage(int pageId, String title, long offset, int streamIndex) {
+    int position = index.findByPageId(pageId);
+    assertTrue("Page " + pageId + " not found", position >= 0);
+    assertEquals("Position by title", position, index.findByTitle(title));
+    assertEquals("Page id", pageId, index.getPageId(position));
+    assertEquals("Title", title, index.getTitle(position));
+    assertEquals("Offset of " + title, offset, index.getStreamOffset(position));
+    assertEquals("Position in stream of " + title, streamIndex, index.getStreamIndex(position));
+  }
+}
@@ -0,0 +1,490 @@
+/*
+ *  WPCleaner: A tool to help on Wikipedia maintenance tasks.
+ *  Copyright (C) 2020  Nicolas Vervelle
+ *
+ *  See README.txt file for licensing information.
+ */
+
+
+package org.wikipediacleaner.api.http.simulator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wikipediacleaner.api.http.simulator.SimulatorFixtures.Fixture;
+import org.wikipediacleaner.utils.NamedThreadFactory;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+
+/**
+ * Local simulator of the MediaWiki API and of the other servers used by WPCleaner.
+ * 
+ * <p>
+ * Development tool only: it is kept with the tests and is not part of the released application.
+ * </p>
+ * 
+ * <p>
+ * The simulator is an embedded HTTP server to which requests are redirected
+ * (see {@link org.wikipediacleaner.api.APIFactory#useSimulator(String)}).
+ * In record mode, requests are forwarded to the real servers and the responses are saved as fixtures.
+ * In replay mode, responses are served from the fixtures, without accessing the network,
+ * with optional latency, server errors and <code>maxlag</code> errors.
+ * </p>
+ * 
+ * <p>
+ * Usage: <code>ApiSimulator record|replay &lt;directory&gt; [-port &lt;port&gt;]
+ * [-latency &lt;min ms&gt; &lt;max ms&gt;] [-errors &lt;ratio&gt;] [-maxlag &lt;ratio&gt; &lt;seconds&gt;]</code>,
+ * with the test classes in the classpath,
+ * then run WPCleaner with <code>-simulator &lt;URL displayed by the simulator&gt;</code>.
+ * </p>
+ */
+public class ApiSimulator {
+
+  /** Logs */
+  private final static Logger log = LoggerFactory.getLogger(ApiSimulator.class);
+
+  /**
+   * Mode of the simulator.
+   */
+  public enum Mode {
+
+    /** Forward requests to the real servers and record the responses */
+    RECORD,
+
+    /** Serve the recorded responses */
+    REPLAY,
+  }
+
+  /** Mode of the simulator */
+  private final Mode mode;
+
+  /** Fixtures */
+  private final SimulatorFixtures fixtures;
+
+  /** Port on which the simulator listens (0 for any free port) */
+  private int port;
+
+  /** Minimum latency added to each response (in milliseconds) */
+  private int minLatency;
+
+  /** Maximum latency added to each response (in milliseconds) */
+  private int maxLatency;
+
+  /** Ratio of requests answered by a server error */
+  private double errorRatio;
+
+  /** Ratio of API requests answered by a maxlag error */
+  private double maxlagRatio;
+
+  /** Lag reported in maxlag errors (in seconds) */
+  private int maxlagSeconds;
+
+  /** Random generator for latency and errors */
+  private final Random random;
+
+  /** Number of requests received */
+  private final AtomicLong requestCount;
+
+  /** Number of requests without a recorded response */
+  private final AtomicLong missingCount;
+
+  /** Embedded HTTP server */
+  private HttpServer server;
+
+  /** Threads handling the requests */
+  private ExecutorService executor;
+
+  /**
+   * @param mode Mode of the simulator.
+   * @param directory Directory containing the fixtures.
+   */
+  public ApiSimulator(Mode mode, File directory) {
+    this.mode = mode;
+    this.fixtures = new SimulatorFixtures(directory);
+    this.port = 0;
+    this.maxlagSeconds = 5;
+    this.random = new Random();
+    this.requestCount = new AtomicLong();
+    this.missingCount = new AtomicLong();
+  }
+
+  /**
+   * @param port Port on which the simulator listens (0 for any free port).
+   */
+  public void setPort(int port) {
+    this.port = port;
+  }
+
+  /**
+   * @param min Minimum latency added to each response (in milliseconds).
+   * @param max Maximum latency added to each response (in milliseconds).
+   */
+  public void setLatency(int min, int max) {
+    this.minLatency = Math.max(0, min);
+    this.maxLatency = Math.max(this.minLatency, max);
+  }
+
+  /**
+   * @param ratio Ratio of requests answered by a server error (503).
+   */
+  public void setErrorRatio(double ratio) {
+    this.errorRatio = ratio;
+  }
+
+  /**
+   * @param ratio Ratio of API requests answered by a maxlag error.
+   * @param seconds Lag reported in maxlag errors (in seconds).
+   */
+  public void setMaxlag(double ratio, int seconds) {
+    this.maxlagRatio = ratio;
+    this.maxlagSeconds = seconds;
+  }
+
+  /**
+   * Start the simulator.
+   * 
+   * @throws IOException Error starting the HTTP server.
+   */
+  public synchronized void start() throws IOException {
+    if (server != null) {
+      return;
+    }
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+    executor = Executors.newCachedThreadPool(
+        new NamedThreadFactory(Executors.defaultThreadFactory(), "ApiSimulator-{0}"));
+    server.setExecutor(executor);
+    server.createContext("/", new HttpHandler() {
+
+      @Override
+      public void handle(HttpExchange exchange) throws IOException {
+        try {
+          ApiSimulator.this.handle(exchange);
+        } finally {
+          exchange.close();
+        }
+      }
+    });
+    server.start();
+    log.info("API simulator ({}) listening on {}", mode, getBaseUrl());
+  }
+
+  /**
+   * Stop the simulator.
+   */
+  public synchronized void stop() {
+    if (server == null) {
+      return;
+    }
+    server.stop(0);
+    executor.shutdownNow();
+    server = null;
+    executor = null;
+  }
+
+  /**
+   * @return Base URL of the simulator, to be used with {@link org.wikipediacleaner.api.APIFactory#useSimulator(String)}.
+   */
+  public synchronized String getBaseUrl() {
+    if (server == null) {
+      return null;
+    }
+    return "http://" + server.getAddress().getAddress().getHostAddress() + ":" + server.getAddress().getPort() + "/";
+  }
+
+  /**
+   * @return Number of requests received.
+   */
+  public long getRequestCount() {
+    return requestCount.get();
+  }
+
+  /**
+   * @return Number of requests without a recorded response.
+   */
+  public long getMissingCount() {
+    return missingCount.get();
+  }
+
+  /**
+   * Handle a request.
+   * 
+   * @param exchange HTTP exchange.
+   * @throws IOException Error handling the request.
+   */
+  void handle(HttpExchange exchange) throws IOException {
+    requestCount.incrementAndGet();
+
+    // Rebuild the original request: /{scheme}/{host}/{path}
+    String path = exchange.getRequestURI().getRawPath();
+    int slashIndex = path.indexOf('/', 1);
+    if (slashIndex < 0) {
+      sendResponse(exchange, 404, "text/plain", "Unknown server".getBytes(StandardCharsets.UTF_8));
+      return;
+    }
+    String url = path.substring(1, slashIndex) + "://" + path.substring(slashIndex + 1);
+    String query = exchange.getRequestURI().getRawQuery();
+    byte[] body = readFully(exchange.getRequestBody());
+    String form = null;
+    String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+    if ((contentType != null) && contentType.startsWith("application/x-www-form-urlencoded")) {
+      form = new String(body, StandardCharsets.UTF_8);
+    }
+    String key = SimulatorFixtures.computeKey(url, query, form);
+
+    // Simulate latency and errors
+    if (maxLatency > 0) {
+      try {
+        Thread.sleep(minLatency + random.nextInt(maxLatency - minLatency + 1));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    if ((errorRatio > 0) && (random.nextDouble() < errorRatio)) {
+      exchange.getResponseHeaders().add("Retry-After", "1");
+      sendResponse(exchange, 503, "text/plain", "Service Unavailable".getBytes(StandardCharsets.UTF_8));
+      return;
+    }
+    if ((maxlagRatio > 0) && url.endsWith("/api.php") && (random.nextDouble() < maxlagRatio)) {
+      sendMaxlag(exchange, getParameter(query, form, "format"));
+      return;
+    }
+
+    // Retrieve the response
+    Fixture fixture = null;
+    if (mode == Mode.RECORD) {
+      // The live response keeps the cookies and tokens, they are redacted in the recorded one
+      fixture = forward(exchange, url, query, body);
+      fixtures.put(key, fixture);
+    } else {
+      fixture = fixtures.get(key);
+    }
+    if (fixture == null) {
+      missingCount.incrementAndGet();
+      log.warn("No recorded response for {}", key);
+      sendResponse(exchange, 404, "text/plain", "No recorded response".getBytes(StandardCharsets.UTF_8));
+      return;
+    }
+    String fixtureContentType = null;
+    for (String[] header : fixture.getHeaders()) {
+      if ("Content-Type".equalsIgnoreCase(header[0])) {
+        fixtureContentType = header[1];
+      } else {
+        exchange.getResponseHeaders().add(header[0], header[1]);
+      }
+    }
+    sendResponse(exchange, fixture.getStatus(), fixtureContentType, fixture.getBody());
+  }
+
+  /**
+   * Forward a request to the real server.
+   * 
+   * @param exchange HTTP exchange.
+   * @param url URL of the request (without query string).
+   * @param query Raw query string.
+   * @param body Body of the request.
+   * @return Response of the real server, including cookies and tokens.
+   * @throws IOException Error accessing the real server.
+   */
+  private Fixture forward(
+      HttpExchange exchange, String url, String query, byte[] body) throws IOException {
+    URL target = new URL((query != null) ? url + "?" + query : url);
+    HttpURLConnection connection = (HttpURLConnection) target.openConnection();
+    connection.setInstanceFollowRedirects(false);
+    connection.setRequestMethod(exchange.getRequestMethod());
+    for (String name : new String[] { "Content-Type", "Cookie", "User-Agent" }) {
+      List<String> values = exchange.getRequestHeaders().get(name);
+      if (values != null) {
+        for (String value : values) {
+          connection.addRequestProperty(name, value);
+        }
+      }
+    }
+    if (body.length > 0) {
+      connection.setDoOutput(true);
+      try (OutputStream output = connection.getOutputStream()) {
+        output.write(body);
+      }
+    }
+    int status = connection.getResponseCode();
+    InputStream input = (status >= 400) ? connection.getErrorStream() : connection.getInputStream();
+    byte[] responseBody = (input != null) ? readFully(input) : new byte[0];
+    List<String[]> headers = new ArrayList<>();
+    for (Map.Entry<String, List<String>> header : connection.getHeaderFields().entrySet()) {
+      String name = header.getKey();
+      if ((name == null) || (header.getValue() == null)) {
+        continue;
+      }
+      for (String value : header.getValue()) {
+        if ("Content-Type".equalsIgnoreCase(name) ||
+            "Retry-After".equalsIgnoreCase(name)) {
+          headers.add(new String[] { name, value });
+        } else if ("Set-Cookie".equalsIgnoreCase(name)) {
+          // Cookies must be accepted by the client for the simulator host
+          headers.add(new String[] { name, value.replaceAll("(?i);\\s*(domain=[^;]*|secure)", "") });
+        }
+      }
+    }
+    connection.disconnect();
+    return new Fixture(status, headers, responseBody);
+  }
+
+  /**
+   * Send a maxlag error, as MediaWiki does when replication lag is too high.
+   * 
+   * @param exchange HTTP exchange.
+   * @param format Format of the API response.
+   * @throws IOException Error sending the response.
+   */
+  private void sendMaxlag(HttpExchange exchange, String format) throws IOException {
+    String info = "Waiting for a database server: " + maxlagSeconds + " seconds lagged.";
+    exchange.getResponseHeaders().add("Retry-After", Integer.toString(maxlagSeconds));
+    exchange.getResponseHeaders().add("X-Database-Lag", Integer.toString(maxlagSeconds));
+    if ("json".equals(format)) {
+      String text =
+          "{\"error\":{\"code\":\"maxlag\",\"info\":\"" + info + "\"," +
+          "\"host\":\"db\",\"lag\":" + maxlagSeconds + ",\"type\":\"db\"}}";
+      sendResponse(exchange, 200, "application/json; charset=utf-8", text.getBytes(StandardCharsets.UTF_8));
+    } else {
+      String text =
+          "<?xml version=\"1.0\"?><api><error code=\"maxlag\" info=\"" + info + "\" " +
+          "host=\"db\" lag=\"" + maxlagSeconds + "\" type=\"db\" /></api>";
+      sendResponse(exchange, 200, "text/xml; charset=utf-8", text.getBytes(StandardCharsets.UTF_8));
+    }
+  }
+
+  /**
+   * @param exchange HTTP exchange.
+   * @param status HTTP status.
+   * @param contentType Content type (may be null).
+   * @param body Body of the response.
+   * @throws IOException Error sending the response.
+   */
+  private static void sendResponse(
+      HttpExchange exchange, int status,
+      String contentType, byte[] body) throws IOException {
+    Headers headers = exchange.getResponseHeaders();
+    if (contentType != null) {
+      headers.set("Content-Type", contentType);
+    }
+    if ("HEAD".equals(exchange.getRequestMethod()) || (body.length == 0)) {
+      exchange.sendResponseHeaders(status, -1);
+      return;
+    }
+    exchange.sendResponseHeaders(status, body.length);
+    try (OutputStream output = exchange.getResponseBody()) {
+      output.write(body);
+    }
+  }
+
+  /**
+   * @param query Raw query string.
+   * @param form Raw form body.
+   * @param name Parameter name.
+   * @return Value of the parameter, null if not present.
+   */
+  private static String getParameter(String query, String form, String name) {
+    for (String encoded : new String[] { query, form }) {
+      if (encoded == null) {
+        continue;
+      }
+      for (String parameter : encoded.split("&")) {
+        if (parameter.startsWith(name + "=")) {
+          return SimulatorFixtures.decode(parameter.substring(name.length() + 1));
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @param input Input stream.
+   * @return Contents of the input stream.
+   * @throws IOException Error reading the stream.
+   */
+  private static byte[] readFully(InputStream input) throws IOException {
+    ByteArrayOutputStream result = new ByteArrayOutputStream();
+    byte[] buffer = new byte[8192];
+    int count = 0;
+    while ((count = input.read(buffer)) >= 0) {
+      result.write(buffer, 0, count);
+    }
+    input.close();
+    return result.toByteArray();
+  }
+
+  /**
+   * Run the simulator as a standalone server.
+   * 
+   * @param args Command line arguments.
+   * @throws IOException Error starting the simulator.
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length < 2) {
+      log.error(
+          "Usage: ApiSimulator record|replay <directory> [-port <port>] " +
+          "[-latency <min ms> <max ms>] [-errors <ratio>] [-maxlag <ratio> <seconds>]");
+      return;
+    }
+    Mode mode = "record".equalsIgnoreCase(args[0]) ? Mode.RECORD : Mode.REPLAY;
+    final ApiSimulator simulator = new ApiSimulator(mode, new File(args[1]));
+    int currentArg = 2;
+    while (currentArg < args.length) {
+      String arg = args[currentArg];
+      if ("-port".equals(arg) && (currentArg + 1 < args.length)) {
+        simulator.setPort(Integer.parseInt(args[currentArg + 1]));
+        currentArg += 2;
+      } else if ("-latency".equals(arg) && (currentArg + 2 < args.length)) {
+        simulator.setLatency(Integer.parseInt(args[currentArg + 1]), Integer.parseInt(args[currentArg + 2]));
+        currentArg += 3;
+      } else if ("-errors".equals(arg) && (currentArg + 1 < args.length)) {
+        simulator.setErrorRatio(Double.parseDouble(args[currentArg + 1]));
+        currentArg += 2;
+      } else if ("-maxlag".equals(arg) && (currentArg + 2 < args.length)) {
+        simulator.setMaxlag(Double.parseDouble(args[currentArg + 1]), Integer.parseInt(args[currentArg + 2]));
+        currentArg += 3;
+      } else {
+        log.error("Unknown argument {}", arg);
+        return;
+      }
+    }
+    simulator.start();
+    Runtime.getRuntime().addShutdownHook(new Thread() {
+
+      @Override
+      public void run() {
+        log.info(
+            "API simulator stopped: {} requests, {} without recorded response",
+            simulator.getRequestCount(), simulator.getMissingCount());
+      }
+    });
+    try {
+      while (true) {
+        TimeUnit.HOURS.sleep(1);
+      }
+    } catch (InterruptedException e) {
+      simulator.stop();
+    }
+  }
+}
@@ -0,0 +1,447 @@
+/*
+ *  WPCleaner: A tool to help on Wikipedia maintenance tasks.
+ *  Copyright (C) 2020  Nicolas Vervelle
+ *
+ *  See README.txt file for licensing information.
+ */
+
+
+package org.wikipediacleaner.api.http.simulator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Fixtures (request/response pairs) used by the API simulator.
+ * 
+ * <p>
+ * Each response is stored in its own file, named after a hash of the request key
+ * and the position of the response in the sequence of responses for this request.
+ * When the same request is sent several times (page contents before and after an edit, ...),
+ * the responses are replayed in the recorded order, the last one being repeated.
+ * </p>
+ */
+public class SimulatorFixtures {
+
+  /** Logs */
+  private final static Logger log = LoggerFactory.getLogger(SimulatorFixtures.class);
+
+  /** First line of a fixture file */
+  private final static String MAGIC = "WPCleaner simulator fixture 1";
+
+  /** Parameters not used in the request key: secrets, or values that change between runs */
+  private final static Set<String> IGNORED_PARAMETERS = new HashSet<>(Arrays.asList(new String[] {
+      "lgname", "lgpassword", "lgtoken", "logintoken", "maxlag", "password", "token", "username",
+  }));
+
+  /** Placeholder replacing secrets in the recorded fixtures */
+  public final static String REDACTED = "REDACTED";
+
+  /** Tokens in JSON responses (csrftoken, logintoken, ...) */
+  private final static Pattern JSON_TOKEN = Pattern.compile(
+      "(\"[a-z]*(?:token|sessionid)\"\\s*:\\s*\")(?:[^\"\\\\]|\\\\.)*(\")",
+      Pattern.CASE_INSENSITIVE);
+
+  /** Tokens in XML responses (csrftoken, logintoken, ...) */
+  private final static Pattern XML_TOKEN = Pattern.compile(
+      "(\\s[a-z]*(?:token|sessionid)=\")[^\"]*(\")",
+      Pattern.CASE_INSENSITIVE);
+
+  /** Directory containing the fixtures */
+  private final File directory;
+
+  /** Number of responses already replayed for each request key */
+  private final ConcurrentMap<String, AtomicInteger> replayed;
+
+  /** Number of responses already recorded for each request key */
+  private final ConcurrentMap<String, AtomicInteger> recorded;
+
+  /** Number of responses available for each request key */
+  private final ConcurrentMap<String, Integer> counts;
+
+  /**
+   * @param directory Directory containing the fixtures.
+   */
+  public SimulatorFixtures(File directory) {
+    this.directory = directory;
+    this.replayed = new ConcurrentHashMap<>();
+    this.recorded = new ConcurrentHashMap<>();
+    this.counts = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Compute the key identifying a request.
+   * 
+   * @param url URL of the request (without query string).
+   * @param query Raw query string (may be null).
+   * @param body Raw form body (may be null).
+   * @return Key of the request.
+   */
+  public static String computeKey(String url, String query, String body) {
+    List<String> parameters = new ArrayList<>();
+    addParameters(parameters, query);
+    addParameters(parameters, body);
+    Collections.sort(parameters);
+    StringBuilder key = new StringBuilder(url);
+    boolean first = true;
+    for (String parameter : parameters) {
+      key.append(first ? '?' : '&');
+      key.append(parameter);
+      first = false;
+    }
+    return key.toString();
+  }
+
+  /**
+   * @param parameters List of normalized parameters.
+   * @param encoded URL encoded parameters.
+   */
+  private static void addParameters(List<String> parameters, String encoded) {
+    if ((encoded == null) || encoded.isEmpty()) {
+      return;
+    }
+    for (String parameter : encoded.split("&")) {
+      if (parameter.isEmpty()) {
+        continue;
+      }
+      int equalIndex = parameter.indexOf('=');
+      String name = decode((equalIndex < 0) ? parameter : parameter.substring(0, equalIndex));
+      String value = (equalIndex < 0) ? "" : decode(parameter.substring(equalIndex + 1));
+      if (!IGNORED_PARAMETERS.contains(name)) {
+        parameters.add(encode(name) + "=" + encode(value));
+      }
+    }
+  }
+
+  /**
+   * @param text URL encoded text.
+   * @return Decoded text.
+   */
+  public static String decode(String text) {
+    try {
+      return URLDecoder.decode(text, "UTF-8");
+    } catch (UnsupportedEncodingException | IllegalArgumentException e) {
+      return text;
+    }
+  }
+
+  /**
+   * @param text Text.
+   * @return URL encoded text.
+   */
+  private static String encode(String text) {
+    try {
+      return URLEncoder.encode(text, "UTF-8");
+    } catch (UnsupportedEncodingException e) {
+      return text;
+    }
+  }
+
+  /**
+   * Retrieve the next response for a request.
+   * 
+   * @param key Key of the request.
+   * @return Next response, null if no response has been recorded for the request.
+   */
+  public Fixture get(String key) {
+    int count = countFiles(key);
+    if (count == 0) {
+      return null;
+    }
+    AtomicInteger counter = replayed.get(key);
+    if (counter == null) {
+      replayed.putIfAbsent(key, new AtomicInteger());
+      counter = replayed.get(key);
+    }
+    int index = Math.min(counter.getAndIncrement(), count - 1);
+    return read(getFile(key, index), key);
+  }
+
+  /**
+   * Record a response for a request.
+   * 
+   * @param key Key of the request.
+   * @param fixture Response.
+   * @throws IOException Error writing the fixture.
+   */
+  public void put(String key, Fixture fixture) throws IOException {
+    AtomicInteger counter = recorded.get(key);
+    if (counter == null) {
+      recorded.putIfAbsent(key, new AtomicInteger(countFiles(key)));
+      counter = recorded.get(key);
+    }
+    write(getFile(key, counter.getAndIncrement()), key, redact(fixture));
+  }
+
+  /**
+   * Remove secrets from a response before it is recorded.
+   * 
+   * <p>
+   * Cookie values and tokens are replaced by a placeholder:
+   * the live response keeps them, but they are never written to the fixture files.
+   * </p>
+   * 
+   * @param fixture Response.
+   * @return Response without secrets.
+   */
+  public static Fixture redact(Fixture fixture) {
+    List<String[]> headers = new ArrayList<>(fixture.getHeaders().size());
+    boolean textual = false;
+    for (String[] header : fixture.getHeaders()) {
+      String value = header[1];
+      if ("Set-Cookie".equalsIgnoreCase(header[0])) {
+        value = redactCookie(value);
+      } else if ("Content-Type".equalsIgnoreCase(header[0]) && (value != null)) {
+        String lowerValue = value.toLowerCase();
+        textual = lowerValue.contains("json") || lowerValue.contains("xml") || lowerValue.startsWith("text/");
+      }
+      headers.add(new String[] { header[0], value });
+    }
+    byte[] body = fixture.getBody();
+    if (textual) {
+      // ISO-8859-1 maps each byte to a character, so non ASCII contents are kept untouched
+      String text = new String(body, StandardCharsets.ISO_8859_1);
+      String redacted = redactTokens(redactTokens(text, JSON_TOKEN), XML_TOKEN);
+      if (!redacted.equals(text)) {
+        body = redacted.getBytes(StandardCharsets.ISO_8859_1);
+      }
+    }
+    return new Fixture(fixture.getStatus(), headers, body);
+  }
+
+  /**
+   * @param cookie Value of a Set-Cookie header.
+   * @return Value with the cookie value replaced by a placeholder, attributes kept.
+   */
+  private static String redactCookie(String cookie) {
+    if (cookie == null) {
+      return null;
+    }
+    int equalIndex = cookie.indexOf('=');
+    if (equalIndex < 0) {
+      return cookie;
+    }
+    int semicolonIndex = cookie.indexOf(';', equalIndex);
+    String attributes = (semicolonIndex < 0) ? "" : cookie.substring(semicolonIndex);
+    if (cookie.substring(equalIndex + 1, (semicolonIndex < 0) ? cookie.length() : semicolonIndex).trim().isEmpty()) {
+      // Cookie being deleted: nothing secret
+      return cookie;
+    }
+    return cookie.substring(0, equalIndex + 1) + REDACTED + attributes;
+  }
+
+  /**
+   * @param text Text of a response.
+   * @param pattern Pattern matching tokens.
+   * @return Text with the tokens replaced by a placeholder.
+   */
+  private static String redactTokens(String text, Pattern pattern) {
+    Matcher matcher = pattern.matcher(text);
+    if (!matcher.find()) {
+      return text;
+    }
+    StringBuffer result = new StringBuffer(text.length());
+    do {
+      matcher.appendReplacement(result, "$1" + REDACTED + "$2");
+    } while (matcher.find());
+    matcher.appendTail(result);
+    return result.toString();
+  }
+
+  /**
+   * @param key Key of the request.
+   * @return Number of responses available for the request.
+   */
+  private int countFiles(String key) {
+    Integer count = counts.get(key);
+    if (count == null) {
+      int tmpCount = 0;
+      while (getFile(key, tmpCount).isFile()) {
+        tmpCount++;
+      }
+      count = Integer.valueOf(tmpCount);
+      counts.putIfAbsent(key, count);
+    }
+    return count.intValue();
+  }
+
+  /**
+   * @param key Key of the request.
+   * @param index Index of the response in the sequence.
+   * @return File for the response.
+   */
+  private File getFile(String key, int index) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-1");
+      StringBuilder name = new StringBuilder();
+      for (byte b : digest.digest(key.getBytes(StandardCharsets.UTF_8))) {
+        name.append(Character.forDigit((b >> 4) & 0xF, 16));
+        name.append(Character.forDigit(b & 0xF, 16));
+      }
+      name.append('_');
+      name.append(index);
+      name.append(".fixture");
+      return new File(directory, name.toString());
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * @param file File containing the fixture.
+   * @param key Key of the request.
+   * @return Fixture, null if the file doesn't exist or isn't for this request.
+   */
+  private static Fixture read(File file, String key) {
+    if (!file.isFile()) {
+      return null;
+    }
+    try {
+      byte[] data = Files.readAllBytes(file.toPath());
+      int index = 0;
+      int status = 0;
+      String fileKey = null;
+      List<String[]> headers = new ArrayList<>();
+      boolean first = true;
+      while (index < data.length) {
+        int end = index;
+        while ((end < data.length) && (data[end] != '\n')) {
+          end++;
+        }
+        String line = new String(data, index, end - index, StandardCharsets.UTF_8);
+        index = Math.min(end + 1, data.length);
+        if (first) {
+          if (!MAGIC.equals(line)) {
+            return null;
+          }
+          first = false;
+        } else if (line.isEmpty()) {
+          break;
+        } else if (line.startsWith("Key: ")) {
+          fileKey = line.substring(5);
+        } else if (line.startsWith("Status: ")) {
+          status = Integer.parseInt(line.substring(8));
+        } else if (line.startsWith("Header: ")) {
+          int colonIndex = line.indexOf(": ", 8);
+          if (colonIndex > 0) {
+            headers.add(new String[] { line.substring(8, colonIndex), line.substring(colonIndex + 2) });
+          }
+        }
+      }
+      if (!key.equals(fileKey)) {
+        return null;
+      }
+      return new Fixture(status, headers, Arrays.copyOfRange(data, index, data.length));
+    } catch (IOException | NumberFormatException e) {
+      log.warn("Unable to read fixture {}: {}", file, e.getMessage());
+      return null;
+    }
+  }
+
+  /**
+   * @param file File containing the fixture.
+   * @param key Key of the request.
+   * @param fixture Fixture.
+   * @throws IOException Error writing the fixture.
+   */
+  private static void write(File file, String key, Fixture fixture) throws IOException {
+    File parent = file.getParentFile();
+    if ((parent != null) && !parent.isDirectory() && !parent.mkdirs()) {
+      throw new IOException("Unable to create directory " + parent);
+    }
+    ByteArrayOutputStream header = new ByteArrayOutputStream();
+    appendLine(header, MAGIC);
+    appendLine(header, "Key: " + key);
+    appendLine(header, "Status: " + fixture.getStatus());
+    for (String[] element : fixture.getHeaders()) {
+      appendLine(header, "Header: " + element[0] + ": " + element[1]);
+    }
+    appendLine(header, "");
+    try (OutputStream output = new FileOutputStream(file)) {
+      header.writeTo(output);
+      output.write(fixture.getBody());
+    }
+  }
+
+  /**
+   * @param output Output.
+   * @param line Line (without new line).
+   * @throws IOException Error writing the line.
+   */
+  private static void appendLine(OutputStream output, String line) throws IOException {
+    output.write(line.replace('\n', ' ').getBytes(StandardCharsets.UTF_8));
+    output.write('\n');
+  }
+
+  /**
+   * A recorded response.
+   */
+  public static class Fixture {
+
+    /** HTTP status */
+    private final int status;
+
+    /** HTTP headers (name and value) */
+    private final List<String[]> headers;
+
+    /** Body of the response */
+    private final byte[] body;
+
+    /**
+     * @param status HTTP status.
+     * @param headers HTTP headers (name and value).
+     * @param body Body of the response.
+     */
+    public Fixture(int status, List<String[]> headers, byte[] body) {
+      this.status = status;
+      this.headers = headers;
+      this.body = body;
+    }
+
+    /**
+     * @return HTTP status.
+     */
+    public int getStatus() {
+      return status;
+    }
+
+    /**
+     * @return HTTP headers (name and value).
+     */
+    public List<String[]> getHeaders() {
+      return headers;
+    }
+
+    /**
+     * @return Body of the response.
+     */
+    public byte[] getBody() {
+      return body;
+    }
+  }
+}
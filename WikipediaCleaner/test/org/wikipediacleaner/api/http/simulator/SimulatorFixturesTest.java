@@ -0,0 +1,87 @@
+/*
+ *  WPCleaner: A tool to help on Wikipedia maintenance tasks.
+ *  Copyright (C) 2020  Nicolas Vervelle
+ *
+ *  See README.txt file for licensing information.
+ */
+
+package org.wikipediacleaner.api.http.simulator;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.wikipediacleaner.api.http.simulator.SimulatorFixtures.Fixture;
+
+
+/**
+ * Test class for the fixtures of the API simulator.
+ */
+public class SimulatorFixturesTest {
+
+  /** Temporary directory for the fixtures */
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  /**
+   * Test that cookies and tokens are not written in the fixture files.
+   * 
+   * @throws IOException Error with the fixture files.
+   */
+  @Test
+  public void testSecretsNotRecorded() throws IOException {
+    List<String[]> headers = new ArrayList<>();
+    headers.add(new String[] { "Content-Type", "application/json; charset=utf-8" });
+    headers.add(new String[] { "Set-Cookie", "enwikiSession=abc123secret; path=/; HttpOnly" });
+    String body =
+        "{\"query\":{\"tokens\":{\"csrftoken\":\"0123456789abcdef+\\\\\"," +
+        "\"logintoken\":\"fedcba9876543210+\\\\\"}},\"title\":\"Caf\u00e9\"}";
+    Fixture live = new Fixture(200, headers, body.getBytes(StandardCharsets.UTF_8));
+
+    File directory = folder.newFolder();
+    SimulatorFixtures fixtures = new SimulatorFixtures(directory);
+    String key = SimulatorFixtures.computeKey("https://en.wikipedia.org/w/api.php", "action=query", null);
+    fixtures.put(key, live);
+
+    File[] files = directory.listFiles();
+    assertEquals("One fixture file expected", 1, files.length);
+    String content = new String(Files.readAllBytes(files[0].toPath()), StandardCharsets.UTF_8);
+    assertFalse("Cookie value recorded", content.contains("abc123secret"));
+    assertFalse("CSRF token recorded", content.contains("0123456789abcdef"));
+    assertFalse("Login token recorded", content.contains("fedcba9876543210"));
+    assertTrue("Cookie attributes lost", content.contains("enwikiSession=" + SimulatorFixtures.REDACTED + "; path=/; HttpOnly"));
+    assertTrue("Other contents lost", content.contains("\"title\":\"Caf\u00e9\""));
+
+    // Live response is untouched
+    assertEquals("Live cookie modified", "enwikiSession=abc123secret; path=/; HttpOnly", live.getHeaders().get(1)[1]);
+    assertEquals("Live body modified", body, new String(live.getBody(), StandardCharsets.UTF_8));
+
+    // Recorded response can be replayed
+    Fixture replayed = new SimulatorFixtures(directory).get(key);
+    assertNotNull("Recorded response not replayed", replayed);
+    assertEquals("Wrong status", 200, replayed.getStatus());
+  }
+
+  /**
+   * Test that tokens in XML responses are redacted.
+   */
+  @Test
+  public void testXmlTokens() {
+    List<String[]> headers = new ArrayList<>();
+    headers.add(new String[] { "Content-Type", "text/xml; charset=utf-8" });
+    String body = "<api><query><tokens csrftoken=\"0123456789abcdef+\\\" /></query></api>";
+    Fixture redacted = SimulatorFixtures.redact(new Fixture(200, headers, body.getBytes(StandardCharsets.UTF_8)));
+    assertEquals(
+        "Token not redacted",
+        "<api><query><tokens csrftoken=\"" + SimulatorFixtures.REDACTED + "\" /></query></api>",
+        new String(redacted.getBody(), StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,195 @@
+/*
+ *  WPCleaner: A tool to help on Wikipedia maintenance tasks.
+ *  Copyright (C) 2020  Nicolas Vervelle
+ *
+ *  See README.txt file for licensing information.
+ */
+
+
+package org.wikipediacleaner.api.impl;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.wikipediacleaner.api.constants.EnumWikipedia;
+import org.wikipediacleaner.api.data.DataManager;
+import org.wikipediacleaner.api.data.RecentChange;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+
+/**
+ * Test class for reading recent changes from a local Server-Sent Events stub.
+ */
+public class RecentChangesStreamTest {
+
+  /** Stub server */
+  private HttpServer server;
+
+  /** Responses sent by the stub server, one per connection */
+  final List<String> responses = new ArrayList<>();
+
+  /** Last-Event-ID headers received by the stub server, one per connection */
+  final List<String> lastEventIds = new ArrayList<>();
+
+  /** Queries received by the stub server, one per connection */
+  final List<String> queries = new ArrayList<>();
+
+  /** Recent changes received by the manager */
+  final List<RecentChange> received = new ArrayList<>();
+
+  /** Manager collecting the recent changes */
+  private RecentChangesManager manager;
+
+  /** URL of the stream on the stub server */
+  private String url;
+
+  /**
+   * Start the stub server.
+   * 
+   * @throws IOException Error starting the server.
+   */
+  @Before
+  public void setUp() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.createContext("/stream", new HttpHandler() {
+
+      @Override
+      public void handle(HttpExchange exchange) throws IOException {
+        String response = "";
+        synchronized (responses) {
+          lastEventIds.add(exchange.getRequestHeaders().getFirst("Last-Event-ID"));
+          queries.add(exchange.getRequestURI().getRawQuery());
+          if (!responses.isEmpty()) {
+            response = responses.remove(0);
+          }
+        }
+        byte[] body = response.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+          os.write(body);
+        }
+      }
+    });
+    server.start();
+    url = "http://127.0.0.1:" + server.getAddress().getPort() + "/stream";
+    manager = new RecentChangesManager(EnumWikipedia.EN, null) {
+
+      @Override
+      public void queueRecentChanges(List<RecentChange> rc, Date currentTime) {
+        received.addAll(rc);
+      }
+    };
+  }
+
+  /**
+   * Stop the stub server.
+   */
+  @After
+  public void tearDown() {
+    server.stop(0);
+  }
+
+  /**
+   * Events are separated by empty lines, comments are ignored,
+   * multi-line data is joined and events for other wikis are filtered.
+   * 
+   * @throws Exception Error reading the stream.
+   */
+  @Test
+  public void testEventFraming() throws Exception {
+    responses.add(
+        ": comment sent by the server\n" +
+        "\n" +
+        "event: message\n" +
+        "id: [{\"offset\":1}]\n" +
+        "data: {\"server_name\":\"en.wikipedia.org\",\"id\":1,\"namespace\":0,\"title\":\"Page A\",\n" +
+        "data: \"type\":\"edit\",\"timestamp\":1600000000,\"revision\":{\"new\":10},\n" +
+        "data: \"meta\":{\"dt\":\"2020-09-13T12:26:40.123Z\"}}\n" +
+        "\n" +
+        "id: [{\"offset\":2}]\n" +
+        "data: {\"server_name\":\"fr.wikipedia.org\",\"id\":2,\"title\":\"Page B\",\"timestamp\":1600000001}\n" +
+        "\n" +
+        "id: [{\"offset\":3}]\n" +
+        "data:{\"server_name\":\"en.wikipedia.org\",\"id\":3,\"title\":\"Page C\",\"type\":\"new\",\"timestamp\":1600000002}\n" +
+        "\n");
+    RecentChangesStream stream = new RecentChangesStream(EnumWikipedia.EN, url);
+    stream.read(manager, null);
+
+    assertEquals("Number of recent changes", 2, received.size());
+    RecentChange rc = received.get(0);
+    assertEquals("Title of first recent change", "Page A", rc.getTitle());
+    assertEquals("Revision of first recent change", 10, rc.getRevisionId());
+    assertEquals(
+        "Timestamp of first recent change",
+        DataManager.convertIso8601DateTime("2020-09-13T12:26:40Z"), rc.getTimestamp());
+    assertEquals("Title of second recent change", "Page C", received.get(1).getTitle());
+    assertTrue("Second recent change should be new", received.get(1).isNew());
+    assertEquals("Last timestamp", "2020-09-13T12:26:42Z", stream.getLastTimestamp());
+  }
+
+  /**
+   * Events without a usable timestamp are dropped.
+   * 
+   * @throws Exception Error reading the stream.
+   */
+  @Test
+  public void testEventWithoutTimestamp() throws Exception {
+    responses.add(
+        "data: {\"server_name\":\"en.wikipedia.org\",\"id\":1,\"title\":\"Page A\"," +
+        "\"meta\":{\"dt\":\"2020-09-13T12:26:40.123Z\"}}\n" +
+        "\n" +
+        "data: {\"server_name\":\"en.wikipedia.org\",\"id\":2,\"title\":\"Page B\",\"timestamp\":\"soon\"}\n" +
+        "\n");
+    RecentChangesStream stream = new RecentChangesStream(EnumWikipedia.EN, url);
+    stream.read(manager, null);
+
+    assertTrue("Recent changes without timestamp should be dropped", received.isEmpty());
+    assertNull("Last timestamp", stream.getLastTimestamp());
+  }
+
+  /**
+   * The first connection starts from the requested timestamp,
+   * next connections resume from the last event identifier.
+   * 
+   * @throws Exception Error reading the stream.
+   */
+  @Test
+  public void testResume() throws Exception {
+    responses.add(
+        "id: [{\"offset\":1}]\n" +
+        "data: {\"server_name\":\"en.wikipedia.org\",\"id\":1,\"title\":\"Page A\",\"timestamp\":1600000000}\n" +
+        "\n" +
+        "id: [{\"offset\":2}]\n" +
+        "data: {\"server_name\":\"fr.wikipedia.org\",\"id\":2,\"title\":\"Page B\",\"timestamp\":1600000001}\n" +
+        "\n");
+    responses.add(
+        "id: [{\"offset\":3}]\n" +
+        "data: {\"server_name\":\"en.wikipedia.org\",\"id\":3,\"title\":\"Page C\",\"timestamp\":1600000002}\n" +
+        "\n");
+    RecentChangesStream stream = new RecentChangesStream(EnumWikipedia.EN, url);
+    stream.read(manager, "2020-09-13T12:00:00Z");
+    stream.read(manager, stream.getLastTimestamp());
+
+    assertEquals("Number of connections", 2, queries.size());
+    assertEquals("Query of first connection", "since=2020-09-13T12%3A00%3A00Z", queries.get(0));
+    assertNull("Last-Event-ID of first connection", lastEventIds.get(0));
+    assertNull("Query of second connection", queries.get(1));
+    assertEquals("Last-Event-ID of second connection", "[{\"offset\":2}]", lastEventIds.get(1));
+    assertEquals("Number of recent changes", 2, received.size());
+    assertEquals("Title of last recent change", "Page C", received.get(1).getTitle());
+  }
+}
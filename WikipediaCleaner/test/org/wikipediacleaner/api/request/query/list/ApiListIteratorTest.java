@@ -0,0 +1,112 @@
+/*
+ *  WPCleaner: A tool to help on Wikipedia maintenance tasks.
+ *  Copyright (C) 2020  Nicolas Vervelle
+ *
+ *  See README.txt file for licensing information.
+ */
+
+package org.wikipediacleaner.api.request.query.list;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.wikipediacleaner.api.APIException;
+
+
+/**
+ * Test class for the iterator over the results of a list query.
+ */
+public class ApiListIteratorTest {
+
+  /**
+   * Fetcher returning predefined batches of results.
+   */
+  private static class BatchFetcher implements ApiListFetcher<String> {
+
+    /** Batches of results */
+    private final List<List<String>> batches;
+
+    /** Number of requests executed */
+    int requests;
+
+    /**
+     * @param batches Batches of results.
+     */
+    @SafeVarargs
+    BatchFetcher(List<String>... batches) {
+      this.batches = Arrays.asList(batches);
+    }
+
+    /**
+     * @see org.wikipediacleaner.api.request.query.list.ApiListFetcher#fetch(java.util.Map, java.util.List)
+     */
+    @Override
+    public boolean fetch(Map<String, String> properties, List<String> list) {
+      list.addAll(batches.get(requests));
+      requests++;
+      return requests < batches.size();
+    }
+  }
+
+  /**
+   * @param iterator Iterator.
+   * @return All results of the iterator.
+   * @throws APIException Exception thrown by the API.
+   */
+  private static List<String> toList(ApiListIterator<String> iterator) throws APIException {
+    List<String> result = new ArrayList<>();
+    while (iterator.hasNext()) {
+      result.add(iterator.next());
+    }
+    return result;
+  }
+
+  /**
+   * Results of all requests are returned in order.
+   * 
+   * @throws APIException Exception thrown by the API.
+   */
+  @Test
+  public void testAllResults() throws APIException {
+    BatchFetcher fetcher = new BatchFetcher(
+        Arrays.asList("a", "b"), Arrays.asList("b", "c"), Arrays.asList("a"));
+    ApiListIterator<String> iterator = new ApiListIterator<>(
+        new HashMap<String, String>(), fetcher, false, Integer.MAX_VALUE);
+    assertEquals("Wrong results", Arrays.asList("a", "b", "b", "c", "a"), toList(iterator));
+    assertEquals("Wrong number of requests", 3, fetcher.requests);
+  }
+
+  /**
+   * Results repeated around a continuation are returned only once.
+   * 
+   * @throws APIException Exception thrown by the API.
+   */
+  @Test
+  public void testDeduplicate() throws APIException {
+    BatchFetcher fetcher = new BatchFetcher(
+        Arrays.asList("a", "b", "b"), Arrays.asList("b", "c"), Arrays.asList("c", "d"));
+    ApiListIterator<String> iterator = new ApiListIterator<>(
+        new HashMap<String, String>(), fetcher, true, Integer.MAX_VALUE);
+    assertEquals("Wrong results", Arrays.asList("a", "b", "c", "d"), toList(iterator));
+  }
+
+  /**
+   * Iteration stops at the maximum number of results.
+   * 
+   * @throws APIException Exception thrown by the API.
+   */
+  @Test
+  public void testMaxSize() throws APIException {
+    BatchFetcher fetcher = new BatchFetcher(
+        Arrays.asList("a", "b"), Arrays.asList("c", "d"), Arrays.asList("e"));
+    ApiListIterator<String> iterator = new ApiListIterator<>(
+        new HashMap<String, String>(), fetcher, false, 3);
+    assertEquals("Wrong results", Arrays.asList("a", "b", "c"), toList(iterator));
+  }
+}
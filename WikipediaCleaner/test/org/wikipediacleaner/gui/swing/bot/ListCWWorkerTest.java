@@ -0,0 +1,128 @@
+/*
+ *  WPCleaner: A tool to help on Wikipedia maintenance tasks.
+ *  Copyright (C) 2020  Nicolas Vervelle
+ *
+ *  See README.txt file for licensing information.
+ */
+
+
+package org.wikipediacleaner.gui.swing.bot;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.wikipediacleaner.api.check.CheckErrorResult.ErrorLevel;
+import org.wikipediacleaner.api.constants.EnumWikipedia;
+import org.wikipediacleaner.api.data.DataManager;
+import org.wikipediacleaner.api.data.Page;
+import org.wikipediacleaner.api.dump.DetectionIndex;
+
+
+/**
+ * Test class for the size limit of the results of the Check Wiki bot.
+ */
+public class ListCWWorkerTest {
+
+  /** Header of the formatted result */
+  private final static String HEADER = "<!-- Generated using dump.xml.bz2 -->\n";
+
+  /**
+   * Test the formatting of a line with special characters in the notices.
+   */
+  @Test
+  public void testFormatResultLine() {
+    StringBuilder line = new StringBuilder();
+    ListCWWorker.formatResultLine(
+        createDetection("Page", ErrorLevel.ERROR, "a<b&c\nd", "\u00A0\uE000"),
+        null, line);
+    assertEquals(
+        "Line with a new level",
+        "<!-- Error -->\n* [[Page]]: <nowiki>a&lt;b&amp;c\u21b5d</nowiki>, <nowiki>[NBSP][PUA]</nowiki>\n",
+        line.toString());
+    ListCWWorker.formatResultLine(
+        createDetection("Page", ErrorLevel.ERROR),
+        ErrorLevel.ERROR, line);
+    assertEquals("Line with the same level", "* [[Page]]\n", line.toString());
+  }
+
+  /**
+   * Test that the computed sizes match the written result.
+   * 
+   * @throws IOException Error when writing the result.
+   */
+  @Test
+  public void testComputeResultSizes() throws IOException {
+    List<ListCWWorker.Detection> pages = createDetections();
+    long[] sizes = ListCWWorker.computeResultSizes(HEADER, pages);
+    assertEquals("Number of sizes", pages.size() + 1, sizes.length);
+    for (int count = 0; count <= pages.size(); count++) {
+      StringBuilder result = new StringBuilder();
+      ListCWWorker.writeResult(HEADER, pages, count, result);
+      assertEquals(
+          "Size for " + count + " detections",
+          result.toString().getBytes(StandardCharsets.UTF_8).length,
+          sizes[count]);
+    }
+  }
+
+  /**
+   * Test the number of detections fitting around the size boundaries.
+   */
+  @Test
+  public void testComputeResultCount() {
+    List<ListCWWorker.Detection> pages = createDetections();
+    long[] sizes = ListCWWorker.computeResultSizes(HEADER, pages);
+    assertEquals("Below header", 0, ListCWWorker.computeResultCount(sizes, sizes[0] - 1));
+    assertEquals("No space", 0, ListCWWorker.computeResultCount(sizes, 0));
+    for (int count = 0; count <= pages.size(); count++) {
+      assertEquals(
+          "Exact size for " + count + " detections",
+          count, ListCWWorker.computeResultCount(sizes, sizes[count]));
+      if (count > 0) {
+        assertEquals(
+            "One byte short for " + count + " detections",
+            count - 1, ListCWWorker.computeResultCount(sizes, sizes[count] - 1));
+      }
+    }
+    assertEquals(
+        "Above total", pages.size(),
+        ListCWWorker.computeResultCount(sizes, sizes[pages.size()] + 1));
+    assertEquals(
+        "Empty list", 0,
+        ListCWWorker.computeResultCount(
+            ListCWWorker.computeResultSizes(HEADER, Collections.<ListCWWorker.Detection>emptyList()),
+            Long.MAX_VALUE));
+  }
+
+  /**
+   * @return List of detections with characters encoded on 1 to 4 bytes.
+   */
+  private List<ListCWWorker.Detection> createDetections() {
+    List<ListCWWorker.Detection> pages = new ArrayList<>();
+    pages.add(createDetection("First", ErrorLevel.ERROR, "<ref>"));
+    pages.add(createDetection("Caf\u00e9", ErrorLevel.ERROR, "\u20AC & \u00e9"));
+    pages.add(createDetection("Emoji", ErrorLevel.WARNING, "\uD83D\uDE00\n\uDB80\uDC00"));
+    pages.add(createDetection("Last", ErrorLevel.WARNING));
+    return pages;
+  }
+
+  /**
+   * @param title Page title.
+   * @param level Maximum level for the errors.
+   * @param notices Notices.
+   * @return Detection.
+   */
+  private ListCWWorker.Detection createDetection(
+      String title, ErrorLevel level, String... notices) {
+    Page page = DataManager.getPage(EnumWikipedia.EN, title, null, null, null);
+    return new ListCWWorker.Detection(
+        page, new DetectionIndex.Detection(1, level, Arrays.asList(notices)));
+  }
+}
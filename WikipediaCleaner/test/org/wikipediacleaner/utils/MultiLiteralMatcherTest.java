@@ -0,0 +1,138 @@
+/*
+ *  WPCleaner: A tool to help on Wikipedia maintenance tasks.
+ *  Copyright (C) 2020  Nicolas Vervelle
+ *
+ *  See README.txt file for licensing information.
+ */
+
+package org.wikipediacleaner.utils;
+
+import static org.junit.Assert.*;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import org.junit.Test;
+
+
+/**
+ * Test class for the multi-literal matcher.
+ */
+public class MultiLiteralMatcherTest {
+
+  /** Characters used to build random literals and texts */
+  private final static String ALPHABET = "abAB[]{}|\u00e9\u00c9\u03c3\u03a3";
+
+  /** Number of random tests */
+  private final static int TEST_COUNT = 2000;
+
+  /**
+   * @param random Random generator.
+   * @param maxLength Maximum length.
+   * @return Random string, not empty.
+   */
+  private static String createString(Random random, int maxLength) {
+    StringBuilder sb = new StringBuilder();
+    int length = 1 + random.nextInt(maxLength);
+    for (int i = 0; i < length; i++) {
+      sb.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+    }
+    return sb.toString();
+  }
+
+  /**
+   * @param text Text.
+   * @return Text with each character folded.
+   */
+  private static String fold(String text) {
+    StringBuilder sb = new StringBuilder(text.length());
+    for (int i = 0; i < text.length(); i++) {
+      sb.append(MultiLiteralMatcher.fold(text.charAt(i)));
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Test with overlapping literals.
+   */
+  @Test
+  public void testOverlappingLiterals() {
+    MultiLiteralMatcher matcher = new MultiLiteralMatcher(false);
+    matcher.add("he", 0);
+    matcher.add("she", 1);
+    matcher.add("his", 2);
+    matcher.add("hers", 3);
+    matcher.add("ers", 3);
+    matcher.add("xyz", 4);
+    matcher.build();
+    BitSet result = matcher.search("ushers");
+    assertEquals("Wrong literals found", "{0, 1, 3}", result.toString());
+    assertTrue("Nothing expected", matcher.search("HERS").isEmpty());
+    assertTrue("Nothing expected", matcher.search("").isEmpty());
+  }
+
+  /**
+   * Test that case is ignored when requested.
+   */
+  @Test
+  public void testIgnoreCase() {
+    MultiLiteralMatcher matcher = new MultiLiteralMatcher(true);
+    matcher.add("ISBN", 0);
+    matcher.add("<Table", 1);
+    matcher.add("\u00c9t\u00e9", 2);
+    matcher.build();
+    assertEquals("Wrong literals found", "{0, 1, 2}", matcher.search("isbn <TABLE \u00e9T\u00c9").toString());
+    assertEquals("Wrong literals found", "{0}", matcher.search("xIsBnx").toString());
+  }
+
+  /**
+   * Test that the search stops once the maximum number of values is reached.
+   */
+  @Test
+  public void testMaxCount() {
+    MultiLiteralMatcher matcher = new MultiLiteralMatcher(false);
+    matcher.add("a", 0);
+    matcher.add("b", 1);
+    matcher.add("c", 2);
+    matcher.build();
+    BitSet result = new BitSet();
+    result.set(5);
+    matcher.search("abc", result, 3);
+    assertEquals("Search not stopped", "{0, 1, 5}", result.toString());
+    matcher.search("abc", result, 3);
+    assertEquals("Search not stopped", "{0, 1, 5}", result.toString());
+  }
+
+  /**
+   * Compare the automaton with a naive search on random literals and texts.
+   */
+  @Test
+  public void testRandomEquivalence() {
+    Random random = new Random(42);
+    for (int test = 0; test < TEST_COUNT; test++) {
+      boolean ignoreCase = random.nextBoolean();
+      String[] literals = new String[1 + random.nextInt(12)];
+      MultiLiteralMatcher matcher = new MultiLiteralMatcher(ignoreCase);
+      for (int i = 0; i < literals.length; i++) {
+        literals[i] = createString(random, 4);
+        matcher.add(literals[i], i / 2);
+      }
+      matcher.build();
+      for (int textNum = 0; textNum < 5; textNum++) {
+        String text = createString(random, 60);
+        BitSet expected = new BitSet();
+        for (int i = 0; i < literals.length; i++) {
+          boolean present = ignoreCase ?
+              fold(text).contains(fold(literals[i])) :
+              text.contains(literals[i]);
+          if (present) {
+            expected.set(i / 2);
+          }
+        }
+        assertEquals(
+            "Different results for " + text + " (ignore case: " + ignoreCase + ")",
+            expected, matcher.search(text));
+      }
+    }
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ *  WPCleaner: A tool to help on Wikipedia maintenance tasks.
+ *  Copyright (C) 2020  Nicolas Vervelle
+ *
+ *  See README.txt file for licensing information.
+ */
+
+package org.wikipediacleaner.utils.metrics;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+
+/**
+ * Test class for histograms.
+ */
+public class HistogramTest {
+
+  /**
+   * Small values are recorded exactly.
+   */
+  @Test
+  public void testSmallValues() {
+    Histogram histogram = new Histogram("test");
+    for (long value = 0; value < 16; value++) {
+      histogram.record(value);
+    }
+    assertEquals("Wrong count", 16, histogram.getCount());
+    assertEquals("Wrong sum", 120, histogram.getSum());
+    assertEquals("Wrong max", 15, histogram.getMax());
+    assertEquals("Wrong mean", 7, histogram.getMean());
+    for (int value = 0; value < 16; value++) {
+      assertEquals(
+          "Wrong percentile for " + value,
+          value, histogram.getPercentile((value + 1) * 100.0 / 16));
+    }
+  }
+
+  /**
+   * Percentiles give the upper bound of the bucket, limited by the maximum value.
+   */
+  @Test
+  public void testBucketBoundaries() {
+    Histogram histogram = new Histogram("test");
+    histogram.record(16);
+    assertEquals("Percentile above maximum", 16, histogram.getPercentile(50));
+    histogram.record(17);
+    histogram.record(100);
+    assertEquals("16 and 17 should share a bucket", 17, histogram.getPercentile(50));
+    assertEquals("Wrong percentile", 17, histogram.getPercentile(66));
+    assertEquals("Wrong percentile", 100, histogram.getPercentile(67));
+    histogram.record(18);
+    assertEquals("18 should start a new bucket", 19, histogram.getPercentile(75));
+
+    // Bucket of the largest possible value
+    histogram.record(Long.MAX_VALUE);
+    assertEquals("Wrong max", Long.MAX_VALUE, histogram.getMax());
+    assertEquals("Wrong percentile", Long.MAX_VALUE, histogram.getPercentile(100));
+  }
+
+  /**
+   * Percentiles are computed with a limited relative error.
+   */
+  @Test
+  public void testPercentiles() {
+    Histogram histogram = new Histogram("test");
+    for (long value = 1000; value >= 1; value--) {
+      histogram.record(value);
+    }
+    assertEquals("Wrong lowest percentile", 1, histogram.getPercentile(0));
+    assertEquals("Wrong highest percentile", 1000, histogram.getPercentile(100));
+    long[][] expected = { { 50, 500 }, { 90, 900 }, { 99, 990 } };
+    for (long[] values : expected) {
+      long percentile = histogram.getPercentile(values[0]);
+      assertTrue(
+          "Percentile " + values[0] + " too low: " + percentile,
+          percentile >= values[1]);
+      assertTrue(
+          "Percentile " + values[0] + " too high: " + percentile,
+          percentile <= values[1] * 1.125);
+    }
+  }
+
+  /**
+   * Negative values are recorded as 0 and reset clears everything.
+   */
+  @Test
+  public void testNegativeAndReset() {
+    Histogram histogram = new Histogram("test");
+    assertEquals("Wrong percentile when empty", 0, histogram.getPercentile(50));
+    assertEquals("Wrong mean when empty", 0, histogram.getMean());
+    histogram.record(-5);
+    assertEquals("Wrong count", 1, histogram.getCount());
+    assertEquals("Wrong sum", 0, histogram.getSum());
+    assertEquals("Wrong percentile", 0, histogram.getPercentile(100));
+    histogram.record(1000);
+    histogram.reset();
+    assertEquals("Wrong count after reset", 0, histogram.getCount());
+    assertEquals("Wrong sum after reset", 0, histogram.getSum());
+    assertEquals("Wrong max after reset", 0, histogram.getMax());
+    assertEquals("Wrong percentile after reset", 0, histogram.getPercentile(50));
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ *  WPCleaner: A tool to help on Wikipedia maintenance tasks.
+ *  Copyright (C) 2020  Nicolas Vervelle
+ *
+ *  See README.txt file for licensing information.
+ */
+
+package org.wikipediacleaner.utils.metrics;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+
+/**
+ * Test class for the registry of metrics.
+ */
+public class MetricsTest {
+
+  /**
+   * Metrics with the same name are shared.
+   */
+  @Test
+  public void testRegistry() {
+    Counter counter = Metrics.getCounter("test.registry.counter");
+    assertSame("Counter not shared", counter, Metrics.getCounter("test.registry.counter"));
+    assertNotSame("Counters not separated", counter, Metrics.getCounter("test.registry.other"));
+    assertEquals("Wrong name", "test.registry.counter", counter.getName());
+
+    Histogram histogram = Metrics.getHistogram("test.registry.histogram");
+    assertSame("Histogram not shared", histogram, Metrics.getHistogram("test.registry.histogram"));
+    assertEquals("Wrong name", "test.registry.histogram", histogram.getName());
+  }
+
+  /**
+   * Counters and histograms can be updated concurrently.
+   * 
+   * @throws InterruptedException Interrupted.
+   */
+  @Test
+  public void testConcurrentUpdates() throws InterruptedException {
+    final Counter counter = Metrics.getCounter("test.concurrent.counter");
+    final Histogram histogram = Metrics.getHistogram("test.concurrent.histogram");
+    counter.add(-counter.getValue());
+    final int threadCount = 8;
+    final int updates = 10000;
+    List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < threadCount; i++) {
+      final int offset = i;
+      Thread thread = new Thread(new Runnable() {
+
+        @Override
+        public void run() {
+          for (int j = 0; j < updates; j++) {
+            counter.increment();
+            histogram.record(offset);
+          }
+        }
+      });
+      threads.add(thread);
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals("Wrong counter value", threadCount * updates, counter.getValue());
+    assertEquals("Wrong histogram count", threadCount * updates, histogram.getCount());
+    assertEquals("Wrong histogram max", threadCount - 1, histogram.getMax());
+  }
+
+  /**
+   * The report contains all metrics, and reset clears them.
+   */
+  @Test
+  public void testReportAndReset() {
+    Metrics.getCounter("test.report.counter").add(42);
+    Metrics.getHistogram("test.report.histogram").record(10);
+    String report = Metrics.getReport();
+    assertTrue("Missing header", report.startsWith("type;name;count;"));
+    assertTrue("Missing counter", report.contains("counter;test.report.counter;42;"));
+    assertTrue("Missing histogram", report.contains("histogram;test.report.histogram;1;10;10;10;10;10;10\n"));
+
+    Metrics.reset();
+    assertEquals("Counter not reset", 0, Metrics.getCounter("test.report.counter").getValue());
+    assertEquals("Histogram not reset", 0, Metrics.getHistogram("test.report.histogram").getCount());
+  }
+}